@@ -7,9 +7,20 @@
 
 package org.jd.gui.api.feature;
 
+import java.util.function.IntConsumer;
+
 public interface ContentSearchable {
     boolean highlightText(String text, boolean caseSensitive);
 
+    /**
+     * Highlight 'text' without blocking: 'matchCountConsumer' is called on the event dispatch thread with the number
+     * of matches, or -1 if the text was found but the matches are not counted. It is not called if a new search
+     * starts before the end of this one.
+     */
+    default void highlightText(String text, boolean caseSensitive, IntConsumer matchCountConsumer) {
+        matchCountConsumer.accept(highlightText(text, caseSensitive) ? -1 : 0);
+    }
+
     void findNext(String text, boolean caseSensitive);
 
     void findPrevious(String text, boolean caseSensitive);
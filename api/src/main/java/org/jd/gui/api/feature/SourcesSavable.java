@@ -24,5 +24,11 @@ public interface SourcesSavable {
 
     interface Listener {
         void pathSaved(Path path);
+
+        /**
+         * Called when the content of 'path' could not be generated normally, for example when the decompilation of
+         * a class has been aborted: a fallback content has been written and the saving goes on.
+         */
+        default void pathFailed(Path path, String reason) {}
     }
 }
@@ -10,7 +10,14 @@ package org.jd.gui.spi;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.regex.Pattern;
 
 public interface SourceSaver {
@@ -36,11 +43,36 @@ public interface SourceSaver {
      */
     void saveContent(API api, Controller controller, Listener listener, Path rootPath, Path path, Container.Entry entry);
 
+    /**
+     * Save the content of 'entry' into a new archive file 'path', replacing the existing one.
+     */
+    default void saveArchive(API api, Controller controller, Listener listener, Path path, Container.Entry entry) throws IOException {
+        Files.deleteIfExists(path);
+
+        try {
+            URI uri = path.toUri();
+            URI archiveUri = new URI("jar:" + uri.getScheme(), uri.getHost(), uri.getPath() + "!/", null);
+
+            try (FileSystem archiveFs = FileSystems.newFileSystem(archiveUri, Collections.singletonMap("create", "true"))) {
+                Path archiveRootPath = archiveFs.getPath("/");
+                saveContent(api, controller, listener, archiveRootPath, archiveRootPath, entry);
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
     interface Controller {
         boolean isCancelled();
     }
 
     interface Listener {
         void pathSaved(Path path);
+
+        /**
+         * Called when the content of 'path' could not be generated normally, for example when the decompilation of
+         * a class has been aborted: a fallback content has been written and the saving goes on.
+         */
+        default void pathFailed(Path path, String reason) {}
     }
 }
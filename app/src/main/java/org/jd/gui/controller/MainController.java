@@ -315,7 +315,10 @@ public class MainController implements API {
 
     protected void onFindCriteriaChanged() {
         if (currentPage instanceof ContentSearchable) {
-            mainView.setFindBackgroundColor(((ContentSearchable)currentPage).highlightText(mainView.getFindText(), mainView.getFindCaseSensitive()));
+            ((ContentSearchable)currentPage).highlightText(mainView.getFindText(), mainView.getFindCaseSensitive(), matchCount -> {
+                mainView.setFindBackgroundColor(matchCount != 0);
+                mainView.setFindMatchCount(matchCount);
+            });
         }
     }
 
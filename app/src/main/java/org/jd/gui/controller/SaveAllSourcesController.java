@@ -14,9 +14,11 @@ import org.jd.gui.view.SaveAllSourcesView;
 
 import javax.swing.*;
 import java.io.File;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class SaveAllSourcesController implements SourcesSavable.Controller, SourcesSavable.Listener {
@@ -25,6 +27,7 @@ public class SaveAllSourcesController implements SourcesSavable.Controller, Sour
     protected boolean cancel;
     protected int counter;
     protected int mask;
+    protected List<String> failures = Collections.synchronizedList(new ArrayList<>());
 
     public SaveAllSourcesController(API api, JFrame mainFrame) {
         this.api = api;
@@ -44,6 +47,7 @@ public class SaveAllSourcesController implements SourcesSavable.Controller, Sour
 
             cancel = false;
             counter = 0;
+            failures.clear();
             mask = 2;
 
             while (fileCount > 64) {
@@ -54,25 +58,28 @@ public class SaveAllSourcesController implements SourcesSavable.Controller, Sour
             mask--;
 
             try {
+                // An existing file is replaced by the saver, which may reuse its content
                 Path path = Paths.get(file.toURI());
-                Files.deleteIfExists(path);
 
                 try {
                     savable.save(api, this, this, path);
                 } catch (Exception e) {
+                    // The saver restores the previous export, or keeps the partial one to resume it
                     ExceptionUtil.printStackTrace(e);
                     saveAllSourcesView.showActionFailedDialog();
                     cancel = true;
                 }
 
-                if (cancel) {
-                    Files.deleteIfExists(path);
-                }
+                // A cancelled export keeps the last complete archive: saving again into the same file resumes it
             } catch (Throwable t) {
                 ExceptionUtil.printStackTrace(t);
             }
 
             saveAllSourcesView.hide();
+
+            if (!cancel && !failures.isEmpty()) {
+                saveAllSourcesView.showFailedPathsDialog(new ArrayList<>(failures));
+            }
         });
     }
 
@@ -90,4 +97,9 @@ public class SaveAllSourcesController implements SourcesSavable.Controller, Sour
             saveAllSourcesView.updateProgressBar(counter);
         }
     }
+
+    @Override
+    public void pathFailed(Path path, String reason) {
+        failures.add(path + ": " + reason);
+    }
 }
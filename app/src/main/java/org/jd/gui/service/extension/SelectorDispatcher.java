@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.extension;
+
+import org.jd.gui.api.model.Container;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Dispatch table of the providers of a service, compiled once from their selectors "containerType:type:path", where
+ * 'containerType' is a container type or '*', 'type' is "file" or "dir", and 'path' is a path, "*&#47;name",
+ * "*.extension" or '*'.
+ * <p>
+ * The lookup of an entry tries the selectors of its container type, then the selectors of '*', in the order path,
+ * name, extension, '*'; the first provider whose path pattern matches, or without path pattern, is returned.
+ * {@link #getStrict(String, String, boolean)} tries the selectors of the given container type only. For each
+ * container type, type and extension, the providers to try are resolved at construction: a lookup is a hash probe
+ * on the extension, without allocation unless a path pattern has to be matched.
+ * <p>
+ * Thread safe.
+ */
+public class SelectorDispatcher<T> {
+    protected static final String ANY_CONTAINER_TYPE = "*";
+
+    protected HashMap<String, Route<T>[]> routes = new HashMap<>();
+    /**
+     * Routes of the container types without selector, indexed by type: 0 for "file", 1 for "dir"
+     */
+    protected Route<T>[] defaultRoutes;
+    /**
+     * Routes restricted to the selectors of each container type, '*' included
+     */
+    protected HashMap<String, Route<T>[]> strictRoutes = new HashMap<>();
+
+    public SelectorDispatcher(Collection<T> providers, Function<T, String[]> selectorsGetter, Function<T, Pattern> pathPatternGetter) {
+        HashMap<String, Level<T>[]> levels = new HashMap<>();
+
+        for (T provider : providers) {
+            String[] selectors = selectorsGetter.apply(provider);
+
+            if (selectors != null) {
+                // Path patterns may be compiled on each call
+                Pattern pathPattern = pathPatternGetter.apply(provider);
+
+                for (String selector : selectors) {
+                    int firstColon = selector.indexOf(':');
+                    int secondColon = selector.indexOf(':', firstColon + 1);
+
+                    if ((firstColon == -1) || (secondColon == -1)) {
+                        continue;
+                    }
+
+                    String containerType = selector.substring(0, firstColon);
+                    String type = selector.substring(firstColon + 1, secondColon);
+                    String path = selector.substring(secondColon + 1);
+                    int typeIndex = "dir".equals(type) ? 1 : "file".equals(type) ? 0 : -1;
+
+                    if (typeIndex != -1) {
+                        Level<T>[] containerTypeLevels = levels.computeIfAbsent(containerType, k -> newLevels());
+                        containerTypeLevels[typeIndex].add(path, provider, pathPattern);
+                    }
+                }
+            }
+        }
+
+        Level<T>[] anyLevels = levels.getOrDefault(ANY_CONTAINER_TYPE, newLevels());
+
+        defaultRoutes = newRoutes(null, anyLevels);
+        strictRoutes.put(ANY_CONTAINER_TYPE, defaultRoutes);
+
+        for (Map.Entry<String, Level<T>[]> entry : levels.entrySet()) {
+            if (!ANY_CONTAINER_TYPE.equals(entry.getKey())) {
+                routes.put(entry.getKey(), newRoutes(entry.getValue(), anyLevels));
+                strictRoutes.put(entry.getKey(), newRoutes(null, entry.getValue()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T> Level<T>[] newLevels() { return new Level[] { new Level<T>(), new Level<T>() }; }
+
+    @SuppressWarnings("unchecked")
+    protected static <T> Route<T>[] newRoutes(Level<T>[] levels, Level<T>[] anyLevels) {
+        Route<T>[] routes = new Route[2];
+
+        for (int i=0; i<2; i++) {
+            routes[i] = (levels == null) ? new Route<>(Collections.singletonList(anyLevels[i])) : new Route<>(Arrays.asList(levels[i], anyLevels[i]));
+        }
+
+        return routes;
+    }
+
+    public T get(Container.Entry entry) {
+        return get(entry.getContainer().getType(), entry.getPath(), entry.isDirectory());
+    }
+
+    public T get(String containerType, String path, boolean directory) {
+        Route<T>[] containerTypeRoutes = routes.get(containerType);
+
+        if (containerTypeRoutes == null) {
+            containerTypeRoutes = defaultRoutes;
+        }
+
+        return containerTypeRoutes[directory ? 1 : 0].get(path);
+    }
+
+    /**
+     * Lookup in the selectors of 'containerType' only, without falling back to the selectors of '*'.
+     *
+     * @return the provider, or null if no selector of 'containerType' matches
+     */
+    public T getStrict(String containerType, String path, boolean directory) {
+        Route<T>[] containerTypeRoutes = strictRoutes.get(containerType);
+        return (containerTypeRoutes == null) ? null : containerTypeRoutes[directory ? 1 : 0].get(path);
+    }
+
+    /**
+     * Providers of one selector, with a path pattern first in registration order, then the provider without path
+     * pattern.
+     */
+    protected static class Candidates<T> {
+        protected ArrayList<Pattern> patterns = new ArrayList<>();
+        protected ArrayList<T> patternProviders = new ArrayList<>();
+        protected T defaultProvider;
+
+        public void add(T provider, Pattern pathPattern) {
+            if (pathPattern != null) {
+                for (int i=0, size=patterns.size(); i<size; i++) {
+                    if (patterns.get(i).pattern().equals(pathPattern.pattern())) {
+                        patternProviders.set(i, provider);
+                        return;
+                    }
+                }
+                patterns.add(pathPattern);
+                patternProviders.add(provider);
+            } else {
+                defaultProvider = provider;
+            }
+        }
+
+        public boolean isPathDependent() { return !patterns.isEmpty(); }
+
+        public T match(String path) {
+            for (int i=0, size=patterns.size(); i<size; i++) {
+                if (patterns.get(i).matcher(path).matches()) {
+                    return patternProviders.get(i);
+                }
+            }
+            return defaultProvider;
+        }
+    }
+
+    /**
+     * Selectors of one container type and one type.
+     */
+    protected static class Level<T> {
+        protected HashMap<String, Candidates<T>> paths = new HashMap<>();
+        protected HashMap<String, Candidates<T>> names = new HashMap<>();
+        protected HashMap<String, Candidates<T>> extensions = new HashMap<>();
+        protected Candidates<T> any;
+
+        public void add(String path, T provider, Pattern pathPattern) {
+            Candidates<T> candidates;
+
+            if (path.equals("*")) {
+                if (any == null) {
+                    any = new Candidates<>();
+                }
+                candidates = any;
+            } else if (path.startsWith("*/")) {
+                candidates = names.computeIfAbsent(path.substring(2), k -> new Candidates<>());
+            } else if (path.startsWith("*.")) {
+                candidates = extensions.computeIfAbsent(path.substring(2), k -> new Candidates<>());
+            } else {
+                candidates = paths.computeIfAbsent(path, k -> new Candidates<>());
+            }
+
+            candidates.add(provider, pathPattern);
+        }
+    }
+
+    /**
+     * Resolved lookup for one container type and one type.
+     */
+    protected static class Route<T> {
+        protected List<Level<T>> levels;
+        /**
+         * Exact path and name selectors of all the levels, checked before the extension table
+         */
+        protected HashSet<String> paths = new HashSet<>();
+        protected String[] names;
+        protected String[] slashNames;
+        protected ExtensionTable<Chain<T>> extensionChains = new ExtensionTable<>();
+        protected Chain<T> defaultChain;
+
+        public Route(List<Level<T>> levels) {
+            this.levels = levels;
+
+            HashSet<String> names = new HashSet<>();
+            HashSet<String> extensions = new HashSet<>();
+
+            for (Level<T> level : levels) {
+                paths.addAll(level.paths.keySet());
+                names.addAll(level.names.keySet());
+                extensions.addAll(level.extensions.keySet());
+            }
+
+            this.names = names.toArray(new String[0]);
+            this.slashNames = new String[this.names.length];
+
+            for (int i=0; i<this.names.length; i++) {
+                slashNames[i] = '/' + this.names[i];
+            }
+
+            for (String extension : extensions) {
+                extensionChains.put(extension, newChain(extension));
+            }
+
+            defaultChain = newChain(null);
+        }
+
+        protected Chain<T> newChain(String extension) {
+            ArrayList<Candidates<T>> list = new ArrayList<>();
+
+            for (Level<T> level : levels) {
+                Candidates<T> candidates = (extension == null) ? null : level.extensions.get(extension);
+
+                if (candidates != null) {
+                    list.add(candidates);
+                }
+                if (level.any != null) {
+                    list.add(level.any);
+                }
+            }
+
+            return new Chain<>(list);
+        }
+
+        public T get(String path) {
+            if ((!paths.isEmpty() && paths.contains(path)) || matchesName(path)) {
+                return getByLevels(path);
+            }
+
+            int nameIndex = path.lastIndexOf('/') + 1;
+            int extensionIndex = path.lastIndexOf('.');
+            Chain<T> chain = null;
+
+            if (extensionIndex >= nameIndex) {
+                chain = extensionChains.get(path, extensionIndex + 1, path.length());
+            }
+
+            return ((chain != null) ? chain : defaultChain).get(path);
+        }
+
+        protected boolean matchesName(String path) {
+            for (int i=0; i<names.length; i++) {
+                if (path.endsWith(slashNames[i]) || path.equals(names[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Full lookup, for the paths having a path or name selector.
+         */
+        protected T getByLevels(String path) {
+            int nameIndex = path.lastIndexOf('/') + 1;
+            String name = path.substring(nameIndex);
+            int extensionIndex = name.lastIndexOf('.');
+            String extension = (extensionIndex == -1) ? null : name.substring(extensionIndex + 1);
+
+            for (Level<T> level : levels) {
+                T provider = match(level.paths.get(path), path);
+
+                if (provider == null) {
+                    provider = match(level.names.get(name), path);
+                }
+                if ((provider == null) && (extension != null)) {
+                    provider = match(level.extensions.get(extension), path);
+                }
+                if (provider == null) {
+                    provider = match(level.any, path);
+                }
+                if (provider != null) {
+                    return provider;
+                }
+            }
+
+            return null;
+        }
+
+        protected static <T> T match(Candidates<T> candidates, String path) {
+            return (candidates == null) ? null : candidates.match(path);
+        }
+    }
+
+    /**
+     * Candidates for an extension, in lookup order. Without path pattern, the provider is resolved once.
+     */
+    protected static class Chain<T> {
+        protected List<Candidates<T>> candidates;
+        protected boolean pathDependent;
+        protected T provider;
+
+        public Chain(List<Candidates<T>> candidates) {
+            this.candidates = candidates;
+
+            for (Candidates<T> c : candidates) {
+                if (c.isPathDependent()) {
+                    pathDependent = true;
+                    break;
+                }
+            }
+
+            if (!pathDependent) {
+                provider = match(null);
+            }
+        }
+
+        public T get(String path) { return pathDependent ? match(path) : provider; }
+
+        protected T match(String path) {
+            for (Candidates<T> c : candidates) {
+                T p = c.match(path);
+
+                if (p != null) {
+                    return p;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Open addressing hash table keyed by strings, probed with a region of a string.
+     */
+    protected static class ExtensionTable<V> {
+        protected String[] keys = new String[16];
+        protected Object[] values = new Object[16];
+        protected int size;
+
+        public void put(String key, V value) {
+            if ((size + 1) * 2 > keys.length) {
+                String[] oldKeys = keys;
+                Object[] oldValues = values;
+
+                keys = new String[oldKeys.length * 2];
+                values = new Object[oldKeys.length * 2];
+                size = 0;
+
+                for (int i=0; i<oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        insert(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+
+            insert(key, value);
+        }
+
+        protected void insert(String key, Object value) {
+            int mask = keys.length - 1;
+            int index = hash(key, 0, key.length()) & mask;
+
+            while (keys[index] != null) {
+                if (keys[index].equals(key)) {
+                    values[index] = value;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(String s, int start, int end) {
+            int length = end - start;
+            int mask = keys.length - 1;
+            int index = hash(s, start, end) & mask;
+            String key;
+
+            while ((key = keys[index]) != null) {
+                if ((key.length() == length) && key.regionMatches(0, s, start, length)) {
+                    return (V)values[index];
+                }
+                index = (index + 1) & mask;
+            }
+
+            return null;
+        }
+
+        protected static int hash(String s, int start, int end) {
+            int h = 0;
+
+            for (int i=start; i<end; i++) {
+                h = 31 * h + s.charAt(i);
+            }
+
+            return h ^ (h >>> 16);
+        }
+    }
+}
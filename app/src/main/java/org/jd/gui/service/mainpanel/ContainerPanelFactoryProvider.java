@@ -24,10 +24,6 @@ import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -120,22 +116,19 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
                     Files.createDirectories(parentPath);
                 }
 
-                URI uri = path.toUri();
-                URI archiveUri = new URI("jar:" + uri.getScheme(), uri.getHost(), uri.getPath() + "!/", null);
-
-                try (FileSystem archiveFs = FileSystems.newFileSystem(archiveUri, Collections.singletonMap("create", "true"))) {
-                    Path archiveRootPath = archiveFs.getPath("/");
-                    SourceSaver saver = api.getSourceSaver(entry);
-
-                    if (saver != null) {
-                        saver.saveContent(
-                            api,
-                            () -> controller.isCancelled(),
-                            (p) -> listener. pathSaved(p),
-                            archiveRootPath, archiveRootPath, entry);
-                    }
+                SourceSaver saver = api.getSourceSaver(entry);
+
+                if (saver != null) {
+                    saver.saveArchive(
+                        api,
+                        () -> controller.isCancelled(),
+                        new SourceSaver.Listener() {
+                            @Override public void pathSaved(Path p) { listener.pathSaved(p); }
+                            @Override public void pathFailed(Path p, String reason) { listener.pathFailed(p, reason); }
+                        },
+                        path, entry);
                 }
-            } catch (URISyntaxException|IOException e) {
+            } catch (IOException e) {
                 ExceptionUtil.printStackTrace(e);
             }
         }
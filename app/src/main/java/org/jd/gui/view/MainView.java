@@ -24,6 +24,7 @@ import javax.swing.event.ChangeListener;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import java.awt.*;
+import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyAdapter;
@@ -39,6 +40,8 @@ import static org.jd.gui.util.swing.SwingUtil.*;
 
 @SuppressWarnings("unchecked")
 public class MainView<T extends JComponent & UriGettable> implements UriOpenable, PreferencesChangeListener {
+    protected static final int FIND_DELAY = 150; // milliseconds
+
     protected History history;
     protected Consumer<File> openFilesCallback;
     protected JFrame mainFrame;
@@ -51,6 +54,8 @@ public class MainView<T extends JComponent & UriGettable> implements UriOpenable
     protected Box findPanel;
     protected JComboBox findComboBox;
     protected JCheckBox findCaseSensitive;
+    protected JLabel findMatchCountLabel;
+    protected Timer findTimer;
     protected Color findBackgroundColor;
     protected Color findErrorBackgroundColor;
 
@@ -101,9 +106,22 @@ public class MainView<T extends JComponent & UriGettable> implements UriOpenable
             findComboBox = new JComboBox();
             findComboBox.setEditable(true);
             JComponent editorComponent = (JComponent)findComboBox.getEditor().getEditorComponent();
-            editorComponent.addKeyListener(new KeyAdapter() {
+            // Search when the typing pauses
+            findTimer = new Timer(FIND_DELAY, new ActionListener() {
                 protected String lastStr = "";
 
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    String str = getFindText();
+                    if (! lastStr.equals(str)) {
+                        findCriteriaChangedCallback.run();
+                        lastStr = str;
+                    }
+                }
+            });
+            findTimer.setRepeats(false);
+            editorComponent.addKeyListener(new KeyAdapter() {
+
                 @Override
                 public void keyReleased(KeyEvent e) {
                     switch (e.getKeyCode()) {
@@ -123,11 +141,7 @@ public class MainView<T extends JComponent & UriGettable> implements UriOpenable
                             }
                             break;
                         default:
-                            str = getFindText();
-                            if (! lastStr.equals(str)) {
-                                findCriteriaChangedCallback.run();
-                                lastStr = str;
-                            }
+                            findTimer.restart();
                     }
                 }
             });
@@ -153,6 +167,9 @@ public class MainView<T extends JComponent & UriGettable> implements UriOpenable
             findCaseSensitive = new JCheckBox();
             findCaseSensitive.setAction(newAction("Case sensitive", true, findCaseSensitiveActionListener));
             findPanel.add(findCaseSensitive);
+            findPanel.add(Box.createHorizontalStrut(5));
+            findMatchCountLabel = new JLabel();
+            findPanel.add(findMatchCountLabel);
             findPanel.add(Box.createHorizontalGlue());
 
             IconButton findCloseButton = new IconButton(newAction(null, null, true, e -> findPanel.setVisible(false)));
@@ -368,6 +385,19 @@ public class MainView<T extends JComponent & UriGettable> implements UriOpenable
         });
     }
 
+    /**
+     * @param matchCount number of matches, or -1 if unknown
+     */
+    public void setFindMatchCount(int matchCount) {
+        invokeLater(() -> {
+            if (matchCount < 0) {
+                findMatchCountLabel.setText("");
+            } else {
+                findMatchCountLabel.setText((matchCount == 1) ? "1 match" : matchCount + " matches");
+            }
+        });
+    }
+
     public <T extends JComponent & UriGettable> void addMainPanel(String title, Icon icon, String tip, T component) {
         invokeLater(() -> {
             mainTabbedPanel.addPage(title, icon, tip, component);
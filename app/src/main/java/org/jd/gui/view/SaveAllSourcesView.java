@@ -10,11 +10,13 @@ package org.jd.gui.view;
 import org.jd.gui.util.swing.SwingUtil;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.util.List;
 
 public class SaveAllSourcesView {
     protected JDialog saveAllSourcesDialog;
@@ -112,6 +114,19 @@ public class SaveAllSourcesView {
         });
     }
 
+    public void showFailedPathsDialog(List<String> failures) {
+        SwingUtil.invokeLater(() -> {
+            JTextArea textArea = new JTextArea(String.join("\n", failures));
+            textArea.setEditable(false);
+            JScrollPane scrollPane = new JScrollPane(textArea);
+            scrollPane.setPreferredSize(new Dimension(600, 200));
+            JOptionPane.showMessageDialog(
+                saveAllSourcesDialog.getParent(),
+                new Object[] { failures.size() + " class(es) could not be decompiled, their skeletons have been saved:", scrollPane },
+                "Save All Sources", JOptionPane.WARNING_MESSAGE);
+        });
+    }
+
     public void showActionFailedDialog() {
         SwingUtil.invokeLater(() -> {
             JOptionPane.showMessageDialog(saveAllSourcesDialog, "'Save All Sources' action failed.", "Error", JOptionPane.ERROR_MESSAGE);
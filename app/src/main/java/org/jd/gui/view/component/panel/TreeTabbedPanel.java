@@ -32,6 +32,8 @@ import java.util.Enumeration;
 import java.util.Map;
 
 public class TreeTabbedPanel<T extends DefaultMutableTreeNode & ContainerEntryGettable & UriGettable> extends JPanel implements UriGettable, UriOpenable, PageChangeable, PageClosable, PreferencesChangeListener {
+    protected static final int ICON_HEIGHT = 16;
+
     protected API api;
     protected URI uri;
     protected Tree tree;
@@ -47,17 +49,22 @@ public class TreeTabbedPanel<T extends DefaultMutableTreeNode & ContainerEntryGe
         this.api = api;
         this.uri = uri;
 
-        tree = new Tree();
-        tree.setShowsRootHandles(true);
-        tree.setMinimumSize(new Dimension(150, 10));
-        tree.setExpandsSelectedPaths(true);
-        tree.setCellRenderer(new TreeNodeRenderer() {
+        TreeNodeRenderer renderer = new TreeNodeRenderer() {
             @Override
             public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
                 // Always render the left tree with focus
                 return super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, true);
             }
-        });
+        };
+
+        tree = new Tree();
+        tree.setShowsRootHandles(true);
+        tree.setMinimumSize(new Dimension(150, 10));
+        tree.setExpandsSelectedPaths(true);
+        tree.setCellRenderer(renderer);
+        // Fixed row height and large model: only the displayed rows are measured, and their nodes made
+        tree.setRowHeight(Math.max(ICON_HEIGHT, renderer.getTreeCellRendererComponent(tree, new DefaultMutableTreeNode("Wg"), false, false, true, 0, false).getPreferredSize().height));
+        tree.setLargeModel(true);
         tree.addTreeSelectionListener(e -> treeNodeChanged((T)tree.getLastSelectedPathComponent()));
         tree.addTreeExpansionListener(new TreeExpansionListener() {
             @Override
@@ -65,10 +72,13 @@ public class TreeTabbedPanel<T extends DefaultMutableTreeNode & ContainerEntryGe
                 TreeNode node = (TreeNode)e.getPath().getLastPathComponent();
                 if (node instanceof TreeNodeExpandable) {
                     TreeNodeExpandable tne = (TreeNodeExpandable)node;
-                    int oldHashCode = createHashCode(node.children());
+                    // Compare the first children only: enumerating all children would make all their nodes
+                    int oldChildCount = node.getChildCount();
+                    Object oldFirstChild = (oldChildCount > 0) ? node.getChildAt(0) : null;
                     tne.populateTreeNode(api);
-                    int newHashCode = createHashCode(node.children());
-                    if (oldHashCode != newHashCode) {
+                    int newChildCount = node.getChildCount();
+                    Object newFirstChild = (newChildCount > 0) ? node.getChildAt(0) : null;
+                    if ((oldChildCount != newChildCount) || (oldFirstChild != newFirstChild)) {
                         ((DefaultTreeModel)tree.getModel()).reload(node);
                     }
                 }
@@ -116,22 +126,6 @@ public class TreeTabbedPanel<T extends DefaultMutableTreeNode & ContainerEntryGe
         add(splitter, BorderLayout.CENTER);
     }
 
-    protected static int createHashCode(Enumeration enumeration) {
-        int hashCode = 1;
-
-        while (enumeration.hasMoreElements()) {
-            hashCode *= 31;
-
-            Object element = enumeration.nextElement();
-
-            if (element != null) {
-                hashCode += element.hashCode();
-            }
-        }
-
-        return hashCode;
-    }
-
     @SuppressWarnings("unchecked")
     protected void treeNodeChanged(T node) {
         if (treeNodeChangedEnabled && (node != null)) {
@@ -0,0 +1,160 @@
+package org.jd.gui.service.extension;
+
+import junit.framework.TestCase;
+import org.jd.gui.api.model.Container;
+import org.junit.Assert;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+public class SelectorDispatcherTest extends TestCase {
+
+    protected static class Provider {
+        protected String name;
+        protected String[] selectors;
+        protected Pattern pathPattern;
+
+        public Provider(String name, String pathPattern, String... selectors) {
+            this.name = name;
+            this.selectors = selectors;
+            this.pathPattern = (pathPattern == null) ? null : Pattern.compile(pathPattern);
+        }
+
+        @Override
+        public String toString() { return name; }
+    }
+
+    protected static SelectorDispatcher<Provider> newDispatcher(Provider... providers) {
+        return new SelectorDispatcher<>(Arrays.asList(providers), p -> p.selectors, p -> p.pathPattern);
+    }
+
+    protected static Container.Entry newEntry(String containerType, String path, boolean directory) {
+        Container container = new Container() {
+            @Override public String getType() { return containerType; }
+            @Override public Container.Entry getRoot() { return null; }
+            @Override public void onClose() {}
+        };
+
+        return new Container.Entry() {
+            @Override public Container getContainer() { return container; }
+            @Override public Container.Entry getParent() { return null; }
+            @Override public URI getUri() { return URI.create("file:/test/" + path); }
+            @Override public String getPath() { return path; }
+            @Override public boolean isDirectory() { return directory; }
+            @Override public long length() { return 0; }
+            @Override public InputStream getInputStream() { return null; }
+            @Override public Collection<Container.Entry> getChildren() { return Collections.emptyList(); }
+        };
+    }
+
+    public void testPriority() {
+        Provider any = new Provider("any", null, "*:file:*");
+        Provider extension = new Provider("extension", null, "*:file:*.xml");
+        Provider name = new Provider("name", null, "*:file:*/web.xml");
+        Provider path = new Provider("path", null, "*:file:WEB-INF/web.xml");
+        SelectorDispatcher<Provider> dispatcher = newDispatcher(any, extension, name, path);
+
+        Assert.assertSame(path, dispatcher.get("war", "WEB-INF/web.xml", false));
+        Assert.assertSame(name, dispatcher.get("war", "META-INF/web.xml", false));
+        Assert.assertSame(name, dispatcher.get("war", "web.xml", false));
+        Assert.assertSame(extension, dispatcher.get("war", "META-INF/context.xml", false));
+        Assert.assertSame(any, dispatcher.get("war", "META-INF/MANIFEST.MF", false));
+        // Extension of the name only
+        Assert.assertSame(any, dispatcher.get("war", "a.xml/README", false));
+        Assert.assertSame(any, dispatcher.get("war", "a.xml.bak", false));
+    }
+
+    public void testContainerTypeBeforeAny() {
+        Provider any = new Provider("any", null, "*:file:*.class");
+        Provider jar = new Provider("jar", null, "jar:file:*");
+        SelectorDispatcher<Provider> dispatcher = newDispatcher(any, jar);
+
+        // All the selectors of the container type are tried before the selectors of '*'
+        Assert.assertSame(jar, dispatcher.get("jar", "org/test/A.class", false));
+        Assert.assertSame(jar, dispatcher.get(newEntry("jar", "org/test/A.class", false)));
+        Assert.assertSame(any, dispatcher.get("war", "org/test/A.class", false));
+        // Unknown container type
+        Assert.assertSame(any, dispatcher.get(newEntry("unknown", "org/test/A.class", false)));
+        Assert.assertNull(dispatcher.get("unknown", "org/test/A.txt", false));
+
+        // Strict lookup: no fallback to '*'
+        Assert.assertSame(jar, dispatcher.getStrict("jar", "org/test/A.class", false));
+        Assert.assertNull(dispatcher.getStrict("war", "org/test/A.class", false));
+        Assert.assertSame(any, dispatcher.getStrict("*", "org/test/A.class", false));
+        Assert.assertNull(dispatcher.getStrict("jar", "org/test", true));
+    }
+
+    public void testPathPatterns() {
+        Provider standard = new Provider("standard", null, "*:file:*.xml");
+        Provider maven = new Provider("maven", ".*/pom\\.xml", "*:file:*.xml");
+        Provider spring = new Provider("spring", ".*/spring/.*", "*:file:*.xml");
+        SelectorDispatcher<Provider> dispatcher = newDispatcher(standard, maven, spring);
+
+        // Providers with a matching path pattern first, in registration order
+        Assert.assertSame(maven, dispatcher.get("jar", "META-INF/maven/pom.xml", false));
+        Assert.assertSame(spring, dispatcher.get("jar", "META-INF/spring/beans.xml", false));
+        Assert.assertSame(maven, dispatcher.get("jar", "META-INF/spring/pom.xml", false));
+        Assert.assertSame(standard, dispatcher.get("jar", "META-INF/beans.xml", false));
+
+        // Same pattern: the last provider replaces the previous one
+        Provider maven2 = new Provider("maven2", ".*/pom\\.xml", "*:file:*.xml");
+        dispatcher = newDispatcher(standard, maven, maven2);
+
+        Assert.assertSame(maven2, dispatcher.get("jar", "META-INF/maven/pom.xml", false));
+
+        // No default: the next candidates are tried
+        Provider any = new Provider("any", null, "*:file:*");
+        dispatcher = newDispatcher(maven, any);
+
+        Assert.assertSame(maven, dispatcher.get("jar", "META-INF/maven/pom.xml", false));
+        Assert.assertSame(any, dispatcher.get("jar", "META-INF/beans.xml", false));
+    }
+
+    public void testDirectory() {
+        Provider file = new Provider("file", null, "*:file:*");
+        Provider dir = new Provider("dir", null, "*:dir:*");
+        Provider metaInf = new Provider("metaInf", null, "jar:dir:META-INF");
+        SelectorDispatcher<Provider> dispatcher = newDispatcher(file, dir, metaInf);
+
+        Assert.assertSame(file, dispatcher.get("jar", "META-INF", false));
+        Assert.assertSame(metaInf, dispatcher.get("jar", "META-INF", true));
+        Assert.assertSame(metaInf, dispatcher.get(newEntry("jar", "META-INF", true)));
+        Assert.assertSame(dir, dispatcher.get("jar", "org/test", true));
+        Assert.assertSame(dir, dispatcher.get("war", "META-INF", true));
+
+        // Invalid selectors are ignored
+        dispatcher = newDispatcher(new Provider("invalid", null, "*:*:*", "*:file", "*"));
+
+        Assert.assertNull(dispatcher.get("jar", "META-INF", false));
+        Assert.assertNull(dispatcher.get("jar", "META-INF", true));
+    }
+
+    public void testExtensionTable() {
+        SelectorDispatcher.ExtensionTable<Integer> table = new SelectorDispatcher.ExtensionTable<>();
+
+        // Enough keys to grow the table
+        for (int i=0; i<100; i++) {
+            table.put("e" + i, i);
+        }
+        table.put("class", -1);
+        table.put("class", -2);
+
+        String path = "org/test/A.class.e42";
+
+        // Probed by a region of a string, without substring
+        Assert.assertEquals(Integer.valueOf(-2), table.get(path, 11, 16));
+        Assert.assertEquals(Integer.valueOf(42), table.get(path, 17, path.length()));
+        Assert.assertNull(table.get(path, 11, 15));
+        Assert.assertNull(table.get(path, 10, 16));
+        Assert.assertNull(table.get(path, 17, 17));
+
+        for (int i=0; i<100; i++) {
+            String s = "x.e" + i;
+            Assert.assertEquals(Integer.valueOf(i), table.get(s, 2, s.length()));
+        }
+    }
+}
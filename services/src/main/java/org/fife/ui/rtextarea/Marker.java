@@ -9,6 +9,8 @@ package org.fife.ui.rtextarea;
 
 import org.fife.ui.rsyntaxtextarea.DocumentRange;
 
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Highlighter;
 import java.util.List;
 
 /*
@@ -23,6 +25,17 @@ public class Marker {
         textArea.markAll(ranges);
     }
 
+    /**
+     * Add "mark all" highlights without notifying the listeners, unlike 'markAll'.
+     */
+    public static void addMarkAllHighlights(RTextArea textArea, List<DocumentRange> ranges, Highlighter.HighlightPainter painter) throws BadLocationException {
+        RTextAreaHighlighter highlighter = (RTextAreaHighlighter)textArea.getHighlighter();
+
+        for (DocumentRange range : ranges) {
+            highlighter.addMarkAllHighlight(range.getStartOffset(), range.getEndOffset(), painter);
+        }
+    }
+
     public static void clearMarkAllHighlights(RTextArea textArea) {
         textArea.clearMarkAllHighlights();
     }
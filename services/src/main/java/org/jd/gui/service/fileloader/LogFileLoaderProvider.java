@@ -8,10 +8,14 @@
 package org.jd.gui.service.fileloader;
 
 import org.jd.gui.api.API;
-import org.jd.gui.util.io.TextReader;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.MappedFileByteSource;
+import org.jd.gui.util.io.PagedText;
 import org.jd.gui.view.component.LogPage;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 
 public class LogFileLoaderProvider extends ZipFileLoaderProvider {
     protected static final String[] EXTENSIONS = { "log" };
@@ -26,7 +30,12 @@ public class LogFileLoaderProvider extends ZipFileLoaderProvider {
 
     @Override
     public boolean load(API api, File file) {
-        api.addPanel(file.getName(), null, "Location: " + file.getAbsolutePath(), new LogPage(api, file.toURI(), TextReader.getText(file)));
-        return true;
+        try {
+            api.addPanel(file.getName(), null, "Location: " + file.getAbsolutePath(), new LogPage(api, file.toURI(), new PagedText(new MappedFileByteSource(file.toPath()), Charset.defaultCharset())));
+            return true;
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+            return false;
+        }
     }
 }
@@ -12,6 +12,7 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.model.container.JarContainer;
+import org.jd.gui.util.container.JarContainerEntryUtil;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.objectweb.asm.*;
 import org.objectweb.asm.signature.SignatureReader;
@@ -41,6 +42,7 @@ public class ClassFileIndexerProvider extends AbstractIndexerProvider {
     protected HashSet<String> stringSet = new HashSet<>();
     protected HashSet<String> superTypeNameSet = new HashSet<>();
     protected HashSet<String> descriptorSet = new HashSet<>();
+    protected HashSet<String> innerTypeNameSet = new HashSet<>();
 
     protected ClassIndexer classIndexer = new ClassIndexer();
     protected SignatureIndexer signatureIndexer = new SignatureIndexer();
@@ -71,6 +73,7 @@ public class ClassFileIndexerProvider extends AbstractIndexerProvider {
         stringSet.clear();
         superTypeNameSet.clear();
         descriptorSet.clear();
+        innerTypeNameSet.clear();
 
         try (InputStream inputStream = entry.getInputStream()) {
             byte[] bytes = ByteStreams.toByteArray(inputStream);
@@ -152,6 +155,9 @@ public class ClassFileIndexerProvider extends AbstractIndexerProvider {
             addToIndexes(indexes, "fieldReferences", fieldReferenceSet, entry);
             addToIndexes(indexes, "strings", stringSet, entry);
 
+            // Record inner types for the package nodes
+            JarContainerEntryUtil.addInnerTypes(entry, typeName, innerTypeNameSet);
+
             // Populate map [super type name : [sub type name]]
             if (superTypeNameSet.size() > 0) {
                 Map<String, Collection> index = indexes.getIndex("subTypeNames");
@@ -190,6 +196,11 @@ public class ClassFileIndexerProvider extends AbstractIndexerProvider {
             }
         }
 
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            innerTypeNameSet.add(name);
+        }
+
         @Override
         public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
             descriptorSet.add(desc);
@@ -7,11 +7,10 @@
 
 package org.jd.gui.service.indexer;
 
-import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
-import org.jd.gui.util.io.TextReader;
 import org.jd.gui.util.xml.AbstractXmlPathFinder;
+import org.jd.gui.util.xml.XmlPathMatcher;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -19,13 +18,17 @@ import java.util.Map;
 
 public class WebXmlFileIndexerProvider extends XmlBasedFileIndexerProvider {
 
+    protected static final XmlPathMatcher PATH_MATCHER = new XmlPathMatcher(Arrays.asList(
+        "web-app/filter/filter-class",
+        "web-app/listener/listener-class",
+        "web-app/servlet/servlet-class"
+    ));
+
     @Override public String[] getSelectors() { return appendSelectors("*:file:WEB-INF/web.xml"); }
 
     @Override
-    public void index(API api, Container.Entry entry, Indexes indexes) {
-        super.index(api, entry, indexes);
-
-        new WebXmlPathFinder(entry, indexes).find(TextReader.getText(entry.getInputStream()));
+    protected XmlPathMatcher.Matching newPathMatching(Container.Entry entry, Indexes indexes) {
+        return new WebXmlPathFinder(entry, indexes).newMatching();
     }
 
     protected static class WebXmlPathFinder extends AbstractXmlPathFinder {
@@ -33,11 +36,7 @@ public class WebXmlFileIndexerProvider extends XmlBasedFileIndexerProvider {
         Map<String, Collection> index;
 
         public WebXmlPathFinder(Container.Entry entry, Indexes indexes) {
-            super(Arrays.asList(
-                "web-app/filter/filter-class",
-                "web-app/listener/listener-class",
-                "web-app/servlet/servlet-class"
-            ));
+            super(PATH_MATCHER);
             this.entry = entry;
             this.index = indexes.getIndex("typeReferences");
         }
@@ -11,6 +11,7 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.xml.XmlPathMatcher;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -24,8 +25,7 @@ public class XmlBasedFileIndexerProvider extends AbstractIndexerProvider {
     protected XMLInputFactory factory;
 
     public XmlBasedFileIndexerProvider() {
-        factory = XMLInputFactory.newInstance();
-        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory = XmlPathMatcher.getInputFactory();
     }
 
     @Override public String[] getSelectors() { return appendSelectors("*:file:*.xsl", "*:file:*.xslt", "*:file:*.xsd"); }
@@ -34,6 +34,7 @@ public class XmlBasedFileIndexerProvider extends AbstractIndexerProvider {
     @SuppressWarnings("unchecked")
     public void index(API api, Container.Entry entry, Indexes indexes) {
         HashSet<String> stringSet = new HashSet<>();
+        XmlPathMatcher.Matching matching = newPathMatching(entry, indexes);
         XMLStreamReader reader = null;
 
         try {
@@ -88,6 +89,10 @@ public class XmlBasedFileIndexerProvider extends AbstractIndexerProvider {
                         }
                         break;
                 }
+
+                if (matching != null) {
+                    matching.next(reader);
+                }
             }
         } catch (Exception e) {
             ExceptionUtil.printStackTrace(e);
@@ -109,4 +114,9 @@ public class XmlBasedFileIndexerProvider extends AbstractIndexerProvider {
             }
         }
     }
+
+    /**
+     * @return the matching of the element paths to index in the same pass as the strings, or null
+     */
+    protected XmlPathMatcher.Matching newPathMatching(Container.Entry entry, Indexes indexes) { return null; }
 }
@@ -8,27 +8,62 @@
 package org.jd.gui.service.preferencespanel;
 
 import org.jd.gui.spi.PreferencesPanel;
+import org.jd.gui.util.decompiler.DecompilationWatchdog;
+import org.jd.gui.util.decompiler.RemoteDecompilerPool;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.util.Map;
 
-public class ClassFileDecompilerPreferencesProvider extends JPanel implements PreferencesPanel {
+public class ClassFileDecompilerPreferencesProvider extends JPanel implements PreferencesPanel, DocumentListener {
     protected static final String ESCAPE_UNICODE_CHARACTERS = "ClassFileDecompilerPreferences.escapeUnicodeCharacters";
     protected static final String REALIGN_LINE_NUMBERS = "ClassFileDecompilerPreferences.realignLineNumbers";
+    protected static final String TIMEOUT = DecompilationWatchdog.TIMEOUT;
+    protected static final String ALLOCATION_BUDGET = DecompilationWatchdog.ALLOCATION_BUDGET;
+    protected static final String CHILD_PROCESSES = RemoteDecompilerPool.CHILD_PROCESSES;
+    protected static final String CHILD_HEAP_SIZE = RemoteDecompilerPool.CHILD_HEAP_SIZE;
 
     protected PreferencesPanel.PreferencesPanelChangeListener listener = null;
     protected JCheckBox escapeUnicodeCharactersCheckBox;
     protected JCheckBox realignLineNumbersCheckBox;
+    protected JTextField timeoutTextField;
+    protected JTextField allocationBudgetTextField;
+    protected JTextField childProcessesTextField;
+    protected JTextField childHeapSizeTextField;
+    protected Color errorBackgroundColor = Color.RED;
+    protected Color defaultBackgroundColor;
 
     public ClassFileDecompilerPreferencesProvider() {
         super(new GridLayout(0,1));
 
         escapeUnicodeCharactersCheckBox = new JCheckBox("Escape unicode characters");
         realignLineNumbersCheckBox = new JCheckBox("Realign line numbers");
+        timeoutTextField = new JTextField();
+        timeoutTextField.getDocument().addDocumentListener(this);
+        allocationBudgetTextField = new JTextField();
+        allocationBudgetTextField.getDocument().addDocumentListener(this);
+        childProcessesTextField = new JTextField();
+        childProcessesTextField.getDocument().addDocumentListener(this);
+        childHeapSizeTextField = new JTextField();
+        childHeapSizeTextField.getDocument().addDocumentListener(this);
 
         add(escapeUnicodeCharactersCheckBox);
         add(realignLineNumbersCheckBox);
+        add(newTextFieldPanel("Timeout per class in seconds (0 = none): ", timeoutTextField));
+        add(newTextFieldPanel("Allocation budget per class in MB (0 = none): ", allocationBudgetTextField));
+        add(newTextFieldPanel("Child decompiler processes (0 = none): ", childProcessesTextField));
+        add(newTextFieldPanel("Heap size per child process in MB: ", childHeapSizeTextField));
+
+        defaultBackgroundColor = timeoutTextField.getBackground();
+    }
+
+    protected JPanel newTextFieldPanel(String label, JTextField textField) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JLabel(label), BorderLayout.WEST);
+        panel.add(textField, BorderLayout.CENTER);
+        return panel;
     }
 
     // --- PreferencesPanel --- //
@@ -36,7 +71,9 @@ public class ClassFileDecompilerPreferencesProvider extends JPanel implements Pr
     @Override public String getPreferencesPanelTitle() { return "Class file"; }
     @Override public JComponent getPanel() { return this; }
 
-    @Override public void init(Color errorBackgroundColor) {}
+    @Override public void init(Color errorBackgroundColor) {
+        this.errorBackgroundColor = errorBackgroundColor;
+    }
 
     @Override public boolean isActivated() { return true; }
 
@@ -44,15 +81,61 @@ public class ClassFileDecompilerPreferencesProvider extends JPanel implements Pr
     public void loadPreferences(Map<String, String> preferences) {
         escapeUnicodeCharactersCheckBox.setSelected("true".equals(preferences.get(ESCAPE_UNICODE_CHARACTERS)));
         realignLineNumbersCheckBox.setSelected("true".equals(preferences.get(REALIGN_LINE_NUMBERS)));
+
+        String timeout = preferences.get(TIMEOUT);
+        String allocationBudget = preferences.get(ALLOCATION_BUDGET);
+
+        timeoutTextField.setText((timeout != null) ? timeout : String.valueOf(DecompilationWatchdog.DEFAULT_TIMEOUT));
+        allocationBudgetTextField.setText((allocationBudget != null) ? allocationBudget : String.valueOf(DecompilationWatchdog.DEFAULT_ALLOCATION_BUDGET));
+
+        String childProcesses = preferences.get(CHILD_PROCESSES);
+        String childHeapSize = preferences.get(CHILD_HEAP_SIZE);
+
+        childProcessesTextField.setText((childProcesses != null) ? childProcesses : String.valueOf(RemoteDecompilerPool.DEFAULT_CHILD_PROCESSES));
+        childHeapSizeTextField.setText((childHeapSize != null) ? childHeapSize : String.valueOf(RemoteDecompilerPool.DEFAULT_CHILD_HEAP_SIZE));
     }
 
     @Override
     public void savePreferences(Map<String, String> preferences) {
         preferences.put(ESCAPE_UNICODE_CHARACTERS, Boolean.toString(escapeUnicodeCharactersCheckBox.isSelected()));
         preferences.put(REALIGN_LINE_NUMBERS, Boolean.toString(realignLineNumbersCheckBox.isSelected()));
+        preferences.put(TIMEOUT, timeoutTextField.getText().trim());
+        preferences.put(ALLOCATION_BUDGET, allocationBudgetTextField.getText().trim());
+        preferences.put(CHILD_PROCESSES, childProcessesTextField.getText().trim());
+        preferences.put(CHILD_HEAP_SIZE, childHeapSizeTextField.getText().trim());
     }
 
-    @Override public boolean arePreferencesValid() { return true; }
+    @Override public boolean arePreferencesValid() {
+        return isValid(timeoutTextField) && isValid(allocationBudgetTextField) && isValid(childProcessesTextField) && isValid(childHeapSizeTextField, 16);
+    }
 
-    @Override public void addPreferencesChangeListener(PreferencesPanel.PreferencesPanelChangeListener listener) {}
+    protected boolean isValid(JTextField textField) { return isValid(textField, 0); }
+
+    protected boolean isValid(JTextField textField, int minimum) {
+        try {
+            return Integer.parseInt(textField.getText().trim()) >= minimum;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override public void addPreferencesChangeListener(PreferencesPanel.PreferencesPanelChangeListener listener) {
+        this.listener = listener;
+    }
+
+    // --- DocumentListener --- //
+    @Override public void insertUpdate(DocumentEvent e) { onTextChange(); }
+    @Override public void removeUpdate(DocumentEvent e) { onTextChange(); }
+    @Override public void changedUpdate(DocumentEvent e) { onTextChange(); }
+
+    public void onTextChange() {
+        timeoutTextField.setBackground(isValid(timeoutTextField) ? defaultBackgroundColor : errorBackgroundColor);
+        allocationBudgetTextField.setBackground(isValid(allocationBudgetTextField) ? defaultBackgroundColor : errorBackgroundColor);
+        childProcessesTextField.setBackground(isValid(childProcessesTextField) ? defaultBackgroundColor : errorBackgroundColor);
+        childHeapSizeTextField.setBackground(isValid(childHeapSizeTextField, 16) ? defaultBackgroundColor : errorBackgroundColor);
+
+        if (listener != null) {
+            listener.preferencesPanelChanged(this);
+        }
+    }
 }
@@ -16,7 +16,8 @@ public class JavaIdentifier {
     private boolean isInitMethod = false;
     private final String[] fullNameArray = new String[3];
 
-    private String alias;
+    // set on the EDT, read by the decompiler workers
+    private volatile String alias;
     private String comment;
 
     static String makeFullName(String internalClassName) {
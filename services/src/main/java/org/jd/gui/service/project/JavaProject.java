@@ -4,6 +4,7 @@ import com.google.common.base.Strings;
 import com.google.common.io.ByteStreams;
 import com.google.gson.*;
 import com.google.gson.stream.JsonWriter;
+import org.jd.gui.util.collection.SymbolKeyMap;
 
 import javax.swing.*;
 import java.io.*;
@@ -18,6 +19,8 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
 /**
@@ -25,7 +28,12 @@ import java.util.function.Consumer;
  */
 public class JavaProject {
 
-    private final Map<String, JavaIdentifier> identifierMap = new HashMap<>();
+    private final SymbolKeyMap<JavaIdentifier> identifierMap = new SymbolKeyMap<>('#');
+    /**
+     * guards {@link #identifierMap}: identifiers are looked up by the decompiler workers while the indexer and the
+     * EDT add them
+     */
+    private final ReadWriteLock identifierLock = new ReentrantReadWriteLock();
 
     private final Map<String, Consumer<JavaIdentifier>> aliasChangedListener = new HashMap<>();
 
@@ -91,15 +99,30 @@ public class JavaProject {
     }
 
     public void addIdentifier(JavaIdentifier identifier) {
-        this.identifierMap.putIfAbsent(identifier.getFullName(), identifier);
+        this.identifierLock.writeLock().lock();
+        try {
+            this.identifierMap.putIfAbsent(identifier.getFullName(), identifier);
+        } finally {
+            this.identifierLock.writeLock().unlock();
+        }
     }
 
     public JavaIdentifier getIdentifier(String fullName) {
-        return this.identifierMap.get(fullName);
+        this.identifierLock.readLock().lock();
+        try {
+            return this.identifierMap.get(fullName);
+        } finally {
+            this.identifierLock.readLock().unlock();
+        }
     }
 
     public JavaIdentifier getIdentifier(String internalClassName, String memberName, String memberDescriptor) {
-        return this.getIdentifier(JavaIdentifier.makeFullName(internalClassName, memberName, memberDescriptor));
+        this.identifierLock.readLock().lock();
+        try {
+            return this.identifierMap.get(internalClassName, memberName, memberDescriptor);
+        } finally {
+            this.identifierLock.readLock().unlock();
+        }
     }
 
     public void addIdentifierAliasListener(String key, Consumer<JavaIdentifier> listener) {
@@ -151,20 +174,25 @@ public class JavaProject {
                         fullNameArray.get(2).getAsString()
                     );
                 }
-                this.identifierMap.compute(customId.getFullName(), (key, id) -> {
-                    if (id == null) {
-                        id = customId;
-                    }
-                    JsonElement alias = obj.get("alias");
-                    if (alias != null) {
-                        id.setAlias(alias.getAsString());
-                    }
-                    JsonElement comment = obj.get("comment");
-                    if (comment != null) {
-                        id.setComment(comment.getAsString());
-                    }
-                    return id;
-                });
+                this.identifierLock.writeLock().lock();
+                try {
+                    this.identifierMap.compute(customId.getFullName(), (key, id) -> {
+                        if (id == null) {
+                            id = customId;
+                        }
+                        JsonElement alias = obj.get("alias");
+                        if (alias != null) {
+                            id.setAlias(alias.getAsString());
+                        }
+                        JsonElement comment = obj.get("comment");
+                        if (comment != null) {
+                            id.setComment(comment.getAsString());
+                        }
+                        return id;
+                    });
+                } finally {
+                    this.identifierLock.writeLock().unlock();
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -174,6 +202,7 @@ public class JavaProject {
     public void saveIdentifiers() {
         Path path = this.projectDir.resolve("identifiers.json");
         ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        this.identifierLock.readLock().lock();
         try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(bout, StandardCharsets.UTF_8))) {
             writer.beginArray();
             for (JavaIdentifier id : this.identifierMap.values()) {
@@ -205,6 +234,8 @@ public class JavaProject {
             writer.endArray();
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            this.identifierLock.readLock().unlock();
         }
         byte[] bytes = bout.toByteArray();
         if (bytes.length > 0) {
@@ -7,11 +7,16 @@
 
 package org.jd.gui.service.sourcesaver;
 
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
 import org.jd.gui.spi.SourceSaver;
 import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.StreamingZipWriter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
@@ -78,4 +83,43 @@ public abstract class AbstractSourceSaverProvider implements SourceSaver {
     }
 
     public Pattern getPathPattern() { return externalPathPattern; }
+
+    /**
+     * Stream the content of 'entry' into a new archive: files are deflated by the workers of the current
+     * {@link OrderedSaveQueue}, opened if needed, and appended in order. An existing archive at 'path' is
+     * replaced, its unchanged sources being reused, see {@link IncrementalExport}. A cancelled, failed or
+     * interrupted export is not finished: the existing archive is kept, and the next export resumes the work done.
+     */
+    @Override
+    public void saveArchive(API api, Controller controller, Listener listener, Path path, Container.Entry entry) throws IOException {
+        OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
+        boolean outermost = (queue == null);
+
+        if (outermost) {
+            queue = OrderedSaveQueue.open(controller);
+        }
+
+        try (IncrementalExport export = new IncrementalExport(api.getPreferences())) {
+            export.open(path);
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                queue.openArchive(path, writer, export);
+
+                try {
+                    saveContent(api, controller, listener, path, path, entry);
+                } finally {
+                    queue.closeArchive();
+                }
+
+                if (!controller.isCancelled()) {
+                    export.finish();
+                }
+            }
+        } finally {
+            if (outermost) {
+                queue.close();
+            }
+        }
+    }
 }
@@ -7,21 +7,26 @@
 
 package org.jd.gui.service.sourcesaver;
 
-import org.jd.core.v1.ClassFileToJavaSourceDecompiler;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
-import org.jd.gui.util.decompiler.ContainerLoader;
-import org.jd.gui.util.decompiler.LineNumberStringBuilderPrinter;
+import org.jd.gui.util.decompiler.*;
 import org.jd.gui.util.exception.ExceptionUtil;
-import org.jd.gui.util.io.NewlineOutputStream;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import static java.nio.file.StandardOpenOption.*;
+
 public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
     protected static final String ESCAPE_UNICODE_CHARACTERS = "ClassFileDecompilerPreferences.escapeUnicodeCharacters";
     protected static final String REALIGN_LINE_NUMBERS      = "ClassFileDecompilerPreferences.realignLineNumbers";
@@ -29,10 +34,11 @@ public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
     protected static final String WRITE_METADATA            = "ClassFileSaverPreferences.writeMetadata";
     protected static final String JD_CORE_VERSION           = "JdGuiPreferences.jdCoreVersion";
 
-    protected static final ClassFileToJavaSourceDecompiler DECOMPILER = new ClassFileToJavaSourceDecompiler();
-
-    protected ContainerLoader loader = new ContainerLoader();
-    protected LineNumberStringBuilderPrinter printer = new LineNumberStringBuilderPrinter();
+    // Each saving thread uses its own loader and printer
+    protected ThreadLocal<DigestContainerLoader> loaders = ThreadLocal.withInitial(DigestContainerLoader::new);
+    protected ThreadLocal<LineNumberChannelPrinter> printers = ThreadLocal.withInitial(LineNumberChannelPrinter::new);
+    // ... and its own output buffer, consumed before the next file
+    protected ThreadLocal<SourceOutputStream> outputs = ThreadLocal.withInitial(SourceOutputStream::new);
 
     @Override public String[] getSelectors() { return appendSelectors("*:file:*.class"); }
 
@@ -63,75 +69,68 @@ public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
 
     @Override
     public void saveContent(API api, Controller controller, Listener listener, Path rootPath, Path path, Container.Entry entry) {
-        try {
-            // Call listener
-            if (path.toString().indexOf('$') == -1) {
-                listener.pathSaved(path);
-            }
-            // Init preferences
-            Map<String, String> preferences = api.getPreferences();
-            boolean realignmentLineNumbers = getPreferenceValue(preferences, REALIGN_LINE_NUMBERS, true);
-            boolean unicodeEscape = getPreferenceValue(preferences, ESCAPE_UNICODE_CHARACTERS, false);
-            boolean showLineNumbers = getPreferenceValue(preferences, WRITE_LINE_NUMBERS, true);
+        OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
 
-            Map<String, Object> configuration = new HashMap<>();
-            configuration.put("realignLineNumbers", realignmentLineNumbers);
+        if (queue != null) {
+            IncrementalExport export = queue.getExport(path);
+            String name = queue.getEntryName(path);
 
-            // Init loader
-            loader.setEntry(entry);
-
-            // Init printer
-            printer.setRealignmentLineNumber(realignmentLineNumbers);
-            printer.setUnicodeEscape(unicodeEscape);
-            printer.setShowLineNumbers(showLineNumbers);
+            // Decompile on a worker thread, write in order
+            queue.submitFile(path, () -> {
+                if (export != null) {
+                    Source source = reuseSource(api, export, name, entry);
 
-            // Format internal name
-            String entryPath = entry.getPath();
-            assert entryPath.endsWith(".class");
-            String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
+                    if (source != null) {
+                        return source;
+                    }
+                }
 
-            // Decompile class file
-            DECOMPILER.decompile(loader, printer, entryInternalName, configuration);
+                SourceOutputStream output = outputs.get();
+                String failure;
+                IncrementalExport.Record record = null;
 
-            StringBuilder stringBuffer = printer.getStringBuffer();
+                try {
+                    failure = writeSource(api, entry, () -> {
+                        output.reset();
+                        return Channels.newChannel(output);
+                    });
 
-            // Metadata
-            if (getPreferenceValue(preferences, WRITE_METADATA, true)) {
-                // Add location
-                String location =
-                    new File(entry.getUri()).getPath()
-                    // Escape "\ u" sequence to prevent "Invalid unicode" errors
-                    .replaceAll("(^|[^\\\\])\\\\u", "\\\\\\\\u");
-                stringBuffer.append("\n\n/* Location:              ");
-                stringBuffer.append(location);
-                // Add Java compiler version
-                int majorVersion = printer.getMajorVersion();
-
-                if (majorVersion >= 45) {
-                    stringBuffer.append("\n * Java compiler version: ");
-
-                    if (majorVersion >= 49) {
-                        stringBuffer.append(majorVersion - (49 - 5));
-                    } else {
-                        stringBuffer.append(majorVersion - (45 - 1));
+                    if ((export != null) && (failure == null)) {
+                        DigestContainerLoader loader = loaders.get();
+                        record = new IncrementalExport.Record(loader.getDigest(), new ArrayList<>(loader.getRequestedNames()));
                     }
+                } catch (Throwable t) {
+                    ExceptionUtil.printStackTrace(t);
+                    output.reset();
+                    output.write("// INTERNAL ERROR //".getBytes(Charset.defaultCharset()));
+                    failure = getInternalError(t);
+                }
 
-                    stringBuffer.append(" (");
-                    stringBuffer.append(majorVersion);
-                    stringBuffer.append('.');
-                    stringBuffer.append(printer.getMinorVersion());
-                    stringBuffer.append(')');
+                return new Source(output.toByteBuffer(), failure, record);
+            }, source -> source.content, source -> {
+                if (path.getFileName().toString().indexOf('$') == -1) {
+                    listener.pathSaved(path);
+                }
+                if (source.failure != null) {
+                    listener.pathFailed(path, source.failure);
+                }
+                if (source.record != null) {
+                    export.put(name, source.record);
                 }
-                // Add JD-Core version
-                stringBuffer.append("\n * JD-Core Version:       ");
-                stringBuffer.append(preferences.get(JD_CORE_VERSION));
-                stringBuffer.append("\n */");
+            });
+            return;
+        }
+
+        try {
+            // Call listener
+            if (path.getFileName().toString().indexOf('$') == -1) {
+                listener.pathSaved(path);
             }
 
-            try (PrintStream ps = new PrintStream(new NewlineOutputStream(Files.newOutputStream(path)), true, "UTF-8")) {
-                ps.print(stringBuffer.toString());
-            } catch (IOException e) {
-                ExceptionUtil.printStackTrace(e);
+            String failure = writeSource(api, entry, () -> Files.newByteChannel(path, CREATE, TRUNCATE_EXISTING, WRITE));
+
+            if (failure != null) {
+                listener.pathFailed(path, failure);
             }
         } catch (Throwable t) {
             ExceptionUtil.printStackTrace(t);
@@ -141,6 +140,223 @@ public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
             } catch (IOException ee) {
                 ExceptionUtil.printStackTrace(ee);
             }
+
+            listener.pathFailed(path, getInternalError(t));
+        }
+    }
+
+    protected static String getInternalError(Throwable t) { return "Internal error: " + t; }
+
+    /**
+     * Decompile 'entry' with the loader and the printer of the current thread. If the decompilation is aborted,
+     * the output is opened again and the class skeleton is written instead.
+     *
+     * @return the reason of the abort, or null
+     */
+    protected String writeSource(API api, Container.Entry entry, OutputOpener opener) throws Exception {
+        // Init preferences
+        Map<String, String> preferences = api.getPreferences();
+        boolean realignmentLineNumbers = getPreferenceValue(preferences, REALIGN_LINE_NUMBERS, true);
+        boolean unicodeEscape = getPreferenceValue(preferences, ESCAPE_UNICODE_CHARACTERS, false);
+        boolean showLineNumbers = getPreferenceValue(preferences, WRITE_LINE_NUMBERS, true);
+
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("realignLineNumbers", realignmentLineNumbers);
+
+        // Init loader
+        ContainerLoader loader = loaders.get();
+        loader.setEntry(entry);
+
+        // Init printer
+        LineNumberChannelPrinter printer = printers.get();
+        printer.setRealignmentLineNumber(realignmentLineNumbers);
+        printer.setUnicodeEscape(unicodeEscape);
+        printer.setShowLineNumbers(showLineNumbers);
+
+        // Format internal name
+        String entryPath = entry.getPath();
+        assert entryPath.endsWith(".class");
+        String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
+
+        boolean writeMetadata = getPreferenceValue(preferences, WRITE_METADATA, true);
+        DecompilationAbortedException abortedException = null;
+
+        try (WritableByteChannel channel = opener.open()) {
+            printer.setChannel(channel);
+
+            try {
+                // Decompile class file under supervision, lines are streamed into the channel
+                DecompilerPool.getInstance().decompile(DecompilerPool.Lane.BULK, preferences, loader, printer, entryInternalName, configuration);
+            } catch (DecompilationAbortedException e) {
+                abortedException = e;
+            }
+
+            if (abortedException == null) {
+                if (writeMetadata) {
+                    appendMetadata(printer.getStringBuffer(), entry, preferences, printer.getMajorVersion(), printer.getMinorVersion());
+                }
+                printer.flush();
+            }
+        }
+
+        if (abortedException == null) {
+            return null;
+        }
+
+        // Save the class skeleton in place of the partial source
+        ExceptionUtil.printStackTrace(abortedException);
+
+        try (WritableByteChannel channel = opener.open()) {
+            printer.setChannel(channel);
+
+            StringBuilder stringBuffer = printer.getStringBuffer();
+            stringBuffer.append(ClassFileSkeletonUtil.getSkeleton(entry, abortedException.getMessage()));
+
+            if (writeMetadata) {
+                appendMetadata(stringBuffer, entry, preferences, 0, 0);
+            }
+
+            printer.flush();
+        }
+
+        return abortedException.getMessage();
+    }
+
+    /**
+     * @return the source of 'entry' exported previously, if the classes read by the decompiler have not changed,
+     * with up-to-date metadata; or null
+     */
+    protected Source reuseSource(API api, IncrementalExport export, String name, Container.Entry entry) {
+        IncrementalExport.Record record = export.getPreviousRecord(name);
+
+        if (record == null) {
+            return null;
+        }
+
+        try {
+            DigestContainerLoader loader = loaders.get();
+            loader.setEntry(entry);
+
+            if (!record.getDigest().equals(loader.getDigest(record.getInternalNames()))) {
+                return null;
+            }
+
+            byte[] content = export.readPrevious(name);
+
+            if (content == null) {
+                return null;
+            }
+
+            if (record.isMetadata()) {
+                content = removeMetadata(content);
+            }
+
+            if (!export.isMetadata()) {
+                return new Source(ByteBuffer.wrap(content), null, record);
+            }
+
+            String entryPath = entry.getPath();
+            byte[] data = loader.load(entryPath.substring(0, entryPath.length() - 6)); // 6 = ".class".length()
+            int minorVersion = ((data[4] & 0xFF) << 8) | (data[5] & 0xFF);
+            int majorVersion = ((data[6] & 0xFF) << 8) | (data[7] & 0xFF);
+            SourceOutputStream output = outputs.get();
+            LineNumberChannelPrinter printer = printers.get();
+
+            output.reset();
+            output.write(content);
+            printer.setChannel(Channels.newChannel(output));
+            appendMetadata(printer.getStringBuffer(), entry, api.getPreferences(), majorVersion, minorVersion);
+            printer.flush();
+
+            return new Source(output.toByteBuffer(), null, record);
+        } catch (Exception e) {
+            ExceptionUtil.printStackTrace(e);
+            return null;
+        }
+    }
+
+    protected static byte[] removeMetadata(byte[] content) {
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        byte[] start = "/* Location:".getBytes(StandardCharsets.UTF_8);
+
+        for (int i=content.length-start.length; i>=0; i--) {
+            if (regionMatches(content, i, start) && (i >= 2 * separator.length) &&
+                regionMatches(content, i - separator.length, separator) &&
+                regionMatches(content, i - 2 * separator.length, separator)) {
+                return Arrays.copyOf(content, i - 2 * separator.length);
+            }
+        }
+
+        return content;
+    }
+
+    protected static boolean regionMatches(byte[] content, int offset, byte[] region) {
+        for (int i=0; i<region.length; i++) {
+            if (content[offset + i] != region[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static void appendMetadata(StringBuilder stringBuffer, Container.Entry entry, Map<String, String> preferences, int majorVersion, int minorVersion) {
+        // Add location
+        String location =
+            new File(entry.getUri()).getPath()
+            // Escape "\ u" sequence to prevent "Invalid unicode" errors
+            .replaceAll("(^|[^\\\\])\\\\u", "\\\\\\\\u");
+        stringBuffer.append("\n\n/* Location:              ");
+        stringBuffer.append(location);
+        // Add Java compiler version
+        if (majorVersion >= 45) {
+            stringBuffer.append("\n * Java compiler version: ");
+
+            if (majorVersion >= 49) {
+                stringBuffer.append(majorVersion - (49 - 5));
+            } else {
+                stringBuffer.append(majorVersion - (45 - 1));
+            }
+
+            stringBuffer.append(" (");
+            stringBuffer.append(majorVersion);
+            stringBuffer.append('.');
+            stringBuffer.append(minorVersion);
+            stringBuffer.append(')');
+        }
+        // Add JD-Core version
+        stringBuffer.append("\n * JD-Core Version:       ");
+        stringBuffer.append(preferences.get(JD_CORE_VERSION));
+        stringBuffer.append("\n */");
+    }
+
+    protected interface OutputOpener {
+        WritableByteChannel open() throws IOException;
+    }
+
+    /**
+     * Growable buffer exposing its content without copy.
+     */
+    protected static class SourceOutputStream extends ByteArrayOutputStream {
+        public SourceOutputStream() { super(16 * 1024); }
+
+        /**
+         * @return a view of the content, valid until the next write
+         */
+        public ByteBuffer toByteBuffer() { return ByteBuffer.wrap(buf, 0, count); }
+    }
+
+    protected static class Source {
+        /**
+         * Content, possibly wrapping the output buffer of the worker thread
+         */
+        protected ByteBuffer content;
+        protected String failure;
+        protected IncrementalExport.Record record;
+
+        public Source(ByteBuffer content, String failure, IncrementalExport.Record record) {
+            this.content = content;
+            this.failure = failure;
+            this.record = record;
         }
     }
 
@@ -13,9 +13,13 @@ import org.jd.gui.spi.SourceSaver;
 import org.jd.gui.util.exception.ExceptionUtil;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DirectorySourceSaverProvider extends AbstractSourceSaverProvider {
 
@@ -42,17 +46,38 @@ public class DirectorySourceSaverProvider extends AbstractSourceSaverProvider {
     @Override
     public void save(API api, SourceSaver.Controller controller, SourceSaver.Listener listener, Path rootPath, Container.Entry entry) {
         Path path = rootPath.resolve(entry.getPath());
-
-        try {
-            Files.createDirectories(path);
+        OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
+
+        if (queue == null) {
+            try {
+                Files.createDirectories(path);
+                saveContent(api, controller, listener, rootPath, path, entry);
+            } catch (IOException e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        } else {
+            queue.submitDirectory(path);
             saveContent(api, controller, listener, rootPath, path, entry);
-        } catch (IOException e) {
-            ExceptionUtil.printStackTrace(e);
         }
     }
 
+    /**
+     * The outermost call decompiles the files of the container in parallel, see {@link OrderedSaveQueue}.
+     */
     @Override
     public void saveContent(API api, SourceSaver.Controller controller, SourceSaver.Listener listener, Path rootPath, Path path, Container.Entry entry) {
+        if (OrderedSaveQueue.getCurrent() == null) {
+            try (OrderedSaveQueue queue = OrderedSaveQueue.open(controller)) {
+                saveChildren(api, controller, listener, rootPath, entry);
+            }
+        } else {
+            saveChildren(api, controller, listener, rootPath, entry);
+        }
+    }
+
+    protected void saveChildren(API api, SourceSaver.Controller controller, SourceSaver.Listener listener, Path rootPath, Container.Entry entry) {
+        OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
+
         for (Container.Entry e : getChildren(entry)) {
             if (controller.isCancelled()) {
                 break;
@@ -60,11 +85,63 @@ public class DirectorySourceSaverProvider extends AbstractSourceSaverProvider {
 
             SourceSaver sourceSaver = api.getSourceSaver(e);
 
-            if (sourceSaver != null) {
+            if (sourceSaver == null) {
+                continue;
+            }
+
+            if ((queue == null) || (sourceSaver instanceof AbstractSourceSaverProvider)) {
+                sourceSaver.save(api, controller, listener, rootPath, e);
+            } else if (queue.isInArchive(rootPath)) {
+                saveStaged(api, controller, listener, queue, rootPath, sourceSaver, e);
+            } else {
+                // Saver writing directly to the file system: commit the previous directories and files first
+                queue.flush();
                 sourceSaver.save(api, controller, listener, rootPath, e);
             }
         }
     }
 
+    /**
+     * Let 'sourceSaver', which does not go through the queue, save 'entry' into a temporary directory, then append
+     * the files written to the archive of 'rootPath'. The paths under 'rootPath' are not file system paths.
+     */
+    protected void saveStaged(API api, SourceSaver.Controller controller, SourceSaver.Listener listener, OrderedSaveQueue queue, Path rootPath, SourceSaver sourceSaver, Container.Entry entry) {
+        try {
+            Path stagingPath = Files.createTempDirectory("jd-gui.");
+            List<Path> paths;
+
+            sourceSaver.save(api, controller, listener, stagingPath, entry);
+
+            try (Stream<Path> stream = Files.walk(stagingPath)) {
+                paths = stream.sorted().collect(Collectors.toList());
+            }
+
+            for (Path path : paths) {
+                Path relativePath = stagingPath.relativize(path);
+
+                if (relativePath.toString().isEmpty()) {
+                    continue;
+                }
+
+                Path target = rootPath.resolve(relativePath.toString());
+
+                if (Files.isDirectory(path)) {
+                    queue.submitDirectory(target);
+                } else {
+                    queue.submitFile(target, () -> Files.readAllBytes(path), ByteBuffer::wrap, ignore -> {});
+                }
+            }
+
+            // Delete the staged files once appended, children first
+            queue.submit(ignore -> {
+                for (int i=paths.size()-1; i>=0; i--) {
+                    Files.deleteIfExists(paths.get(i));
+                }
+            });
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
     protected Collection<Container.Entry> getChildren(Container.Entry entry) { return entry.getChildren(); }
 }
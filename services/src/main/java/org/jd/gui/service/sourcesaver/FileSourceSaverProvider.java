@@ -13,8 +13,10 @@ import org.jd.gui.spi.SourceSaver;
 import org.jd.gui.util.exception.ExceptionUtil;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -35,18 +37,46 @@ public class FileSourceSaverProvider extends AbstractSourceSaverProvider {
 
     @Override
     public void saveContent(API api, SourceSaver.Controller controller, SourceSaver.Listener listener, Path rootPath, Path path, Container.Entry entry) {
+        OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
+
+        if (queue != null) {
+            // Read on a worker thread, write in order
+            queue.submitFile(path, () -> readContent(entry), ByteBuffer::wrap, content -> listener.pathSaved(path));
+            return;
+        }
+
         listener.pathSaved(path);
 
         try (InputStream is = entry.getInputStream()) {
             Files.copy(is, path, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             ExceptionUtil.printStackTrace(e);
+            writeInternalError(path);
+        }
+    }
+
+    protected static byte[] readContent(Container.Entry entry) {
+        try (InputStream is = entry.getInputStream(); ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[1024 * 8];
+            int len = is.read(buffer);
 
-            try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
-                writer.write("// INTERNAL ERROR //");
-            } catch (IOException ee) {
-                ExceptionUtil.printStackTrace(ee);
+            while (len > 0) {
+                os.write(buffer, 0, len);
+                len = is.read(buffer);
             }
+
+            return os.toByteArray();
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+            return "// INTERNAL ERROR //".getBytes(Charset.defaultCharset());
+        }
+    }
+
+    protected static void writeInternalError(Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+            writer.write("// INTERNAL ERROR //");
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
         }
     }
 }
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.sourcesaver;
+
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.StreamingZipReader;
+import org.jd.gui.util.io.StreamingZipWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Manifest of an exported source archive: for each decompiled class, the digest of the class files read by the
+ * decompiler. When the sources are exported again into the same archive, with the same settings, the classes
+ * whose digest has not changed are copied from the previous archive instead of being decompiled again.
+ * <p>
+ * During the export, the records are also appended to a journal next to the archive, flushed with the archive at
+ * each checkpoint. An interrupted export is kept aside as "&lt;archive&gt;.partial" with its journal, and the next
+ * export into the same archive reuses its complete entries as well as the ones of the last complete archive.
+ * <p>
+ * The last complete archive is moved to "&lt;archive&gt;.previous" during the export, deleted once the export is
+ * finished, moved back in place otherwise: it is never overwritten by a partial archive.
+ */
+public class IncrementalExport implements Closeable {
+    public static final String MANIFEST_NAME = "META-INF/jd-gui-export.manifest";
+
+    protected static final String HEADER = "JD-GUI-Export: 1";
+    protected static final String SETTINGS = "Settings: ";
+    protected static final String METADATA = "Metadata: ";
+    protected static final String JOURNAL_SUFFIX = ".journal";
+    protected static final String PREVIOUS_SUFFIX = ".previous";
+    protected static final String PARTIAL_SUFFIX = ".partial";
+    protected static final int CHECKPOINT_RECORDS = 256;
+    protected static final long CHECKPOINT_INTERVAL = 2000; // milliseconds
+    protected static final String WRITE_METADATA = "ClassFileSaverPreferences.writeMetadata";
+    protected static final String[] SETTING_KEYS = {
+        "ClassFileDecompilerPreferences.escapeUnicodeCharacters",
+        "ClassFileDecompilerPreferences.realignLineNumbers",
+        "ClassFileSaverPreferences.writeLineNumbers",
+        "JdGuiPreferences.jdCoreVersion"
+    };
+
+    protected String settings;
+    protected boolean metadata;
+    protected Path path;
+    protected Path journalPath;
+    protected Path previousPath;
+    protected Path partialPath;
+    protected Path partialJournalPath;
+    /**
+     * Last complete archive
+     */
+    protected Source previous;
+    /**
+     * Archive of the interrupted export, its records take precedence
+     */
+    protected Source partial;
+    protected StreamingZipWriter writer;
+    protected Writer journal;
+    protected int uncheckedRecords;
+    protected long lastCheckpoint;
+    protected boolean finished;
+    protected LinkedHashMap<String, Record> records = new LinkedHashMap<>();
+
+    public IncrementalExport(Map<String, String> preferences) {
+        StringBuilder sb = new StringBuilder();
+
+        for (String key : SETTING_KEYS) {
+            sb.append(key).append('=').append(preferences.get(key)).append(';');
+        }
+
+        this.settings = sb.toString();
+        this.metadata = !"false".equals(preferences.get(WRITE_METADATA));
+    }
+
+    /**
+     * Move the archive 'path', if any, aside and load its manifest, and the journal of the interrupted export, if
+     * any, exported with the same settings. After a crash, 'path' is the archive of the interrupted export: it is
+     * moved aside as well.
+     */
+    public void open(Path path) throws IOException {
+        this.path = path;
+        journalPath = sibling(path, JOURNAL_SUFFIX);
+        previousPath = sibling(path, PREVIOUS_SUFFIX);
+        partialPath = sibling(path, PARTIAL_SUFFIX);
+        partialJournalPath = sibling(partialPath, JOURNAL_SUFFIX);
+
+        boolean exists = Files.isRegularFile(path);
+
+        if (exists && Files.isRegularFile(journalPath)) {
+            // Crash: 'path' is the archive of the interrupted export
+            Files.move(path, partialPath, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(journalPath, partialJournalPath, StandardCopyOption.REPLACE_EXISTING);
+        } else if (exists && !Files.isRegularFile(previousPath)) {
+            Files.move(path, previousPath);
+        } else if (exists) {
+            // Crash before the journal was started: 'previous' is the last complete archive
+            Files.delete(path);
+        }
+
+        if (Files.isRegularFile(previousPath)) {
+            previous = open(previousPath, null);
+        }
+        if (Files.isRegularFile(partialPath) && Files.isRegularFile(partialJournalPath)) {
+            partial = open(partialPath, partialJournalPath);
+        }
+    }
+
+    protected static Path sibling(Path path, String suffix) { return path.resolveSibling(path.getFileName() + suffix); }
+
+    /**
+     * @param manifestPath journal of the archive, or null to read its manifest
+     * @return the archive, without record if its manifest is missing or its settings have changed
+     */
+    protected Source open(Path archivePath, Path manifestPath) {
+        Source source = new Source();
+
+        try {
+            source.reader = new StreamingZipReader(archivePath);
+
+            byte[] manifest = (manifestPath == null) ? source.reader.read(MANIFEST_NAME) : Files.readAllBytes(manifestPath);
+
+            if (manifest != null) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(manifest), StandardCharsets.UTF_8))) {
+                    readManifest(reader, source);
+                }
+            }
+        } catch (IOException e) {
+            // Not a previous export
+            ExceptionUtil.printStackTrace(e);
+            source.records.clear();
+        }
+
+        return source;
+    }
+
+    /**
+     * Start the journal of the export into 'writer'.
+     */
+    public void begin(StreamingZipWriter writer) throws IOException {
+        this.writer = writer;
+        this.journal = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(journalPath), StandardCharsets.UTF_8));
+        this.lastCheckpoint = System.currentTimeMillis();
+
+        writeHeader(journal);
+        journal.flush();
+    }
+
+    protected void readManifest(BufferedReader reader, Source source) throws IOException {
+        if (!HEADER.equals(reader.readLine()) || !(SETTINGS + settings).equals(reader.readLine())) {
+            return;
+        }
+
+        String line = reader.readLine();
+
+        if ((line == null) || !line.startsWith(METADATA)) {
+            return;
+        }
+
+        boolean previousMetadata = Boolean.parseBoolean(line.substring(METADATA.length()));
+
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t");
+
+            if (fields.length >= 2) {
+                Record record = new Record(fields[1], Arrays.asList(fields).subList(2, fields.length));
+
+                record.metadata = previousMetadata;
+                source.records.put(fields[0], record);
+            }
+        }
+    }
+
+    public boolean isMetadata() { return metadata; }
+
+    /**
+     * Thread safe.
+     */
+    public Record getPreviousRecord(String name) {
+        Source source = getSource(name);
+        return (source == null) ? null : source.records.get(name);
+    }
+
+    /**
+     * Thread safe.
+     *
+     * @return the content of 'name' in the previous archive, or null
+     */
+    public byte[] readPrevious(String name) throws IOException {
+        Source source = getSource(name);
+        return (source == null) ? null : source.reader.read(name);
+    }
+
+    /**
+     * Copy the entry 'name' of the interrupted export, or else of the previous archive, into the file 'path'.
+     *
+     * @return false if the previous archives do not contain 'name'
+     */
+    public boolean extractPrevious(String name, Path path) throws IOException {
+        if ((partial != null) && (partial.reader != null) && partial.reader.contains(name) && partial.reader.extract(name, path)) {
+            return true;
+        }
+        return (previous != null) && (previous.reader != null) && previous.reader.extract(name, path);
+    }
+
+    /**
+     * @return the archive recording 'name', the interrupted export first, or the last complete archive
+     */
+    protected Source getSource(String name) {
+        if ((partial != null) && partial.records.containsKey(name)) {
+            return partial;
+        }
+        return ((previous != null) && (previous.reader != null)) ? previous : null;
+    }
+
+    /**
+     * Record 'name', already appended to the archive.
+     */
+    public void put(String name, Record record) throws IOException {
+        records.put(name, record);
+
+        if (journal != null) {
+            writeRecord(journal, name, record);
+
+            if ((++uncheckedRecords >= CHECKPOINT_RECORDS) || (System.currentTimeMillis() - lastCheckpoint >= CHECKPOINT_INTERVAL)) {
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Flush the archive, then the journal: the journal never references an entry missing from the archive.
+     */
+    public void checkpoint() throws IOException {
+        writer.flush();
+        journal.flush();
+        uncheckedRecords = 0;
+        lastCheckpoint = System.currentTimeMillis();
+    }
+
+    /**
+     * Append the manifest to the archive and delete the journal. Called on completion only: a cancelled export
+     * is closed unfinished, to be resumed by exporting again into the same archive.
+     */
+    public void finish() throws IOException {
+        StringWriter manifest = new StringWriter(records.size() * 96);
+
+        writeHeader(manifest);
+
+        for (Map.Entry<String, Record> entry : records.entrySet()) {
+            writeRecord(manifest, entry.getKey(), entry.getValue());
+        }
+
+        writer.put(StreamingZipWriter.deflate(MANIFEST_NAME, manifest.toString().getBytes(StandardCharsets.UTF_8)));
+
+        journal.close();
+        journal = null;
+        Files.deleteIfExists(journalPath);
+        finished = true;
+    }
+
+    protected void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER + '\n');
+        writer.write(SETTINGS + settings + '\n');
+        writer.write(METADATA + metadata + '\n');
+    }
+
+    protected static void writeRecord(Writer writer, String name, Record record) throws IOException {
+        writer.write(name);
+        writer.write('\t');
+        writer.write(record.digest);
+
+        for (String internalName : record.internalNames) {
+            writer.write('\t');
+            writer.write(internalName);
+        }
+
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+        if (partial != null) {
+            partial.close();
+        }
+        if (path == null) {
+            return;
+        }
+
+        if (finished) {
+            Files.deleteIfExists(previousPath);
+            Files.deleteIfExists(partialPath);
+            Files.deleteIfExists(partialJournalPath);
+        } else {
+            if (writer != null) {
+                // Unfinished export: keep it aside, with its journal, to resume it
+                Files.move(path, partialPath, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(journalPath, partialJournalPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (Files.isRegularFile(previousPath)) {
+                // Keep the last complete archive
+                Files.move(previousPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Delete the archive 'path' and the files kept aside by its exports.
+     */
+    public static void delete(Path path) throws IOException {
+        Path partialPath = sibling(path, PARTIAL_SUFFIX);
+
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(sibling(path, JOURNAL_SUFFIX));
+        Files.deleteIfExists(sibling(path, PREVIOUS_SUFFIX));
+        Files.deleteIfExists(partialPath);
+        Files.deleteIfExists(sibling(partialPath, JOURNAL_SUFFIX));
+    }
+
+    protected static class Source implements Closeable {
+        protected StreamingZipReader reader;
+        protected HashMap<String, Record> records = new HashMap<>();
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    public static class Record {
+        protected String digest;
+        protected Collection<String> internalNames;
+        /**
+         * For a previous record, true if the source was saved with metadata
+         */
+        protected boolean metadata;
+
+        public Record(String digest, Collection<String> internalNames) {
+            this.digest = digest;
+            this.internalNames = internalNames;
+        }
+
+        public String getDigest() { return digest; }
+        public Collection<String> getInternalNames() { return internalNames; }
+        public boolean isMetadata() { return metadata; }
+    }
+}
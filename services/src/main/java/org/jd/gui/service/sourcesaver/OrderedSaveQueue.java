@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.sourcesaver;
+
+import org.jd.gui.spi.SourceSaver;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.StreamingZipWriter;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Parallel save of a container: the expensive part of each file (decompilation, reading) runs on worker threads,
+ * while writes and listener calls are committed on the walking thread, in submission order. The output and the
+ * progress are therefore identical to a sequential save.
+ * <p>
+ * The queue is bound to the walking thread: savers find it with {@link #getCurrent()} and fall back to a
+ * sequential save when there is none.
+ * <p>
+ * Files saved under the root path of an open archive are appended to its {@link StreamingZipWriter}, their
+ * content being deflated on the worker threads. These paths do not exist on the file system: the savers which do not
+ * use the queue are given a temporary directory, see {@link DirectorySourceSaverProvider#saveStaged}.
+ */
+public class OrderedSaveQueue implements AutoCloseable {
+    protected static final ThreadLocal<OrderedSaveQueue> CURRENT = new ThreadLocal<>();
+    protected static final long POLL_INTERVAL = 50; // milliseconds
+
+    public interface Commit<T> {
+        void commit(T result) throws Exception;
+    }
+
+    protected SourceSaver.Controller controller;
+    protected ExecutorService executor;
+    protected int window;
+    protected ArrayDeque<Pending<?>> pendings = new ArrayDeque<>();
+    protected ArrayList<Archive> archives = new ArrayList<>();
+
+    protected OrderedSaveQueue(SourceSaver.Controller controller, int threadCount) {
+        AtomicInteger counter = new AtomicInteger();
+
+        this.controller = controller;
+        this.window = threadCount * 4;
+        this.executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "jd-gui-save-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static OrderedSaveQueue getCurrent() { return CURRENT.get(); }
+
+    /**
+     * Bind a new queue to the current thread.
+     */
+    public static OrderedSaveQueue open(SourceSaver.Controller controller) {
+        OrderedSaveQueue queue = new OrderedSaveQueue(controller, Runtime.getRuntime().availableProcessors());
+        CURRENT.set(queue);
+        return queue;
+    }
+
+    /**
+     * Run 'work' on a worker thread; 'commit' will be called on the current thread, after the commits of the
+     * previous submissions. Blocks while too many results are waiting.
+     */
+    public <T> void submit(Callable<T> work, Commit<T> commit) {
+        pendings.add(new Pending<>(executor.submit(work), commit));
+        commitCompleted();
+    }
+
+    /**
+     * Run 'action' on the current thread, after the commits of the previous submissions.
+     */
+    public void submit(Commit<Void> action) {
+        pendings.add(new Pending<>(CompletableFuture.completedFuture(null), action));
+        commitCompleted();
+    }
+
+    /**
+     * Submit the creation of the directory 'path'.
+     */
+    public void submitDirectory(Path path) {
+        Archive archive = getArchive(path);
+
+        if (archive == null) {
+            submit(ignore -> Files.createDirectories(path));
+        } else {
+            String name = archive.getEntryName(path);
+            submit(ignore -> archive.writer.putDirectory(name));
+        }
+    }
+
+    /**
+     * Run 'work' on a worker thread, then write the 'content' of its result into 'path' and call 'commit', in
+     * submission order. 'content' is consumed on the worker thread - deflated for an archive, copied otherwise - so
+     * it may wrap a buffer that the worker reuses for its next file.
+     */
+    public <T> void submitFile(Path path, Callable<T> work, Function<T, ByteBuffer> content, Commit<T> commit) {
+        Archive archive = getArchive(path);
+
+        if (archive == null) {
+            submit(() -> {
+                T result = work.call();
+                return new Copied<>(result, toByteArray(content.apply(result)));
+            }, copied -> {
+                Files.write(path, copied.data);
+                commit.commit(copied.result);
+            });
+        } else {
+            String name = archive.getEntryName(path);
+
+            submit(() -> {
+                T result = work.call();
+                return new Deflated<>(result, StreamingZipWriter.deflate(name, content.apply(result)));
+            }, deflated -> {
+                archive.writer.put(deflated.entry);
+                commit.commit(deflated.result);
+            });
+        }
+    }
+
+    /**
+     * Submit the copy of 'file' into 'path', then call 'commit'.
+     */
+    public void submitCopy(Path file, Path path, Commit<Void> commit) {
+        Archive archive = getArchive(path);
+
+        if (archive == null) {
+            submit(ignore -> {
+                Files.copy(file, path);
+                commit.commit(null);
+            });
+        } else {
+            String name = archive.getEntryName(path);
+
+            submit(ignore -> {
+                archive.writer.putStored(name, file);
+                commit.commit(null);
+            });
+        }
+    }
+
+    /**
+     * Append the files saved under 'rootPath' to 'writer', until {@link #closeArchive()}.
+     */
+    public void openArchive(Path rootPath, StreamingZipWriter writer, IncrementalExport export) {
+        archives.add(new Archive(rootPath, writer, export));
+    }
+
+    /**
+     * Commit the pending submissions, then unbind the innermost archive. The writer is closed by the caller.
+     */
+    public void closeArchive() {
+        try {
+            flush();
+        } finally {
+            archives.remove(archives.size() - 1);
+        }
+    }
+
+    public boolean isInArchive(Path path) { return getArchive(path) != null; }
+
+    /**
+     * @return the export of the archive containing 'path', or null
+     */
+    public IncrementalExport getExport(Path path) {
+        Archive archive = getArchive(path);
+        return (archive == null) ? null : archive.export;
+    }
+
+    /**
+     * @return the name of 'path' in its archive, or null
+     */
+    public String getEntryName(Path path) {
+        Archive archive = getArchive(path);
+        return (archive == null) ? null : archive.getEntryName(path);
+    }
+
+    protected Archive getArchive(Path path) {
+        for (int i = archives.size() - 1; i >= 0; i--) {
+            Archive archive = archives.get(i);
+
+            if (path.startsWith(archive.rootPath)) {
+                return archive;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Wait for all submissions and commit them.
+     */
+    public void flush() {
+        while (!pendings.isEmpty()) {
+            commitHead();
+        }
+    }
+
+    /**
+     * Commit the remaining submissions (only the completed ones if the save is cancelled), stop the workers and
+     * unbind the queue.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            for (Pending<?> pending : pendings) {
+                pending.future.cancel(true);
+            }
+            pendings.clear();
+            executor.shutdownNow();
+            CURRENT.remove();
+        }
+    }
+
+    protected void commitCompleted() {
+        while (!pendings.isEmpty() && (pendings.peek().future.isDone() || (pendings.size() > window))) {
+            commitHead();
+        }
+    }
+
+    /**
+     * Wait for the oldest submission and commit it. On cancellation, the completed submissions are committed, the
+     * other ones are interrupted and discarded.
+     */
+    protected void commitHead() {
+        Pending<?> head = pendings.peek();
+
+        if (head.await(controller)) {
+            pendings.poll().commit();
+        } else {
+            while (!pendings.isEmpty() && pendings.peek().future.isDone()) {
+                pendings.poll().commit();
+            }
+            for (Pending<?> pending : pendings) {
+                pending.future.cancel(true);
+            }
+            pendings.clear();
+        }
+    }
+
+    protected static class Pending<T> {
+        protected Future<T> future;
+        protected Commit<T> commit;
+
+        public Pending(Future<T> future, Commit<T> commit) {
+            this.future = future;
+            this.commit = commit;
+        }
+
+        /**
+         * @return false if the save has been cancelled before the completion of the submission
+         */
+        protected boolean await(SourceSaver.Controller controller) {
+            while (!controller.isCancelled()) {
+                try {
+                    future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    return true;
+                } catch (TimeoutException e) {
+                    // Poll the controller again
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } catch (ExecutionException | CancellationException e) {
+                    return true;
+                }
+            }
+
+            return future.isDone();
+        }
+
+        protected void commit() {
+            try {
+                commit.commit(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                ExceptionUtil.printStackTrace(e.getCause());
+            } catch (Exception e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        }
+    }
+
+    protected static class Archive {
+        protected Path rootPath;
+        protected StreamingZipWriter writer;
+        protected IncrementalExport export;
+
+        public Archive(Path rootPath, StreamingZipWriter writer, IncrementalExport export) {
+            this.rootPath = rootPath;
+            this.writer = writer;
+            this.export = export;
+        }
+
+        protected String getEntryName(Path path) {
+            StringBuilder sb = new StringBuilder();
+
+            for (Path name : rootPath.relativize(path)) {
+                if (sb.length() > 0) {
+                    sb.append('/');
+                }
+                sb.append(name);
+            }
+
+            return sb.toString();
+        }
+    }
+
+    protected static byte[] toByteArray(ByteBuffer buffer) {
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset() + buffer.position();
+        int length = buffer.remaining();
+
+        if ((offset == 0) && (length == array.length)) {
+            return array;
+        } else {
+            return Arrays.copyOfRange(array, offset, offset + length);
+        }
+    }
+
+    protected static class Copied<T> {
+        protected T result;
+        protected byte[] data;
+
+        public Copied(T result, byte[] data) {
+            this.result = result;
+            this.data = data;
+        }
+    }
+
+    protected static class Deflated<T> {
+        protected T result;
+        protected StreamingZipWriter.Entry entry;
+
+        public Deflated(T result, StreamingZipWriter.Entry entry) {
+            this.result = result;
+            this.entry = entry;
+        }
+    }
+}
@@ -13,12 +13,9 @@ import org.jd.gui.spi.SourceSaver;
 import org.jd.gui.util.exception.ExceptionUtil;
 
 import java.io.File;
-import java.net.URI;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
 
 public class ZipFileSourceSaverProvider extends DirectorySourceSaverProvider {
 
@@ -29,36 +26,54 @@ public class ZipFileSourceSaverProvider extends DirectorySourceSaverProvider {
         try {
             String sourcePath = getSourcePath(entry);
             Path path = rootPath.resolve(sourcePath);
-            Path parentPath = path.getParent();
+            OrderedSaveQueue queue = OrderedSaveQueue.getCurrent();
+            boolean inArchive = (queue != null) && queue.isInArchive(path);
 
-            if ((parentPath != null) && !Files.exists(parentPath)) {
-                Files.createDirectories(parentPath);
+            if (!inArchive) {
+                Path parentPath = path.getParent();
+
+                if ((parentPath != null) && !Files.exists(parentPath)) {
+                    Files.createDirectories(parentPath);
+                }
             }
 
             File tmpSourceFile = api.loadSourceFile(entry);
 
             if (tmpSourceFile != null) {
-                Files.copy(tmpSourceFile.toPath(), path);
+                if (queue == null) {
+                    Files.copy(tmpSourceFile.toPath(), path);
+                } else {
+                    queue.submitCopy(tmpSourceFile.toPath(), path, ignore -> {});
+                }
+            } else if (inArchive) {
+                // Nested archive: build it aside, then store it in the enclosing archive
+                Path tmpPath = Files.createTempFile("jd-gui.", ".tmp.zip");
+
+                tmpPath.toFile().deleteOnExit();
+                Files.delete(tmpPath);
+
+                // Start from the same nested archive of the previous export, if any, to reuse its unchanged sources
+                IncrementalExport export = queue.getExport(path);
+
+                if (export != null) {
+                    try {
+                        export.extractPrevious(queue.getEntryName(path), tmpPath);
+                    } catch (IOException e) {
+                        ExceptionUtil.printStackTrace(e);
+                        Files.deleteIfExists(tmpPath);
+                    }
+                }
+
+                saveArchive(api, controller, listener, tmpPath, entry);
+
+                if (controller.isCancelled()) {
+                    // Unfinished nested archive: the enclosing export is not finished either
+                    IncrementalExport.delete(tmpPath);
+                } else {
+                    queue.submitCopy(tmpPath, path, ignore -> Files.delete(tmpPath));
+                }
             } else {
-                File tmpFile = File.createTempFile("jd-gui.", ".tmp.zip");
-
-                tmpFile.delete();
-                tmpFile.deleteOnExit();
-
-                URI tmpFileUri = tmpFile.toURI();
-                URI tmpArchiveUri = new URI("jar:" + tmpFileUri.getScheme(), tmpFileUri.getHost(), tmpFileUri.getPath() + "!/", null);
-
-                HashMap<String, String> env = new HashMap<>();
-                env.put("create", "true");
-
-                FileSystem tmpArchiveFs = FileSystems.newFileSystem(tmpArchiveUri, env);
-                Path tmpArchiveRootPath = tmpArchiveFs.getPath("/");
-
-                saveContent(api, controller, listener, tmpArchiveRootPath, tmpArchiveRootPath, entry);
-
-                tmpArchiveFs.close();
-
-                Files.move(tmpFile.toPath(), path);
+                saveArchive(api, controller, listener, path, entry);
             }
         } catch (Exception e) {
             ExceptionUtil.printStackTrace(e);
@@ -39,11 +39,7 @@ public class CssFileTreeNodeFactoryProvider extends TextFileTreeNodeFactoryProvi
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
-            return (T)new TextFileTreeNodeFactoryProvider.Page(entry) {
-                @Override public String getSyntaxStyle() {
-                    return SyntaxConstants.SYNTAX_STYLE_CSS;
-                }
-            };
+            return (T)TextFileTreeNodeFactoryProvider.newPage(entry, SyntaxConstants.SYNTAX_STYLE_CSS);
         }
     }
 }
\ No newline at end of file
@@ -20,7 +20,9 @@ import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.File;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 
 public class DirectoryTreeNodeFactoryProvider extends AbstractTreeNodeFactoryProvider {
     protected static final ImageIcon ICON = new ImageIcon(DirectoryTreeNodeFactoryProvider.class.getClassLoader().getResource("org/jd/gui/images/folder.gif"));
@@ -57,9 +59,17 @@ public class DirectoryTreeNodeFactoryProvider extends AbstractTreeNodeFactoryPro
     public ImageIcon getIcon() { return ICON; }
     public ImageIcon getOpenIcon() { return OPEN_ICON; }
 
+    /**
+     * Directory node with lazy children: 'populateTreeNode' only resolves the factories of the child entries, the
+     * child nodes are made on first access, for the rows displayed by the tree.
+     */
     protected static class TreeNode extends DefaultMutableTreeNode implements ContainerEntryGettable, UriGettable, TreeNodeExpandable {
         Container.Entry entry;
         boolean initialized;
+        API api;
+        Container.Entry[] childEntries;
+        TreeNodeFactory[] childFactories;
+        DefaultMutableTreeNode[] childNodes;
 
         public TreeNode(Container.Entry entry, Object userObject) {
             super(userObject);
@@ -77,8 +87,6 @@ public class DirectoryTreeNodeFactoryProvider extends AbstractTreeNodeFactoryPro
         @Override
         public void populateTreeNode(API api) {
             if (!initialized) {
-                removeAllChildren();
-
                 Collection<Container.Entry> entries = getChildren();
 
                 while (entries.size() == 1) {
@@ -89,17 +97,100 @@ public class DirectoryTreeNodeFactoryProvider extends AbstractTreeNodeFactoryPro
                     entries = child.getChildren();
                 }
 
-                for (Entry entry : entries) {
-                    TreeNodeFactory factory = api.getTreeNodeFactory(entry);
-                    if (factory != null) {
-                        add(factory.make(api, entry));
+                setChildEntries(api, entries);
+                initialized = true;
+            }
+        }
+
+        public Collection<Container.Entry> getChildren() { return entry.getChildren(); }
+
+        protected void setChildEntries(API api, Collection<Container.Entry> entries) {
+            int size = entries.size();
+            Container.Entry[] childEntries = new Container.Entry[size];
+            TreeNodeFactory[] childFactories = new TreeNodeFactory[size];
+            int count = 0;
+
+            for (Entry e : entries) {
+                TreeNodeFactory factory = api.getTreeNodeFactory(e);
+                if (factory != null) {
+                    childEntries[count] = e;
+                    childFactories[count] = factory;
+                    count++;
+                }
+            }
+
+            removeAllChildren();
+
+            this.api = api;
+            this.childEntries = (count == size) ? childEntries : Arrays.copyOf(childEntries, count);
+            this.childFactories = (count == size) ? childFactories : Arrays.copyOf(childFactories, count);
+            this.childNodes = new DefaultMutableTreeNode[count];
+        }
+
+        // --- DefaultMutableTreeNode --- //
+        @Override
+        public int getChildCount() {
+            return (childNodes == null) ? super.getChildCount() : childNodes.length;
+        }
+
+        @Override
+        public javax.swing.tree.TreeNode getChildAt(int index) {
+            if (childNodes == null) {
+                return super.getChildAt(index);
+            }
+
+            DefaultMutableTreeNode node = childNodes[index];
+
+            if (node == null) {
+                childNodes[index] = node = childFactories[index].make(api, childEntries[index]);
+                node.setParent(this);
+                childEntries[index] = null;
+                childFactories[index] = null;
+            }
+
+            return node;
+        }
+
+        @Override
+        public int getIndex(javax.swing.tree.TreeNode child) {
+            if (childNodes == null) {
+                return super.getIndex(child);
+            }
+
+            if (child != null) {
+                DefaultMutableTreeNode[] childNodes = this.childNodes;
+
+                for (int i=0, len=childNodes.length; i<len; i++) {
+                    if (childNodes[i] == child) {
+                        return i;
                     }
                 }
+            }
 
-                initialized = true;
+            return -1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Enumeration children() {
+            if (childNodes == null) {
+                return super.children();
             }
+
+            return new Enumeration() {
+                int index = 0;
+
+                @Override public boolean hasMoreElements() { return index < childNodes.length; }
+                @Override public Object nextElement() { return getChildAt(index++); }
+            };
         }
 
-        public Collection<Container.Entry> getChildren() { return entry.getChildren(); }
+        @Override
+        public void removeAllChildren() {
+            childEntries = null;
+            childFactories = null;
+            childNodes = null;
+            super.removeAllChildren();
+        }
     }
 }
@@ -9,13 +9,20 @@ package org.jd.gui.service.treenode;
 
 import org.jd.gui.api.API;
 import org.jd.gui.api.feature.ContainerEntryGettable;
+import org.jd.gui.api.feature.PageCreator;
 import org.jd.gui.api.feature.UriGettable;
 import org.jd.gui.api.model.Container;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.BlockDeflatedByteSource;
+import org.jd.gui.util.io.ByteSource;
+import org.jd.gui.util.io.MappedFileByteSource;
+import org.jd.gui.view.component.HexPage;
 import org.jd.gui.view.data.TreeNodeBean;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 
 public class FileTreeNodeFactoryProvider extends AbstractTreeNodeFactoryProvider {
@@ -32,7 +39,28 @@ public class FileTreeNodeFactoryProvider extends AbstractTreeNodeFactoryProvider
         return (T)new TreeNode(entry, new TreeNodeBean(label, "Location: " + location, ICON));
     }
 
-    protected static class TreeNode extends DefaultMutableTreeNode implements ContainerEntryGettable, UriGettable {
+    /**
+     * @return the bytes of 'entry', mapped in memory if it is a file of the file system, inflated by blocks otherwise
+     */
+    protected static ByteSource newByteSource(Container.Entry entry) {
+        URI uri = entry.getUri();
+
+        if ("file".equals(uri.getScheme()) && (uri.getPath().indexOf("!/") == -1)) {
+            File file = new File(uri);
+
+            if (file.isFile()) {
+                try {
+                    return new MappedFileByteSource(file.toPath());
+                } catch (IOException e) {
+                    ExceptionUtil.printStackTrace(e);
+                }
+            }
+        }
+
+        return new BlockDeflatedByteSource(entry.getInputStream());
+    }
+
+    protected static class TreeNode extends DefaultMutableTreeNode implements ContainerEntryGettable, UriGettable, PageCreator {
         protected Container.Entry entry;
 
         public TreeNode(Container.Entry entry, Object userObject) {
@@ -40,6 +68,14 @@ public class FileTreeNodeFactoryProvider extends AbstractTreeNodeFactoryProvider
             this.entry = entry;
         }
 
+        // --- PageCreator --- //
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends JComponent & UriGettable> T createPage(API api) {
+            String path = entry.getPath();
+            return (T)new HexPage(entry.getUri(), path.substring(path.lastIndexOf('/') + 1), newByteSource(entry), entry.length());
+        }
+
         // --- ContainerEntryGettable --- //
         @Override public Container.Entry getEntry() { return entry; }
 
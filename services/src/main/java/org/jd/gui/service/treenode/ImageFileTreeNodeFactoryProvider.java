@@ -11,19 +11,28 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.feature.*;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.SubsampledImageDecoder;
 import org.jd.gui.view.data.TreeNodeBean;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ImageFileTreeNodeFactoryProvider extends FileTreeNodeFactoryProvider {
     protected static final ImageIcon ICON = new ImageIcon(ImageFileTreeNodeFactoryProvider.class.getClassLoader().getResource("org/jd/gui/images/file-image.gif"));
+    protected static final SubsampledImageDecoder DECODER = new SubsampledImageDecoder(64 * 1024 * 1024);
+    protected static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-image-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Override public String[] getSelectors() { return appendSelectors("*:file:*.gif", "*:file:*.jpg", "*:file:*.png"); }
 
@@ -47,27 +56,166 @@ public class ImageFileTreeNodeFactoryProvider extends FileTreeNodeFactoryProvide
         }
     }
 
+    /**
+     * Page displaying an image scaled to fit the page, decoded off the event dispatch thread and subsampled to the
+     * displayed size. The full resolution is decoded for the actual size only.
+     */
     protected static class ImagePage extends JPanel implements UriGettable {
         protected Container.Entry entry;
+        protected ImageView imageView = new ImageView();
+        protected JScrollPane scrollPane = new JScrollPane(imageView);
+        protected JCheckBox actualSizeCheckBox = new JCheckBox("Actual size");
+        protected SubsampledImageDecoder.Image image;
+        protected String message = "Loading...";
+        protected volatile int generation;
+        protected int requestedSubsampling;
 
         public ImagePage(Container.Entry entry) {
             super(new BorderLayout());
 
             this.entry = entry;
 
-            try (InputStream is = entry.getInputStream()) {
-                JScrollPane scrollPane = new JScrollPane(new JLabel(new ImageIcon(ImageIO.read(is))));
+            scrollPane.getHorizontalScrollBar().setUnitIncrement(16);
+            scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+            scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+                @Override public void componentResized(ComponentEvent e) { decode(); }
+            });
 
-                scrollPane.getHorizontalScrollBar().setUnitIncrement(16);
-                scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+            actualSizeCheckBox.addActionListener(e -> {
+                imageView.revalidate();
+                imageView.repaint();
+                decode();
+            });
 
-                add(scrollPane, BorderLayout.CENTER);
-            } catch (IOException e) {
-                ExceptionUtil.printStackTrace(e);
+            JPanel south = new JPanel(new FlowLayout(FlowLayout.TRAILING, 2, 0));
+            south.add(actualSizeCheckBox);
+
+            add(scrollPane, BorderLayout.CENTER);
+            add(south, BorderLayout.PAGE_END);
+        }
+
+        /**
+         * Decode the image in background if the displayed size needs another subsampling.
+         */
+        protected void decode() {
+            int maxWidth = 0;
+            int maxHeight = 0;
+
+            if (!actualSizeCheckBox.isSelected()) {
+                Dimension size = scrollPane.getViewport().getExtentSize();
+
+                if ((size.width <= 0) || (size.height <= 0)) {
+                    return;
+                }
+
+                maxWidth = size.width;
+                maxHeight = size.height;
+            }
+
+            if (image != null) {
+                int subsampling = SubsampledImageDecoder.getSubsampling(image.getWidth(), image.getHeight(), maxWidth, maxHeight);
+
+                if ((subsampling == image.getSubsampling()) || (subsampling == requestedSubsampling)) {
+                    return;
+                }
+
+                requestedSubsampling = subsampling;
             }
+
+            int currentGeneration = ++generation;
+            int width = maxWidth;
+            int height = maxHeight;
+
+            EXECUTOR.execute(() -> {
+                if (currentGeneration != generation) {
+                    // Resized again
+                    return;
+                }
+
+                try {
+                    SubsampledImageDecoder.Image decoded = DECODER.decode(entry, width, height);
+
+                    SwingUtilities.invokeLater(() -> {
+                        if (currentGeneration == generation) {
+                            image = decoded;
+                            requestedSubsampling = 0;
+                            imageView.revalidate();
+                            imageView.repaint();
+                        }
+                    });
+                } catch (IOException | RuntimeException e) {
+                    ExceptionUtil.printStackTrace(e);
+
+                    SwingUtilities.invokeLater(() -> {
+                        message = "Unable to decode the image";
+                        imageView.repaint();
+                    });
+                }
+            });
+        }
+
+        @Override
+        public void removeNotify() {
+            super.removeNotify();
+            // Cancel the pending decoding
+            generation++;
         }
 
         // --- UriGettable --- //
         @Override public URI getUri() { return entry.getUri(); }
+
+        /**
+         * Paint the decoded image, scaled to the displayed size.
+         */
+        protected class ImageView extends JComponent implements Scrollable {
+            @Override
+            protected void paintComponent(Graphics g) {
+                if (image == null) {
+                    FontMetrics fm = g.getFontMetrics();
+                    g.setColor(getForeground());
+                    g.drawString(message, (getWidth() - fm.stringWidth(message)) / 2, getHeight() / 2);
+                    return;
+                }
+
+                double scale = 1;
+
+                if (!actualSizeCheckBox.isSelected()) {
+                    scale = Math.min(1, Math.min((double)getWidth() / image.getWidth(), (double)getHeight() / image.getHeight()));
+                }
+
+                int width = (int)Math.max(1, Math.round(image.getWidth() * scale));
+                int height = (int)Math.max(1, Math.round(image.getHeight() * scale));
+                int x = Math.max(0, (getWidth() - width) / 2);
+                int y = Math.max(0, (getHeight() - height) / 2);
+                Graphics2D g2d = (Graphics2D)g;
+
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.drawImage(image.getImage(), x, y, width, height, null);
+            }
+
+            @Override
+            public Dimension getPreferredSize() {
+                if ((image != null) && actualSizeCheckBox.isSelected()) {
+                    return new Dimension(image.getWidth(), image.getHeight());
+                } else {
+                    return new Dimension(1, 1);
+                }
+            }
+
+            // --- Scrollable --- //
+            @Override public Dimension getPreferredScrollableViewportSize() { return getPreferredSize(); }
+            @Override public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) { return 16; }
+            @Override public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) { return (orientation == SwingConstants.VERTICAL) ? visibleRect.height : visibleRect.width; }
+
+            @Override
+            public boolean getScrollableTracksViewportWidth() {
+                return !actualSizeCheckBox.isSelected() || (getParent().getWidth() > getPreferredSize().width);
+            }
+
+            @Override
+            public boolean getScrollableTracksViewportHeight() {
+                return !actualSizeCheckBox.isSelected() || (getParent().getHeight() > getPreferredSize().height);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -38,9 +38,7 @@ public class JavascriptFileTreeNodeFactoryProvider extends TextFileTreeNodeFacto
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
-            return (T)new TextFileTreeNodeFactoryProvider.Page(entry) {
-                @Override public String getSyntaxStyle() { return SyntaxConstants.SYNTAX_STYLE_JAVASCRIPT; }
-            };
+            return (T)TextFileTreeNodeFactoryProvider.newPage(entry, SyntaxConstants.SYNTAX_STYLE_JAVASCRIPT);
         }
     }
 }
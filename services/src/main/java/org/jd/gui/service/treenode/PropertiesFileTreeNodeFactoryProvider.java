@@ -39,11 +39,7 @@ public class PropertiesFileTreeNodeFactoryProvider extends TextFileTreeNodeFacto
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
-            return (T)new TextFileTreeNodeFactoryProvider.Page(entry) {
-                @Override public String getSyntaxStyle() {
-                    return SyntaxConstants.SYNTAX_STYLE_PROPERTIES_FILE;
-                }
-            };
+            return (T)TextFileTreeNodeFactoryProvider.newPage(entry, SyntaxConstants.SYNTAX_STYLE_PROPERTIES_FILE);
         }
     }
 }
\ No newline at end of file
@@ -39,9 +39,7 @@ public class SqlFileTreeNodeFactoryProvider extends TextFileTreeNodeFactoryProvi
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
-            return (T)new TextFileTreeNodeFactoryProvider.Page(entry) {
-                @Override public String getSyntaxStyle() { return SyntaxConstants.SYNTAX_STYLE_SQL; }
-            };
+            return (T)TextFileTreeNodeFactoryProvider.newPage(entry, SyntaxConstants.SYNTAX_STYLE_SQL);
         }
     }
 }
\ No newline at end of file
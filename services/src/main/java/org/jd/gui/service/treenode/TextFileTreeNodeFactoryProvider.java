@@ -8,6 +8,7 @@
 package org.jd.gui.service.treenode;
 
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rsyntaxtextarea.Theme;
 import org.fife.ui.rtextarea.Gutter;
 import org.jd.gui.api.API;
@@ -16,7 +17,10 @@ import org.jd.gui.api.feature.PageCreator;
 import org.jd.gui.api.feature.UriGettable;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.BlockDeflatedByteSource;
+import org.jd.gui.util.io.PagedText;
 import org.jd.gui.util.io.TextReader;
+import org.jd.gui.view.component.PagedTextPage;
 import org.jd.gui.view.component.TextPage;
 import org.jd.gui.view.data.TreeNodeBean;
 
@@ -25,9 +29,14 @@ import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.Charset;
 
 public class TextFileTreeNodeFactoryProvider extends FileTreeNodeFactoryProvider {
     protected static final ImageIcon ICON = new ImageIcon(TextFileTreeNodeFactoryProvider.class.getClassLoader().getResource("org/jd/gui/images/ascii_obj.png"));
+    /**
+     * Size, in bytes, above which an entry is displayed by pages instead of loaded at once
+     */
+    protected static final long PAGED_TEXT_THRESHOLD = 16 * 1024 * 1024;
 
     static {
         // Early class loading
@@ -59,18 +68,65 @@ public class TextFileTreeNodeFactoryProvider extends FileTreeNodeFactoryProvider
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
-            return (T)new Page(entry);
+            return (T)newPage(entry, SyntaxConstants.SYNTAX_STYLE_NONE);
+        }
+    }
+
+    /**
+     * @return a page loading 'entry' at once, or by pages if 'entry' is large
+     */
+    protected static JComponent newPage(Container.Entry entry, String syntaxStyle) {
+        if (entry.length() > PAGED_TEXT_THRESHOLD) {
+            return new PagedPage(entry, syntaxStyle);
+        } else {
+            return new Page(entry, syntaxStyle);
         }
     }
 
     protected static class Page extends TextPage implements UriGettable {
         protected Container.Entry entry;
+        protected String syntaxStyle;
 
         public Page(Container.Entry entry) {
             this.entry = entry;
             setText(TextReader.getText(entry.getInputStream()));
         }
 
+        public Page(Container.Entry entry, String syntaxStyle) {
+            this(entry);
+            this.syntaxStyle = syntaxStyle;
+            textArea.setSyntaxEditingStyle(syntaxStyle);
+        }
+
+        @Override public String getSyntaxStyle() { return (syntaxStyle != null) ? syntaxStyle : super.getSyntaxStyle(); }
+
+        // --- UriGettable --- //
+        @Override public URI getUri() { return entry.getUri(); }
+
+        // --- ContentSavable --- //
+        public String getFileName() {
+            String path = entry.getPath();
+            int index = path.lastIndexOf("/");
+            return path.substring(index+1);
+        }
+    }
+
+    protected static class PagedPage extends PagedTextPage implements UriGettable {
+        protected Container.Entry entry;
+        protected String syntaxStyle;
+
+        public PagedPage(Container.Entry entry, String syntaxStyle) {
+            super(new PagedText(new BlockDeflatedByteSource(entry.getInputStream()), Charset.defaultCharset()));
+            this.entry = entry;
+            this.syntaxStyle = syntaxStyle;
+            textArea.setSyntaxEditingStyle(syntaxStyle);
+        }
+
+        @Override public String getSyntaxStyle() { return (syntaxStyle != null) ? syntaxStyle : super.getSyntaxStyle(); }
+
+        @Override protected boolean isHyperlinkEnabled(HyperlinkData hyperlinkData) { return false; }
+        @Override protected void openHyperlink(int x, int y, HyperlinkData hyperlinkData) {}
+
         // --- UriGettable --- //
         @Override public URI getUri() { return entry.getUri(); }
 
@@ -81,4 +137,4 @@ public class TextFileTreeNodeFactoryProvider extends FileTreeNodeFactoryProvider
             return path.substring(index+1);
         }
     }
-}
\ No newline at end of file
+}
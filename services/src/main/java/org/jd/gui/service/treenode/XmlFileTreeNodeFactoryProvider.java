@@ -7,6 +7,7 @@
 
 package org.jd.gui.service.treenode;
 
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.jd.gui.api.API;
 import org.jd.gui.api.feature.ContainerEntryGettable;
 import org.jd.gui.api.feature.UriGettable;
@@ -39,6 +40,10 @@ public class XmlFileTreeNodeFactoryProvider extends TextFileTreeNodeFactoryProvi
         @Override
         @SuppressWarnings("unchecked")
         public <T extends JComponent & UriGettable> T createPage(API api) {
+            if (entry.length() > PAGED_TEXT_THRESHOLD) {
+                // Too large to be parsed: display without hyperlinks
+                return (T)newPage(entry, SyntaxConstants.SYNTAX_STYLE_XML);
+            }
             return (T)new XmlFilePage(api, entry);
         }
     }
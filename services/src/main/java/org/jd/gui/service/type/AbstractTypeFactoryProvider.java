@@ -419,7 +419,7 @@ public abstract class AbstractTypeFactoryProvider implements TypeFactory {
     protected static final ImageIcon[] FIELD_ICONS = mergeIcons(FINAL_STATIC_FIELD_ICONS, ABSTRACT_OVERLAY_ICON, 0, 100);
     protected static final ImageIcon[] METHOD_ICONS = mergeIcons(FINAL_STATIC_METHOD_ICONS, ABSTRACT_OVERLAY_ICON, 0, 100);
 
-    // Cache
+    // Cache, also read by the hyperlink resolver thread
     protected static class Cache<K, V> extends LinkedHashMap<K, V> {
         public static final int CACHE_MAX_ENTRIES = 100;
 
@@ -427,6 +427,10 @@ public abstract class AbstractTypeFactoryProvider implements TypeFactory {
             super(CACHE_MAX_ENTRIES*3/2, 0.7f, true);
         }
 
+        @Override public synchronized boolean containsKey(Object key) { return super.containsKey(key); }
+        @Override public synchronized V get(Object key) { return super.get(key); }
+        @Override public synchronized V put(K key, V value) { return super.put(key, value); }
+
         @Override
         protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
             return size() > CACHE_MAX_ENTRIES;
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from primitive long keys to dense indexes (0, 1, 2...), in insertion order.
+ * Values are stored by the caller in arrays or lists at these indexes.
+ */
+public class LongIndexMap {
+    protected long[] slotKeys;
+    /**
+     * Index + 1, 0 for an empty slot
+     */
+    protected int[] slotIndexes;
+    protected long[] keys;
+    protected int size;
+
+    public LongIndexMap() { this(256); }
+
+    public LongIndexMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 2;
+        this.slotKeys = new long[capacity];
+        this.slotIndexes = new int[capacity];
+        this.keys = new long[initialCapacity];
+    }
+
+    public int size() { return size; }
+
+    public long getKey(int index) { return keys[index]; }
+
+    /**
+     * @return the index of 'key' or -1
+     */
+    public int get(long key) {
+        int mask = slotKeys.length - 1;
+        int slot = mix(key) & mask;
+        int index;
+
+        while ((index = slotIndexes[slot]) != 0) {
+            if (slotKeys[slot] == key) {
+                return index - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the index of 'key', a new index equal to the previous size if 'key' was not present
+     */
+    public int add(long key) {
+        int mask = slotKeys.length - 1;
+        int slot = mix(key) & mask;
+        int index;
+
+        while ((index = slotIndexes[slot]) != 0) {
+            if (slotKeys[slot] == key) {
+                return index - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size >= keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+
+        index = size++;
+        keys[index] = key;
+        slotKeys[slot] = key;
+        slotIndexes[slot] = index + 1;
+
+        if (size * 2 > slotKeys.length) {
+            rehash();
+        }
+
+        return index;
+    }
+
+    public void clear() {
+        Arrays.fill(slotIndexes, 0);
+        size = 0;
+    }
+
+    protected void rehash() {
+        int capacity = slotKeys.length * 2;
+        int mask = capacity - 1;
+
+        slotKeys = new long[capacity];
+        slotIndexes = new int[capacity];
+
+        for (int index=0; index<size; index++) {
+            long key = keys[index];
+            int slot = mix(key) & mask;
+
+            while (slotIndexes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slotKeys[slot] = key;
+            slotIndexes[slot] = index + 1;
+        }
+    }
+
+    protected static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.collection;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Values attached to [start, end) ranges of a text, sorted by start offset and stored in flat arrays.
+ * Ranges are expected to be added in ascending order (as a printer produces them): appends don't move data,
+ * out of order insertions shift the tail, and a range with an existing start offset replaces the previous one.
+ */
+public class OffsetRangeMap<V> implements Iterable<V> {
+    protected int[] starts;
+    protected int[] ends;
+    protected Object[] values;
+    protected int size;
+
+    public OffsetRangeMap() { this(64); }
+
+    public OffsetRangeMap(int initialCapacity) {
+        this.starts = new int[initialCapacity];
+        this.ends = new int[initialCapacity];
+        this.values = new Object[initialCapacity];
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int getStart(int index) { return starts[index]; }
+    public int getEnd(int index) { return ends[index]; }
+
+    @SuppressWarnings("unchecked")
+    public V getValue(int index) { return (V)values[index]; }
+
+    public void put(int start, int end, V value) {
+        int index;
+
+        if ((size == 0) || (start > starts[size-1])) {
+            index = size;
+        } else {
+            index = Arrays.binarySearch(starts, 0, size, start);
+
+            if (index >= 0) {
+                ends[index] = end;
+                values[index] = value;
+                return;
+            }
+
+            index = -(index + 1);
+        }
+
+        if (size == starts.length) {
+            int capacity = Math.max(16, size * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        if (index < size) {
+            System.arraycopy(starts, index, starts, index+1, size-index);
+            System.arraycopy(ends, index, ends, index+1, size-index);
+            System.arraycopy(values, index, values, index+1, size-index);
+        }
+
+        starts[index] = start;
+        ends[index] = end;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * @return the index of the range with the greatest start offset lower or equal to 'offset', or -1
+     */
+    public int floorIndex(int offset) {
+        int index = Arrays.binarySearch(starts, 0, size, offset);
+        return (index >= 0) ? index : -(index + 1) - 1;
+    }
+
+    /**
+     * @return the value of the range containing 'offset', or null
+     */
+    public V get(int offset) {
+        int index = floorIndex(offset);
+        return ((index >= 0) && (offset < ends[index])) ? getValue(index) : null;
+    }
+
+    /**
+     * Move all ranges after a text edit.
+     *
+     * @param shift monotonic function mapping old offsets to new offsets
+     */
+    public void shift(IntUnaryOperator shift) {
+        for (int i=0; i<size; i++) {
+            starts[i] = shift.applyAsInt(starts[i]);
+            ends[i] = shift.applyAsInt(ends[i]);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            protected int index = 0;
+
+            @Override public boolean hasNext() { return index < size; }
+
+            @Override
+            public V next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return getValue(index++);
+            }
+        };
+    }
+}
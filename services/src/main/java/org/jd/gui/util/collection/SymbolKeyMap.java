@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.collection;
+
+import java.util.*;
+
+/**
+ * Map for composite keys 'type', 'type&lt;sep&gt;name' and 'type&lt;sep&gt;name&lt;sep&gt;descriptor'. Parts are
+ * interned in a {@link SymbolTable} and keys are stored as packed longs: lookups by parts don't concatenate
+ * strings, and key strings are only rebuilt when the entry set is iterated.
+ * Keys are split from the right, so the first part may contain the separator.
+ */
+public class SymbolKeyMap<V> extends AbstractMap<String, V> {
+    protected char separator;
+    protected SymbolTable symbols = new SymbolTable();
+    protected LongIndexMap indexes = new LongIndexMap();
+    protected ArrayList<V> values = new ArrayList<>();
+
+    public SymbolKeyMap(char separator) {
+        this.separator = separator;
+    }
+
+    public V get(String typeName, String name, String descriptor) {
+        if ((name == null) || (descriptor == null)) {
+            return get(typeName);
+        }
+        if ((name.indexOf(separator) != -1) || (descriptor.indexOf(separator) != -1)) {
+            return get(typeName + separator + name + separator + descriptor);
+        }
+
+        int typeId = symbols.find(typeName);
+        int nameId = symbols.find(name);
+        int descriptorId = symbols.find(descriptor);
+
+        if ((typeId == 0) || (nameId == 0) || (descriptorId == 0)) {
+            return null;
+        }
+
+        int index = indexes.get(SymbolTable.pack(typeId, nameId, descriptorId));
+        return (index == -1) ? null : values.get(index);
+    }
+
+    public V put(String typeName, String name, String descriptor, V value) {
+        if ((name == null) || (descriptor == null)) {
+            return put(typeName, value);
+        }
+        if ((name.indexOf(separator) != -1) || (descriptor.indexOf(separator) != -1)) {
+            return put(typeName + separator + name + separator + descriptor, value);
+        }
+
+        return put(SymbolTable.pack(symbols.intern(typeName), symbols.intern(name), symbols.intern(descriptor)), value);
+    }
+
+    // --- Map --- //
+    @Override public int size() { return values.size(); }
+
+    @Override public boolean containsKey(Object key) { return get(key) != null; }
+
+    @Override
+    public V get(Object key) {
+        if (key instanceof String) {
+            String s = (String)key;
+            int last = s.lastIndexOf(separator);
+            int id1, id2 = 0, id3 = 0;
+
+            if (last == -1) {
+                id1 = symbols.find(s);
+            } else {
+                int previous = s.lastIndexOf(separator, last - 1);
+
+                if (previous == -1) {
+                    id1 = symbols.find(s, 0, last);
+                } else {
+                    id1 = symbols.find(s, 0, previous);
+                    id2 = symbols.find(s, previous + 1, last);
+                    if (id2 == 0) return null;
+                }
+
+                id3 = symbols.find(s, last + 1, s.length());
+                if (id3 == 0) return null;
+            }
+
+            if (id1 == 0) {
+                return null;
+            }
+
+            int index = indexes.get(SymbolTable.pack(id1, id2, id3));
+            return (index == -1) ? null : values.get(index);
+        }
+
+        return null;
+    }
+
+    @Override
+    public V put(String key, V value) {
+        int last = key.lastIndexOf(separator);
+
+        if (last == -1) {
+            return put(SymbolTable.pack(symbols.intern(key), 0, 0), value);
+        }
+
+        int previous = key.lastIndexOf(separator, last - 1);
+        int id3 = symbols.intern(key.substring(last + 1));
+
+        if (previous == -1) {
+            return put(SymbolTable.pack(symbols.intern(key.substring(0, last)), 0, id3), value);
+        } else {
+            return put(SymbolTable.pack(symbols.intern(key.substring(0, previous)), symbols.intern(key.substring(previous + 1, last)), id3), value);
+        }
+    }
+
+    @Override
+    public void clear() {
+        symbols.clear();
+        indexes.clear();
+        values.clear();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override public int size() { return values.size(); }
+
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<Entry<String, V>>() {
+                    protected int index = 0;
+
+                    @Override public boolean hasNext() { return index < values.size(); }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        if (index >= values.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        V value = values.get(index);
+                        return new SimpleImmutableEntry<>(getKey(indexes.getKey(index++)), value);
+                    }
+                };
+            }
+        };
+    }
+
+    protected V put(long key, V value) {
+        int index = indexes.add(key);
+
+        if (index == values.size()) {
+            values.add(value);
+            return null;
+        } else {
+            return values.set(index, value);
+        }
+    }
+
+    protected String getKey(long key) {
+        int mask = SymbolTable.MAX_ID;
+        String typeName = symbols.get((int)(key >>> (2 * SymbolTable.ID_BITS)) & mask);
+        int nameId = (int)(key >>> SymbolTable.ID_BITS) & mask;
+        int descriptorId = (int)key & mask;
+
+        if (descriptorId == 0) {
+            return typeName;
+        } else if (nameId == 0) {
+            return typeName + separator + symbols.get(descriptorId);
+        } else {
+            return typeName + separator + symbols.get(nameId) + separator + symbols.get(descriptorId);
+        }
+    }
+}
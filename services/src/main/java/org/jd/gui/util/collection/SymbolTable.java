@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Interns strings into dense positive ids (1, 2, 3...). Id 0 stands for 'null' or 'not found'.
+ * Lookups accept a range of characters, so that a part of a key can be found without creating a substring.
+ */
+public class SymbolTable {
+    protected static final int ID_BITS = 21;
+    protected static final int MAX_ID = (1 << ID_BITS) - 1;
+
+    protected String[] slotSymbols;
+    protected int[] slotIds;
+    protected String[] symbols;
+    protected int size;
+
+    public SymbolTable() { this(256); }
+
+    public SymbolTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 2;
+        this.slotSymbols = new String[capacity];
+        this.slotIds = new int[capacity];
+        this.symbols = new String[initialCapacity + 1];
+    }
+
+    public int size() { return size; }
+
+    public String get(int id) { return (id == 0) ? null : symbols[id]; }
+
+    public int find(String s) {
+        return (s == null) ? 0 : find(s, 0, s.length(), s.hashCode());
+    }
+
+    public int find(String s, int start, int end) {
+        return find(s, start, end, hash(s, start, end));
+    }
+
+    public int intern(String s) {
+        if (s == null) {
+            return 0;
+        }
+
+        int hash = s.hashCode();
+        int mask = slotSymbols.length - 1;
+        int slot = mix(hash) & mask;
+        String symbol;
+
+        while ((symbol = slotSymbols[slot]) != null) {
+            if (symbol.equals(s)) {
+                return slotIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size >= MAX_ID) {
+            throw new IllegalStateException("Too many symbols");
+        }
+
+        int id = ++size;
+
+        if (id >= symbols.length) {
+            symbols = Arrays.copyOf(symbols, symbols.length * 2);
+        }
+
+        symbols[id] = s;
+        slotSymbols[slot] = s;
+        slotIds[slot] = id;
+
+        if (size * 2 > slotSymbols.length) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    public void clear() {
+        Arrays.fill(slotSymbols, null);
+        Arrays.fill(slotIds, 0);
+        Arrays.fill(symbols, 0, size + 1, null);
+        size = 0;
+    }
+
+    /**
+     * Pack three ids into a long key.
+     */
+    public static long pack(int id1, int id2, int id3) {
+        return ((long)id1 << (2 * ID_BITS)) | ((long)id2 << ID_BITS) | id3;
+    }
+
+    protected int find(String s, int start, int end, int hash) {
+        int length = end - start;
+        int mask = slotSymbols.length - 1;
+        int slot = mix(hash) & mask;
+        String symbol;
+
+        while ((symbol = slotSymbols[slot]) != null) {
+            if ((symbol.length() == length) && symbol.regionMatches(0, s, start, length)) {
+                return slotIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    protected void rehash() {
+        String[] oldSlotSymbols = slotSymbols;
+        int[] oldSlotIds = slotIds;
+        int capacity = oldSlotSymbols.length * 2;
+        int mask = capacity - 1;
+
+        slotSymbols = new String[capacity];
+        slotIds = new int[capacity];
+
+        for (int i=0; i<oldSlotSymbols.length; i++) {
+            String symbol = oldSlotSymbols[i];
+
+            if (symbol != null) {
+                int slot = mix(symbol.hashCode()) & mask;
+
+                while (slotSymbols[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                slotSymbols[slot] = symbol;
+                slotIds[slot] = oldSlotIds[i];
+            }
+        }
+    }
+
+    /**
+     * Same value as 'String.hashCode()' for the substring.
+     */
+    protected static int hash(String s, int start, int end) {
+        int h = 0;
+
+        for (int i=start; i<end; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+
+        return h;
+    }
+
+    protected static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -15,12 +15,15 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Opcodes;
 
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
 
 public class JarContainerEntryUtil {
+    /**
+     * Inner type paths per container, filled by the class file indexer and by the package expansions: the
+     * 'InnerClasses' attribute of a class file is read once per container.
+     */
+    protected static final Map<Container, InnerTypes> INNER_TYPES = Collections.synchronizedMap(new WeakHashMap<>());
+
     public static Collection<Container.Entry> removeInnerTypeEntries(Collection<Container.Entry> entries) {
         HashSet<String> potentialOuterTypePaths = new HashSet<>();
         Collection<Container.Entry> filtredSubEntries;
@@ -43,7 +46,7 @@ public class JarContainerEntryUtil {
         if (potentialOuterTypePaths.size() == 0) {
             filtredSubEntries = entries;
         } else {
-            HashSet<String> innerTypePaths = new HashSet<>();
+            InnerTypes innerTypePaths = getInnerTypes(entries.iterator().next().getContainer());
 
             for (Container.Entry e : entries) {
                 if (!e.isDirectory() && potentialOuterTypePaths.contains(e.getPath())) {
@@ -90,21 +93,63 @@ public class JarContainerEntryUtil {
         return list;
     }
 
-    protected static void populateInnerTypePaths(final HashSet<String> innerTypePaths, Container.Entry entry) {
+    /**
+     * Record the inner types declared by the class file 'entry', read by the indexer.
+     *
+     * @param typeName the internal name of the type declared by 'entry'
+     * @param innerTypeNames the internal names of the types in its 'InnerClasses' attribute
+     */
+    public static void addInnerTypes(Container.Entry entry, String typeName, Collection<String> innerTypeNames) {
+        String p = entry.getPath();
+
+        if ((typeName != null) && p.endsWith(typeName + ".class")) {
+            String prefixPath = p.substring(0, p.length() - typeName.length() - 6);
+            getInnerTypes(entry.getContainer()).add(p, prefixPath, innerTypeNames);
+        }
+    }
+
+    protected static InnerTypes getInnerTypes(Container container) {
+        return INNER_TYPES.computeIfAbsent(container, c -> new InnerTypes());
+    }
+
+    protected static void populateInnerTypePaths(final InnerTypes innerTypePaths, Container.Entry entry) {
+        if (innerTypePaths.isRead(entry.getPath())) {
+            return;
+        }
+
         try (InputStream is = entry.getInputStream()) {
             ClassReader classReader = new ClassReader(is);
             String p = entry.getPath();
             final String prefixPath = p.substring(0, p.length() - classReader.getClassName().length() - 6);
+            final ArrayList<String> innerTypeNames = new ArrayList<>();
 
             ClassVisitor classVisitor = new ClassVisitor(Opcodes.ASM7) {
                 public void visitInnerClass(final String name, final String outerName, final String innerName, final int access) {
-                    innerTypePaths.add(prefixPath + name + ".class");
+                    innerTypeNames.add(name);
                 }
             };
 
             classReader.accept(classVisitor, ClassReader.SKIP_CODE|ClassReader.SKIP_DEBUG|ClassReader.SKIP_FRAMES);
+            innerTypePaths.add(p, prefixPath, innerTypeNames);
         } catch (Exception e) {
             ExceptionUtil.printStackTrace(e);
         }
     }
+
+    protected static class InnerTypes {
+        protected HashSet<String> readPaths = new HashSet<>();
+        protected HashSet<String> innerTypePaths = new HashSet<>();
+
+        public synchronized boolean isRead(String path) { return readPaths.contains(path); }
+
+        public synchronized boolean contains(String path) { return innerTypePaths.contains(path); }
+
+        public synchronized void add(String path, String prefixPath, Collection<String> innerTypeNames) {
+            if (readPaths.add(path)) {
+                for (String name : innerTypeNames) {
+                    innerTypePaths.add(prefixPath + name + ".class");
+                }
+            }
+        }
+    }
 }
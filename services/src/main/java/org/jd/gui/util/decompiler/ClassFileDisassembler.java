@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.objectweb.asm.*;
+
+import java.util.HashMap;
+
+import static org.objectweb.asm.ClassReader.*;
+
+/**
+ * Bytecode listing of a class file, printed with ASM. The class skeleton can be printed alone, without reading
+ * the code of the methods, then the code of each method on demand.
+ */
+public class ClassFileDisassembler {
+    protected static final String NEWLINE = "\n";
+    protected static final String MEMBER_INDENT = "  ";
+    protected static final String LABEL_INDENT = "    ";
+    protected static final String INSTRUCTION_INDENT = "      ";
+    protected static final String[] OPCODES = (
+        "NOP ACONST_NULL ICONST_M1 ICONST_0 ICONST_1 ICONST_2 ICONST_3 ICONST_4 ICONST_5 LCONST_0 LCONST_1 " +
+        "FCONST_0 FCONST_1 FCONST_2 DCONST_0 DCONST_1 BIPUSH SIPUSH LDC LDC_W LDC2_W ILOAD LLOAD FLOAD DLOAD " +
+        "ALOAD ILOAD_0 ILOAD_1 ILOAD_2 ILOAD_3 LLOAD_0 LLOAD_1 LLOAD_2 LLOAD_3 FLOAD_0 FLOAD_1 FLOAD_2 " +
+        "FLOAD_3 DLOAD_0 DLOAD_1 DLOAD_2 DLOAD_3 ALOAD_0 ALOAD_1 ALOAD_2 ALOAD_3 IALOAD LALOAD FALOAD DALOAD " +
+        "AALOAD BALOAD CALOAD SALOAD ISTORE LSTORE FSTORE DSTORE ASTORE ISTORE_0 ISTORE_1 ISTORE_2 ISTORE_3 " +
+        "LSTORE_0 LSTORE_1 LSTORE_2 LSTORE_3 FSTORE_0 FSTORE_1 FSTORE_2 FSTORE_3 DSTORE_0 DSTORE_1 DSTORE_2 " +
+        "DSTORE_3 ASTORE_0 ASTORE_1 ASTORE_2 ASTORE_3 IASTORE LASTORE FASTORE DASTORE AASTORE BASTORE " +
+        "CASTORE SASTORE POP POP2 DUP DUP_X1 DUP_X2 DUP2 DUP2_X1 DUP2_X2 SWAP IADD LADD FADD DADD ISUB LSUB " +
+        "FSUB DSUB IMUL LMUL FMUL DMUL IDIV LDIV FDIV DDIV IREM LREM FREM DREM INEG LNEG FNEG DNEG ISHL LSHL " +
+        "ISHR LSHR IUSHR LUSHR IAND LAND IOR LOR IXOR LXOR IINC I2L I2F I2D L2I L2F L2D F2I F2L F2D D2I D2L " +
+        "D2F I2B I2C I2S LCMP FCMPL FCMPG DCMPL DCMPG IFEQ IFNE IFLT IFGE IFGT IFLE IF_ICMPEQ IF_ICMPNE " +
+        "IF_ICMPLT IF_ICMPGE IF_ICMPGT IF_ICMPLE IF_ACMPEQ IF_ACMPNE GOTO JSR RET TABLESWITCH LOOKUPSWITCH " +
+        "IRETURN LRETURN FRETURN DRETURN ARETURN RETURN GETSTATIC PUTSTATIC GETFIELD PUTFIELD INVOKEVIRTUAL " +
+        "INVOKESPECIAL INVOKESTATIC INVOKEINTERFACE INVOKEDYNAMIC NEW NEWARRAY ANEWARRAY ARRAYLENGTH ATHROW " +
+        "CHECKCAST INSTANCEOF MONITORENTER MONITOREXIT WIDE MULTIANEWARRAY IFNULL IFNONNULL ").split(" ");
+    protected static final String[] ARRAY_TYPES = { null, null, null, null, "T_BOOLEAN", "T_CHAR", "T_FLOAT", "T_DOUBLE", "T_BYTE", "T_SHORT", "T_INT", "T_LONG" };
+
+    protected ClassReader reader;
+
+    public ClassFileDisassembler(byte[] data) {
+        this.reader = new ClassReader(data);
+    }
+
+    public String getInternalName() { return reader.getClassName(); }
+
+    /**
+     * Print the class declaration, the fields and the methods.
+     *
+     * @param code if false, the code of the methods is not read: {@link Output#printCodePlaceholder(String, String)}
+     *             is called instead
+     */
+    public void printClass(Output output, boolean code) {
+        reader.accept(new ClassPrinter(output, code), code ? SKIP_FRAMES : (SKIP_CODE | SKIP_FRAMES));
+    }
+
+    /**
+     * Print the code of the method 'name' with 'descriptor' only.
+     */
+    public void printCode(Output output, String name, String descriptor) {
+        reader.accept(new ClassVisitor(Opcodes.ASM7) {
+            @Override
+            public MethodVisitor visitMethod(int access, String n, String d, String signature, String[] exceptions) {
+                return (n.equals(name) && d.equals(descriptor)) ? new CodePrinter(output, reader.getClassName()) : null;
+            }
+        }, SKIP_FRAMES);
+    }
+
+    protected static void appendAccess(StringBuilder sb, int access) {
+        if ((access & Opcodes.ACC_PUBLIC) != 0) sb.append("public ");
+        if ((access & Opcodes.ACC_PROTECTED) != 0) sb.append("protected ");
+        if ((access & Opcodes.ACC_PRIVATE) != 0) sb.append("private ");
+        if ((access & Opcodes.ACC_STATIC) != 0) sb.append("static ");
+        if ((access & Opcodes.ACC_FINAL) != 0) sb.append("final ");
+        if ((access & Opcodes.ACC_ABSTRACT) != 0) sb.append("abstract ");
+        if ((access & Opcodes.ACC_NATIVE) != 0) sb.append("native ");
+        if ((access & Opcodes.ACC_SYNTHETIC) != 0) sb.append("synthetic ");
+    }
+
+    /**
+     * Text of the listing. Declarations, references and strings are printed by methods overridden by the pages
+     * recording their positions.
+     */
+    public static class Output {
+        protected StringBuilder sb = new StringBuilder(4 * 1024);
+
+        public StringBuilder getStringBuilder() { return sb; }
+
+        public void printDeclaration(String internalTypeName, String name, String descriptor, String text) {
+            sb.append(text);
+        }
+
+        public void printReference(String internalTypeName, String name, String descriptor, String ownerInternalName, String text) {
+            sb.append(text);
+        }
+
+        public void printString(String constant, String ownerInternalName) {
+            sb.append('"');
+
+            for (int i=0, length=constant.length(); i<length; i++) {
+                char c = constant.charAt(i);
+
+                switch (c) {
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '"': sb.append("\\\""); break;
+                    default:
+                        if ((c < 0x20) || (c > 0x7E)) {
+                            sb.append("\\u").append(Integer.toHexString(0x10000 | c).substring(1));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+
+            sb.append('"');
+        }
+
+        /**
+         * Called, in place of the code of the method 'name' with 'descriptor', when the code is not read.
+         */
+        public void printCodePlaceholder(String name, String descriptor) {
+            sb.append(LABEL_INDENT).append("// ...").append(NEWLINE);
+        }
+
+        /**
+         * Print a type name, as a reference if it is not an array.
+         */
+        public void printTypeReference(String internalTypeName, String ownerInternalName) {
+            if (internalTypeName.charAt(0) == '[') {
+                sb.append(internalTypeName);
+            } else {
+                printReference(internalTypeName, null, null, ownerInternalName, internalTypeName);
+            }
+        }
+
+        public void printMemberReference(String owner, String name, String descriptor, String ownerInternalName) {
+            printTypeReference(owner, ownerInternalName);
+            sb.append('.');
+
+            if (owner.charAt(0) == '[') {
+                sb.append(name);
+            } else {
+                printReference(owner, name, descriptor, ownerInternalName, name);
+            }
+        }
+    }
+
+    protected static class ClassPrinter extends ClassVisitor {
+        protected Output output;
+        protected StringBuilder sb;
+        protected boolean code;
+        protected String internalName;
+
+        public ClassPrinter(Output output, boolean code) {
+            super(Opcodes.ASM7);
+            this.output = output;
+            this.sb = output.getStringBuilder();
+            this.code = code;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            int majorVersion = version & 0xFFFF;
+
+            internalName = name;
+            sb.append("// class version ").append(majorVersion).append('.').append(version >>> 16);
+            sb.append(", access flags 0x").append(Integer.toHexString(access).toUpperCase()).append(NEWLINE);
+
+            if ((access & Opcodes.ACC_ANNOTATION) != 0) {
+                appendAccess(sb, access & ~(Opcodes.ACC_ABSTRACT | Opcodes.ACC_INTERFACE));
+                sb.append("@interface ");
+            } else if ((access & Opcodes.ACC_INTERFACE) != 0) {
+                appendAccess(sb, access & ~Opcodes.ACC_ABSTRACT);
+                sb.append("interface ");
+            } else if ((access & Opcodes.ACC_ENUM) != 0) {
+                appendAccess(sb, access);
+                sb.append("enum ");
+            } else {
+                appendAccess(sb, access);
+                sb.append("class ");
+            }
+
+            output.printDeclaration(name, null, null, name);
+
+            if (superName != null) {
+                sb.append(" extends ");
+                output.printTypeReference(superName, name);
+            }
+
+            if ((interfaces != null) && (interfaces.length > 0)) {
+                sb.append(" implements ");
+
+                for (int i=0; i<interfaces.length; i++) {
+                    if (i > 0) sb.append(", ");
+                    output.printTypeReference(interfaces[i], name);
+                }
+            }
+
+            sb.append(" {").append(NEWLINE);
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            if (source != null) {
+                sb.append(NEWLINE).append(MEMBER_INDENT).append("// compiled from: ").append(source).append(NEWLINE);
+            }
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            sb.append(NEWLINE).append(MEMBER_INDENT);
+            appendAccess(sb, access);
+            output.printDeclaration(internalName, name, descriptor, name);
+            sb.append(" : ").append(descriptor);
+
+            if (value instanceof String) {
+                sb.append(" = ");
+                output.printString((String)value, internalName);
+            } else if (value != null) {
+                sb.append(" = ").append(value);
+            }
+
+            sb.append(NEWLINE);
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            sb.append(NEWLINE).append(MEMBER_INDENT);
+            appendAccess(sb, access & ~Opcodes.ACC_VARARGS);
+            output.printDeclaration(internalName, name, descriptor, name);
+            sb.append(descriptor);
+
+            if ((exceptions != null) && (exceptions.length > 0)) {
+                sb.append(" throws ");
+
+                for (int i=0; i<exceptions.length; i++) {
+                    if (i > 0) sb.append(", ");
+                    output.printTypeReference(exceptions[i], internalName);
+                }
+            }
+
+            if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                sb.append(NEWLINE);
+                return null;
+            }
+
+            sb.append(" {").append(NEWLINE);
+
+            if (code) {
+                return new CodePrinter(output, internalName) {
+                    @Override
+                    public void visitEnd() {
+                        sb.append(MEMBER_INDENT).append('}').append(NEWLINE);
+                    }
+                };
+            } else {
+                output.printCodePlaceholder(name, descriptor);
+                sb.append(MEMBER_INDENT).append('}').append(NEWLINE);
+                return null;
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            sb.append('}').append(NEWLINE);
+        }
+    }
+
+    protected static class CodePrinter extends MethodVisitor {
+        protected Output output;
+        protected StringBuilder sb;
+        protected String internalName;
+        protected HashMap<Label, String> labelNames = new HashMap<>();
+
+        public CodePrinter(Output output, String internalName) {
+            super(Opcodes.ASM7);
+            this.output = output;
+            this.sb = output.getStringBuilder();
+            this.internalName = internalName;
+        }
+
+        protected String getLabelName(Label label) {
+            return labelNames.computeIfAbsent(label, l -> "L" + labelNames.size());
+        }
+
+        protected StringBuilder startInstruction(int opcode) {
+            return sb.append(INSTRUCTION_INDENT).append(OPCODES[opcode]);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            startInstruction(opcode).append(NEWLINE);
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            startInstruction(opcode).append(' ').append((opcode == Opcodes.NEWARRAY) ? ARRAY_TYPES[operand] : Integer.toString(operand)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            startInstruction(opcode).append(' ').append(var).append(NEWLINE);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            startInstruction(opcode).append(' ');
+            output.printTypeReference(type, internalName);
+            sb.append(NEWLINE);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            startInstruction(opcode).append(' ');
+            output.printMemberReference(owner, name, descriptor, internalName);
+            sb.append(" : ").append(descriptor).append(NEWLINE);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            startInstruction(opcode).append(' ');
+            output.printMemberReference(owner, name, descriptor, internalName);
+            sb.append(' ').append(descriptor);
+
+            if (isInterface && (opcode != Opcodes.INVOKEINTERFACE)) {
+                sb.append(" (itf)");
+            }
+
+            sb.append(NEWLINE);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+            startInstruction(Opcodes.INVOKEDYNAMIC).append(' ').append(name).append(' ').append(descriptor).append(" [");
+            printHandle(bootstrapMethodHandle);
+
+            for (Object argument : bootstrapMethodArguments) {
+                sb.append(", ");
+                printConstant(argument);
+            }
+
+            sb.append(']').append(NEWLINE);
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            startInstruction(opcode).append(' ').append(getLabelName(label)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            sb.append(LABEL_INDENT).append(getLabelName(label)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            startInstruction(Opcodes.LDC).append(' ');
+            printConstant(value);
+            sb.append(NEWLINE);
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            startInstruction(Opcodes.IINC).append(' ').append(var).append(' ').append(increment).append(NEWLINE);
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            startInstruction(Opcodes.TABLESWITCH).append(NEWLINE);
+
+            for (int i=0; i<labels.length; i++) {
+                sb.append(INSTRUCTION_INDENT).append(LABEL_INDENT).append(min + i).append(": ").append(getLabelName(labels[i])).append(NEWLINE);
+            }
+
+            sb.append(INSTRUCTION_INDENT).append(LABEL_INDENT).append("default: ").append(getLabelName(dflt)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            startInstruction(Opcodes.LOOKUPSWITCH).append(NEWLINE);
+
+            for (int i=0; i<labels.length; i++) {
+                sb.append(INSTRUCTION_INDENT).append(LABEL_INDENT).append(keys[i]).append(": ").append(getLabelName(labels[i])).append(NEWLINE);
+            }
+
+            sb.append(INSTRUCTION_INDENT).append(LABEL_INDENT).append("default: ").append(getLabelName(dflt)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            startInstruction(Opcodes.MULTIANEWARRAY).append(' ').append(descriptor).append(' ').append(numDimensions).append(NEWLINE);
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+            sb.append(INSTRUCTION_INDENT).append("TRYCATCHBLOCK ").append(getLabelName(start)).append(' ').append(getLabelName(end)).append(' ').append(getLabelName(handler)).append(' ');
+
+            if (type == null) {
+                sb.append("null");
+            } else {
+                output.printTypeReference(type, internalName);
+            }
+
+            sb.append(NEWLINE);
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+            sb.append(INSTRUCTION_INDENT).append("LOCALVARIABLE ").append(name).append(' ').append(descriptor).append(' ');
+            sb.append(getLabelName(start)).append(' ').append(getLabelName(end)).append(' ').append(index).append(NEWLINE);
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            sb.append(INSTRUCTION_INDENT).append("LINENUMBER ").append(line).append(' ').append(getLabelName(start)).append(NEWLINE);
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            sb.append(INSTRUCTION_INDENT).append("MAXSTACK = ").append(maxStack).append(NEWLINE);
+            sb.append(INSTRUCTION_INDENT).append("MAXLOCALS = ").append(maxLocals).append(NEWLINE);
+        }
+
+        protected void printConstant(Object value) {
+            if (value instanceof String) {
+                output.printString((String)value, internalName);
+            } else if (value instanceof Type) {
+                Type type = (Type)value;
+
+                if (type.getSort() == Type.OBJECT) {
+                    output.printTypeReference(type.getInternalName(), internalName);
+                    sb.append(".class");
+                } else {
+                    sb.append(type.getDescriptor());
+                }
+            } else if (value instanceof Handle) {
+                printHandle((Handle)value);
+            } else if (value instanceof ConstantDynamic) {
+                ConstantDynamic constant = (ConstantDynamic)value;
+                sb.append(constant.getName()).append(" : ").append(constant.getDescriptor()).append(" [");
+                printHandle(constant.getBootstrapMethod());
+                sb.append(']');
+            } else if (value instanceof Long) {
+                sb.append(value).append('L');
+            } else if (value instanceof Float) {
+                sb.append(value).append('F');
+            } else if (value instanceof Double) {
+                sb.append(value).append('D');
+            } else {
+                sb.append(value);
+            }
+        }
+
+        protected void printHandle(Handle handle) {
+            output.printMemberReference(handle.getOwner(), handle.getName(), handle.getDesc(), internalName);
+            sb.append(' ').append(handle.getDesc());
+        }
+    }
+}
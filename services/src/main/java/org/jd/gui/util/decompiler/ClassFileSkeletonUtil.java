@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.gui.api.model.Container;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.objectweb.asm.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.objectweb.asm.ClassReader.*;
+
+/**
+ * Fallback view used when the decompilation of a class is aborted: the class skeleton (declaration, fields and
+ * method signatures) is printed from the class file without analysing the byte code.
+ */
+public class ClassFileSkeletonUtil {
+    protected static final String TAB = "  ";
+    protected static final String NEWLINE = "\n";
+
+    public static String getSkeleton(Container.Entry entry, String reason) {
+        StringBuilder sb = new StringBuilder(4 * 1024);
+
+        sb.append("/* ").append(reason).append(NEWLINE);
+        sb.append(" * Only the class skeleton is displayed.").append(NEWLINE);
+        sb.append(" */").append(NEWLINE);
+
+        try (InputStream is = entry.getInputStream(); ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[1024 * 4];
+            int len = is.read(buffer);
+
+            while (len > 0) {
+                os.write(buffer, 0, len);
+                len = is.read(buffer);
+            }
+
+            appendSkeleton(sb, os.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            ExceptionUtil.printStackTrace(e);
+            sb.append("// INTERNAL ERROR //").append(NEWLINE);
+        }
+
+        return sb.toString();
+    }
+
+    public static void appendSkeleton(StringBuilder sb, byte[] data) {
+        new ClassReader(data).accept(new SkeletonVisitor(sb), SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+    }
+
+    protected static String getTypeName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    protected static String getSimpleName(String internalName) {
+        int index = Math.max(internalName.lastIndexOf('/'), internalName.lastIndexOf('$'));
+        return internalName.substring(index + 1);
+    }
+
+    protected static void appendAccess(StringBuilder sb, int access) {
+        if ((access & Opcodes.ACC_PUBLIC) != 0) sb.append("public ");
+        if ((access & Opcodes.ACC_PROTECTED) != 0) sb.append("protected ");
+        if ((access & Opcodes.ACC_PRIVATE) != 0) sb.append("private ");
+        if ((access & Opcodes.ACC_STATIC) != 0) sb.append("static ");
+        if ((access & Opcodes.ACC_FINAL) != 0) sb.append("final ");
+        if ((access & Opcodes.ACC_ABSTRACT) != 0) sb.append("abstract ");
+        if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) sb.append("synchronized ");
+        if ((access & Opcodes.ACC_NATIVE) != 0) sb.append("native ");
+        if ((access & Opcodes.ACC_TRANSIENT) != 0) sb.append("transient ");
+        if ((access & Opcodes.ACC_VOLATILE) != 0) sb.append("volatile ");
+    }
+
+    protected static class SkeletonVisitor extends ClassVisitor {
+        protected StringBuilder sb;
+        protected String simpleName;
+
+        public SkeletonVisitor(StringBuilder sb) {
+            super(Opcodes.ASM7);
+            this.sb = sb;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            int index = name.lastIndexOf('/');
+
+            if (index != -1) {
+                sb.append("package ").append(getTypeName(name.substring(0, index))).append(';').append(NEWLINE).append(NEWLINE);
+            }
+
+            simpleName = getSimpleName(name);
+
+            if ((access & Opcodes.ACC_ANNOTATION) != 0) {
+                appendAccess(sb, access & ~(Opcodes.ACC_ABSTRACT | Opcodes.ACC_STATIC));
+                sb.append("@interface ");
+            } else if ((access & Opcodes.ACC_INTERFACE) != 0) {
+                appendAccess(sb, access & ~(Opcodes.ACC_ABSTRACT | Opcodes.ACC_STATIC));
+                sb.append("interface ");
+            } else if ((access & Opcodes.ACC_ENUM) != 0) {
+                appendAccess(sb, access & ~(Opcodes.ACC_ABSTRACT | Opcodes.ACC_FINAL));
+                sb.append("enum ");
+            } else {
+                appendAccess(sb, access & ~Opcodes.ACC_SYNCHRONIZED);
+                sb.append("class ");
+            }
+
+            sb.append(simpleName);
+
+            if ((superName != null) && !"java/lang/Object".equals(superName) && ((access & Opcodes.ACC_ENUM) == 0)) {
+                sb.append(" extends ").append(getTypeName(superName));
+            }
+
+            if ((interfaces != null) && (interfaces.length > 0)) {
+                sb.append(((access & Opcodes.ACC_INTERFACE) != 0) ? " extends " : " implements ");
+
+                for (int i=0; i<interfaces.length; i++) {
+                    if (i > 0) sb.append(", ");
+                    sb.append(getTypeName(interfaces[i]));
+                }
+            }
+
+            sb.append(" {").append(NEWLINE);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if ((access & Opcodes.ACC_SYNTHETIC) == 0) {
+                sb.append(TAB);
+                appendAccess(sb, access);
+                sb.append(Type.getType(descriptor).getClassName()).append(' ').append(name);
+
+                if (value instanceof String) {
+                    sb.append(" = \"").append(((String)value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+                } else if (value != null) {
+                    sb.append(" = ").append(value);
+                }
+
+                sb.append(';').append(NEWLINE);
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (((access & Opcodes.ACC_SYNTHETIC) == 0) && !"<clinit>".equals(name)) {
+                sb.append(TAB);
+                appendAccess(sb, access & ~Opcodes.ACC_VARARGS);
+
+                if ("<init>".equals(name)) {
+                    sb.append(simpleName);
+                } else {
+                    sb.append(Type.getReturnType(descriptor).getClassName()).append(' ').append(name);
+                }
+
+                sb.append('(');
+
+                Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+
+                for (int i=0; i<argumentTypes.length; i++) {
+                    if (i > 0) sb.append(", ");
+                    sb.append(argumentTypes[i].getClassName()).append(" arg").append(i);
+                }
+
+                sb.append(')');
+
+                if ((exceptions != null) && (exceptions.length > 0)) {
+                    sb.append(" throws ");
+
+                    for (int i=0; i<exceptions.length; i++) {
+                        if (i > 0) sb.append(", ");
+                        sb.append(getTypeName(exceptions[i]));
+                    }
+                }
+
+                sb.append(';').append(NEWLINE);
+            }
+            return null;
+        }
+
+        @Override
+        public void visitEnd() {
+            sb.append('}').append(NEWLINE);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+/**
+ * Thrown when a decompilation exceeds its wall-clock deadline or its allocation budget, or dies with an
+ * <code>OutOfMemoryError</code> / <code>StackOverflowError</code>.
+ */
+public class DecompilationAbortedException extends Exception {
+    public DecompilationAbortedException(String message) { super(message); }
+    public DecompilationAbortedException(String message, Throwable cause) { super(message, cause); }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.ClassFileToJavaSourceDecompiler;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.gui.util.exception.ExceptionUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a decompilation on a worker thread of a shared pool and supervises it:
+ * <ul>
+ * <li>the wall-clock time is limited by 'timeout',</li>
+ * <li>the memory allocated by the worker thread during the decompilation is limited by 'allocationBudget' (when the
+ * JVM can measure it). This is the cumulative allocation, garbage included, not the retained heap: it bounds the work
+ * done by the decompiler rather than its footprint,</li>
+ * <li><code>OutOfMemoryError</code> and <code>StackOverflowError</code> are reported as aborted decompilations.</li>
+ * </ul>
+ * On a breach, the loader and the printer throw an {@link AbortError} at their next call, the worker is interrupted,
+ * and a {@link DecompilationAbortedException} is thrown to the caller. A worker still running after 'STOP_DELAY' -
+ * stuck in a loop without calling the loader or the printer - is quarantined: it is never stopped, the pool starts
+ * other workers, and it leaves the quarantine if it ever ends.
+ */
+public class DecompilationWatchdog {
+    public static final String TIMEOUT           = "ClassFileDecompilerPreferences.timeout";
+    // Key kept from the previous 'memory budget' preference
+    public static final String ALLOCATION_BUDGET = "ClassFileDecompilerPreferences.memoryBudget";
+
+    public static final int DEFAULT_TIMEOUT           = 30;   // seconds
+    public static final int DEFAULT_ALLOCATION_BUDGET = 1024; // mega bytes
+
+    protected static final long POLL_INTERVAL = 20;           // milliseconds
+    protected static final long STOP_DELAY    = 500;          // milliseconds
+
+    protected static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    protected static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+    protected static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "jd-gui-decompiler-" + WORKER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected static final Set<Thread> QUARANTINED_WORKERS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Timeout in milliseconds, 0 for no limit
+     */
+    protected long timeout;
+    /**
+     * Cumulative allocation budget in bytes, 0 for no limit
+     */
+    protected long allocationBudget;
+
+    public DecompilationWatchdog(long timeout, long allocationBudget) {
+        this.timeout = timeout;
+        this.allocationBudget = allocationBudget;
+    }
+
+    public static DecompilationWatchdog getInstance(Map<String, String> preferences) {
+        long timeout = getPreferenceValue(preferences, TIMEOUT, DEFAULT_TIMEOUT);
+        long allocationBudget = getPreferenceValue(preferences, ALLOCATION_BUDGET, DEFAULT_ALLOCATION_BUDGET);
+        return new DecompilationWatchdog(timeout * 1000L, allocationBudget * 1024L * 1024L);
+    }
+
+    public long getTimeout() { return timeout; }
+    public long getAllocationBudget() { return allocationBudget; }
+
+    /**
+     * @return the number of workers stuck in an aborted decompilation
+     */
+    public static int getQuarantinedWorkerCount() { return QUARANTINED_WORKERS.size(); }
+
+    public void decompile(ClassFileToJavaSourceDecompiler decompiler, Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        Supervision supervision = new Supervision();
+        GuardedLoader guardedLoader = new GuardedLoader(loader, supervision);
+        GuardedPrinter guardedPrinter = new GuardedPrinter(printer, supervision);
+
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            supervision.started();
+
+            try {
+                decompiler.decompile(guardedLoader, guardedPrinter, internalName, configuration);
+            } finally {
+                supervision.finished();
+            }
+            return null;
+        });
+
+        WORKERS.execute(task);
+
+        long start = System.currentTimeMillis();
+
+        try {
+            for (;;) {
+                try {
+                    task.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    if ((timeout > 0) && (System.currentTimeMillis() - start > timeout)) {
+                        abort(task, supervision, "Decompilation timed out after " + (timeout / 1000) + " s");
+                    }
+                    if ((allocationBudget > 0) && (supervision.getAllocatedBytes() > allocationBudget)) {
+                        abort(task, supervision, "Decompilation allocated more than " + (allocationBudget / (1024 * 1024)) + " MB");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(task, supervision, "Decompilation interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (supervision.reason != null) {
+                throw new DecompilationAbortedException(supervision.reason, cause);
+            } else if (cause instanceof OutOfMemoryError) {
+                throw new DecompilationAbortedException("Decompilation ran out of memory", cause);
+            } else if (cause instanceof StackOverflowError) {
+                throw new DecompilationAbortedException("Decompilation overflowed the stack", cause);
+            } else if (cause instanceof Exception) {
+                throw (Exception)cause;
+            } else {
+                throw (Error)cause;
+            }
+        }
+    }
+
+    protected void abort(FutureTask<Void> task, Supervision supervision, String reason) throws DecompilationAbortedException {
+        supervision.reason = reason;
+        supervision.interrupt();
+
+        try {
+            task.get(STOP_DELAY, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Expected: the guarded loader and printer throw 'AbortError'
+        }
+
+        if (!task.isDone()) {
+            // The decompiler is stuck in a loop without calling the loader or the printer
+            supervision.quarantine();
+        }
+
+        throw new DecompilationAbortedException(reason);
+    }
+
+    protected static com.sun.management.ThreadMXBean getThreadMXBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                        sunBean.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return sunBean;
+                }
+            }
+        } catch (Throwable t) {
+            ExceptionUtil.printStackTrace(t);
+        }
+
+        return null;
+    }
+
+    protected static long getPreferenceValue(Map<String, String> preferences, String key, long defaultValue) {
+        String v = preferences.get(key);
+
+        if (v != null) {
+            try {
+                return Long.parseLong(v.trim());
+            } catch (NumberFormatException e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        }
+
+        return defaultValue;
+    }
+
+    protected static class Supervision {
+        /**
+         * Worker running the decompilation, null before and after
+         */
+        protected volatile Thread thread;
+        protected volatile long initialAllocatedBytes = -1;
+        protected volatile String reason;
+        protected boolean quarantined;
+
+        protected void started() {
+            thread = Thread.currentThread();
+
+            if (THREAD_MX_BEAN != null) {
+                initialAllocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(thread.getId());
+            }
+        }
+
+        protected synchronized void finished() {
+            if (quarantined) {
+                QUARANTINED_WORKERS.remove(thread);
+                thread.setPriority(Thread.NORM_PRIORITY);
+            }
+            // The worker goes back to the pool: it must not be interrupted any more
+            thread = null;
+        }
+
+        protected synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        protected synchronized void quarantine() {
+            if ((thread != null) && !quarantined) {
+                quarantined = true;
+                QUARANTINED_WORKERS.add(thread);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                ExceptionUtil.printStackTrace(new IllegalStateException(
+                    "Decompiler worker '" + thread.getName() + "' does not stop: " + QUARANTINED_WORKERS.size() + " worker(s) in quarantine"));
+            }
+        }
+
+        protected long getAllocatedBytes() {
+            Thread t = thread;
+
+            if ((THREAD_MX_BEAN == null) || (initialAllocatedBytes == -1) || (t == null)) {
+                return 0;
+            } else {
+                long allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(t.getId());
+                return (allocatedBytes == -1) ? 0 : allocatedBytes - initialAllocatedBytes;
+            }
+        }
+
+        protected void check() {
+            if (reason != null) {
+                throw new AbortError(reason);
+            }
+        }
+    }
+
+    /**
+     * Error thrown in the worker once the decompilation is aborted.
+     */
+    protected static class AbortError extends Error {
+        public AbortError(String message) { super(message, null, false, false); }
+    }
+
+    protected static class GuardedLoader implements Loader {
+        protected Loader loader;
+        protected Supervision supervision;
+
+        public GuardedLoader(Loader loader, Supervision supervision) {
+            this.loader = loader;
+            this.supervision = supervision;
+        }
+
+        @Override public boolean canLoad(String internalName) { supervision.check(); return loader.canLoad(internalName); }
+        @Override public byte[] load(String internalName) throws LoaderException { supervision.check(); return loader.load(internalName); }
+    }
+
+    protected static class GuardedPrinter implements Printer {
+        protected Printer printer;
+        protected Supervision supervision;
+
+        public GuardedPrinter(Printer printer, Supervision supervision) {
+            this.printer = printer;
+            this.supervision = supervision;
+        }
+
+        @Override public void start(int maxLineNumber, int majorVersion, int minorVersion) { supervision.check(); printer.start(maxLineNumber, majorVersion, minorVersion); }
+        @Override public void end() { supervision.check(); printer.end(); }
+
+        @Override public void printText(String text) { supervision.check(); printer.printText(text); }
+        @Override public void printNumericConstant(String constant) { supervision.check(); printer.printNumericConstant(constant); }
+        @Override public void printStringConstant(String constant, String ownerInternalName) { supervision.check(); printer.printStringConstant(constant, ownerInternalName); }
+        @Override public void printKeyword(String keyword) { supervision.check(); printer.printKeyword(keyword); }
+
+        @Override public void printDeclaration(int type, String internalTypeName, String name, String descriptor) { supervision.check(); printer.printDeclaration(type, internalTypeName, name, descriptor); }
+        @Override public void printReference(int type, String internalTypeName, String name, String descriptor, String ownerInternalName) { supervision.check(); printer.printReference(type, internalTypeName, name, descriptor, ownerInternalName); }
+
+        @Override public void indent() { supervision.check(); printer.indent(); }
+        @Override public void unindent() { supervision.check(); printer.unindent(); }
+
+        @Override public void startLine(int lineNumber) { supervision.check(); printer.startLine(lineNumber); }
+        @Override public void endLine() { supervision.check(); printer.endLine(); }
+        @Override public void extraLine(int count) { supervision.check(); printer.extraLine(count); }
+
+        @Override public void startMarker(int type) { supervision.check(); printer.startMarker(type); }
+        @Override public void endMarker(int type) { supervision.check(); printer.endMarker(type); }
+    }
+}
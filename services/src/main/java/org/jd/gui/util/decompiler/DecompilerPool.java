@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.ClassFileToJavaSourceDecompiler;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.gui.util.exception.ExceptionUtil;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of decompiler instances, sized from the number of cores, split in two lanes:
+ * <ul>
+ * <li>INTERACTIVE, for the pages opened by the user,</li>
+ * <li>BULK, for mass exports.</li>
+ * </ul>
+ * Lanes don't share instances: a page never waits behind an export job, only behind other page decompilations.
+ * Callers provide their own loader and printer.
+ */
+public class DecompilerPool {
+    public enum Lane { INTERACTIVE, BULK }
+
+    protected static final DecompilerPool INSTANCE = new DecompilerPool(Runtime.getRuntime().availableProcessors());
+
+    protected BlockingQueue<ClassFileToJavaSourceDecompiler> interactiveDecompilers;
+    protected BlockingQueue<ClassFileToJavaSourceDecompiler> bulkDecompilers;
+
+    public DecompilerPool(int coreCount) {
+        int bulkSize = Math.max(1, coreCount);
+        int interactiveSize = Math.max(2, coreCount / 2);
+
+        this.interactiveDecompilers = newDecompilers(interactiveSize);
+        this.bulkDecompilers = newDecompilers(bulkSize);
+
+        // Early class loading
+        try {
+            String internalTypeName = DecompilerPool.class.getName().replace('.', '/');
+            interactiveDecompilers.peek().decompile(new ClassPathLoader(), new NopPrinter(), internalTypeName);
+        } catch (Throwable t) {
+            ExceptionUtil.printStackTrace(t);
+        }
+    }
+
+    public static DecompilerPool getInstance() { return INSTANCE; }
+
+    /**
+     * Wait for a free decompiler of 'lane'. The decompiler must be given back with 'release'.
+     */
+    public ClassFileToJavaSourceDecompiler acquire(Lane lane) throws InterruptedException {
+        return getDecompilers(lane).take();
+    }
+
+    public void release(Lane lane, ClassFileToJavaSourceDecompiler decompiler) {
+        getDecompilers(lane).offer(decompiler);
+    }
+
+    /**
+     * Decompile on the calling thread.
+     */
+    public void decompile(Lane lane, Loader loader, Printer printer, String internalName) throws Exception {
+        ClassFileToJavaSourceDecompiler decompiler = acquire(lane);
+
+        try {
+            decompiler.decompile(loader, printer, internalName);
+        } finally {
+            release(lane, decompiler);
+        }
+    }
+
+    /**
+     * Decompile with the limits defined by 'preferences', in a child process if the preferences enable them and,
+     * for the INTERACTIVE lane, if its child is idle.
+     */
+    public void decompile(Lane lane, Map<String, String> preferences, Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        DecompilationWatchdog watchdog = DecompilationWatchdog.getInstance(preferences);
+        RemoteDecompilerPool remotePool = RemoteDecompilerPool.getInstance(preferences);
+
+        if ((remotePool == null) || !remotePool.decompile(lane, watchdog, loader, printer, internalName, configuration)) {
+            decompile(lane, watchdog, loader, printer, internalName, configuration);
+        }
+    }
+
+    /**
+     * Decompile under the supervision of 'watchdog'.
+     */
+    public void decompile(Lane lane, DecompilationWatchdog watchdog, Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        ClassFileToJavaSourceDecompiler decompiler;
+
+        try {
+            decompiler = acquire(lane);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecompilationAbortedException("Decompilation interrupted", e);
+        }
+
+        try {
+            watchdog.decompile(decompiler, loader, printer, internalName, configuration);
+        } catch (DecompilationAbortedException e) {
+            // The aborted instance may be left in an inconsistent state, or still in use by a quarantined worker
+            decompiler = new ClassFileToJavaSourceDecompiler();
+            throw e;
+        } finally {
+            release(lane, decompiler);
+        }
+    }
+
+    protected BlockingQueue<ClassFileToJavaSourceDecompiler> getDecompilers(Lane lane) {
+        return (lane == Lane.INTERACTIVE) ? interactiveDecompilers : bulkDecompilers;
+    }
+
+    protected static BlockingQueue<ClassFileToJavaSourceDecompiler> newDecompilers(int size) {
+        BlockingQueue<ClassFileToJavaSourceDecompiler> decompilers = new ArrayBlockingQueue<>(size);
+
+        for (int i=0; i<size; i++) {
+            decompilers.add(new ClassFileToJavaSourceDecompiler());
+        }
+
+        return decompilers;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.gui.api.model.Container;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Loader remembering the classes requested by the decompiler. The digest of these classes identifies the input
+ * of a decompilation: the same digest, computed later on another container, means the same output.
+ */
+public class DigestContainerLoader extends ContainerLoader {
+    protected TreeMap<String, byte[]> requests = new TreeMap<>();
+
+    @Override
+    public void setEntry(Container.Entry e) {
+        super.setEntry(e);
+        requests.clear();
+    }
+
+    /**
+     * @return the sorted internal names of the classes requested since the last call to 'setEntry'
+     */
+    public Set<String> getRequestedNames() { return requests.keySet(); }
+
+    /**
+     * @return the digest of the classes requested since the last call to 'setEntry'
+     */
+    public String getDigest() throws LoaderException {
+        return getDigest(requests.keySet());
+    }
+
+    /**
+     * @return the digest of the classes 'internalNames', absent classes included
+     */
+    public String getDigest(Collection<String> internalNames) throws LoaderException {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new LoaderException(e);
+        }
+
+        for (String internalName : internalNames) {
+            byte[] data = requests.get(internalName);
+
+            if ((data == null) && super.canLoad(internalName)) {
+                data = super.load(internalName);
+            }
+
+            digest.update(internalName.getBytes(StandardCharsets.UTF_8));
+
+            if (data == null) {
+                digest.update((byte)0);
+            } else {
+                digest.update((byte)1);
+                digest.update(data);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(40);
+
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
+    }
+
+    // --- Loader --- //
+    @Override
+    public boolean canLoad(String internalName) {
+        boolean canLoad = super.canLoad(internalName);
+
+        if (!requests.containsKey(internalName)) {
+            requests.put(internalName, null);
+        }
+
+        return canLoad;
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        byte[] data = super.load(internalName);
+        requests.put(internalName, data);
+        return data;
+    }
+}
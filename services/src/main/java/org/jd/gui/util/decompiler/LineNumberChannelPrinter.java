@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.gui.util.io.NewlineUtf8ChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streaming printer: each completed line is encoded in UTF-8, with platform line endings, into a reusable direct
+ * buffer flushed into the target channel. The inherited string buffer only holds the current line.
+ */
+public class LineNumberChannelPrinter extends LineNumberStringBuilderPrinter {
+    protected NewlineUtf8ChannelWriter writer = new NewlineUtf8ChannelWriter();
+
+    public void setChannel(WritableByteChannel channel) {
+        writer.setChannel(channel);
+        stringBuffer.setLength(0);
+    }
+
+    /**
+     * Write the content of the string buffer, then flush all pending bytes into the channel.
+     */
+    public void flush() throws IOException {
+        writer.write(stringBuffer);
+        stringBuffer.setLength(0);
+        writer.flush();
+    }
+
+    protected void drain() {
+        try {
+            writer.write(stringBuffer);
+            stringBuffer.setLength(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- Printer --- //
+    @Override public void endLine() {
+        super.endLine();
+        drain();
+    }
+
+    @Override public void extraLine(int count) {
+        super.extraLine(count);
+        drain();
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.gui.util.exception.ExceptionUtil;
+
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.jd.gui.util.decompiler.RemoteDecompilerProtocol.*;
+
+/**
+ * Long-lived child JVM decompiling classes for the current process. The child is started on the first request,
+ * killed on timeout or protocol error, and started again by the next request.
+ */
+public class RemoteDecompiler implements Closeable {
+    protected static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-remote-decompiler-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected static final long INTERRUPTION_POLL_INTERVAL = 100; // milliseconds
+
+    /**
+     * Heap size of the child in mega bytes
+     */
+    protected int heapSize;
+    protected Process process;
+    protected DataInputStream in;
+    protected DataOutputStream out;
+
+    public RemoteDecompiler(int heapSize) {
+        this.heapSize = heapSize;
+    }
+
+    public boolean isAlive() { return (process != null) && process.isAlive(); }
+
+    /**
+     * @param timeout in milliseconds, 0 for no limit
+     * @param allocationBudget in bytes, 0 for no limit, enforced by the watchdog of the child
+     */
+    public void decompile(Loader loader, Printer printer, String internalName, Map<String, Object> configuration, long timeout, long allocationBudget) throws Exception {
+        if (!isAlive()) {
+            start();
+        }
+
+        Process process = this.process;
+        Thread caller = Thread.currentThread();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        ScheduledFuture<?> killer = null;
+        boolean inSync = false;
+
+        // Reading the child is not interruptible: kill it when the caller is interrupted
+        ScheduledFuture<?> interruptionWatcher = TIMER.scheduleWithFixedDelay(() -> {
+            if (caller.isInterrupted()) {
+                interrupted.set(true);
+                process.destroyForcibly();
+            }
+        }, INTERRUPTION_POLL_INTERVAL, INTERRUPTION_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+
+        if (timeout > 0) {
+            killer = TIMER.schedule(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            out.writeByte(DECOMPILE);
+            writeString(out, internalName);
+            writeConfiguration(out, configuration);
+            out.writeLong(allocationBudget);
+            out.flush();
+
+            replay(loader, printer);
+            inSync = true;
+        } catch (RemoteError e) {
+            inSync = true;
+
+            if (e.kind == ABORTED) {
+                throw new DecompilationAbortedException(e.getMessage());
+            } else {
+                throw new IllegalStateException("Child decompiler failed: " + e.getMessage());
+            }
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                throw new DecompilationAbortedException("Decompilation timed out after " + (timeout / 1000) + " s", e);
+            } else if (interrupted.get()) {
+                throw new DecompilationAbortedException("Decompilation interrupted", e);
+            } else {
+                throw new DecompilationAbortedException("Child decompiler process stopped" + getExitStatus(process), e);
+            }
+        } finally {
+            interruptionWatcher.cancel(false);
+
+            if (killer != null) {
+                killer.cancel(false);
+            }
+            if (!inSync || timedOut.get() || interrupted.get()) {
+                // Unknown state: restart the child on the next request
+                close();
+            }
+        }
+    }
+
+    protected void start() throws IOException {
+        close();
+
+        String javaHome = System.getProperty("java.home");
+        String java = javaHome + File.separator + "bin" + File.separator + "java";
+
+        ProcessBuilder builder = new ProcessBuilder(
+            java, "-Xmx" + heapSize + "m", "-Xss8m",
+            "-cp", System.getProperty("java.class.path"),
+            RemoteDecompilerMain.class.getName());
+
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+        process = builder.start();
+        in = new DataInputStream(new BufferedInputStream(process.getInputStream(), 64 * 1024));
+        out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+    }
+
+    protected void replay(Loader loader, Printer printer) throws IOException, RemoteError {
+        DataInputStream in = this.in;
+
+        for (;;) {
+            int code = in.readByte();
+
+            switch (code) {
+                case LOAD:
+                    reply(loader, readString(in));
+                    break;
+                case CAN_LOAD:
+                    out.writeBoolean(loader.canLoad(readString(in)));
+                    out.flush();
+                    break;
+                case DONE:
+                    return;
+                case ERROR:
+                    int kind = in.readByte();
+                    throw new RemoteError(kind, readString(in));
+
+                case START:
+                    printer.start(in.readInt(), in.readInt(), in.readInt());
+                    break;
+                case END:
+                    printer.end();
+                    break;
+                case TEXT:
+                    printer.printText(readString(in));
+                    break;
+                case NUMERIC_CONSTANT:
+                    printer.printNumericConstant(readString(in));
+                    break;
+                case STRING_CONSTANT:
+                    printer.printStringConstant(readString(in), readString(in));
+                    break;
+                case KEYWORD:
+                    printer.printKeyword(readString(in));
+                    break;
+                case DECLARATION:
+                    printer.printDeclaration(in.readInt(), readString(in), readString(in), readString(in));
+                    break;
+                case REFERENCE:
+                    printer.printReference(in.readInt(), readString(in), readString(in), readString(in), readString(in));
+                    break;
+                case INDENT:
+                    printer.indent();
+                    break;
+                case UNINDENT:
+                    printer.unindent();
+                    break;
+                case START_LINE:
+                    printer.startLine(in.readInt());
+                    break;
+                case END_LINE:
+                    printer.endLine();
+                    break;
+                case EXTRA_LINE:
+                    printer.extraLine(in.readInt());
+                    break;
+                case START_MARKER:
+                    printer.startMarker(in.readInt());
+                    break;
+                case END_MARKER:
+                    printer.endMarker(in.readInt());
+                    break;
+                default:
+                    throw new IOException("Invalid frame: " + code);
+            }
+        }
+    }
+
+    protected void reply(Loader loader, String internalName) throws IOException {
+        byte[] data;
+
+        try {
+            data = loader.load(internalName);
+        } catch (LoaderException e) {
+            ExceptionUtil.printStackTrace(e);
+            out.writeInt(LOAD_FAILED);
+            out.flush();
+            return;
+        }
+
+        if (data == null) {
+            out.writeInt(NOT_FOUND);
+        } else {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+
+        out.flush();
+    }
+
+    protected static String getExitStatus(Process process) {
+        try {
+            if (process.waitFor(1, TimeUnit.SECONDS)) {
+                return " with exit code " + process.exitValue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "";
+    }
+
+    @Override
+    public void close() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+            in = null;
+            out = null;
+        }
+    }
+
+    protected static class RemoteError extends Exception {
+        protected int kind;
+
+        public RemoteError(int kind, String message) {
+            super(message, null, false, false);
+            this.kind = kind;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.ClassFileToJavaSourceDecompiler;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.api.printer.Printer;
+
+import java.io.*;
+import java.util.Map;
+
+import static org.jd.gui.util.decompiler.RemoteDecompilerProtocol.*;
+
+/**
+ * Entry point of a child decompiler process: reads requests on the standard input, loads classes through the
+ * parent and streams the printer calls to the standard output. The allocation budget of each request is enforced by
+ * a {@link DecompilationWatchdog}; the timeout is enforced by the parent, which kills the process. The process exits
+ * when the parent closes the pipe, after an <code>OutOfMemoryError</code>, or when a worker does not stop.
+ */
+public class RemoteDecompilerMain {
+    public static void main(String[] args) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 64 * 1024));
+
+        // The standard output is reserved to the protocol
+        System.setOut(System.err);
+
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+        RemoteLoader loader = new RemoteLoader(in, out);
+        RemotePrinter printer = new RemotePrinter(out);
+
+        try {
+            for (;;) {
+                int request;
+
+                try {
+                    request = in.readByte();
+                } catch (EOFException e) {
+                    // Parent closed the pipe
+                    return;
+                }
+
+                if (request != DECOMPILE) {
+                    throw new IOException("Invalid request: " + request);
+                }
+
+                String internalName = readString(in);
+                Map<String, Object> configuration = readConfiguration(in);
+                DecompilationWatchdog watchdog = new DecompilationWatchdog(0, in.readLong());
+
+                try {
+                    watchdog.decompile(decompiler, loader, printer, internalName, configuration);
+                    out.writeByte(DONE);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } catch (DecompilationAbortedException e) {
+                    out.writeByte(ERROR);
+                    out.writeByte(ABORTED);
+                    writeString(out, e.getMessage());
+
+                    if ((DecompilationWatchdog.getQuarantinedWorkerCount() > 0) || (e.getCause() instanceof OutOfMemoryError)) {
+                        // A worker may still use the pipes, or the heap may be corrupted
+                        out.flush();
+                        System.exit(1);
+                    }
+
+                    // The aborted instance may be left in an inconsistent state
+                    decompiler = new ClassFileToJavaSourceDecompiler();
+                } catch (OutOfMemoryError e) {
+                    out.writeByte(ERROR);
+                    out.writeByte(ABORTED);
+                    writeString(out, "Decompilation ran out of memory");
+                    out.flush();
+                    System.exit(1);
+                } catch (StackOverflowError e) {
+                    out.writeByte(ERROR);
+                    out.writeByte(ABORTED);
+                    writeString(out, "Decompilation overflowed the stack");
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                    out.writeByte(ERROR);
+                    out.writeByte(FAILED);
+                    writeString(out, t.toString());
+                }
+
+                out.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    protected static class RemoteLoader implements Loader {
+        protected DataInputStream in;
+        protected DataOutputStream out;
+
+        public RemoteLoader(DataInputStream in, DataOutputStream out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        @Override
+        public boolean canLoad(String internalName) {
+            try {
+                out.writeByte(CAN_LOAD);
+                writeString(out, internalName);
+                out.flush();
+                return in.readBoolean();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public byte[] load(String internalName) throws LoaderException {
+            int length;
+            byte[] data;
+
+            try {
+                out.writeByte(LOAD);
+                writeString(out, internalName);
+                out.flush();
+
+                length = in.readInt();
+
+                if (length < 0) {
+                    data = null;
+                } else {
+                    data = new byte[length];
+                    in.readFully(data);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (length == LOAD_FAILED) {
+                throw new LoaderException("Unable to load '" + internalName + "'");
+            }
+
+            return data;
+        }
+    }
+
+    protected static class RemotePrinter implements Printer {
+        protected DataOutputStream out;
+
+        public RemotePrinter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        protected void write(int code) {
+            try {
+                out.writeByte(code);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        protected void write(int code, int value) {
+            try {
+                out.writeByte(code);
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        protected void write(int code, String... values) {
+            try {
+                out.writeByte(code);
+                for (String value : values) {
+                    writeString(out, value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        protected void write(int code, int type, String... values) {
+            try {
+                out.writeByte(code);
+                out.writeInt(type);
+                for (String value : values) {
+                    writeString(out, value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void start(int maxLineNumber, int majorVersion, int minorVersion) {
+            try {
+                out.writeByte(START);
+                out.writeInt(maxLineNumber);
+                out.writeInt(majorVersion);
+                out.writeInt(minorVersion);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override public void end() { write(END); }
+
+        @Override public void printText(String text) { write(TEXT, text); }
+        @Override public void printNumericConstant(String constant) { write(NUMERIC_CONSTANT, constant); }
+        @Override public void printStringConstant(String constant, String ownerInternalName) { write(STRING_CONSTANT, constant, ownerInternalName); }
+        @Override public void printKeyword(String keyword) { write(KEYWORD, keyword); }
+
+        @Override public void printDeclaration(int type, String internalTypeName, String name, String descriptor) { write(DECLARATION, type, internalTypeName, name, descriptor); }
+        @Override public void printReference(int type, String internalTypeName, String name, String descriptor, String ownerInternalName) { write(REFERENCE, type, internalTypeName, name, descriptor, ownerInternalName); }
+
+        @Override public void indent() { write(INDENT); }
+        @Override public void unindent() { write(UNINDENT); }
+
+        @Override public void startLine(int lineNumber) { write(START_LINE, lineNumber); }
+        @Override public void endLine() { write(END_LINE); }
+        @Override public void extraLine(int count) { write(EXTRA_LINE, count); }
+
+        @Override public void startMarker(int type) { write(START_MARKER, type); }
+        @Override public void endMarker(int type) { write(END_MARKER, type); }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.Printer;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Optional pool of child decompiler JVMs: a crash, a stack overflow or an <code>OutOfMemoryError</code> in jd-core
+ * only kills a child, restarted by the next request, and the heap of the main process stays small during mass
+ * exports. The allocation budget and the timeout of the {@link DecompilationWatchdog} apply to the children.
+ * <p>
+ * The BULK lane has 'childProcesses' children. The INTERACTIVE lane has its own child: while it is busy - a hung
+ * class is only killed by the timeout - the pages are decompiled in the current process.
+ */
+public class RemoteDecompilerPool {
+    public static final String CHILD_PROCESSES = "ClassFileDecompilerPreferences.childProcesses";
+    public static final String CHILD_HEAP_SIZE = "ClassFileDecompilerPreferences.childHeapSize";
+
+    public static final int DEFAULT_CHILD_PROCESSES = 0;    // disabled
+    public static final int DEFAULT_CHILD_HEAP_SIZE = 512;  // mega bytes
+
+    protected static RemoteDecompilerPool instance;
+
+    protected int childProcesses;
+    protected int heapSize;
+    protected volatile boolean closed;
+    protected BlockingQueue<RemoteDecompiler> interactiveDecompilers;
+    protected BlockingQueue<RemoteDecompiler> bulkDecompilers;
+
+    public RemoteDecompilerPool(int childProcesses, int heapSize) {
+        this.childProcesses = childProcesses;
+        this.heapSize = heapSize;
+        this.interactiveDecompilers = newDecompilers(1, heapSize);
+        this.bulkDecompilers = newDecompilers(childProcesses, heapSize);
+    }
+
+    /**
+     * @return the pool configured by 'preferences', or null if decompilation runs in the current process
+     */
+    public static synchronized RemoteDecompilerPool getInstance(Map<String, String> preferences) {
+        int childProcesses = (int)DecompilationWatchdog.getPreferenceValue(preferences, CHILD_PROCESSES, DEFAULT_CHILD_PROCESSES);
+        int heapSize = (int)DecompilationWatchdog.getPreferenceValue(preferences, CHILD_HEAP_SIZE, DEFAULT_CHILD_HEAP_SIZE);
+
+        if ((instance != null) && ((instance.childProcesses != childProcesses) || (instance.heapSize != heapSize))) {
+            instance.close();
+            instance = null;
+        }
+
+        if ((instance == null) && (childProcesses > 0)) {
+            instance = new RemoteDecompilerPool(childProcesses, heapSize);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Decompile in a child with the limits of 'watchdog'.
+     *
+     * @return false if the lane is INTERACTIVE and its child is busy: nothing is decompiled
+     */
+    public boolean decompile(DecompilerPool.Lane lane, DecompilationWatchdog watchdog, Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        BlockingQueue<RemoteDecompiler> decompilers;
+        RemoteDecompiler decompiler;
+
+        if (lane == DecompilerPool.Lane.INTERACTIVE) {
+            decompilers = interactiveDecompilers;
+            decompiler = decompilers.poll();
+
+            if (decompiler == null) {
+                return false;
+            }
+        } else {
+            decompilers = bulkDecompilers;
+
+            try {
+                decompiler = decompilers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DecompilationAbortedException("Decompilation interrupted", e);
+            }
+        }
+
+        try {
+            decompiler.decompile(loader, printer, internalName, configuration, watchdog.getTimeout(), watchdog.getAllocationBudget());
+            return true;
+        } finally {
+            if (closed) {
+                decompiler.close();
+            } else {
+                decompilers.offer(decompiler);
+            }
+        }
+    }
+
+    /**
+     * Stop the idle children. Busy children are stopped when their request completes.
+     */
+    public void close() {
+        closed = true;
+
+        for (RemoteDecompiler decompiler : interactiveDecompilers) {
+            decompiler.close();
+        }
+        for (RemoteDecompiler decompiler : bulkDecompilers) {
+            decompiler.close();
+        }
+    }
+
+    protected static BlockingQueue<RemoteDecompiler> newDecompilers(int size, int heapSize) {
+        BlockingQueue<RemoteDecompiler> decompilers = new ArrayBlockingQueue<>(size);
+
+        for (int i=0; i<size; i++) {
+            decompilers.add(new RemoteDecompiler(heapSize));
+        }
+
+        return decompilers;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Frames exchanged over the pipes of a child decompiler process.
+ * <ul>
+ * <li>parent to child: DECOMPILE with the internal name, the configuration and the allocation budget, then the
+ * replies to LOAD and CAN_LOAD requests,</li>
+ * <li>child to parent: LOAD and CAN_LOAD requests, the printer calls, then DONE or ERROR.</li>
+ * </ul>
+ * The printer calls are replayed by the parent on its own printer: the parent receives the source and the
+ * declaration/reference metadata while the child decompiles.
+ */
+public class RemoteDecompilerProtocol {
+    // Parent to child
+    public static final int DECOMPILE = 1;
+
+    // Child to parent
+    public static final int LOAD = 10;
+    public static final int CAN_LOAD = 11;
+    public static final int DONE = 12;
+    public static final int ERROR = 13;
+
+    // Printer calls
+    public static final int START = 20;
+    public static final int END = 21;
+    public static final int TEXT = 22;
+    public static final int NUMERIC_CONSTANT = 23;
+    public static final int STRING_CONSTANT = 24;
+    public static final int KEYWORD = 25;
+    public static final int DECLARATION = 26;
+    public static final int REFERENCE = 27;
+    public static final int INDENT = 28;
+    public static final int UNINDENT = 29;
+    public static final int START_LINE = 30;
+    public static final int END_LINE = 31;
+    public static final int EXTRA_LINE = 32;
+    public static final int START_MARKER = 33;
+    public static final int END_MARKER = 34;
+
+    // Error kinds
+    public static final int ABORTED = 1;
+    public static final int FAILED = 2;
+
+    // Reply to LOAD
+    public static final int NOT_FOUND = -1;
+    public static final int LOAD_FAILED = -2;
+
+    protected static final int BOOLEAN = 1;
+    protected static final int INTEGER = 2;
+    protected static final int STRING = 3;
+
+    /**
+     * Strings are written as UTF-16 code units: unpaired surrogates in constants survive the transfer.
+     */
+    public static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            int length = s.length();
+            out.writeInt(length);
+            for (int i=0; i<length; i++) {
+                out.writeChar(s.charAt(i));
+            }
+        }
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        } else {
+            char[] chars = new char[length];
+            for (int i=0; i<length; i++) {
+                chars[i] = in.readChar();
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * Only boolean, integer and string values are transferred.
+     */
+    public static void writeConfiguration(DataOutputStream out, Map<String, Object> configuration) throws IOException {
+        int count = 0;
+
+        for (Object value : configuration.values()) {
+            if ((value instanceof Boolean) || (value instanceof Integer) || (value instanceof String)) {
+                count++;
+            }
+        }
+
+        out.writeInt(count);
+
+        for (Map.Entry<String, Object> entry : configuration.entrySet()) {
+            Object value = entry.getValue();
+
+            if (value instanceof Boolean) {
+                writeString(out, entry.getKey());
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean)value);
+            } else if (value instanceof Integer) {
+                writeString(out, entry.getKey());
+                out.writeByte(INTEGER);
+                out.writeInt((Integer)value);
+            } else if (value instanceof String) {
+                writeString(out, entry.getKey());
+                out.writeByte(STRING);
+                writeString(out, (String)value);
+            }
+        }
+    }
+
+    public static Map<String, Object> readConfiguration(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        HashMap<String, Object> configuration = new HashMap<>();
+
+        for (int i=0; i<count; i++) {
+            String key = readString(in);
+
+            switch (in.readByte()) {
+                case BOOLEAN: configuration.put(key, in.readBoolean()); break;
+                case INTEGER: configuration.put(key, in.readInt()); break;
+                case STRING:  configuration.put(key, readString(in)); break;
+                default: throw new IOException("Invalid configuration value");
+            }
+        }
+
+        return configuration;
+    }
+}
@@ -13,6 +13,7 @@ import org.jd.gui.util.exception.ExceptionUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
@@ -27,6 +28,36 @@ public class IndexesUtil {
         return find(collectionOfFutureIndexes, "typeDeclarations", internalTypeName);
     }
 
+    /**
+     * Batched {@link #findInternalTypeName}: each index is fetched once for all the type names.
+     *
+     * @return the entries declaring the type names found
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, List<Container.Entry>> findInternalTypeNames(Collection<Future<Indexes>> collectionOfFutureIndexes, Collection<String> internalTypeNames) {
+        HashMap<String, List<Container.Entry>> entries = new HashMap<>();
+
+        try {
+            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+                if (futureIndexes.isDone()) {
+                    Map<String, Collection> index = futureIndexes.get().getIndex("typeDeclarations");
+                    if (index != null) {
+                        for (String internalTypeName : internalTypeNames) {
+                            Collection<Container.Entry> collection = index.get(internalTypeName);
+                            if (collection != null) {
+                                entries.computeIfAbsent(internalTypeName, k -> new ArrayList<>()).addAll(collection);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+
+        return entries;
+    }
+
     public static boolean contains(Collection<Future<Indexes>> collectionOfFutureIndexes, String indexName, String key) {
         try {
             for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
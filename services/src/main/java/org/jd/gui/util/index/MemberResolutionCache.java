@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+import org.jd.gui.api.model.Type;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.matcher.DescriptorMatcher;
+
+import java.util.*;
+import java.util.concurrent.Future;
+
+/**
+ * Resolutions of the field and method references of the type pages, shared by all pages: for a reference, the
+ * type declaring the member, searched in the referenced type and its super types.
+ * <p>
+ * Each resolution remembers the type names searched. It is dropped when an index declaring one of these types is
+ * added or removed; other index changes keep it. The least recently used resolutions are dropped beyond
+ * {@link #MAX_RESOLUTIONS}.
+ * <p>
+ * Thread safe.
+ */
+public class MemberResolutionCache {
+    protected static final MemberResolutionCache INSTANCE = new MemberResolutionCache();
+    protected static final int MAX_DEPTH = 256;
+    protected static final int MAX_RESOLUTIONS = 16384;
+
+    protected LinkedHashMap<Key, Resolution> resolutions = new LinkedHashMap<Key, Resolution>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Resolution> eldest) { return size() > MAX_RESOLUTIONS; }
+    };
+    /**
+     * Key of the lookups, reused under the lock
+     */
+    protected Key probe = new Key();
+    protected Set<Future<Indexes>> doneFutureIndexes = Collections.newSetFromMap(new IdentityHashMap<>());
+    protected int version;
+
+    public static MemberResolutionCache getInstance() { return INSTANCE; }
+
+    /**
+     * Drop the resolutions depending on the indexes added or removed since the last call.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void update(Collection<Future<Indexes>> collectionOfFutureIndexes) {
+        Set<Future<Indexes>> done = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+            if (futureIndexes.isDone()) {
+                done.add(futureIndexes);
+            }
+        }
+
+        ArrayList<Map<String, Collection>> changedIndexes = new ArrayList<>();
+
+        addTypeDeclarationIndexes(changedIndexes, done, doneFutureIndexes);
+        addTypeDeclarationIndexes(changedIndexes, doneFutureIndexes, done);
+
+        doneFutureIndexes = done;
+
+        if (!changedIndexes.isEmpty()) {
+            version++;
+
+            Iterator<Resolution> iterator = resolutions.values().iterator();
+
+            while (iterator.hasNext()) {
+                if (iterator.next().dependsOn(changedIndexes)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static void addTypeDeclarationIndexes(List<Map<String, Collection>> indexes, Set<Future<Indexes>> set, Set<Future<Indexes>> excluded) {
+        for (Future<Indexes> futureIndexes : set) {
+            if (!excluded.contains(futureIndexes)) {
+                try {
+                    Map<String, Collection> index = futureIndexes.get().getIndex("typeDeclarations");
+                    if (index != null) {
+                        indexes.add(index);
+                    }
+                } catch (Exception e) {
+                    ExceptionUtil.printStackTrace(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param rootUri URI of the root container of the page: the types of this container are searched first
+     * @return the name of the type declaring the member 'name' with 'descriptor', 'typeName' or one of its super
+     *         types, or null
+     */
+    public String resolve(API api, Collection<Future<Indexes>> collectionOfFutureIndexes, String rootUri, String typeName, String name, String descriptor) {
+        int currentVersion;
+
+        synchronized (this) {
+            Resolution resolution = resolutions.get(probe.set(rootUri, typeName, name, descriptor));
+
+            if (resolution != null) {
+                return resolution.typeName;
+            }
+
+            currentVersion = version;
+        }
+
+        HashSet<String> searchedTypeNames = new HashSet<>();
+        String resolvedTypeName = searchTypeHavingMember(api, collectionOfFutureIndexes, rootUri, typeName, name, descriptor, searchedTypeNames, 0);
+
+        synchronized (this) {
+            // Do not keep a resolution made with indexes changed in the meantime
+            if (version == currentVersion) {
+                resolutions.put(new Key().set(rootUri, typeName, name, descriptor), new Resolution(resolvedTypeName, searchedTypeNames.toArray(new String[0])));
+            }
+        }
+
+        return resolvedTypeName;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected String searchTypeHavingMember(API api, Collection<Future<Indexes>> collectionOfFutureIndexes, String rootUri, String typeName, String name, String descriptor, Set<String> searchedTypeNames, int depth) {
+        if ((typeName == null) || (depth > MAX_DEPTH) || !searchedTypeNames.add(typeName)) {
+            return null;
+        }
+
+        List<Container.Entry> entries = IndexesUtil.findInternalTypeName(collectionOfFutureIndexes, typeName);
+        ArrayList<Container.Entry> sameContainerEntries = new ArrayList<>();
+
+        for (Container.Entry e : entries) {
+            if (e.getUri().toString().startsWith(rootUri)) {
+                sameContainerEntries.add(e);
+            }
+        }
+
+        if (sameContainerEntries.size() > 0) {
+            entries = sameContainerEntries;
+        }
+
+        for (Container.Entry entry : entries) {
+            Type type = api.getTypeFactory(entry).make(api, entry, typeName);
+
+            if (type != null) {
+                if (descriptor.indexOf('(') == -1) {
+                    // Search a field
+                    for (Type.Field field : type.getFields()) {
+                        if (field.getName().equals(name) && DescriptorMatcher.matchFieldDescriptors(field.getDescriptor(), descriptor)) {
+                            // Field found
+                            return typeName;
+                        }
+                    }
+                } else {
+                    // Search a method
+                    for (Type.Method method : type.getMethods()) {
+                        if (method.getName().equals(name) && DescriptorMatcher.matchMethodDescriptors(method.getDescriptor(), descriptor)) {
+                            // Method found
+                            return typeName;
+                        }
+                    }
+                }
+
+                // Not found -> Search in super type
+                String typeOwnerName = searchTypeHavingMember(api, collectionOfFutureIndexes, rootUri, type.getSuperName(), name, descriptor, searchedTypeNames, depth+1);
+                if (typeOwnerName != null) {
+                    return typeOwnerName;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    protected static class Key {
+        protected String rootUri;
+        protected String typeName;
+        protected String name;
+        protected String descriptor;
+        protected int hashCode;
+
+        public Key set(String rootUri, String typeName, String name, String descriptor) {
+            this.rootUri = rootUri;
+            this.typeName = typeName;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.hashCode = ((Objects.hashCode(rootUri) * 31 + Objects.hashCode(typeName)) * 31 + Objects.hashCode(name)) * 31 + Objects.hashCode(descriptor);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key)o;
+
+            return (hashCode == other.hashCode) && Objects.equals(name, other.name) && Objects.equals(descriptor, other.descriptor) &&
+                   Objects.equals(typeName, other.typeName) && Objects.equals(rootUri, other.rootUri);
+        }
+
+        @Override
+        public int hashCode() { return hashCode; }
+    }
+
+    protected static class Resolution {
+        protected String typeName;
+        protected String[] searchedTypeNames;
+
+        public Resolution(String typeName, String[] searchedTypeNames) {
+            this.typeName = typeName;
+            this.searchedTypeNames = searchedTypeNames;
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean dependsOn(List<Map<String, Collection>> indexes) {
+            for (String searchedTypeName : searchedTypeNames) {
+                for (Map<String, Collection> index : indexes) {
+                    if (index.get(searchedTypeName) != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bytes of a stream read once, typically an archive entry inflated on the fly. While the stream is read by
+ * {@link #load(long)}, its content is cut into blocks of {@link #BLOCK_SIZE} bytes, each deflated independently
+ * into a temporary file: reading any window later inflates one block, never the stream from its start. Only the
+ * block being read and the block being filled are kept in memory.
+ */
+public class BlockDeflatedByteSource extends ByteSource {
+    public static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    protected InputStream source;
+    protected boolean sourceEnd;
+    protected Path blockPath;
+    protected FileChannel blockChannel;
+    protected long[] blockOffsets = new long[] { 0, 0 };
+    protected int blockCount;
+    protected byte[] pendingBlock = new byte[BLOCK_SIZE];
+    protected int pendingLength;
+    protected byte[] cachedBlock = new byte[BLOCK_SIZE];
+    protected int cachedBlockIndex = -1;
+    protected byte[] compressed = new byte[64 * 1024];
+    protected Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    protected Inflater inflater = new Inflater(true);
+
+    public BlockDeflatedByteSource(InputStream source) {
+        this.source = source;
+    }
+
+    @Override
+    public synchronized long size() { return (long)blockCount * BLOCK_SIZE + pendingLength; }
+
+    /**
+     * Read the next 'maxBytes' bytes of the stream.
+     */
+    @Override
+    public synchronized boolean load(long maxBytes) throws IOException {
+        while (!sourceEnd && (maxBytes > 0)) {
+            int length = source.read(pendingBlock, pendingLength, (int)Math.min(BLOCK_SIZE - pendingLength, maxBytes));
+
+            if (length == -1) {
+                sourceEnd = true;
+                source.close();
+            } else {
+                pendingLength += length;
+                maxBytes -= length;
+
+                if (pendingLength == BLOCK_SIZE) {
+                    flushBlock();
+                }
+            }
+        }
+
+        return sourceEnd;
+    }
+
+    protected void flushBlock() throws IOException {
+        if (blockChannel == null) {
+            blockPath = Files.createTempFile("jd-gui.", ".pages");
+            blockPath.toFile().deleteOnExit();
+            blockChannel = FileChannel.open(blockPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        long offset = blockOffsets[blockCount];
+
+        deflater.reset();
+        deflater.setInput(pendingBlock, 0, pendingLength);
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            int length = deflater.deflate(compressed);
+            ByteBuffer bb = ByteBuffer.wrap(compressed, 0, length);
+
+            while (bb.hasRemaining()) {
+                offset += blockChannel.write(bb, offset);
+            }
+        }
+
+        if (blockCount + 2 > blockOffsets.length) {
+            long[] tmp = new long[blockOffsets.length * 2];
+            System.arraycopy(blockOffsets, 0, tmp, 0, blockOffsets.length);
+            blockOffsets = tmp;
+        }
+
+        blockOffsets[++blockCount] = offset;
+
+        // The block just written is the next one read by the reader of the stream
+        byte[] tmp = cachedBlock;
+        cachedBlock = pendingBlock;
+        cachedBlockIndex = blockCount - 1;
+        pendingBlock = tmp;
+        pendingLength = 0;
+    }
+
+    @Override
+    public synchronized int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        int blockIndex = (int)(position / BLOCK_SIZE);
+        int blockOffset = (int)(position % BLOCK_SIZE);
+        byte[] block;
+        int blockLength;
+
+        if (blockIndex < blockCount) {
+            block = getBlock(blockIndex);
+            blockLength = BLOCK_SIZE;
+        } else if (blockIndex == blockCount) {
+            block = pendingBlock;
+            blockLength = pendingLength;
+        } else {
+            return -1;
+        }
+
+        if (blockOffset >= blockLength) {
+            return -1;
+        }
+
+        int count = Math.min(length, blockLength - blockOffset);
+        System.arraycopy(block, blockOffset, buffer, offset, count);
+        return count;
+    }
+
+    protected byte[] getBlock(int blockIndex) throws IOException {
+        if (cachedBlockIndex != blockIndex) {
+            long position = blockOffsets[blockIndex];
+            long end = blockOffsets[blockIndex + 1];
+            int inflated = 0;
+
+            cachedBlockIndex = -1;
+            inflater.reset();
+
+            try {
+                while (inflated < BLOCK_SIZE) {
+                    if (inflater.needsInput()) {
+                        ByteBuffer bb = ByteBuffer.wrap(compressed, 0, (int)Math.min(compressed.length, end - position));
+                        int length = blockChannel.read(bb, position);
+
+                        if (length <= 0) {
+                            throw new IOException("Truncated block " + blockIndex);
+                        }
+
+                        position += length;
+                        inflater.setInput(compressed, 0, length);
+                    }
+
+                    inflated += inflater.inflate(cachedBlock, inflated, BLOCK_SIZE - inflated);
+
+                    if (inflater.finished()) {
+                        break;
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            }
+
+            cachedBlockIndex = blockIndex;
+        }
+
+        return cachedBlock;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!sourceEnd) {
+            sourceEnd = true;
+            source.close();
+        }
+
+        deflater.end();
+        inflater.end();
+
+        if (blockChannel != null) {
+            blockChannel.close();
+            Files.deleteIfExists(blockPath);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+public class ByteArrayByteSource extends ByteSource {
+    protected byte[] bytes;
+
+    public ByteArrayByteSource(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override public long size() { return bytes.length; }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) {
+        if (position >= bytes.length) {
+            return -1;
+        }
+
+        int count = (int)Math.min(length, bytes.length - position);
+        System.arraycopy(bytes, (int)position, buffer, offset, count);
+        return count;
+    }
+}
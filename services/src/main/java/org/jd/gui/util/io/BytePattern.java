@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Byte pattern searched in a {@link ByteSource}, by chunks: the memory used does not depend on the size of the
+ * source.
+ * <p>
+ * A text made of hexadecimal pairs separated by spaces, like "CA FE BA BE", or prefixed with "0x", like
+ * "0xCAFEBABE", is a sequence of bytes. Any other text is searched encoded in UTF-8, ignoring the case of the
+ * ASCII letters if the search is not case sensitive.
+ */
+public class BytePattern {
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    protected static final Pattern HEX_PAIRS = Pattern.compile("[0-9A-Fa-f]{2}(\\s+[0-9A-Fa-f]{2})+");
+    protected static final Pattern HEX_NUMBER = Pattern.compile("0[xX]([0-9A-Fa-f]{2})+");
+
+    protected byte[] bytes;
+    protected boolean ignoreCase;
+
+    protected BytePattern(byte[] bytes, boolean ignoreCase) {
+        this.bytes = bytes;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * @return the pattern, or null if 'text' is empty
+     */
+    public static BytePattern parse(String text, boolean caseSensitive) {
+        String trimmed = text.trim();
+
+        if (HEX_PAIRS.matcher(trimmed).matches() || HEX_NUMBER.matcher(trimmed).matches()) {
+            String digits = trimmed.replaceAll("\\s+", "");
+
+            if (digits.charAt(1) == 'x' || digits.charAt(1) == 'X') {
+                digits = digits.substring(2);
+            }
+
+            byte[] bytes = new byte[digits.length() / 2];
+
+            for (int i=0; i<bytes.length; i++) {
+                bytes[i] = (byte)Integer.parseInt(digits.substring(2*i, 2*i+2), 16);
+            }
+
+            return new BytePattern(bytes, false);
+        } else if (text.isEmpty()) {
+            return null;
+        } else if (caseSensitive) {
+            return new BytePattern(text.getBytes(StandardCharsets.UTF_8), false);
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+            for (int i=0; i<bytes.length; i++) {
+                bytes[i] = toLowerCase(bytes[i]);
+            }
+
+            return new BytePattern(bytes, true);
+        }
+    }
+
+    protected static byte toLowerCase(byte b) {
+        return ((b >= 'A') && (b <= 'Z')) ? (byte)(b + ('a' - 'A')) : b;
+    }
+
+    public int length() { return bytes.length; }
+
+    /**
+     * Search forward from 'from', loading the source as needed.
+     *
+     * @param cancelled polled between chunks
+     * @return the position of the first match at or after 'from', or -1
+     */
+    public long indexIn(ByteSource source, long from, BooleanSupplier cancelled) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE + bytes.length - 1];
+        long position = Math.max(0, from);
+        boolean loaded = false;
+
+        while (!cancelled.getAsBoolean()) {
+            while (!loaded && (source.size() < position + buffer.length)) {
+                loaded = source.load(CHUNK_SIZE);
+            }
+
+            int length = readFully(source, position, buffer, buffer.length);
+
+            for (int i=0, end=length-bytes.length; i<=end; i++) {
+                if (matches(buffer, i)) {
+                    return position + i;
+                }
+            }
+
+            if (length < buffer.length) {
+                break;
+            }
+
+            position += length - bytes.length + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Search backward from 'from', in the bytes already loaded.
+     *
+     * @param cancelled polled between chunks
+     * @return the position of the last match before 'from', or -1
+     */
+    public long lastIndexIn(ByteSource source, long from, BooleanSupplier cancelled) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE + bytes.length - 1];
+        long end = Math.min(from - 1 + bytes.length, source.size());
+
+        while ((end >= bytes.length) && !cancelled.getAsBoolean()) {
+            long start = Math.max(0, end - buffer.length);
+            int length = readFully(source, start, buffer, (int)(end - start));
+
+            for (int i=length-bytes.length; i>=0; i--) {
+                if (matches(buffer, i)) {
+                    return start + i;
+                }
+            }
+
+            if (start == 0) {
+                break;
+            }
+
+            end = start + bytes.length - 1;
+        }
+
+        return -1;
+    }
+
+    protected boolean matches(byte[] buffer, int offset) {
+        if (ignoreCase) {
+            for (int i=0; i<bytes.length; i++) {
+                if (toLowerCase(buffer[offset+i]) != bytes[i]) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i=0; i<bytes.length; i++) {
+                if (buffer[offset+i] != bytes[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bytes read at 'position', less than 'length' at the end of the source only
+     */
+    public static int readFully(ByteSource source, long position, byte[] buffer, int length) throws IOException {
+        int offset = 0;
+
+        while (offset < length) {
+            int count = source.read(position + offset, buffer, offset, length - offset);
+
+            if (count <= 0) {
+                break;
+            }
+
+            offset += count;
+        }
+
+        return offset;
+    }
+}
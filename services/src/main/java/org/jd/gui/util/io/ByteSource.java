@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Bytes read by windows, at any position, from a source too large to be loaded at once: a mapped file, an
+ * archive entry inflated on the fly...
+ * <p>
+ * Thread safe.
+ */
+public abstract class ByteSource implements Closeable {
+    /**
+     * @return the number of bytes currently available
+     */
+    public abstract long size() throws IOException;
+
+    /**
+     * Read up to 'length' bytes at 'position'.
+     *
+     * @return the number of bytes read, -1 at the end of the available bytes
+     */
+    public abstract int read(long position, byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Make the next 'maxBytes' bytes of the source available, for the sources read once, sequentially.
+     *
+     * @return true if the whole source is available
+     */
+    public boolean load(long maxBytes) throws IOException { return true; }
+
+    /**
+     * @return true if the source may grow, or be truncated, while it is read
+     */
+    public boolean isGrowable() { return false; }
+
+    @Override
+    public void close() throws IOException {}
+}
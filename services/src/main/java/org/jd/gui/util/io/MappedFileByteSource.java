@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bytes of a file, mapped in memory by segments. The file may grow, or be truncated, while it is read.
+ */
+public class MappedFileByteSource extends ByteSource {
+    protected static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    protected FileChannel channel;
+    protected MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    protected long lastSize;
+
+    public MappedFileByteSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public synchronized long size() throws IOException { return checkSize(); }
+
+    /**
+     * @return the current size of the file, after forgetting the mapped segments if the file has been truncated
+     */
+    protected long checkSize() throws IOException {
+        long size = channel.size();
+
+        if (size < lastSize) {
+            // The file has been truncated: forget the mapped segments
+            segments = new MappedByteBuffer[0];
+        }
+
+        return lastSize = size;
+    }
+
+    @Override
+    public boolean isGrowable() { return true; }
+
+    /**
+     * The size of the file is checked before each read: reading a mapped page beyond the end of a truncated file -
+     * a log rotated by copy and truncation, for instance - would crash the JVM with a SIGBUS.
+     */
+    @Override
+    public synchronized int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        long size = checkSize();
+
+        if (position >= size) {
+            return -1;
+        }
+
+        int index = (int)(position / SEGMENT_SIZE);
+        int segmentOffset = (int)(position % SEGMENT_SIZE);
+        MappedByteBuffer segment = getSegment(index, segmentOffset + 1, size);
+
+        if (segment == null) {
+            return -1;
+        }
+
+        int count = (int)Math.min(Math.min(length, segment.capacity() - segmentOffset), size - position);
+        ByteBuffer bb = segment.duplicate();
+
+        bb.position(segmentOffset);
+
+        try {
+            bb.get(buffer, offset, count);
+        } catch (InternalError e) {
+            // Truncated during the copy
+            segments = new MappedByteBuffer[0];
+            throw new IOException("File truncated while being read", e);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the segment 'index', mapped again if it is shorter than 'minimumLength' and the file has grown, or if
+     * it extends beyond 'size', the current size of the file
+     */
+    protected MappedByteBuffer getSegment(int index, int minimumLength, long size) throws IOException {
+        if (index >= segments.length) {
+            MappedByteBuffer[] tmp = new MappedByteBuffer[index + 1];
+            System.arraycopy(segments, 0, tmp, 0, segments.length);
+            segments = tmp;
+        }
+
+        MappedByteBuffer segment = segments[index];
+        long start = (long)index * SEGMENT_SIZE;
+
+        if ((segment == null) || (segment.capacity() < minimumLength) || (start + segment.capacity() > size)) {
+            long length = Math.min(SEGMENT_SIZE, size - start);
+
+            if (length < minimumLength) {
+                segments[index] = null;
+                return null;
+            }
+
+            segments[index] = segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+
+        return segment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes characters in UTF-8 into a reusable direct buffer, replaces '\n' by the platform line separator and
+ * flushes the buffer into a channel. Nothing is allocated per character, per line or per file.
+ */
+public class NewlineUtf8ChannelWriter {
+    protected static final byte[] LINE_SEPARATOR = getLineSeparator();
+
+    protected ByteBuffer buffer;
+    protected WritableByteChannel channel;
+    protected char highSurrogate;
+
+    public NewlineUtf8ChannelWriter() { this(64 * 1024); }
+
+    public NewlineUtf8ChannelWriter(int capacity) {
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Set the target channel and discard the pending bytes.
+     */
+    public void setChannel(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer.clear();
+        this.highSurrogate = 0;
+    }
+
+    public void write(CharSequence cs) throws IOException {
+        write(cs, 0, cs.length());
+    }
+
+    public void write(CharSequence cs, int start, int end) throws IOException {
+        ByteBuffer buffer = this.buffer;
+
+        for (int i=start; i<end; i++) {
+            char c = cs.charAt(i);
+
+            if (buffer.remaining() < 8) {
+                flushBuffer();
+            }
+
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+
+                highSurrogate = 0;
+
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                    buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+                    continue;
+                }
+
+                // Unpaired high surrogate
+                buffer.put((byte)'?');
+            }
+
+            if (c < 0x80) {
+                if (c == '\n') {
+                    buffer.put(LINE_SEPARATOR);
+                } else {
+                    buffer.put((byte)c);
+                }
+            } else if (c < 0x800) {
+                buffer.put((byte)(0xC0 | (c >> 6)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                // Unpaired low surrogate
+                buffer.put((byte)'?');
+            } else {
+                buffer.put((byte)(0xE0 | (c >> 12)));
+                buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Write the pending bytes into the channel.
+     */
+    public void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (buffer.remaining() < 1) {
+                flushBuffer();
+            }
+            buffer.put((byte)'?');
+        }
+        flushBuffer();
+    }
+
+    protected void flushBuffer() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    protected static byte[] getLineSeparator() {
+        String s = System.getProperty("line.separator");
+
+        if ((s == null) || (s.length() <= 0))
+            s = "\n";
+
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
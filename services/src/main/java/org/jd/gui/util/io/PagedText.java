@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Text read by pages of lines from a {@link ByteSource} too large to be loaded, or decoded, at once.
+ * <p>
+ * The line index is built incrementally by {@link #index(int)}, usually from a background thread, and is sparse:
+ * one offset every 'stride' lines. When the index reaches {@link #MAX_CHECKPOINTS} offsets, every other offset is
+ * dropped and the stride doubles, so the memory used by the index is bounded whatever the size of the source.
+ * <p>
+ * Thread safe.
+ */
+public class PagedText implements Closeable {
+    public static final int MAX_CHECKPOINTS = 1 << 20;
+    /**
+     * Maximum size of the text returned by {@link #readLines(int, int)}, truncating huge lines
+     */
+    public static final int MAX_PAGE_SIZE = 4 * 1024 * 1024;
+
+    protected static final int INITIAL_STRIDE = 64;
+    protected static final int BUFFER_SIZE = 64 * 1024;
+
+    protected ByteSource source;
+    protected Charset charset;
+    protected long[] checkpoints = new long[1024];
+    protected int checkpointCount;
+    protected int stride;
+    protected int newlineCount;
+    protected long indexedSize;
+    protected byte[] buffer = new byte[BUFFER_SIZE];
+
+    public PagedText(ByteSource source, Charset charset) {
+        this.source = source;
+        this.charset = charset;
+        reset();
+    }
+
+    public ByteSource getSource() { return source; }
+
+    protected int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        return source.read(position, buffer, offset, length);
+    }
+
+    /**
+     * Forget the line index, after a truncation of the source.
+     */
+    protected synchronized void reset() {
+        checkpoints[0] = 0;
+        checkpointCount = 1;
+        stride = INITIAL_STRIDE;
+        newlineCount = 0;
+        indexedSize = 0;
+    }
+
+    /**
+     * Index the next 'maxBytes' bytes of the source.
+     *
+     * @return true if the source has been indexed up to its end
+     */
+    public synchronized boolean index(int maxBytes) throws IOException {
+        boolean loaded = source.load(maxBytes);
+        long size = source.size();
+
+        if (size < indexedSize) {
+            // Truncated source
+            reset();
+        }
+
+        long end = Math.min(size, indexedSize + maxBytes);
+
+        while (indexedSize < end) {
+            int length = read(indexedSize, buffer, 0, (int)Math.min(buffer.length, end - indexedSize));
+
+            if (length <= 0) {
+                break;
+            }
+
+            for (int i=0; i<length; i++) {
+                if (buffer[i] == '\n') {
+                    if ((++newlineCount % stride) == 0) {
+                        addCheckpoint(indexedSize + i + 1);
+                    }
+                }
+            }
+
+            indexedSize += length;
+        }
+
+        return loaded && (indexedSize >= size);
+    }
+
+    protected void addCheckpoint(long offset) {
+        if (checkpointCount == MAX_CHECKPOINTS) {
+            // Keep every other checkpoint
+            for (int i=0, j=0; i<checkpointCount; i+=2, j++) {
+                checkpoints[j] = checkpoints[i];
+            }
+            checkpointCount = (checkpointCount + 1) / 2;
+            stride *= 2;
+
+            if ((newlineCount % stride) != 0) {
+                return;
+            }
+        }
+
+        if (checkpointCount == checkpoints.length) {
+            long[] tmp = new long[Math.min(checkpoints.length * 2, MAX_CHECKPOINTS)];
+            System.arraycopy(checkpoints, 0, tmp, 0, checkpointCount);
+            checkpoints = tmp;
+        }
+
+        checkpoints[checkpointCount++] = offset;
+    }
+
+    /**
+     * @return the number of lines indexed, the last one possibly incomplete
+     */
+    public synchronized int getLineCount() { return newlineCount + 1; }
+
+    /**
+     * @return the number of bytes indexed
+     */
+    public synchronized long getIndexedSize() { return indexedSize; }
+
+    /**
+     * @return the offset of the first byte of the line 'lineIndex', counted from 0
+     */
+    public synchronized long getLineStart(int lineIndex) throws IOException {
+        if (lineIndex <= 0) {
+            return 0;
+        }
+
+        int checkpointIndex = Math.min(lineIndex / stride, checkpointCount - 1);
+        int remainingNewlines = lineIndex - checkpointIndex * stride;
+        long position = checkpoints[checkpointIndex];
+
+        while (position < indexedSize) {
+            int length = read(position, buffer, 0, (int)Math.min(buffer.length, indexedSize - position));
+
+            if (length <= 0) {
+                break;
+            }
+
+            for (int i=0; i<length; i++) {
+                if ((buffer[i] == '\n') && (--remainingNewlines == 0)) {
+                    return position + i + 1;
+                }
+            }
+
+            position += length;
+        }
+
+        return indexedSize;
+    }
+
+    /**
+     * @return the lines 'firstLineIndex' to 'firstLineIndex + lineCount' excluded, without the last line separator
+     */
+    public synchronized String readLines(int firstLineIndex, int lineCount) throws IOException {
+        long start = getLineStart(firstLineIndex);
+        long end = getLineStart(firstLineIndex + lineCount);
+
+        if ((end > start) && (firstLineIndex + lineCount <= newlineCount)) {
+            // Remove the last line separator
+            end--;
+        }
+
+        int length = (int)Math.min(end - start, MAX_PAGE_SIZE);
+        byte[] bytes = new byte[length];
+        int offset = 0;
+
+        while (offset < length) {
+            int count = read(start + offset, bytes, offset, length - offset);
+
+            if (count <= 0) {
+                break;
+            }
+
+            offset += count;
+        }
+
+        String text = new String(bytes, 0, offset, charset);
+
+        return (text.indexOf('\r') == -1) ? text : text.replace("\r\n", "\n");
+    }
+
+    /**
+     * Copy the whole source into 'os'.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        source.load(Long.MAX_VALUE);
+
+        byte[] bytes = new byte[BUFFER_SIZE];
+        long position = 0;
+        int length;
+
+        while ((length = read(position, bytes, 0, bytes.length)) > 0) {
+            os.write(bytes, 0, length);
+            position += length;
+        }
+    }
+
+    public Charset getCharset() { return charset; }
+
+    /**
+     * @return true if the source may grow while it is read
+     */
+    public boolean isGrowable() { return source.isGrowable(); }
+
+    @Override
+    public void close() throws IOException { source.close(); }
+}
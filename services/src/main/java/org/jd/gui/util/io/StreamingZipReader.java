@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reader of the archives written by {@link StreamingZipWriter}, complete or not: the entries are found by walking
+ * the local headers, which carry the sizes, so an archive truncated by a crash can still be read up to its last
+ * complete entry. Entries failing their CRC check are ignored.
+ */
+public class StreamingZipReader implements Closeable {
+    protected FileChannel channel;
+    protected HashMap<String, LocalEntry> entries = new HashMap<>();
+
+    public StreamingZipReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            scan();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    protected void scan() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        long size = channel.size();
+        long offset = 0;
+
+        while (offset + 30 <= size) {
+            header.clear();
+            readFully(header, offset);
+
+            if (header.getInt(0) != StreamingZipWriter.LOCAL_HEADER) {
+                break;
+            }
+
+            int flags = header.getShort(6) & 0xFFFF;
+            int method = header.getShort(8) & 0xFFFF;
+            long crc = header.getInt(14) & StreamingZipWriter.MAX_32;
+            long compressedSize = header.getInt(18) & StreamingZipWriter.MAX_32;
+            long uncompressedSize = header.getInt(22) & StreamingZipWriter.MAX_32;
+            int nameLength = header.getShort(26) & 0xFFFF;
+            int extraLength = header.getShort(28) & 0xFFFF;
+            long dataOffset = offset + 30 + nameLength + extraLength;
+
+            if (((flags & 0x0008) != 0) || (dataOffset + compressedSize > size)) {
+                // Data descriptor or truncated entry
+                break;
+            }
+
+            ByteBuffer name = ByteBuffer.allocate(nameLength);
+            readFully(name, offset + 30);
+
+            String entryName = new String(name.array(), StandardCharsets.UTF_8);
+            entries.put(entryName, new LocalEntry(method, dataOffset, compressedSize, uncompressedSize, crc));
+            offset = dataOffset + compressedSize;
+        }
+    }
+
+    public boolean contains(String name) { return entries.containsKey(name); }
+
+    /**
+     * Thread safe.
+     *
+     * @return the content of 'name', or null if absent or corrupted
+     */
+    public byte[] read(String name) throws IOException {
+        LocalEntry entry = entries.get(name);
+
+        if ((entry == null) || (entry.size > Integer.MAX_VALUE) || (entry.compressedSize > Integer.MAX_VALUE)) {
+            return null;
+        }
+
+        ByteBuffer compressed = ByteBuffer.allocate((int)entry.compressedSize);
+        readFully(compressed, entry.offset);
+
+        byte[] data;
+
+        if (entry.method == StreamingZipWriter.STORED) {
+            data = compressed.array();
+        } else if (entry.method == StreamingZipWriter.DEFLATED) {
+            Inflater inflater = new Inflater(true);
+
+            try {
+                data = new byte[(int)entry.size];
+                inflater.setInput(compressed.array());
+
+                int length = 0;
+
+                while ((length < data.length) && !inflater.finished()) {
+                    int count = inflater.inflate(data, length, data.length - length);
+
+                    if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                        return null;
+                    }
+
+                    length += count;
+                }
+            } catch (DataFormatException e) {
+                return null;
+            } finally {
+                inflater.end();
+            }
+        } else {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        return (crc.getValue() == entry.crc) ? data : null;
+    }
+
+    /**
+     * Thread safe. Copy the content of 'name' into the file 'path': a stored entry is transferred without being
+     * loaded in memory, and its CRC is not checked.
+     *
+     * @return false if 'name' is absent or corrupted
+     */
+    public boolean extract(String name, Path path) throws IOException {
+        LocalEntry entry = entries.get(name);
+
+        if (entry == null) {
+            return false;
+        }
+
+        if (entry.method != StreamingZipWriter.STORED) {
+            byte[] data = read(name);
+
+            if (data == null) {
+                return false;
+            }
+
+            Files.write(path, data);
+            return true;
+        }
+
+        try (FileChannel output = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+
+            while (position < entry.size) {
+                long count = channel.transferTo(entry.offset + position, entry.size - position, output);
+
+                if (count <= 0) {
+                    throw new EOFException();
+                }
+
+                position += count;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    protected void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + buffer.position());
+
+            if (count < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    protected static class LocalEntry {
+        protected int method;
+        protected long offset;
+        protected long compressedSize;
+        protected long size;
+        protected long crc;
+
+        public LocalEntry(int method, long offset, long compressedSize, long size, long crc) {
+            this.method = method;
+            this.offset = offset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.crc = crc;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Zip writer for already compressed entries: entries are deflated by {@link #deflate(String, byte[])}, on any
+ * thread, then appended in order with {@link #put(Entry)}. The local headers are written with the final sizes
+ * and the central directory is written once, by {@link #close()}. Zip64 records are written when the archive
+ * needs them.
+ */
+public class StreamingZipWriter implements Closeable {
+    protected static final int LOCAL_HEADER = 0x04034b50;
+    protected static final int CENTRAL_HEADER = 0x02014b50;
+    protected static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    protected static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    protected static final int ZIP64_LOCATOR = 0x07064b50;
+    protected static final int UTF8_FLAG = 0x0800;
+    protected static final int STORED = 0;
+    protected static final int DEFLATED = 8;
+    protected static final long MAX_32 = 0xFFFFFFFFL;
+    protected static final int MAX_16 = 0xFFFF;
+
+    protected static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    protected static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    protected OutputStream stream;
+    protected long offset;
+    protected int dosTime;
+    protected ArrayList<CentralEntry> entries = new ArrayList<>();
+    protected HashSet<String> names = new HashSet<>();
+    protected boolean closed;
+
+    public StreamingZipWriter(OutputStream stream) {
+        this.stream = new BufferedOutputStream(stream, 64 * 1024);
+        this.dosTime = toDosTime(System.currentTimeMillis());
+    }
+
+    /**
+     * Compress 'data'. Thread safe: each thread reuses its own deflater. The entry is stored when deflating does
+     * not reduce its size.
+     */
+    public static Entry deflate(String name, byte[] data) { return deflate(name, ByteBuffer.wrap(data)); }
+
+    /**
+     * Compress the remaining bytes of 'data', an array-backed buffer left unchanged: the entry never refers to its
+     * array, which may be reused once this method returns.
+     */
+    public static Entry deflate(String name, ByteBuffer data) {
+        byte[] array = data.array();
+        int offset = data.arrayOffset() + data.position();
+        int size = data.remaining();
+
+        CRC32 crc = new CRC32();
+        crc.update(array, offset, size);
+
+        Deflater deflater = DEFLATERS.get();
+        byte[] buffer = BUFFERS.get();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, size / 3));
+
+        deflater.reset();
+        deflater.setInput(array, offset, size);
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer, 0, buffer.length);
+            compressed.write(buffer, 0, length);
+
+            if (compressed.size() >= size) {
+                return new Entry(name, STORED, Arrays.copyOfRange(array, offset, offset + size), size, crc.getValue());
+            }
+        }
+
+        return new Entry(name, DEFLATED, compressed.toByteArray(), size, crc.getValue());
+    }
+
+    /**
+     * Append the directory 'name', and its missing parents. 'name' does not end with '/'.
+     */
+    public void putDirectory(String name) throws IOException {
+        if (!name.isEmpty() && !names.contains(name + '/')) {
+            putParentDirectories(name);
+            writeEntry(name + '/', STORED, new byte[0], 0, 0, 0);
+        }
+    }
+
+    /**
+     * Append 'entry', and its missing parent directories. Returns false if an entry with the same name has
+     * already been appended.
+     */
+    public boolean put(Entry entry) throws IOException {
+        if (names.contains(entry.name)) {
+            return false;
+        }
+
+        putParentDirectories(entry.name);
+        writeEntry(entry.name, entry.method, entry.data, entry.data.length, entry.size, entry.crc);
+        return true;
+    }
+
+    /**
+     * Append the content of 'file' without compression, reading it twice instead of loading it in memory.
+     */
+    public boolean putStored(String name, Path file) throws IOException {
+        if (names.contains(name)) {
+            return false;
+        }
+
+        long size = Files.size(file);
+
+        if (size >= MAX_32) {
+            throw new IOException("Entry too large: " + name);
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = BUFFERS.get();
+
+        try (InputStream is = Files.newInputStream(file)) {
+            int length;
+
+            while ((length = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, length);
+            }
+        }
+
+        putParentDirectories(name);
+        writeLocalHeader(name, STORED, size, size, crc.getValue());
+
+        try (InputStream is = Files.newInputStream(file)) {
+            int length;
+
+            while ((length = is.read(buffer)) != -1) {
+                stream.write(buffer, 0, length);
+            }
+        }
+
+        offset += size;
+        return true;
+    }
+
+    /**
+     * Flush the appended entries into the underlying stream.
+     */
+    public void flush() throws IOException {
+        stream.flush();
+    }
+
+    /**
+     * Write the central directory and close the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            long centralDirectoryOffset = offset;
+
+            for (CentralEntry entry : entries) {
+                writeCentralHeader(entry);
+            }
+
+            long centralDirectorySize = offset - centralDirectoryOffset;
+            int count = entries.size();
+
+            if ((count >= MAX_16) || (centralDirectoryOffset >= MAX_32) || (centralDirectorySize >= MAX_32)) {
+                long zip64Offset = offset;
+
+                writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY);
+                writeLong(44);                      // Size of the remaining record
+                writeShort(45);                     // Version made by
+                writeShort(45);                     // Version needed
+                writeInt(0);                        // Number of this disk
+                writeInt(0);                        // Disk of the central directory
+                writeLong(count);
+                writeLong(count);
+                writeLong(centralDirectorySize);
+                writeLong(centralDirectoryOffset);
+
+                writeInt(ZIP64_LOCATOR);
+                writeInt(0);
+                writeLong(zip64Offset);
+                writeInt(1);
+            }
+
+            writeInt(END_OF_CENTRAL_DIRECTORY);
+            writeShort(0);
+            writeShort(0);
+            writeShort(Math.min(count, MAX_16));
+            writeShort(Math.min(count, MAX_16));
+            writeInt(Math.min(centralDirectorySize, MAX_32));
+            writeInt(Math.min(centralDirectoryOffset, MAX_32));
+            writeShort(0);
+        } finally {
+            stream.close();
+        }
+    }
+
+    protected void putParentDirectories(String name) throws IOException {
+        int index = name.lastIndexOf('/', name.length() - 2);
+
+        if ((index > 0) && !names.contains(name.substring(0, index + 1))) {
+            putDirectory(name.substring(0, index));
+        }
+    }
+
+    protected void writeEntry(String name, int method, byte[] data, long compressedSize, long size, long crc) throws IOException {
+        writeLocalHeader(name, method, compressedSize, size, crc);
+        stream.write(data, 0, (int)compressedSize);
+        offset += compressedSize;
+    }
+
+    protected void writeLocalHeader(String name, int method, long compressedSize, long size, long crc) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        names.add(name);
+        entries.add(new CentralEntry(nameBytes, method, compressedSize, size, crc, offset));
+
+        writeInt(LOCAL_HEADER);
+        writeShort(20);                             // Version needed
+        writeShort(UTF8_FLAG);
+        writeShort(method);
+        writeInt(dosTime);
+        writeInt(crc);
+        writeInt(compressedSize);
+        writeInt(size);
+        writeShort(nameBytes.length);
+        writeShort(0);                              // Extra field length
+        writeBytes(nameBytes);
+    }
+
+    protected void writeCentralHeader(CentralEntry entry) throws IOException {
+        boolean zip64 = (entry.offset >= MAX_32);
+
+        writeInt(CENTRAL_HEADER);
+        writeShort(zip64 ? 45 : 20);                // Version made by
+        writeShort(zip64 ? 45 : 20);                // Version needed
+        writeShort(UTF8_FLAG);
+        writeShort(entry.method);
+        writeInt(dosTime);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.size);
+        writeShort(entry.name.length);
+        writeShort(zip64 ? 12 : 0);                 // Extra field length
+        writeShort(0);                              // Comment length
+        writeShort(0);                              // Disk number
+        writeShort(0);                              // Internal attributes
+        writeInt(0);                                // External attributes
+        writeInt(zip64 ? MAX_32 : entry.offset);
+        writeBytes(entry.name);
+
+        if (zip64) {
+            writeShort(0x0001);
+            writeShort(8);
+            writeLong(entry.offset);
+        }
+    }
+
+    protected void writeShort(int value) throws IOException {
+        stream.write(value & 0xFF);
+        stream.write((value >>> 8) & 0xFF);
+        offset += 2;
+    }
+
+    protected void writeInt(long value) throws IOException {
+        writeShort((int)(value & 0xFFFF));
+        writeShort((int)((value >>> 16) & 0xFFFF));
+    }
+
+    protected void writeLong(long value) throws IOException {
+        writeInt(value & MAX_32);
+        writeInt(value >>> 32);
+    }
+
+    protected void writeBytes(byte[] bytes) throws IOException {
+        stream.write(bytes);
+        offset += bytes.length;
+    }
+
+    protected static int toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+
+        int year = calendar.get(Calendar.YEAR);
+
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+
+        return ((year - 1980) << 25) |
+               ((calendar.get(Calendar.MONTH) + 1) << 21) |
+               (calendar.get(Calendar.DAY_OF_MONTH) << 16) |
+               (calendar.get(Calendar.HOUR_OF_DAY) << 11) |
+               (calendar.get(Calendar.MINUTE) << 5) |
+               (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    public static class Entry {
+        protected String name;
+        protected int method;
+        protected byte[] data;
+        protected long size;
+        protected long crc;
+
+        public Entry(String name, int method, byte[] data, long size, long crc) {
+            this.name = name;
+            this.method = method;
+            this.data = data;
+            this.size = size;
+            this.crc = crc;
+        }
+
+        public String getName() { return name; }
+    }
+
+    protected static class CentralEntry {
+        protected byte[] name;
+        protected int method;
+        protected long compressedSize;
+        protected long size;
+        protected long crc;
+        protected long offset;
+
+        public CentralEntry(byte[] name, int method, long compressedSize, long size, long crc, long offset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.crc = crc;
+            this.offset = offset;
+        }
+    }
+}
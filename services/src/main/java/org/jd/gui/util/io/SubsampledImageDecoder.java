@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.io;
+
+import org.jd.gui.api.model.Container;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Image decoding with source subsampling: an image displayed smaller than its size is decoded with every n-th pixel
+ * of every n-th row only. The decoded images are kept in a cache bounded by their total size in bytes, the least
+ * recently used images are evicted first.
+ * <p>
+ * Thread safe.
+ */
+public class SubsampledImageDecoder {
+    protected static final int MAX_SIZE_COUNT = 1024;
+
+    protected long maxWeight;
+    protected long weight;
+    protected LinkedHashMap<Key, Image> images = new LinkedHashMap<>(16, 0.75F, true);
+    protected LinkedHashMap<URI, int[]> sizes = new LinkedHashMap<URI, int[]>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<URI, int[]> eldest) { return size() > MAX_SIZE_COUNT; }
+    };
+
+    /**
+     * @param maxWeight maximum total size of the cached images, in bytes
+     */
+    public SubsampledImageDecoder(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Decode the image of 'entry' for a display area of 'maxWidth' x 'maxHeight' pixels: the decoded image is
+     * subsampled as much as possible while remaining larger than the image scaled to fit the area.
+     *
+     * @param maxWidth width of the display area, or 0 for the full resolution
+     * @param maxHeight height of the display area, or 0 for the full resolution
+     */
+    public Image decode(Container.Entry entry, int maxWidth, int maxHeight) throws IOException {
+        URI uri = entry.getUri();
+        int[] size = getSize(uri);
+
+        if (size != null) {
+            Image image = get(new Key(uri, getSubsampling(size[0], size[1], maxWidth, maxHeight)));
+
+            if (image != null) {
+                return image;
+            }
+        }
+
+        try (InputStream is = entry.getInputStream(); ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + uri);
+            }
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(iis, true, true);
+
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int subsampling = getSubsampling(width, height, maxWidth, maxHeight);
+                Key key = new Key(uri, subsampling);
+
+                putSize(uri, width, height);
+
+                if (size == null) {
+                    Image image = get(key);
+
+                    if (image != null) {
+                        return image;
+                    }
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                Image image = new Image(reader.read(0, param), width, height, subsampling);
+
+                put(key, image);
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the largest subsampling keeping the decoded image larger than the image scaled to fit the area
+     */
+    public static int getSubsampling(int width, int height, int maxWidth, int maxHeight) {
+        if ((maxWidth <= 0) || (maxHeight <= 0)) {
+            return 1;
+        }
+
+        return (int)Math.max(1, Math.floor(Math.max((double)width / maxWidth, (double)height / maxHeight)));
+    }
+
+    protected synchronized int[] getSize(URI uri) { return sizes.get(uri); }
+
+    protected synchronized void putSize(URI uri, int width, int height) { sizes.put(uri, new int[] { width, height }); }
+
+    protected synchronized Image get(Key key) { return images.get(key); }
+
+    protected synchronized void put(Key key, Image image) {
+        long imageWeight = image.getWeight();
+
+        if (imageWeight > maxWeight) {
+            return;
+        }
+
+        Image previous = images.put(key, image);
+
+        if (previous != null) {
+            weight -= previous.getWeight();
+        }
+
+        weight += imageWeight;
+
+        // Evict the least recently used images
+        Iterator<Image> iterator = images.values().iterator();
+
+        while ((weight > maxWeight) && iterator.hasNext()) {
+            weight -= iterator.next().getWeight();
+            iterator.remove();
+        }
+    }
+
+    public synchronized long getWeight() { return weight; }
+
+    /**
+     * A decoded image, with the size of the source image.
+     */
+    public static class Image {
+        protected BufferedImage image;
+        protected int width;
+        protected int height;
+        protected int subsampling;
+
+        public Image(BufferedImage image, int width, int height, int subsampling) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.subsampling = subsampling;
+        }
+
+        public BufferedImage getImage() { return image; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getSubsampling() { return subsampling; }
+
+        /**
+         * @return the approximate size of the decoded image in memory, in bytes
+         */
+        public long getWeight() {
+            return (long)image.getWidth() * image.getHeight() * Math.max(1, image.getColorModel().getPixelSize() / 8);
+        }
+    }
+
+    protected static class Key {
+        protected URI uri;
+        protected int subsampling;
+
+        public Key(URI uri, int subsampling) {
+            this.uri = uri;
+            this.subsampling = subsampling;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key)o;
+
+            return (subsampling == other.subsampling) && uri.equals(other.uri);
+        }
+
+        @Override
+        public int hashCode() { return 31 * uri.hashCode() + subsampling; }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.matcher;
+
+/**
+ * Literal text search in a {@link CharSequence}, for instance a {@link javax.swing.text.Segment} of a document: no
+ * copy nor lower case conversion of the searched text.
+ */
+public class TextMatcher {
+    protected char[] pattern;
+    protected char[] upperPattern;
+    protected boolean caseSensitive;
+
+    public TextMatcher(String text, boolean caseSensitive) {
+        this.pattern = text.toCharArray();
+        this.caseSensitive = caseSensitive;
+
+        if (!caseSensitive) {
+            upperPattern = new char[pattern.length];
+
+            for (int i=0; i<pattern.length; i++) {
+                upperPattern[i] = Character.toUpperCase(pattern[i]);
+                pattern[i] = Character.toLowerCase(pattern[i]);
+            }
+        }
+    }
+
+    public int length() { return pattern.length; }
+
+    /**
+     * @return the index of the first match starting in ['from', 'to'), or -1
+     */
+    public int indexOf(CharSequence cs, int from, int to) {
+        int max = Math.min(to, cs.length() - pattern.length + 1);
+
+        for (int i=Math.max(0, from); i<max; i++) {
+            if (matches(cs, i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the index of the last match starting in ['from', 'to'), or -1
+     */
+    public int lastIndexOf(CharSequence cs, int from, int to) {
+        int min = Math.max(0, from);
+
+        for (int i=Math.min(to, cs.length() - pattern.length + 1)-1; i>=min; i--) {
+            if (matches(cs, i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return true if the text matches at 'index', same rules as {@link String#regionMatches(boolean, int, String, int, int)}
+     */
+    public boolean matches(CharSequence cs, int index) {
+        if (caseSensitive) {
+            for (int i=0; i<pattern.length; i++) {
+                if (cs.charAt(index + i) != pattern[i]) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i=0; i<pattern.length; i++) {
+                char c = cs.charAt(index + i);
+
+                if ((c != pattern[i]) && (c != upperPattern[i])) {
+                    char u = Character.toUpperCase(c);
+
+                    if ((u != upperPattern[i]) && (Character.toLowerCase(u) != pattern[i])) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+}
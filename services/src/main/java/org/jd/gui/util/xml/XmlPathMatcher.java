@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.xml;
+
+import org.jd.gui.util.exception.ExceptionUtil;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Matcher of element paths like "web-app/servlet/servlet-class", compiled once into a tree of tag names: each
+ * element of the parsed document costs one map lookup, no path string is built.
+ * <p>
+ * The text of a matching element is reported once per run of character data, with the offset of its first character.
+ * Thread safe: the state of a parse is kept by a {@link Matching}.
+ */
+public class XmlPathMatcher {
+    protected static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    protected Node root = new Node();
+
+    public XmlPathMatcher(Collection<String> paths) {
+        for (String path : paths) {
+            if ((path != null) && (path.length() > 0)) {
+                Node node = root;
+
+                for (String tagName : path.split("/")) {
+                    if (node.children == null) {
+                        node.children = new HashMap<>();
+                    }
+                    node = node.children.computeIfAbsent(tagName, k -> new Node());
+                }
+
+                node.path = path;
+            }
+        }
+    }
+
+    /**
+     * @return the StAX factory shared by the XML parsers of the pages and the indexers, DTD not supported
+     */
+    public static XMLInputFactory getInputFactory() { return FACTORY; }
+
+    public Matching newMatching(Handler handler) { return new Matching(handler, null); }
+
+    public void match(String text, Handler handler) {
+        try {
+            match(FACTORY.createXMLStreamReader(new StringReader(text)), new Matching(handler, text));
+        } catch (XMLStreamException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    public void match(InputStream inputStream, Handler handler) {
+        try {
+            match(FACTORY.createXMLStreamReader(inputStream), new Matching(handler, null));
+        } catch (XMLStreamException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    protected void match(XMLStreamReader reader, Matching matching) throws XMLStreamException {
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                matching.next(reader);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    public interface Handler {
+        /**
+         * @param path matching path
+         * @param text character data of the element
+         * @param position offset of the first character of 'text' in the document
+         */
+        void handle(String path, String text, int position);
+    }
+
+    protected static class Node {
+        protected HashMap<String, Node> children;
+        /**
+         * Path ending at this node, or null
+         */
+        protected String path;
+    }
+
+    /**
+     * State of one parse, fed with the events of a {@link XMLStreamReader}.
+     */
+    public class Matching {
+        protected Handler handler;
+        /**
+         * Parsed text, if known: used to check the offsets reported by the parser
+         */
+        protected String source;
+        /**
+         * Node of each open element, null under an element not on a path
+         */
+        protected Node[] nodes = new Node[32];
+        protected int depth;
+        protected StringBuilder text = new StringBuilder();
+        protected int position;
+
+        protected Matching(Handler handler, String source) {
+            this.handler = handler;
+            this.source = source;
+            nodes[0] = root;
+        }
+
+        /**
+         * Process the current event of 'reader'.
+         */
+        public void next(XMLStreamReader reader) {
+            switch (reader.getEventType()) {
+                case XMLStreamReader.START_ELEMENT:
+                    flush();
+
+                    Node node = nodes[depth];
+
+                    if ((node != null) && (node.children != null)) {
+                        node = node.children.get(reader.getLocalName());
+                    } else {
+                        node = null;
+                    }
+
+                    if (++depth == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, depth * 2);
+                    }
+
+                    nodes[depth] = node;
+
+                    if ((node != null) && (node.path != null)) {
+                        position = getOffset(reader);
+                    }
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    flush();
+                    nodes[depth--] = null;
+
+                    if ((depth > 0) && (nodes[depth] != null) && (nodes[depth].path != null)) {
+                        position = getOffset(reader);
+                    }
+                    break;
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                case XMLStreamReader.SPACE:
+                    if ((nodes[depth] != null) && (nodes[depth].path != null)) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+            }
+        }
+
+        protected void flush() {
+            if (text.length() > 0) {
+                handler.handle(nodes[depth].path, text.toString(), position);
+                text.setLength(0);
+            }
+        }
+
+        /**
+         * @return the offset following the current tag
+         */
+        protected int getOffset(XMLStreamReader reader) {
+            int offset = reader.getLocation().getCharacterOffset();
+
+            if ((source != null) && ((offset <= 0) || (offset > source.length()) || (source.charAt(offset-1) != '>'))) {
+                // Inexact parser location: search the end of the tag
+                offset = Math.max(0, Math.min(offset, source.length() - 1));
+
+                while ((offset > 0) && (source.charAt(offset) != '>')) {
+                    offset--;
+                }
+
+                offset++;
+            }
+
+            return offset;
+        }
+    }
+}
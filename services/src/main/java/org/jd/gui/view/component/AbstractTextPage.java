@@ -16,9 +16,13 @@ import org.jd.gui.api.feature.LineNumberNavigable;
 import org.jd.gui.api.feature.PreferencesChangeListener;
 import org.jd.gui.api.feature.UriOpenable;
 import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.matcher.TextMatcher;
 
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
@@ -28,8 +32,13 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
 
 public class AbstractTextPage extends JPanel implements LineNumberNavigable, ContentSearchable, UriOpenable, PreferencesChangeListener {
     protected static final String FONT_SIZE_KEY = "ViewerPreferences.fontSize";
@@ -41,6 +50,18 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
     protected static final Color SEARCH_HIGHLIGHT_COLOR = new Color(0xffff66);
     protected static final Color SELECT_HIGHLIGHT_COLOR = new Color(0xF49810);
 
+    protected static final int SEARCH_SLICE_LENGTH = 256 * 1024;
+    /**
+     * Texts from this length are loaded in a document built in background
+     */
+    protected static final int BACKGROUND_TEXT_LENGTH = 256 * 1024;
+
+    protected static final ExecutorService DOCUMENT_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-document-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected static final RSyntaxTextAreaEditorKit.DecreaseFontSizeAction DECREASE_FONT_SIZE_ACTION = new RSyntaxTextAreaEditorKit.DecreaseFontSizeAction();
     protected static final RSyntaxTextAreaEditorKit.IncreaseFontSizeAction INCREASE_FONT_SIZE_ACTION = new RSyntaxTextAreaEditorKit.IncreaseFontSizeAction();
 
@@ -48,6 +69,14 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
     protected RTextScrollPane scrollPane;
 
     protected Map<String, String> preferences;
+    protected IncrementalSearch search;
+
+    protected int textVersion;
+    /**
+     * Text being loaded in background, or null
+     */
+    protected String loadingText;
+    protected ArrayList<Runnable> textLoadedActions = new ArrayList<>();
 
     static {
         AbstractTokenMakerFactory atmf = (AbstractTokenMakerFactory)TokenMakerFactory.getDefaultInstance();
@@ -68,6 +97,7 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
         textArea.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
                 if (e.getClickCount() == 2) {
+                    cancelSearch();
                     textArea.setMarkAllHighlightColor(DOUBLE_CLICK_HIGHLIGHT_COLOR);
                     SearchEngine.markAll(textArea, newSearchContext(textArea.getSelectedText(), true, true, true, false));
                 }
@@ -147,15 +177,96 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
 
     protected RSyntaxTextArea newSyntaxTextArea() { return new RSyntaxTextArea(); }
 
-    public String getText() { return textArea.getText(); }
+    public String getText() { return (loadingText != null) ? loadingText : textArea.getText(); }
 
     public JScrollPane getScrollPane() {
         return scrollPane;
     }
 
+    /**
+     * Display 'text'. A large text is inserted in a detached document on a worker thread - line elements and token
+     * cache included - then the document is swapped in at once; until then, {@link #isTextLoading()} returns true.
+     */
     public void setText(String text) {
-        textArea.setText(text);
-        textArea.setCaretPosition(0);
+        int version = ++textVersion;
+
+        if (text.length() < BACKGROUND_TEXT_LENGTH) {
+            loadingText = null;
+            textArea.setText(text);
+            textArea.setCaretPosition(0);
+            textLoaded();
+        } else {
+            String syntaxStyle = textArea.getSyntaxEditingStyle();
+            int tabSize = textArea.getTabSize();
+
+            loadingText = text;
+
+            DOCUMENT_BUILDER.execute(() -> {
+                RSyntaxDocument document = newDocument(syntaxStyle, tabSize, text);
+
+                SwingUtilities.invokeLater(() -> {
+                    if (version == textVersion) {
+                        loadingText = null;
+                        cancelSearch();
+                        textArea.setDocument(document);
+                        textArea.setCaretPosition(0);
+                        textLoaded();
+                    }
+                });
+            });
+        }
+    }
+
+    /**
+     * Called by the document builder thread.
+     */
+    protected RSyntaxDocument newDocument(String syntaxStyle, int tabSize, String text) {
+        RSyntaxDocument document = new RSyntaxDocument(syntaxStyle);
+
+        document.putProperty(PlainDocument.tabSizeAttribute, tabSize);
+
+        try {
+            document.insertString(0, text, null);
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+
+        return document;
+    }
+
+    public boolean isTextLoading() { return loadingText != null; }
+
+    /**
+     * @return true if 'action' is deferred until the text being loaded is displayed, false if no text is loading
+     */
+    protected boolean deferUntilTextLoaded(Runnable action) {
+        if (!isTextLoading()) {
+            return false;
+        }
+
+        textLoadedActions.add(action);
+        return true;
+    }
+
+    /**
+     * Run 'action' now, or once the text being loaded is displayed.
+     */
+    protected void runWhenTextLoaded(Runnable action) {
+        if (!deferUntilTextLoaded(action)) {
+            action.run();
+        }
+    }
+
+    protected void textLoaded() {
+        if (!textLoadedActions.isEmpty()) {
+            ArrayList<Runnable> actions = new ArrayList<>(textLoadedActions);
+
+            textLoadedActions.clear();
+
+            for (Runnable action : actions) {
+                action.run();
+            }
+        }
     }
 
     public String getSyntaxStyle() { return SyntaxConstants.SYNTAX_STYLE_NONE; }
@@ -250,6 +361,10 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
     }
 
     public void goToLineNumber(int lineNumber) {
+        if (deferUntilTextLoaded(() -> goToLineNumber(lineNumber))) {
+            return;
+        }
+
         try {
             textArea.setCaretPosition(textArea.getLineStartOffset(lineNumber-1));
         } catch (BadLocationException e) {
@@ -260,51 +375,115 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
     public boolean checkLineNumber(int lineNumber) { return true; }
 
     // --- ContentSearchable --- //
+    /**
+     * The matches are highlighted asynchronously, see {@link #highlightText(String, boolean, IntConsumer)}; the
+     * document is scanned up to the first match to tell whether 'text' is found.
+     *
+     * @return true if 'text' is found, or is too short to be searched, or if the text of the page is still loading
+     */
     public boolean highlightText(String text, boolean caseSensitive) {
-        if (text.length() > 1) {
-            textArea.setMarkAllHighlightColor(SEARCH_HIGHLIGHT_COLOR);
-            textArea.setCaretPosition(textArea.getSelectionStart());
+        highlightText(text, caseSensitive, matchCount -> {});
 
-            SearchContext context = newSearchContext(text, caseSensitive, false, true, false);
-            SearchResult result = SearchEngine.find(textArea, context);
+        if ((text.length() <= 1) || isTextLoading()) {
+            return true;
+        }
 
-            if (!result.wasFound()) {
-                textArea.setCaretPosition(0);
-                result = SearchEngine.find(textArea, context);
-            }
+        Document document = textArea.getDocument();
+        Segment segment = new Segment();
+
+        try {
+            document.getText(0, document.getLength(), segment);
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+            return false;
+        }
+
+        return new TextMatcher(text, caseSensitive).indexOf(segment, 0, segment.length()) != -1;
+    }
+
+    /**
+     * Highlight the matches visible in the viewport at once, then the other matches by slices, one slice per event
+     * so that user input is processed in between. The first match from the selection is selected.
+     */
+    @Override
+    public void highlightText(String text, boolean caseSensitive, IntConsumer matchCountConsumer) {
+        if (deferUntilTextLoaded(() -> highlightText(text, caseSensitive, matchCountConsumer))) {
+            return;
+        }
 
-            return result.wasFound();
+        if (text.length() > 1) {
+            startSearch(text, caseSensitive, true, matchCountConsumer);
         } else {
-            return true;
+            cancelSearch();
+            matchCountConsumer.accept(-1);
         }
     }
 
     public void findNext(String text, boolean caseSensitive) {
         if (text.length() > 1) {
-            textArea.setMarkAllHighlightColor(SEARCH_HIGHLIGHT_COLOR);
-
-            SearchContext context = newSearchContext(text, caseSensitive, false, true, false);
-            SearchResult result = SearchEngine.find(textArea, context);
-
-            if (!result.wasFound()) {
-                textArea.setCaretPosition(0);
-                SearchEngine.find(textArea, context);
-            }
+            find(text, caseSensitive, true);
         }
     }
 
     public void findPrevious(String text, boolean caseSensitive) {
         if (text.length() > 1) {
-            textArea.setMarkAllHighlightColor(SEARCH_HIGHLIGHT_COLOR);
+            find(text, caseSensitive, false);
+        }
+    }
+
+    /**
+     * Select the next or the previous match, without rescanning the document for the highlights if they are up to
+     * date.
+     */
+    protected void find(String text, boolean caseSensitive, boolean forward) {
+        if ((search == null) || !search.isSearching(text, caseSensitive)) {
+            startSearch(text, caseSensitive, false, matchCount -> {});
+        }
 
-            SearchContext context = newSearchContext(text, caseSensitive, false, false, false);
-            SearchResult result = SearchEngine.find(textArea, context);
+        Document document = textArea.getDocument();
+        Segment segment = new Segment();
+        TextMatcher matcher = new TextMatcher(text, caseSensitive);
 
-            if (!result.wasFound()) {
-                textArea.setCaretPosition(textArea.getDocument().getLength());
-                SearchEngine.find(textArea, context);
+        try {
+            document.getText(0, document.getLength(), segment);
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+            return;
+        }
+
+        int index;
+
+        if (forward) {
+            index = matcher.indexOf(segment, textArea.getSelectionEnd(), segment.length());
+
+            if (index == -1) {
+                index = matcher.indexOf(segment, 0, segment.length());
+            }
+        } else {
+            index = matcher.lastIndexOf(segment, 0, textArea.getSelectionStart());
+
+            if (index == -1) {
+                index = matcher.lastIndexOf(segment, 0, segment.length());
             }
         }
+
+        if (index != -1) {
+            RSyntaxUtilities.selectAndPossiblyCenter(textArea, new DocumentRange(index, index + text.length()), true);
+        }
+    }
+
+    protected void startSearch(String text, boolean caseSensitive, boolean select, IntConsumer matchCountConsumer) {
+        cancelSearch();
+        textArea.setMarkAllHighlightColor(SEARCH_HIGHLIGHT_COLOR);
+        search = new IncrementalSearch(text, caseSensitive, select, matchCountConsumer);
+        search.start();
+    }
+
+    protected void cancelSearch() {
+        if (search != null) {
+            search.cancelled = true;
+            search = null;
+        }
     }
 
     protected SearchContext newSearchContext(String searchFor, boolean matchCase, boolean wholeWord, boolean searchForward, boolean regexp) {
@@ -318,6 +497,10 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
 
     // --- UriOpenable --- //
     public boolean openUri(URI uri) {
+        if (deferUntilTextLoaded(() -> openUri(uri))) {
+            return true;
+        }
+
         String query = uri.getQuery();
 
         if (query != null) {
@@ -433,4 +616,157 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
 
         this.preferences = preferences;
     }
+
+    /**
+     * Search and highlight of the matches of a text, in the viewport first, then after and before the viewport.
+     */
+    protected class IncrementalSearch {
+        protected String text;
+        protected boolean caseSensitive;
+        protected boolean select;
+        protected IntConsumer matchCountConsumer;
+        protected TextMatcher matcher;
+        protected SmartHighlightPainter painter = new SmartHighlightPainter(SEARCH_HIGHLIGHT_COLOR);
+        protected Segment segment = new Segment();
+        /**
+         * Ranges of match starts to scan, in order
+         */
+        protected int[] bounds;
+        protected int boundIndex;
+        protected int position;
+        protected int selectionStart;
+        protected int firstMatch = -1;
+        protected int nextMatch = -1;
+        protected int matchCount;
+        protected boolean cancelled;
+
+        public IncrementalSearch(String text, boolean caseSensitive, boolean select, IntConsumer matchCountConsumer) {
+            this.text = text;
+            this.caseSensitive = caseSensitive;
+            this.select = select;
+            this.matchCountConsumer = matchCountConsumer;
+            this.matcher = new TextMatcher(text, caseSensitive);
+        }
+
+        public boolean isSearching(String text, boolean caseSensitive) {
+            return this.text.equals(text) && (this.caseSensitive == caseSensitive);
+        }
+
+        public void start() {
+            Rectangle visibleRect = textArea.getVisibleRect();
+            int length = textArea.getDocument().getLength();
+            int visibleStart = 0;
+            int visibleEnd = length;
+
+            if (!visibleRect.isEmpty()) {
+                try {
+                    visibleStart = textArea.getLineStartOffset(textArea.getLineOfOffset(textArea.viewToModel(visibleRect.getLocation())));
+                    visibleEnd = textArea.getLineEndOffset(textArea.getLineOfOffset(textArea.viewToModel(new Point(visibleRect.x + visibleRect.width, visibleRect.y + visibleRect.height))));
+                } catch (BadLocationException e) {
+                    ExceptionUtil.printStackTrace(e);
+                }
+            }
+
+            bounds = new int[] { visibleStart, visibleEnd, visibleEnd, length, 0, visibleStart };
+            selectionStart = textArea.getSelectionStart();
+
+            Marker.clearMarkAllHighlights(textArea);
+
+            // Viewport at once
+            scan(visibleStart, visibleEnd);
+            Marker.markAll(textArea, Collections.emptyList());
+
+            if (select && (nextMatch != -1) && (visibleStart <= selectionStart)) {
+                // Nearest match from the selection visible
+                select(nextMatch);
+                select = false;
+            }
+
+            boundIndex = 2;
+            position = bounds[2];
+            SwingUtilities.invokeLater(this::scanNextSlice);
+        }
+
+        protected void scanNextSlice() {
+            if (cancelled) {
+                return;
+            }
+
+            int end = Math.min(bounds[boundIndex + 1], textArea.getDocument().getLength());
+            int sliceEnd = Math.min(end, position + SEARCH_SLICE_LENGTH);
+
+            scan(position, sliceEnd);
+            position = sliceEnd;
+
+            if (position >= end) {
+                boundIndex += 2;
+
+                if (boundIndex == bounds.length) {
+                    finish();
+                    return;
+                }
+
+                position = bounds[boundIndex];
+            }
+
+            SwingUtilities.invokeLater(this::scanNextSlice);
+        }
+
+        /**
+         * Highlight the matches starting in ['from', 'to').
+         */
+        protected void scan(int from, int to) {
+            Document document = textArea.getDocument();
+            int textEnd = Math.min(document.getLength(), to + matcher.length() - 1);
+
+            if (from >= textEnd) {
+                return;
+            }
+
+            try {
+                document.getText(from, textEnd - from, segment);
+
+                ArrayList<DocumentRange> ranges = new ArrayList<>();
+                int max = to - from;
+                int index = 0;
+
+                while ((index = matcher.indexOf(segment, index, max)) != -1) {
+                    int start = from + index;
+
+                    ranges.add(new DocumentRange(start, start + matcher.length()));
+                    matchCount++;
+
+                    if ((firstMatch == -1) || (start < firstMatch)) {
+                        firstMatch = start;
+                    }
+                    if ((start >= selectionStart) && ((nextMatch == -1) || (start < nextMatch))) {
+                        nextMatch = start;
+                    }
+
+                    index += matcher.length();
+                }
+
+                Marker.addMarkAllHighlights(textArea, ranges, painter);
+            } catch (BadLocationException e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        }
+
+        protected void finish() {
+            // Repaint and notify the mark strip
+            Marker.markAll(textArea, Collections.emptyList());
+
+            if (select) {
+                select((nextMatch != -1) ? nextMatch : firstMatch);
+            }
+
+            matchCountConsumer.accept(matchCount);
+        }
+
+        protected void select(int start) {
+            if (start != -1) {
+                RSyntaxUtilities.selectAndPossiblyCenter(textArea, new DocumentRange(start, start + matcher.length()), true);
+            }
+        }
+    }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.view.component;
+
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+import org.fife.ui.rsyntaxtextarea.folding.FoldManager;
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.util.decompiler.ClassFileDisassembler;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.NewlineOutputStream;
+
+import javax.swing.*;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Bytecode listing of a class file. The class skeleton is displayed at once; the code of a method is disassembled
+ * when its body comes into view, for instance when its fold is expanded or when the page is scrolled to it.
+ * <p>
+ * The references to types and members are resolved with the indexes, like the references of the decompiled
+ * source code.
+ */
+public class BytecodePage extends TypePage {
+    protected ClassFileDisassembler disassembler;
+    /**
+     * Placeholders of the method bodies not disassembled yet, in the order of the text
+     */
+    protected ArrayList<CodePlaceholder> placeholders = new ArrayList<>();
+    protected HashMap<String, ReferenceData> referenceCache = new HashMap<>();
+    protected boolean disassemblyScheduled;
+
+    public BytecodePage(API api, Container.Entry entry) {
+        super(api, entry);
+
+        scrollPane.setLineNumbersEnabled(false);
+        scrollPane.getViewport().addChangeListener(e -> scheduleDisassembly());
+
+        loadContent();
+    }
+
+    // --- Content eviction --- //
+    @Override
+    protected boolean isContentReloadable() { return true; }
+
+    @Override
+    protected void loadContent() {
+        try (InputStream is = entry.getInputStream(); ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[1024 * 4];
+            int len;
+
+            while ((len = is.read(buffer)) > 0) {
+                os.write(buffer, 0, len);
+            }
+
+            disassembler = new ClassFileDisassembler(os.toByteArray());
+
+            PageOutput output = new PageOutput(0);
+            disassembler.printClass(output, false);
+            setText(output.getStringBuilder().toString());
+            output.addPositions();
+            runWhenTextLoaded(this::scheduleDisassembly);
+        } catch (IOException | RuntimeException e) {
+            ExceptionUtil.printStackTrace(e);
+            setText("// INTERNAL ERROR //");
+        }
+    }
+
+    @Override
+    public void evictContent() {
+        super.evictContent();
+        disassembler = null;
+        placeholders.clear();
+        referenceCache.clear();
+    }
+
+    @Override
+    public String getSyntaxStyle() { return SyntaxConstants.SYNTAX_STYLE_JAVA; }
+
+    protected void scheduleDisassembly() {
+        if (!disassemblyScheduled && !placeholders.isEmpty()) {
+            disassemblyScheduled = true;
+            SwingUtilities.invokeLater(this::disassembleVisibleCode);
+        }
+    }
+
+    /**
+     * Replace the placeholders visible in the viewport by the code of their methods.
+     */
+    protected void disassembleVisibleCode() {
+        disassemblyScheduled = false;
+
+        if (isTextLoading()) {
+            // Scheduled again once the text is displayed
+            return;
+        }
+
+        Rectangle visibleRect = textArea.getVisibleRect();
+
+        if (placeholders.isEmpty() || visibleRect.isEmpty()) {
+            return;
+        }
+
+        int startOffset = textArea.viewToModel(visibleRect.getLocation());
+        int endOffset = textArea.viewToModel(new Point(visibleRect.x + visibleRect.width, visibleRect.y + visibleRect.height));
+        FoldManager foldManager = textArea.getFoldManager();
+        boolean changed = false;
+
+        try {
+            // Backward: an edit does not move the placeholders before it
+            for (int i=placeholders.size()-1; i>=0; i--) {
+                CodePlaceholder placeholder = placeholders.get(i);
+
+                if (placeholder.start > endOffset) {
+                    continue;
+                }
+                if (placeholder.end < startOffset) {
+                    break;
+                }
+                if (!foldManager.isLineHidden(textArea.getLineOfOffset(placeholder.start))) {
+                    disassemble(i);
+                    changed = true;
+                }
+            }
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+
+        if (changed) {
+            textArea.discardAllEdits();
+            // Resolve the new references
+            indexesChanged(collectionOfFutureIndexes);
+        }
+    }
+
+    protected void disassemble(int index) throws BadLocationException {
+        CodePlaceholder placeholder = placeholders.remove(index);
+        PageOutput output = new PageOutput(placeholder.start);
+
+        disassembler.printCode(output, placeholder.name, placeholder.descriptor);
+
+        String code = output.getStringBuilder().toString();
+        int end = placeholder.end;
+        int delta = code.length() - (end - placeholder.start);
+
+        ((AbstractDocument)textArea.getDocument()).replace(placeholder.start, end - placeholder.start, code, null);
+
+        shiftPositions(offset -> (offset >= end) ? offset + delta : offset);
+
+        for (int i=index, size=placeholders.size(); i<size; i++) {
+            CodePlaceholder next = placeholders.get(i);
+            next.start += delta;
+            next.end += delta;
+        }
+
+        output.addPositions();
+    }
+
+    // --- ContentSavable --- //
+    @Override
+    public String getFileName() {
+        String path = entry.getPath();
+        int index = path.lastIndexOf('/');
+        return path.substring(index + 1) + ".txt";
+    }
+
+    /**
+     * Save the code of all the methods.
+     */
+    @Override
+    public void save(API api, OutputStream os) {
+        ClassFileDisassembler.Output output = new ClassFileDisassembler.Output();
+
+        if (disassembler == null) {
+            output.getStringBuilder().append("// INTERNAL ERROR //");
+        } else {
+            disassembler.printClass(output, true);
+        }
+
+        try (PrintStream ps = new PrintStream(new NewlineOutputStream(os), true, "UTF-8")) {
+            ps.print(output.getStringBuilder());
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    protected static class CodePlaceholder {
+        protected int start;
+        protected int end;
+        protected String name;
+        protected String descriptor;
+
+        public CodePlaceholder(int start, int end, String name, String descriptor) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+    }
+
+    /**
+     * Record the declarations, references and strings, at 'base' + their position in the printed text. The
+     * hyperlinks and the strings of a method body are added by {@link #addPositions()}, once the body is inserted
+     * and the following positions moved.
+     */
+    protected class PageOutput extends ClassFileDisassembler.Output {
+        protected int base;
+        protected ArrayList<HyperlinkReferenceData> hyperlinks = new ArrayList<>();
+        protected ArrayList<StringData> strings = new ArrayList<>();
+
+        public PageOutput(int base) {
+            this.base = base;
+        }
+
+        @Override
+        public void printDeclaration(String internalTypeName, String name, String descriptor, String text) {
+            DeclarationData data = new DeclarationData(base + sb.length(), text.length(), internalTypeName, name, descriptor);
+
+            if (name == null) {
+                declarations.put(internalTypeName, data);
+                typeDeclarations.put(data.startPosition, data);
+            } else {
+                declarations.put(internalTypeName, name, descriptor, data);
+            }
+
+            super.printDeclaration(internalTypeName, name, descriptor, text);
+        }
+
+        @Override
+        public void printReference(String internalTypeName, String name, String descriptor, String ownerInternalName, String text) {
+            String key = internalTypeName + '-' + name + '-' + descriptor + '-' + ownerInternalName;
+            ReferenceData reference = referenceCache.get(key);
+
+            if (reference == null) {
+                referenceCache.put(key, reference = new ReferenceData(internalTypeName, name, descriptor, ownerInternalName));
+                references.add(reference);
+            }
+
+            hyperlinks.add(new HyperlinkReferenceData(sb.length(), text.length(), reference));
+            super.printReference(internalTypeName, name, descriptor, ownerInternalName, text);
+        }
+
+        @Override
+        public void printString(String constant, String ownerInternalName) {
+            int start = sb.length();
+            super.printString(constant, ownerInternalName);
+            strings.add(new StringData(start, sb.length() - start, constant, ownerInternalName));
+        }
+
+        @Override
+        public void printCodePlaceholder(String name, String descriptor) {
+            int start = sb.length();
+            super.printCodePlaceholder(name, descriptor);
+            placeholders.add(new CodePlaceholder(base + start, base + sb.length(), name, descriptor));
+        }
+
+        public void addPositions() {
+            for (HyperlinkReferenceData hyperlink : hyperlinks) {
+                hyperlink.startPosition += base;
+                hyperlink.endPosition += base;
+                addHyperlink(hyperlink);
+            }
+            for (StringData string : strings) {
+                string.startPosition += base;
+                string.endPosition += base;
+                BytecodePage.this.strings.add(string);
+            }
+        }
+    }
+}
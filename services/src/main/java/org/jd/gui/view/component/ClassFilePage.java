@@ -14,13 +14,16 @@ import org.fife.ui.rtextarea.Marker;
 import org.fife.ui.rtextarea.RTextArea;
 import org.fife.ui.rtextarea.SmartHighlightPainter;
 import org.fife.ui.rtextarea.ToolTipSupplier;
-import org.jd.core.v1.ClassFileToJavaSourceDecompiler;
 import org.jd.core.v1.api.printer.Printer;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.model.container.JarContainer;
 import org.jd.gui.service.project.JavaIdentifier;
 import org.jd.gui.service.project.JavaProject;
+import org.jd.gui.util.collection.LongIndexMap;
+import org.jd.gui.util.collection.OffsetRangeMap;
+import org.jd.gui.util.collection.SymbolKeyMap;
+import org.jd.gui.util.collection.SymbolTable;
 import org.jd.gui.util.decompiler.*;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.io.NewlineOutputStream;
@@ -36,9 +39,11 @@ import java.nio.charset.Charset;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 
 public class ClassFilePage extends TypePage {
     protected static final String ESCAPE_UNICODE_CHARACTERS   = "ClassFileDecompilerPreferences.escapeUnicodeCharacters";
@@ -47,32 +52,36 @@ public class ClassFilePage extends TypePage {
     protected static final String WRITE_METADATA              = "ClassFileSaverPreferences.writeMetadata";
     protected static final String JD_CORE_VERSION             = "JdGuiPreferences.jdCoreVersion";
 
-    protected static final ClassFileToJavaSourceDecompiler DECOMPILER = new ClassFileToJavaSourceDecompiler();
-
     protected int maximumLineNumber = -1;
+    protected int decompilationVersion;
+    protected boolean decompiling;
 
     private static final Executor EXECUTOR = Executors.newFixedThreadPool(1);
 
-    static {
-        // Early class loading
-        try {
-            String internalTypeName = ClassFilePage.class.getName().replace('.', '/');
-            DECOMPILER.decompile(new ClassPathLoader(), new NopPrinter(), internalTypeName);
-        } catch (Throwable t) {
-            ExceptionUtil.printStackTrace(t);
-        }
-    }
+    protected static final ExecutorService DECOMPILER = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "jd-gui-page-decompiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected static final SmartHighlightPainter ALIAS_PAINTER = new SmartHighlightPainter(new Color(0x7F, 0xFF, 0xAA, 77));
 
-    private final TreeMap<Integer, DescData> descMap = new TreeMap<>();
-    private static class DescData {
-        int startPosition;
-        int endPosition;
+    /**
+     * Tokens displaying an identifier of the project, patched in place when an alias changes
+     */
+    private OffsetRangeMap<AliasData> descMap = new OffsetRangeMap<>();
+    private static class AliasData {
         JavaIdentifier identifier;
+        int type;
+        /**
+         * Name printed by the decompiler, before alias substitution
+         */
+        String name;
 
-        public DescData(int startPosition, int endPosition, JavaIdentifier identifier) {
-            this.startPosition = startPosition;
-            this.endPosition = endPosition;
+        public AliasData(JavaIdentifier identifier, int type, String name) {
             this.identifier = identifier;
+            this.type = type;
+            this.name = name;
         }
     }
 
@@ -104,10 +113,7 @@ public class ClassFilePage extends TypePage {
             return;
         }
         this.project = ((JarContainer) container).getProject();
-        this.project.addIdentifierAliasListener(this.entry.getPath(), id -> {
-            this.preferencesChanged(api.getPreferences());
-            this.indexesChanged(api.getCollectionOfFutureIndexes());
-        });
+        this.project.addIdentifierAliasListener(this.entry.getPath(), this::aliasChanged);
 
         AtomicReference<JavaIdentifier> currentIdentifier = new AtomicReference<>();
 
@@ -149,24 +155,15 @@ public class ClassFilePage extends TypePage {
         menu.add(itemComment);
 
         textArea.setPopupMenu(menu);
-        Function<MouseEvent, DescData> getDescDataAtMouse = event -> {
+        Function<MouseEvent, JavaIdentifier> getIdentifierAtMouse = event -> {
             int offset = textArea.viewToModel(new Point(event.getX(), event.getY()));
-            if (offset != -1) {
-                Map.Entry<Integer, DescData> descEntry = descMap.floorEntry(offset);
-                if ((descEntry != null)) {
-                    DescData entryData = descEntry.getValue();
-                    if (entryData != null
-                        && (offset < entryData.endPosition) && (offset >= entryData.startPosition)) {
-                        return entryData;
-                    }
-                }
-            }
-            return null;
+            AliasData aliasData = (offset != -1) ? descMap.get(offset) : null;
+            return (aliasData != null) ? aliasData.identifier : null;
         };
         textArea.setToolTipSupplier((area, e) -> {
-            DescData entryData = getDescDataAtMouse.apply(e);
-            if (entryData != null) {
-                return entryData.identifier.getFriendlyDisplay();
+            JavaIdentifier identifier = getIdentifierAtMouse.apply(e);
+            if (identifier != null) {
+                return identifier.getFriendlyDisplay();
             }
             return null;
         });
@@ -176,11 +173,7 @@ public class ClassFilePage extends TypePage {
             @Override
             public void mouseReleased(MouseEvent e) {
                 if (e.isPopupTrigger()) {
-                    JavaIdentifier id = null;
-                    DescData entryData = getDescDataAtMouse.apply(e);
-                    if (entryData != null) {
-                        id = entryData.identifier;
-                    }
+                    JavaIdentifier id = getIdentifierAtMouse.apply(e);
                     currentIdentifier.set(id);
                     itemAlias.setEnabled(id != null && id.canSetAlias());
                     itemComment.setEnabled(id != null && id.canSetAlias());
@@ -190,68 +183,211 @@ public class ClassFilePage extends TypePage {
         textArea.addMouseListener(listener);
     }
 
-    public void decompile(Map<String, String> preferences) {
+    /**
+     * Patch the tokens displaying 'identifier' in one atomic edit, then move the positions of the following
+     * hyperlinks, declarations, strings and tokens: the class file is not decompiled again.
+     */
+    protected void aliasChanged(JavaIdentifier identifier) {
+        if (contentEvicted) {
+            // The new alias is printed when the content is decompiled again
+            return;
+        }
+        if (deferUntilTextLoaded(() -> aliasChanged(identifier))) {
+            return;
+        }
+
+        int size = descMap.size();
+        int count = 0;
+        int[] editEnds = new int[8];
+        int[] cumulativeDeltas = new int[9];
+        Document document = textArea.getDocument();
+
+        textArea.beginAtomicEdit();
+
         try {
-            // Clear ...
-            clearHyperlinks();
-            clearLineNumbers();
-            declarations.clear();
-            typeDeclarations.clear();
-            strings.clear();
+            int delta = 0;
 
-            // Init preferences
-            boolean realignmentLineNumbers = getPreferenceValue(preferences, REALIGN_LINE_NUMBERS, false);
-            boolean unicodeEscape = getPreferenceValue(preferences, ESCAPE_UNICODE_CHARACTERS, false);
+            for (int i=0; i<size; i++) {
+                AliasData aliasData = descMap.getValue(i);
 
-            Map<String, Object> configuration = new HashMap<>();
-            configuration.put("realignLineNumbers", realignmentLineNumbers);
+                if (aliasData.identifier == identifier) {
+                    int start = descMap.getStart(i) + delta;
+                    int end = descMap.getEnd(i) + delta;
+                    String displayName = getDisplayName(aliasData.type, aliasData.name, identifier);
 
-            setShowMisalignment(realignmentLineNumbers);
+                    ((AbstractDocument)document).replace(start, end - start, displayName, null);
 
-            // Init loader
-            ContainerLoader loader = new ContainerLoader(entry);
+                    if (count == editEnds.length) {
+                        editEnds = Arrays.copyOf(editEnds, count * 2);
+                        cumulativeDeltas = Arrays.copyOf(cumulativeDeltas, count * 2 + 1);
+                    }
 
-            // Init printer
-            ClassFilePrinter printer = new ClassFilePrinter();
-            printer.setRealignmentLineNumber(realignmentLineNumbers);
-            printer.setUnicodeEscape(unicodeEscape);
+                    editEnds[count] = descMap.getEnd(i);
+                    delta += displayName.length() - (end - start);
+                    cumulativeDeltas[++count] = delta;
+                }
+            }
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+        } finally {
+            textArea.endAtomicEdit();
+        }
 
-            // Format internal name
-            String entryPath = entry.getPath();
-            assert entryPath.endsWith(".class");
-            String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
+        if (count > 0) {
+            int editCount = count;
+            int[] ends = editEnds;
+            int[] deltas = cumulativeDeltas;
+
+            // Offsets after the end of an edited token move by the sum of the previous length changes
+            IntUnaryOperator shift = offset -> {
+                int index = Arrays.binarySearch(ends, 0, editCount, offset);
+                index = (index >= 0) ? index + 1 : -(index + 1);
+                return offset + deltas[index];
+            };
+
+            descMap.shift(shift);
+            shiftPositions(shift);
+            highlightAliases();
+        }
+    }
+
+    protected void highlightAliases() {
+        Highlighter highlighter = textArea.getHighlighter();
+
+        for (Highlighter.Highlight highlight : highlighter.getHighlights()) {
+            if (highlight.getPainter() == ALIAS_PAINTER) {
+                highlighter.removeHighlight(highlight);
+            }
+        }
+
+        try {
+            for (int i=0, size=descMap.size(); i<size; i++) {
+                if (descMap.getValue(i).identifier.hasAlias()) {
+                    highlighter.addHighlight(descMap.getStart(i), descMap.getEnd(i), ALIAS_PAINTER);
+                }
+            }
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    /**
+     * Decompile on a worker thread, then display the text and the positions collected by the printer. Until then,
+     * {@link #isTextLoading()} returns true.
+     */
+    public void decompile(Map<String, String> preferences) {
+        int version = ++decompilationVersion;
+
+        // Init preferences
+        boolean realignmentLineNumbers = getPreferenceValue(preferences, REALIGN_LINE_NUMBERS, false);
+        boolean unicodeEscape = getPreferenceValue(preferences, ESCAPE_UNICODE_CHARACTERS, false);
+
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("realignLineNumbers", realignmentLineNumbers);
+
+        setShowMisalignment(realignmentLineNumbers);
 
+        // Init loader
+        ContainerLoader loader = new ContainerLoader(entry);
 
-            descMap.clear();
-            Highlighter highlighter = textArea.getHighlighter();
-            highlighter.removeAllHighlights();
-            Marker.clearMarkAllHighlights(textArea);
+        // Init printer
+        ClassFilePrinter printer = new ClassFilePrinter();
+        printer.setRealignmentLineNumber(realignmentLineNumbers);
+        printer.setUnicodeEscape(unicodeEscape);
 
-            // Decompile class file
-            DECOMPILER.decompile(loader, printer, entryInternalName, configuration);
+        // Format internal name
+        String entryPath = entry.getPath();
+        assert entryPath.endsWith(".class");
+        String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
+
+        decompiling = true;
+
+        DECOMPILER.execute(() -> {
+            ClassFilePrinter result = null;
+            String text;
 
             try {
-                Color c = Color.decode("0x7FFFAA");
-                SmartHighlightPainter painter = new SmartHighlightPainter(
-                    new Color(c.getRed(), c.getGreen(), c.getBlue(), 77));
-                Document doc = textArea.getDocument();
-                for (DescData descData : descMap.values()) {
-                    if (!descData.identifier.hasAlias()) {
-                        continue;
-                    }
-                    int start = doc.createPosition(descData.startPosition).getOffset();
-                    int end = doc.createPosition(descData.endPosition).getOffset();
-                    highlighter.addHighlight(start, end, painter);
+                // Decompile class file under supervision
+                DecompilerPool.getInstance().decompile(DecompilerPool.Lane.INTERACTIVE, preferences, loader, printer, entryInternalName, configuration);
+                result = printer;
+                text = printer.getStringBuffer().toString();
+            } catch (DecompilationAbortedException e) {
+                // Display the class skeleton instead
+                ExceptionUtil.printStackTrace(e);
+                text = ClassFileSkeletonUtil.getSkeleton(entry, e.getMessage());
+            } catch (Throwable t) {
+                ExceptionUtil.printStackTrace(t);
+                text = "// INTERNAL ERROR //";
+            }
+
+            ClassFilePrinter decompiledPrinter = result;
+            String decompiledText = text;
+
+            SwingUtilities.invokeLater(() -> {
+                if (version == decompilationVersion) {
+                    decompiled(decompiledPrinter, decompiledText);
                 }
-            } catch (BadLocationException e) {
-                e.printStackTrace();
+            });
+        });
+    }
+
+    /**
+     * @param printer printer holding the positions of 'text', null if the decompilation failed
+     */
+    protected void decompiled(ClassFilePrinter printer, String text) {
+        decompiling = false;
+
+        // Clear ...
+        clearHyperlinks();
+        lineNumberMap = null;
+        maxLineNumber = 0;
+        declarations.clear();
+        typeDeclarations.clear();
+        references.clear();
+        strings.clear();
+        descMap = new OffsetRangeMap<>();
+
+        Highlighter highlighter = textArea.getHighlighter();
+        highlighter.removeAllHighlights();
+        Marker.clearMarkAllHighlights(textArea);
+
+        if (printer != null) {
+            if (!printer.isLineNumbersEnabled()) {
+                scrollPane.setLineNumbersEnabled(false);
             }
-        } catch (Throwable t) {
-            ExceptionUtil.printStackTrace(t);
-            setText("// INTERNAL ERROR //");
+
+            printer.addPositions();
         }
 
+        setText(text);
+
+        runWhenTextLoaded(this::highlightAliases);
+
         maximumLineNumber = getMaximumSourceLineNumber();
+
+        if (!collectionOfFutureIndexes.isEmpty()) {
+            // Resolve the new references
+            indexesChanged(collectionOfFutureIndexes);
+        }
+    }
+
+    @Override
+    public boolean isTextLoading() { return decompiling || super.isTextLoading(); }
+
+    // --- Content eviction --- //
+    @Override
+    protected boolean isContentReloadable() { return true; }
+
+    @Override
+    protected void loadContent() { decompile(api.getPreferences()); }
+
+    @Override
+    public void evictContent() {
+        // Ignore the pending decompilation
+        decompilationVersion++;
+        decompiling = false;
+        super.evictContent();
+        descMap.clear();
     }
 
     protected static boolean getPreferenceValue(Map<String, String> preferences, String key, boolean defaultValue) {
@@ -296,10 +432,16 @@ public class ClassFilePage extends TypePage {
             assert entryPath.endsWith(".class");
             String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
 
-            // Decompile class file
-            DECOMPILER.decompile(loader, printer, entryInternalName, configuration);
+            StringBuilder stringBuffer;
 
-            StringBuilder stringBuffer = printer.getStringBuffer();
+            try {
+                // Decompile class file under supervision
+                DecompilerPool.getInstance().decompile(DecompilerPool.Lane.INTERACTIVE, preferences, loader, printer, entryInternalName, configuration);
+                stringBuffer = printer.getStringBuffer();
+            } catch (DecompilationAbortedException e) {
+                ExceptionUtil.printStackTrace(e);
+                stringBuffer = new StringBuilder(ClassFileSkeletonUtil.getSkeleton(entry, e.getMessage()));
+            }
 
             // Metadata
             if (getPreferenceValue(preferences, WRITE_METADATA, true)) {
@@ -356,6 +498,10 @@ public class ClassFilePage extends TypePage {
 
     @Override
     public void goToLineNumber(int lineNumber) {
+        if (deferUntilTextLoaded(() -> goToLineNumber(lineNumber))) {
+            return;
+        }
+
         int textAreaLineNumber = getTextAreaLineNumber(lineNumber);
         if (textAreaLineNumber > 0) {
             try {
@@ -374,36 +520,93 @@ public class ClassFilePage extends TypePage {
     // --- PreferencesChangeListener --- //
     @Override
     public void preferencesChanged(Map<String, String> preferences) {
+        if (contentEvicted) {
+            // Decompiled with the new preferences when shown
+            super.preferencesChanged(preferences);
+            return;
+        }
+
         DefaultCaret caret = (DefaultCaret)textArea.getCaret();
         int updatePolicy = caret.getUpdatePolicy();
 
         caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
         decompile(preferences);
-        caret.setUpdatePolicy(updatePolicy);
+        runWhenTextLoaded(() -> caret.setUpdatePolicy(updatePolicy));
 
         super.preferencesChanged(preferences);
     }
 
+    protected static String getDisplayName(int type, String name, JavaIdentifier identifier) {
+        String alias = identifier.getAlias();
+
+        if ((alias == null) || (name == null)) {
+            return name;
+        } else if ((type == Printer.TYPE) && (name.indexOf('.') != -1)) {
+            return name.substring(0, name.lastIndexOf('.') + 1) + alias;
+        } else {
+            return alias;
+        }
+    }
+
+    /**
+     * Called from the decompiler thread: the positions are collected by the printer, then added to the page by
+     * {@link #addPositions()} on the event dispatch thread once the decompilation is completed.
+     */
     public class ClassFilePrinter extends StringBuilderPrinter {
-        protected HashMap<String, ReferenceData> referencesCache = new HashMap<>();
+        // References are cached by interned (type, name, descriptor) triple, then by (triple index, scope)
+        protected SymbolTable symbols = new SymbolTable();
+        protected LongIndexMap memberIndexes = new LongIndexMap();
+        protected LongIndexMap referenceIndexes = new LongIndexMap();
+        protected ArrayList<ReferenceData> referencesCache = new ArrayList<>();
+
+        protected SymbolKeyMap<DeclarationData> declarations = new SymbolKeyMap<>('-');
+        protected TreeMap<Integer, DeclarationData> typeDeclarations = new TreeMap<>();
+        protected ArrayList<HyperlinkReferenceData> hyperlinks = new ArrayList<>();
+        protected ArrayList<StringData> strings = new ArrayList<>();
+        protected OffsetRangeMap<AliasData> aliases = new OffsetRangeMap<>();
 
         // Manage line number and misalignment
         int textAreaLineNumber = 1;
+        boolean lineNumbersEnabled = true;
+        int[] lineNumbers = null;
+        int maxLineNumber = 0;
+
+        public boolean isLineNumbersEnabled() { return lineNumbersEnabled; }
 
         @Override
         public void start(int maxLineNumber, int majorVersion, int minorVersion) {
             super.start(maxLineNumber, majorVersion, minorVersion);
 
             if (maxLineNumber == 0) {
-                scrollPane.setLineNumbersEnabled(false);
+                lineNumbersEnabled = false;
             } else {
-                setMaxLineNumber(maxLineNumber);
+                ensureLineNumber(maxLineNumber);
             }
         }
 
-        @Override
-        public void end() {
-            setText(stringBuffer.toString());
+        protected void ensureLineNumber(int lineNumber) {
+            if (lineNumbers == null) {
+                lineNumbers = new int[lineNumber+1];
+            } else if (lineNumbers.length <= lineNumber) {
+                lineNumbers = Arrays.copyOf(lineNumbers, lineNumber+1);
+            }
+
+            maxLineNumber = Math.max(maxLineNumber, lineNumber);
+        }
+
+        public void addPositions() {
+            ClassFilePage.this.declarations = declarations;
+            ClassFilePage.this.typeDeclarations = typeDeclarations;
+            ClassFilePage.this.strings = strings;
+            ClassFilePage.this.references = referencesCache;
+            descMap = aliases;
+
+            for (HyperlinkReferenceData hyperlink : hyperlinks) {
+                addHyperlink(hyperlink);
+            }
+
+            lineNumberMap = lineNumbers;
+            ClassFilePage.this.maxLineNumber = maxLineNumber;
         }
 
         // --- Add strings --- //
@@ -431,10 +634,10 @@ public class ClassFilePage extends TypePage {
                     typeDeclarations.put(stringBuffer.length(), data);
                     break;
                 case Printer.CONSTRUCTOR:
-                    declarations.put(internalTypeName + "-<init>-" + descriptor, new TypePage.DeclarationData(stringBuffer.length(), alias.length(), internalTypeName, "<init>", descriptor));
+                    declarations.put(internalTypeName, "<init>", descriptor, new TypePage.DeclarationData(stringBuffer.length(), alias.length(), internalTypeName, "<init>", descriptor));
                     break;
                 default:
-                    declarations.put(internalTypeName + '-' + name + '-' + descriptor, new TypePage.DeclarationData(stringBuffer.length(), alias.length(), internalTypeName, name, descriptor));
+                    declarations.put(internalTypeName, name, descriptor, new TypePage.DeclarationData(stringBuffer.length(), alias.length(), internalTypeName, name, descriptor));
                     break;
             }
 
@@ -451,13 +654,13 @@ public class ClassFilePage extends TypePage {
 
             switch (type) {
                 case TYPE:
-                    addHyperlink(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, null, null, ownerInternalName)));
+                    hyperlinks.add(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, null, null, ownerInternalName)));
                     break;
                 case CONSTRUCTOR:
-                    addHyperlink(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, "<init>", descriptor, ownerInternalName)));
+                    hyperlinks.add(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, "<init>", descriptor, ownerInternalName)));
                     break;
                 default:
-                    addHyperlink(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, name, descriptor, ownerInternalName)));
+                    hyperlinks.add(new TypePage.HyperlinkReferenceData(stringBuffer.length(), alias.length(), newReferenceData(internalTypeName, name, descriptor, ownerInternalName)));
                     break;
             }
             super.printReference(type, internalTypeName, alias, descriptor, ownerInternalName);
@@ -471,17 +674,11 @@ public class ClassFilePage extends TypePage {
                 } else {
                     identifier = project.getIdentifier(internalTypeName, name, descriptor);
                 }
-                if (identifier != null) {
-                    if (identifier.hasAlias()) {
-                        if (type == Printer.TYPE && name.indexOf('.') != -1) {
-                            int idx = name.lastIndexOf('.');
-                            name = name.substring(0, idx + 1) + identifier.getAlias();
-                        } else {
-                            name = identifier.getAlias();
-                        }
-                    }
-                    DescData descData = new DescData(getCurrentPosition(), getCurrentPosition() + name.length(), identifier);
-                    descMap.put(getCurrentPosition(), descData);
+                if ((identifier != null) && (name != null)) {
+                    String displayName = getDisplayName(type, name, identifier);
+                    int position = getCurrentPosition();
+                    aliases.put(position, position + displayName.length(), new AliasData(identifier, type, name));
+                    return displayName;
                 }
             }
             return name;
@@ -490,7 +687,11 @@ public class ClassFilePage extends TypePage {
         @Override
         public void startLine(int lineNumber) {
             super.startLine(lineNumber);
-            setLineNumber(textAreaLineNumber, lineNumber);
+
+            if (lineNumber > 0) {
+                ensureLineNumber(textAreaLineNumber);
+                lineNumbers[textAreaLineNumber] = lineNumber;
+            }
         }
         @Override
         public void endLine() {
@@ -507,15 +708,16 @@ public class ClassFilePage extends TypePage {
 
         // --- Add references --- //
         public TypePage.ReferenceData newReferenceData(String internalName, String name, String descriptor, String scopeInternalName) {
-            String key = internalName + '-' + name + '-'+ descriptor + '-' + scopeInternalName;
-            ReferenceData reference = referencesCache.get(key);
+            long memberKey = SymbolTable.pack(symbols.intern(internalName), symbols.intern(name), symbols.intern(descriptor));
+            long referenceKey = ((long)memberIndexes.add(memberKey) << 32) | symbols.intern(scopeInternalName);
+            int index = referenceIndexes.add(referenceKey);
 
-            if (reference == null) {
-                reference = new TypePage.ReferenceData(internalName, name, descriptor, scopeInternalName);
-                referencesCache.put(key, reference);
-                references.add(reference);
+            if (index < referencesCache.size()) {
+                return referencesCache.get(index);
             }
 
+            ReferenceData reference = new TypePage.ReferenceData(internalName, name, descriptor, scopeInternalName);
+            referencesCache.add(reference);
             return reference;
         }
     }
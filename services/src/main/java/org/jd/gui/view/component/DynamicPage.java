@@ -21,6 +21,7 @@ import java.net.URI;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 
 public class DynamicPage
         extends JPanel
@@ -28,9 +29,20 @@ public class DynamicPage
                    IndexesChangeListener, LineNumberNavigable, PreferencesChangeListener, UriGettable, UriOpenable,
                    API.LoadSourceListener
 {
+    protected static final String SOURCE_CARD = "source";
+    protected static final String BYTECODE_CARD = "bytecode";
+
     protected API api;
     protected Container.Entry entry;
+    /**
+     * Source and bytecode pages stay in the hierarchy: removing a page would release its listeners
+     */
+    protected CardLayout cardLayout = new CardLayout();
+    protected JPanel cards = new JPanel(cardLayout);
     protected TypePage page;
+    protected TypePage sourcePage;
+    protected BytecodePage bytecodePage;
+    protected JCheckBox bytecodeCheckBox = new JCheckBox("Bytecode");
     protected URI lastOpenedUri;
     protected Collection<Future<Indexes>> lastCollectionOfFutureIndexes;
 
@@ -43,12 +55,46 @@ public class DynamicPage
 
         if (source == null) {
             // Display the decompiled source code
-            add(page = new ClassFilePage(api, entry));
+            cards.add(page = sourcePage = new ClassFilePage(api, entry), SOURCE_CARD);
             // Try to load source in background
             api.loadSource(entry, this);
         } else {
             // Display original source code
-            add(page = new JavaFilePage(api, new DelegatedEntry(entry, source)));
+            cards.add(page = sourcePage = new JavaFilePage(api, new DelegatedEntry(entry, source)), SOURCE_CARD);
+        }
+
+        add(cards, BorderLayout.CENTER);
+
+        JPanel south = new JPanel(new FlowLayout(FlowLayout.TRAILING, 2, 0));
+        south.add(bytecodeCheckBox);
+        add(south, BorderLayout.PAGE_END);
+
+        bytecodeCheckBox.addActionListener(e -> showPage(bytecodeCheckBox.isSelected() ? getBytecodePage() : sourcePage));
+    }
+
+    /**
+     * @return the bytecode listing, created on first use
+     */
+    protected BytecodePage getBytecodePage() {
+        if (bytecodePage == null) {
+            bytecodePage = new BytecodePage(api, entry);
+            bytecodePage.preferencesChanged(api.getPreferences());
+            cards.add(bytecodePage, BYTECODE_CARD);
+        }
+        return bytecodePage;
+    }
+
+    protected void showPage(TypePage newPage) {
+        if (page != newPage) {
+            page = newPage;
+            cardLayout.show(cards, (newPage == bytecodePage) ? BYTECODE_CARD : SOURCE_CARD);
+
+            if (lastCollectionOfFutureIndexes != null) {
+                page.indexesChanged(lastCollectionOfFutureIndexes);
+            }
+
+            revalidate();
+            repaint();
         }
     }
 
@@ -61,6 +107,7 @@ public class DynamicPage
 
     // --- ContentSearchable --- //
     @Override public boolean highlightText(String text, boolean caseSensitive) { return page.highlightText(text, caseSensitive); }
+    @Override public void highlightText(String text, boolean caseSensitive, IntConsumer matchCountConsumer) { page.highlightText(text, caseSensitive, matchCountConsumer); }
     @Override public void findNext(String text, boolean caseSensitive) { page.findNext(text, caseSensitive); }
     @Override public void findPrevious(String text, boolean caseSensitive) { page.findPrevious(text, caseSensitive); }
 
@@ -84,7 +131,13 @@ public class DynamicPage
     @Override public boolean checkLineNumber(int lineNumber) { return page.checkLineNumber(lineNumber); }
 
     // --- PreferencesChangeListener --- //
-    @Override public void preferencesChanged(Map<String, String> preferences) { page.preferencesChanged(preferences); }
+    @Override public void preferencesChanged(Map<String, String> preferences) {
+        sourcePage.preferencesChanged(preferences);
+
+        if (bytecodePage != null) {
+            bytecodePage.preferencesChanged(preferences);
+        }
+    }
 
     // --- UriGettable --- //
     @Override public URI getUri() { return entry.getUri(); }
@@ -96,18 +149,28 @@ public class DynamicPage
     @Override public void sourceLoaded(String source) {
         SwingUtilities.invokeLater(() -> {
             // Replace the decompiled source code by the original
-            Point viewPosition = page.getScrollPane().getViewport().getViewPosition();
+            Point viewPosition = sourcePage.getScrollPane().getViewport().getViewPosition();
+            boolean visible = (page == sourcePage);
+
+            // Release the decompiled page
+            cards.remove(sourcePage);
 
-            removeAll();
-            add(page = new JavaFilePage(api, new DelegatedEntry(entry, source)));
-            page.getScrollPane().getViewport().setViewPosition(viewPosition);
+            sourcePage = new JavaFilePage(api, new DelegatedEntry(entry, source));
+            sourcePage.getScrollPane().getViewport().setViewPosition(viewPosition);
+            cards.add(sourcePage, SOURCE_CARD);
 
-            if (lastOpenedUri != null) {
-                page.openUri(lastOpenedUri);
+            if (visible) {
+                page = sourcePage;
+                cardLayout.show(cards, SOURCE_CARD);
+                revalidate();
+
+                if (lastOpenedUri != null) {
+                    page.openUri(lastOpenedUri);
+                }
             }
 
             if (lastCollectionOfFutureIndexes != null) {
-                page.indexesChanged(lastCollectionOfFutureIndexes);
+                sourcePage.indexesChanged(lastCollectionOfFutureIndexes);
             }
         });
     }
@@ -17,6 +17,7 @@ import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
 import org.jd.gui.util.io.TextReader;
 import org.jd.gui.util.xml.AbstractXmlPathFinder;
+import org.jd.gui.util.xml.XmlPathMatcher;
 
 import java.awt.*;
 import java.net.URI;
@@ -96,8 +97,8 @@ public class EjbJarXmlFilePage extends TypeReferencePage implements UriGettable,
         // Refresh links
         boolean refresh = false;
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            TypeHyperlinkData entryData = (TypeHyperlinkData)entry.getValue();
+        for (HyperlinkData hyperlinkData : hyperlinks) {
+            TypeHyperlinkData entryData = (TypeHyperlinkData)hyperlinkData;
             String internalTypeName = entryData.internalTypeName;
             boolean enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
 
@@ -142,9 +143,11 @@ public class EjbJarXmlFilePage extends TypeReferencePage implements UriGettable,
         "ejb-jar/interceptors/interceptor/interceptor-class"
     );
 
+    protected static XmlPathMatcher typeHyperlinkPathMatcher = new XmlPathMatcher(typeHyperlinkPaths);
+
     public class PathFinder extends AbstractXmlPathFinder {
         public PathFinder() {
-            super(typeHyperlinkPaths);
+            super(typeHyperlinkPathMatcher);
         }
 
         public void handle(String path, String text, int position) {
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.view.component;
+
+import org.jd.gui.api.API;
+import org.jd.gui.api.feature.*;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.BytePattern;
+import org.jd.gui.util.io.ByteSource;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hexadecimal and ASCII view of a {@link ByteSource}: only the visible rows are read and painted. The source is
+ * loaded in background, by chunks; searches stream over the source in background too.
+ */
+public class HexPage extends JPanel implements ContentCopyable, ContentSearchable, ContentSelectable, ContentSavable, UriGettable {
+    protected static final ExecutorService SEARCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-hex-searcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected static final int LOAD_CHUNK_SIZE = 8 * 1024 * 1024;
+    protected static final int MAX_COPY_SIZE = 1024 * 1024;
+    protected static final int BYTES_PER_ROW = 16;
+    protected static final int WHEEL_ROWS = 3;
+    protected static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    // Columns of a row: offset, 16 hexadecimal bytes in two groups, ASCII
+    protected static final int OFFSET_DIGITS = 10;
+    protected static final int HEX_COLUMN = OFFSET_DIGITS + 2;
+    protected static final int ASCII_COLUMN = HEX_COLUMN + BYTES_PER_ROW * 3 + 2;
+    protected static final int ROW_LENGTH = ASCII_COLUMN + BYTES_PER_ROW;
+
+    protected URI uri;
+    protected String fileName;
+    protected ByteSource source;
+    protected long expectedSize;
+    protected volatile long size;
+    protected volatile boolean loaded;
+    protected volatile boolean closed;
+    protected AtomicBoolean loading = new AtomicBoolean();
+    protected AtomicInteger searchGeneration = new AtomicInteger();
+
+    protected RowView rowView = new RowView();
+    protected JScrollBar rowScrollBar = new JScrollBar(JScrollBar.VERTICAL);
+    protected JLabel statusLabel = new JLabel();
+    protected JTextField offsetField = new JTextField(12);
+    protected long selectionStart = -1;
+    protected long selectionEnd = -1;
+    protected long anchor = -1;
+
+    /**
+     * @param expectedSize size of the source once loaded, -1 if unknown
+     */
+    public HexPage(URI uri, String fileName, ByteSource source, long expectedSize) {
+        super(new BorderLayout());
+
+        this.uri = uri;
+        this.fileName = fileName;
+        this.source = source;
+        this.expectedSize = expectedSize;
+
+        JPanel south = new JPanel(new FlowLayout(FlowLayout.TRAILING, 4, 0));
+        south.add(statusLabel);
+        south.add(new JLabel("Offset:"));
+        south.add(offsetField);
+
+        add(rowView, BorderLayout.CENTER);
+        add(rowScrollBar, BorderLayout.LINE_END);
+        add(south, BorderLayout.PAGE_END);
+
+        offsetField.setToolTipText("Decimal or hexadecimal (0x...) offset");
+        offsetField.addActionListener(e -> goToOffset(offsetField.getText()));
+
+        rowScrollBar.setUnitIncrement(1);
+        rowScrollBar.addAdjustmentListener(e -> rowView.repaint());
+
+        rowView.addComponentListener(new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) { sizeChanged(); }
+        });
+
+        startLoading();
+    }
+
+    // --- Background loading --- //
+    protected void startLoading() {
+        if (!closed && loading.compareAndSet(false, true)) {
+            PagedTextPage.INDEXER.execute(this::loadNextChunk);
+        }
+    }
+
+    /**
+     * Load a chunk then submit the next one: the thread is shared with the text pages.
+     */
+    protected void loadNextChunk() {
+        if (closed) {
+            loading.set(false);
+            return;
+        }
+
+        try {
+            loaded = source.load(LOAD_CHUNK_SIZE);
+            size = source.size();
+
+            SwingUtilities.invokeLater(this::sizeChanged);
+
+            if (loaded) {
+                loading.set(false);
+            } else {
+                PagedTextPage.INDEXER.execute(this::loadNextChunk);
+            }
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+            loading.set(false);
+        }
+    }
+
+    protected long getTotalSize() { return Math.max(size, expectedSize); }
+
+    protected void sizeChanged() {
+        long totalSize = getTotalSize();
+        int rowCount = (int)Math.min(Integer.MAX_VALUE, (totalSize + BYTES_PER_ROW - 1) / BYTES_PER_ROW);
+        int visibleRowCount = rowView.getVisibleRowCount();
+
+        rowScrollBar.setValues(Math.min(rowScrollBar.getValue(), Math.max(0, rowCount - visibleRowCount)), visibleRowCount, 0, rowCount);
+        rowScrollBar.setBlockIncrement(visibleRowCount);
+
+        if (loaded || (expectedSize <= 0)) {
+            statusLabel.setText(totalSize + " bytes");
+        } else {
+            statusLabel.setText("Loading " + (size * 100 / expectedSize) + "%");
+        }
+
+        rowView.repaint();
+    }
+
+    // --- Navigation --- //
+    protected void goToOffset(String text) {
+        String trimmed = text.trim();
+
+        try {
+            long offset = (trimmed.startsWith("0x") || trimmed.startsWith("0X")) ? Long.parseLong(trimmed.substring(2), 16) : Long.parseLong(trimmed);
+
+            if ((offset >= 0) && (offset < getTotalSize())) {
+                offsetField.setForeground(UIManager.getColor("TextField.foreground"));
+                select(offset, offset + 1);
+                scrollToOffset(offset);
+                rowView.requestFocusInWindow();
+                return;
+            }
+        } catch (NumberFormatException ignore) {
+        }
+
+        offsetField.setForeground(Color.RED);
+    }
+
+    protected void scrollToOffset(long offset) {
+        int row = (int)Math.min(Integer.MAX_VALUE, offset / BYTES_PER_ROW);
+        int firstRow = rowScrollBar.getValue();
+        int visibleRowCount = rowView.getVisibleRowCount();
+
+        if ((row < firstRow) || (row >= firstRow + visibleRowCount)) {
+            rowScrollBar.setValue(row - visibleRowCount / 2);
+        }
+    }
+
+    protected void scrollRows(int rowCount) {
+        rowScrollBar.setValue(rowScrollBar.getValue() + rowCount);
+    }
+
+    protected void select(long start, long end) {
+        selectionStart = start;
+        selectionEnd = end;
+        rowView.repaint();
+    }
+
+    // --- Search --- //
+    /**
+     * Search 'text' in background, from 'from', then select the match.
+     *
+     * @return true: a pattern not found is signaled later, by a beep
+     */
+    protected boolean search(String text, boolean caseSensitive, long from, boolean forward) {
+        BytePattern pattern = BytePattern.parse(text, caseSensitive);
+        int generation = searchGeneration.incrementAndGet();
+
+        if (pattern == null) {
+            return true;
+        }
+
+        SEARCHER.execute(() -> {
+            if (closed || (generation != searchGeneration.get())) {
+                return;
+            }
+
+            try {
+                long match = forward ?
+                    pattern.indexIn(source, from, () -> closed || (generation != searchGeneration.get())) :
+                    pattern.lastIndexIn(source, from, () -> closed || (generation != searchGeneration.get()));
+
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration.get()) {
+                        if (match == -1) {
+                            getToolkit().beep();
+                        } else {
+                            select(match, match + pattern.length());
+                            scrollToOffset(match);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        });
+
+        return true;
+    }
+
+    protected long getSearchStart() {
+        return (selectionStart != -1) ? selectionStart : (long)rowScrollBar.getValue() * BYTES_PER_ROW;
+    }
+
+    // --- ContentSearchable --- //
+    @Override
+    public boolean highlightText(String text, boolean caseSensitive) {
+        return search(text, caseSensitive, getSearchStart(), true);
+    }
+
+    @Override
+    public void findNext(String text, boolean caseSensitive) {
+        search(text, caseSensitive, getSearchStart() + 1, true);
+    }
+
+    @Override
+    public void findPrevious(String text, boolean caseSensitive) {
+        search(text, caseSensitive, getSearchStart(), false);
+    }
+
+    // --- ContentSelectable --- //
+    @Override
+    public void selectAll() {
+        select(0, getTotalSize());
+    }
+
+    // --- ContentCopyable --- //
+    @Override
+    public void copy() {
+        if (selectionStart != -1) {
+            try {
+                byte[] bytes = new byte[(int)Math.min(selectionEnd - selectionStart, MAX_COPY_SIZE)];
+                int length = BytePattern.readFully(source, selectionStart, bytes, bytes.length);
+                StringBuilder sb = new StringBuilder(length * 3);
+
+                for (int i=0; i<length; i++) {
+                    if (i > 0) {
+                        sb.append(((i % BYTES_PER_ROW) == 0) ? '\n' : ' ');
+                    }
+                    sb.append(HEX_DIGITS[(bytes[i] >> 4) & 0xF]).append(HEX_DIGITS[bytes[i] & 0xF]);
+                }
+
+                getToolkit().getSystemClipboard().setContents(new StringSelection(sb.toString()), null);
+            } catch (IOException e) {
+                ExceptionUtil.printStackTrace(e);
+            }
+        }
+    }
+
+    // --- ContentSavable --- //
+    @Override
+    public String getFileName() { return fileName; }
+
+    @Override
+    public void save(API api, OutputStream os) {
+        try {
+            source.load(Long.MAX_VALUE);
+
+            byte[] buffer = new byte[64 * 1024];
+            long position = 0;
+            int length;
+
+            while ((length = source.read(position, buffer, 0, buffer.length)) > 0) {
+                os.write(buffer, 0, length);
+                position += length;
+            }
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    // --- UriGettable --- //
+    @Override public URI getUri() { return uri; }
+
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+
+        closed = true;
+
+        try {
+            source.close();
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    /**
+     * Paint the rows visible only, read from the source at each paint.
+     */
+    protected class RowView extends JComponent {
+        protected char[] row = new char[ROW_LENGTH];
+        protected byte[] bytes = new byte[0];
+
+        public RowView() {
+            setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            setOpaque(true);
+            setBackground(Color.WHITE);
+            setForeground(Color.BLACK);
+            setFocusable(true);
+
+            addMouseWheelListener(e -> scrollRows(e.getWheelRotation() * WHEEL_ROWS));
+
+            MouseAdapter mouseAdapter = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    requestFocusInWindow();
+
+                    long offset = getOffset(e.getPoint());
+
+                    if (offset != -1) {
+                        if (!e.isShiftDown() || (anchor == -1)) {
+                            anchor = offset;
+                        }
+                        selectRange(offset);
+                    }
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    long offset = getOffset(e.getPoint());
+
+                    if ((offset != -1) && (anchor != -1)) {
+                        selectRange(offset);
+                    }
+                }
+            };
+
+            addMouseListener(mouseAdapter);
+            addMouseMotionListener(mouseAdapter);
+
+            int menuShortcutKeyMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMask();
+
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_UP, 0), "hexPageUp", () -> scrollRows(-getVisibleRowCount()));
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_DOWN, 0), "hexPageDown", () -> scrollRows(getVisibleRowCount()));
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "hexLineUp", () -> scrollRows(-1));
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "hexLineDown", () -> scrollRows(1));
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, menuShortcutKeyMask), "hexHome", () -> rowScrollBar.setValue(0));
+            bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_END, menuShortcutKeyMask), "hexEnd", () -> rowScrollBar.setValue(rowScrollBar.getMaximum()));
+        }
+
+        protected void bindKey(KeyStroke keyStroke, String name, Runnable action) {
+            getInputMap().put(keyStroke, name);
+            getActionMap().put(name, new AbstractAction() {
+                @Override public void actionPerformed(ActionEvent e) { action.run(); }
+            });
+        }
+
+        protected void selectRange(long offset) {
+            select(Math.min(anchor, offset), Math.max(anchor, offset) + 1);
+        }
+
+        public int getRowHeight() { return getFontMetrics(getFont()).getHeight(); }
+
+        public int getVisibleRowCount() { return Math.max(1, getHeight() / getRowHeight()); }
+
+        /**
+         * @return the offset of the byte under 'point', in the hexadecimal or the ASCII columns, or -1
+         */
+        protected long getOffset(Point point) {
+            int charWidth = getFontMetrics(getFont()).charWidth('0');
+            int column = point.x / charWidth;
+            int index;
+
+            if ((column >= HEX_COLUMN) && (column < ASCII_COLUMN - 1)) {
+                int hexColumn = column - HEX_COLUMN;
+                index = (hexColumn < BYTES_PER_ROW / 2 * 3) ? hexColumn / 3 : (hexColumn - 1) / 3;
+            } else if ((column >= ASCII_COLUMN) && (column < ROW_LENGTH)) {
+                index = column - ASCII_COLUMN;
+            } else {
+                return -1;
+            }
+
+            long offset = (rowScrollBar.getValue() + point.y / getRowHeight()) * (long)BYTES_PER_ROW + Math.min(index, BYTES_PER_ROW - 1);
+
+            return (offset < size) ? offset : -1;
+        }
+
+        protected int getHexColumn(int index) {
+            return HEX_COLUMN + index * 3 + ((index < BYTES_PER_ROW / 2) ? 0 : 1);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(getFont());
+
+            FontMetrics fm = g.getFontMetrics();
+            int rowHeight = fm.getHeight();
+            int charWidth = fm.charWidth('0');
+            int firstRow = rowScrollBar.getValue();
+            int rowCount = getHeight() / rowHeight + 1;
+            long start = (long)firstRow * BYTES_PER_ROW;
+
+            if (bytes.length < rowCount * BYTES_PER_ROW) {
+                bytes = new byte[rowCount * BYTES_PER_ROW];
+            }
+
+            int length;
+
+            try {
+                length = BytePattern.readFully(source, start, bytes, (int)Math.max(0, Math.min(rowCount * BYTES_PER_ROW, size - start)));
+            } catch (IOException e) {
+                ExceptionUtil.printStackTrace(e);
+                length = 0;
+            }
+
+            long totalSize = getTotalSize();
+            Color selectionColor = UIManager.getColor("TextArea.selectionBackground");
+
+            for (int r=0; r<rowCount; r++) {
+                long rowStart = start + (long)r * BYTES_PER_ROW;
+
+                if (rowStart >= totalSize) {
+                    break;
+                }
+
+                int y = r * rowHeight;
+
+                // Selection
+                if ((selectionStart < rowStart + BYTES_PER_ROW) && (selectionEnd > rowStart)) {
+                    int first = (int)Math.max(0, selectionStart - rowStart);
+                    int last = (int)Math.min(BYTES_PER_ROW, selectionEnd - rowStart) - 1;
+
+                    g.setColor(selectionColor);
+                    g.fillRect(getHexColumn(first) * charWidth, y, (getHexColumn(last) + 2 - getHexColumn(first)) * charWidth, rowHeight);
+                    g.fillRect((ASCII_COLUMN + first) * charWidth, y, (last + 1 - first) * charWidth, rowHeight);
+                }
+
+                // Offset
+                Arrays.fill(row, ' ');
+
+                for (int i=OFFSET_DIGITS-1, shift=0; i>=0; i--, shift+=4) {
+                    row[i] = HEX_DIGITS[(int)(rowStart >>> shift) & 0xF];
+                }
+
+                // Bytes loaded; the others are left blank
+                int rowOffset = r * BYTES_PER_ROW;
+
+                for (int i=0; (i<BYTES_PER_ROW) && (rowOffset + i < length); i++) {
+                    int b = bytes[rowOffset + i] & 0xFF;
+                    int column = getHexColumn(i);
+
+                    row[column] = HEX_DIGITS[b >> 4];
+                    row[column + 1] = HEX_DIGITS[b & 0xF];
+                    row[ASCII_COLUMN + i] = ((b >= 0x20) && (b < 0x7F)) ? (char)b : '.';
+                }
+
+                g.setColor(getForeground());
+                g.drawChars(row, 0, ROW_LENGTH, 0, y + fm.getAscent());
+            }
+        }
+    }
+}
@@ -9,18 +9,18 @@ package org.jd.gui.view.component;
 
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.Token;
+import org.jd.gui.util.collection.OffsetRangeMap;
 
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
 
 public abstract class HyperlinkPage extends TextPage {
     protected static final Cursor DEFAULT_CURSOR = Cursor.getDefaultCursor();
     protected static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
 
-    protected TreeMap<Integer, HyperlinkData> hyperlinks = new TreeMap<>();
+    protected OffsetRangeMap<HyperlinkData> hyperlinks = new OffsetRangeMap<>();
 
     public HyperlinkPage() {
         MouseAdapter listener = new MouseAdapter() {
@@ -32,12 +32,9 @@ public abstract class HyperlinkPage extends TextPage {
                 if ((e.getClickCount() == 1) && ((e.getModifiers() & (Event.ALT_MASK|Event.META_MASK|Event.SHIFT_MASK)) == 0)) {
                     int offset = textArea.viewToModel(new Point(e.getX(), e.getY()));
                     if (offset != -1) {
-                        Map.Entry<Integer, HyperlinkData> entry = hyperlinks.floorEntry(offset);
-                        if (entry != null) {
-                            HyperlinkData entryData = entry.getValue();
-                            if ((entryData != null) && (offset < entryData.endPosition) && (offset >= entryData.startPosition) && isHyperlinkEnabled(entryData)) {
-                                openHyperlink(e.getXOnScreen(), e.getYOnScreen(), entryData);
-                            }
+                        HyperlinkData entryData = hyperlinks.get(offset);
+                        if ((entryData != null) && isHyperlinkEnabled(entryData)) {
+                            openHyperlink(e.getXOnScreen(), e.getYOnScreen(), entryData);
                         }
                     }
                 }
@@ -52,15 +49,12 @@ public abstract class HyperlinkPage extends TextPage {
                     if ((e.getModifiers() & (Event.ALT_MASK|Event.META_MASK|Event.SHIFT_MASK)) == 0) {
                         int offset = textArea.viewToModel(new Point(e.getX(), e.getY()));
                         if (offset != -1) {
-                            Map.Entry<Integer, HyperlinkData> entry = hyperlinks.floorEntry(offset);
-                            if (entry != null) {
-                                HyperlinkData entryData = entry.getValue();
-                                if ((entryData != null) && (offset < entryData.endPosition) && (offset >= entryData.startPosition) && isHyperlinkEnabled(entryData)) {
-                                    if (textArea.getCursor() != HAND_CURSOR) {
-                                        textArea.setCursor(HAND_CURSOR);
-                                    }
-                                    return;
+                            HyperlinkData entryData = hyperlinks.get(offset);
+                            if ((entryData != null) && isHyperlinkEnabled(entryData)) {
+                                if (textArea.getCursor() != HAND_CURSOR) {
+                                    textArea.setCursor(HAND_CURSOR);
                                 }
+                                return;
                             }
                         }
                     }
@@ -79,13 +73,28 @@ public abstract class HyperlinkPage extends TextPage {
     protected RSyntaxTextArea newSyntaxTextArea() { return new HyperlinkSyntaxTextArea(); }
 
     public void addHyperlink(HyperlinkData hyperlinkData) {
-        hyperlinks.put(hyperlinkData.startPosition, hyperlinkData);
+        hyperlinks.put(hyperlinkData.startPosition, hyperlinkData.endPosition, hyperlinkData);
     }
 
     public void clearHyperlinks() {
         hyperlinks.clear();
     }
 
+    /**
+     * Move the hyperlinks after a text edit.
+     *
+     * @param shift monotonic function mapping old offsets to new offsets
+     */
+    protected void shiftHyperlinks(IntUnaryOperator shift) {
+        hyperlinks.shift(shift);
+
+        for (int i=0, size=hyperlinks.size(); i<size; i++) {
+            HyperlinkData hyperlinkData = hyperlinks.getValue(i);
+            hyperlinkData.startPosition = hyperlinks.getStart(i);
+            hyperlinkData.endPosition = hyperlinks.getEnd(i);
+        }
+    }
+
     protected abstract boolean isHyperlinkEnabled(HyperlinkData hyperlinkData);
 
     protected abstract void openHyperlink(int x, int y, HyperlinkData hyperlinkData);
@@ -106,12 +115,9 @@ public abstract class HyperlinkPage extends TextPage {
          */
         @Override
         public boolean getUnderlineForToken(Token t) {
-            Map.Entry<Integer, HyperlinkData> entry = hyperlinks.floorEntry(t.getOffset());
-            if (entry != null) {
-                HyperlinkData entryData = entry.getValue();
-                if ((entryData != null) && (t.getOffset() < entryData.endPosition) && (t.getOffset() >= entryData.startPosition) && isHyperlinkEnabled(entryData)) {
-                    return true;
-                }
+            HyperlinkData entryData = hyperlinks.get(t.getOffset());
+            if ((entryData != null) && isHyperlinkEnabled(entryData)) {
+                return true;
             }
             return super.getUnderlineForToken(t);
         }
@@ -30,6 +30,15 @@ public class JavaFilePage extends TypePage {
 
     public JavaFilePage(API api, Container.Entry entry) {
         super(api, entry);
+        loadContent();
+    }
+
+    // --- Content eviction --- //
+    @Override
+    protected boolean isContentReloadable() { return true; }
+
+    @Override
+    protected void loadContent() {
         // Load content file
         String text = TextReader.getText(entry.getInputStream()).replace("\r\n", "\n").replace('\r', '\n');
         // Parse
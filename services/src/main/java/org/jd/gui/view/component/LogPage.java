@@ -14,36 +14,49 @@ import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
+import org.jd.gui.util.io.ByteArrayByteSource;
+import org.jd.gui.util.io.PagedText;
 
 import java.awt.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Future;
 
-public class LogPage extends HyperlinkPage implements UriGettable, IndexesChangeListener {
+/**
+ * Log page, paged: only the visible lines are loaded, and their stack frames parsed.
+ */
+public class LogPage extends PagedTextPage implements UriGettable, IndexesChangeListener {
     protected API api;
     protected URI uri;
     protected Collection<Future<Indexes>> collectionOfFutureIndexes = Collections.emptyList();
 
     public LogPage(API api, URI uri, String content) {
+        this(api, uri, new PagedText(new ByteArrayByteSource(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+    }
+
+    public LogPage(API api, URI uri, PagedText pagedText) {
+        super(pagedText);
         this.api = api;
         this.uri = uri;
-        // Parse
+    }
+
+    @Override
+    protected void windowChanged(int firstLineIndex, String text) {
+        // Parse visible lines
         int index = 0;
-        int eol = content.indexOf('\n');
+        int eol = text.indexOf('\n');
 
         while (eol != -1) {
-            parseLine(content, index, eol);
+            parseLine(text, index, eol);
             index = eol + 1;
-            eol = content.indexOf('\n', index);
+            eol = text.indexOf('\n', index);
         }
 
-        parseLine(content, index, content.length());
-        // Display
-        setText(content);
+        parseLine(text, index, text.length());
+        refreshHyperlinks(text);
     }
 
     protected void parseLine(String content, int index, int eol) {
@@ -68,7 +81,7 @@ public class LogPage extends HyperlinkPage implements UriGettable, IndexesChange
                 // Save current position in history
                 Point location = textArea.getLocationOnScreen();
                 int offset = textArea.viewToModel(new Point(x - location.x, y - location.y));
-                api.addURI(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), "position=" + offset, null));
+                api.addURI(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), "lineNumber=" + getLineNumber(offset), null));
 
                 // Open link
                 String text = getText();
@@ -113,15 +126,27 @@ public class LogPage extends HyperlinkPage implements UriGettable, IndexesChange
         // Update the list of containers
         this.collectionOfFutureIndexes = collectionOfFutureIndexes;
         // Refresh links
+        if (refreshHyperlinks(getText())) {
+            textArea.repaint();
+        }
+    }
+
+    /**
+     * @return true if a hyperlink has been enabled or disabled
+     */
+    protected boolean refreshHyperlinks(String text) {
         boolean refresh = false;
-        String text = getText();
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            LogHyperlinkData entryData = (LogHyperlinkData)entry.getValue();
+        for (HyperlinkData hyperlinkData : hyperlinks) {
+            LogHyperlinkData entryData = (LogHyperlinkData)hyperlinkData;
             String typeAndMethodNames = text.substring(entryData.startPosition, entryData.endPosition);
             int lastDotIndex = typeAndMethodNames.lastIndexOf('.');
-            String internalTypeName = typeAndMethodNames.substring(0, lastDotIndex).replace('.', '/');
-            boolean enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
+            boolean enabled = false;
+
+            if (lastDotIndex != -1) {
+                String internalTypeName = typeAndMethodNames.substring(0, lastDotIndex).replace('.', '/');
+                enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
+            }
 
             if (entryData.enabled != enabled) {
                 entryData.enabled = enabled;
@@ -129,9 +154,7 @@ public class LogPage extends HyperlinkPage implements UriGettable, IndexesChange
             }
         }
 
-        if (refresh) {
-            textArea.repaint();
-        }
+        return refresh;
     }
 
     public static class LogHyperlinkData extends HyperlinkData {
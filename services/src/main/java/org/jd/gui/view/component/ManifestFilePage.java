@@ -170,8 +170,8 @@ public class ManifestFilePage extends HyperlinkPage implements UriGettable, Inde
         boolean refresh = false;
         String text = getText();
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            ManifestHyperlinkData entryData = (ManifestHyperlinkData)entry.getValue();
+        for (HyperlinkData hyperlinkData : hyperlinks) {
+            ManifestHyperlinkData entryData = (ManifestHyperlinkData)hyperlinkData;
             String textLink = getValue(text, entryData.startPosition, entryData.endPosition);
             String internalTypeName = textLink.replace('.', '/');
             boolean enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
@@ -13,6 +13,7 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.decompiler.ContainerLoader;
+import org.jd.gui.util.decompiler.DecompilerPool;
 import org.jd.gui.util.decompiler.StringBuilderPrinter;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
@@ -68,7 +69,7 @@ public class ModuleInfoFilePage extends ClassFilePage {
             String entryInternalName = entryPath.substring(0, entryPath.length() - 6); // 6 = ".class".length()
 
             // Decompile class file
-            DECOMPILER.decompile(loader, printer, entryInternalName);
+            DecompilerPool.getInstance().decompile(DecompilerPool.Lane.INTERACTIVE, loader, printer, entryInternalName);
         } catch (Throwable t) {
             ExceptionUtil.printStackTrace(t);
             setText("// INTERNAL ERROR //");
@@ -136,6 +137,10 @@ public class ModuleInfoFilePage extends ClassFilePage {
     // --- UriOpenable --- //
     @Override
     public boolean openUri(URI uri) {
+        if (deferUntilTextLoaded(() -> openUri(uri))) {
+            return true;
+        }
+
         ArrayList<DocumentRange> ranges = new ArrayList<>();
         String fragment = uri.getFragment();
         String query = uri.getQuery();
@@ -176,8 +181,7 @@ public class ModuleInfoFilePage extends ClassFilePage {
 
                 if (highlightFlags.indexOf('r') != -1) {
                     // Highlight references
-                    for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-                        HyperlinkData hyperlink = entry.getValue();
+                    for (HyperlinkData hyperlink : hyperlinks) {
                         ReferenceData reference = ((HyperlinkReferenceData)hyperlink).reference;
                         ModuleInfoReferenceData moduleInfoReferenceData = (ModuleInfoReferenceData)reference;
 
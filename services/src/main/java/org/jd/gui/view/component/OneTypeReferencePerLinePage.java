@@ -15,6 +15,7 @@ import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
 
+import javax.swing.*;
 import java.awt.*;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -23,19 +24,55 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+/**
+ * Page listing one type name per line, for instance a file of "META-INF/services". The lines are loaded in
+ * background and appended by chunks; the type names are resolved in one batch per index, when the file is loaded and
+ * when the indexes change.
+ */
 public class OneTypeReferencePerLinePage extends TypeReferencePage implements UriGettable, IndexesChangeListener {
+    protected static final int CHUNK_LINE_COUNT = 4096;
+
+    protected static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-type-list-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected API api;
     protected Container.Entry entry;
     protected Collection<Future<Indexes>> collectionOfFutureIndexes = Collections.emptyList();
 
+    protected boolean loading = true;
+    protected int resolutionVersion;
+    /**
+     * Indexes done at the last resolution
+     */
+    protected Set<Future<Indexes>> resolvedIndexes = Collections.emptySet();
+    /**
+     * Entries to open for each type name found: the entries of the same container if any, otherwise all the entries
+     */
+    protected Map<String, List<Container.Entry>> typeEntries = Collections.emptyMap();
+
     public OneTypeReferencePerLinePage(API api, Container.Entry entry) {
         this.api = api;
         this.entry = entry;
-        // Load content file & Create hyperlinks
+
+        LOADER.execute(this::load);
+    }
+
+    // --- Loading --- //
+    /**
+     * Called by the loader thread.
+     */
+    protected void load() {
         StringBuilder sb = new StringBuilder();
+        ArrayList<TypeHyperlinkData> chunkHyperlinks = new ArrayList<>();
         int offset = 0;
+        int lineCount = 0;
 
         try (BufferedReader br = new BufferedReader(new InputStreamReader(entry.getInputStream()))) {
             String line;
@@ -48,20 +85,50 @@ public class OneTypeReferencePerLinePage extends TypeReferencePage implements Ur
                     int endIndex = startIndex + trim.length();
                     String internalTypeName = trim.replace('.', '/');
 
-                    addHyperlink(new TypeReferencePage.TypeHyperlinkData(startIndex, endIndex, internalTypeName));
+                    chunkHyperlinks.add(new TypeReferencePage.TypeHyperlinkData(startIndex, endIndex, internalTypeName));
                 }
 
                 offset += line.length() + 1;
                 sb.append(line).append('\n');
+
+                if (++lineCount == CHUNK_LINE_COUNT) {
+                    appendChunk(sb.toString(), chunkHyperlinks);
+                    sb.setLength(0);
+                    chunkHyperlinks = new ArrayList<>();
+                    lineCount = 0;
+                }
             }
         } catch (IOException e) {
             ExceptionUtil.printStackTrace(e);
         }
 
-        // Display
-        setText(sb.toString());
+        appendChunk(sb.toString(), chunkHyperlinks);
+        SwingUtilities.invokeLater(this::loaded);
+    }
+
+    protected void appendChunk(String text, List<TypeHyperlinkData> chunkHyperlinks) {
+        SwingUtilities.invokeLater(() -> {
+            int caretPosition = textArea.getCaretPosition();
+
+            textArea.append(text);
+            textArea.setCaretPosition(caretPosition);
+
+            for (TypeHyperlinkData hyperlinkData : chunkHyperlinks) {
+                addHyperlink(hyperlinkData);
+            }
+        });
+    }
+
+    protected void loaded() {
+        loading = false;
+        textArea.discardAllEdits();
+        resolve();
+        textLoaded();
     }
 
+    @Override
+    public boolean isTextLoading() { return loading || super.isTextLoading(); }
+
     protected boolean isHyperlinkEnabled(HyperlinkData hyperlinkData) { return ((TypeHyperlinkData)hyperlinkData).enabled; }
 
     protected void openHyperlink(int x, int y, HyperlinkData hyperlinkData) {
@@ -76,20 +143,9 @@ public class OneTypeReferencePerLinePage extends TypeReferencePage implements Ur
                 api.addURI(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), "position=" + offset, null));
 
                 // Open link
-                String internalTypeName = data.internalTypeName;
-                List<Container.Entry> entries = IndexesUtil.findInternalTypeName(collectionOfFutureIndexes, internalTypeName);
-                String rootUri = entry.getContainer().getRoot().getUri().toString();
-                ArrayList<Container.Entry> sameContainerEntries = new ArrayList<>();
+                List<Container.Entry> entries = typeEntries.get(data.internalTypeName);
 
-                for (Container.Entry entry : entries) {
-                    if (entry.getUri().toString().startsWith(rootUri)) {
-                        sameContainerEntries.add(entry);
-                    }
-                }
-
-                if (sameContainerEntries.size() > 0) {
-                    api.openURI(x, y, sameContainerEntries, null, data.internalTypeName);
-                } else if (entries.size() > 0) {
+                if (entries != null) {
                     api.openURI(x, y, entries, null, data.internalTypeName);
                 }
             } catch (URISyntaxException e) {
@@ -112,22 +168,81 @@ public class OneTypeReferencePerLinePage extends TypeReferencePage implements Ur
     public void indexesChanged(Collection<Future<Indexes>> collectionOfFutureIndexes) {
         // Update the list of containers
         this.collectionOfFutureIndexes = collectionOfFutureIndexes;
-        // Refresh links
-        boolean refresh = false;
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            TypeHyperlinkData entryData = (TypeHyperlinkData)entry.getValue();
-            String internalTypeName = entryData.internalTypeName;
-            boolean enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
+        if (!loading) {
+            resolve();
+        }
+    }
+
+    /**
+     * Resolve all the type names in background, then refresh the links in one pass. Skipped if no index was added
+     * or removed since the last resolution.
+     */
+    protected void resolve() {
+        Set<Future<Indexes>> doneIndexes = Collections.newSetFromMap(new IdentityHashMap<>());
 
-            if (entryData.enabled != enabled) {
-                entryData.enabled = enabled;
-                refresh = true;
+        for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+            if (futureIndexes.isDone()) {
+                doneIndexes.add(futureIndexes);
             }
         }
 
-        if (refresh) {
-            textArea.repaint();
+        if (doneIndexes.equals(resolvedIndexes)) {
+            return;
         }
+
+        resolvedIndexes = doneIndexes;
+
+        int version = ++resolutionVersion;
+        Collection<Future<Indexes>> collectionOfFutureIndexes = this.collectionOfFutureIndexes;
+        HashSet<String> internalTypeNames = new HashSet<>();
+        String rootUri = entry.getContainer().getRoot().getUri().toString();
+
+        for (int i=0, size=hyperlinks.size(); i<size; i++) {
+            internalTypeNames.add(((TypeHyperlinkData)hyperlinks.getValue(i)).internalTypeName);
+        }
+
+        LOADER.execute(() -> {
+            Map<String, List<Container.Entry>> entries = IndexesUtil.findInternalTypeNames(collectionOfFutureIndexes, internalTypeNames);
+
+            for (Map.Entry<String, List<Container.Entry>> mapEntry : entries.entrySet()) {
+                ArrayList<Container.Entry> sameContainerEntries = new ArrayList<>();
+
+                for (Container.Entry entry : mapEntry.getValue()) {
+                    if (entry.getUri().toString().startsWith(rootUri)) {
+                        sameContainerEntries.add(entry);
+                    }
+                }
+
+                if (!sameContainerEntries.isEmpty()) {
+                    mapEntry.setValue(sameContainerEntries);
+                }
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (version != resolutionVersion) {
+                    // Outdated
+                    return;
+                }
+
+                boolean refresh = false;
+
+                typeEntries = entries;
+
+                for (int i=0, size=hyperlinks.size(); i<size; i++) {
+                    TypeHyperlinkData hyperlinkData = (TypeHyperlinkData)hyperlinks.getValue(i);
+                    boolean enabled = entries.containsKey(hyperlinkData.internalTypeName);
+
+                    if (hyperlinkData.enabled != enabled) {
+                        hyperlinkData.enabled = enabled;
+                        refresh = true;
+                    }
+                }
+
+                if (refresh) {
+                    textArea.repaint();
+                }
+            });
+        });
     }
 }
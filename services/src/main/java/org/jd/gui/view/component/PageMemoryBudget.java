@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.view.component;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Global memory budget of the page contents: when the estimated size of the contents exceeds the budget, the least
+ * recently shown pages that are not visible release their content. A page rebuilds its content when it is shown
+ * again.
+ * <p>
+ * The pages are weakly referenced: a closed page is forgotten when it is garbage collected. To be used from the event
+ * dispatch thread.
+ */
+public class PageMemoryBudget {
+    protected static final String BUDGET_PROPERTY = "jd-gui.pageMemoryBudget";
+    protected static final PageMemoryBudget INSTANCE = new PageMemoryBudget(Long.getLong(BUDGET_PROPERTY, Runtime.getRuntime().maxMemory() / 4));
+
+    protected long budget;
+    protected long clock;
+    protected ArrayList<PageReference> pages = new ArrayList<>();
+
+    public PageMemoryBudget(long budget) {
+        this.budget = budget;
+    }
+
+    public static PageMemoryBudget getInstance() { return INSTANCE; }
+
+    public long getBudget() { return budget; }
+
+    /**
+     * Record that 'page' is shown, then evict the contents of the least recently shown pages while the budget is
+     * exceeded.
+     */
+    public void pageShown(Evictable page) {
+        PageReference found = null;
+
+        for (PageReference reference : pages) {
+            if (reference.get() == page) {
+                found = reference;
+                break;
+            }
+        }
+
+        if (found == null) {
+            pages.add(found = new PageReference(page));
+        }
+
+        found.lastShown = ++clock;
+        evict();
+    }
+
+    /**
+     * Evict the contents of the least recently shown pages if the budget is exceeded, once the content of 'page',
+     * loaded after the page was shown, has its actual weight.
+     */
+    public void contentLoaded(Evictable page) {
+        for (PageReference reference : pages) {
+            if (reference.get() == page) {
+                evict();
+                break;
+            }
+        }
+    }
+
+    protected void evict() {
+        long weight = 0;
+
+        for (Iterator<PageReference> iterator = pages.iterator(); iterator.hasNext(); ) {
+            Evictable page = iterator.next().get();
+
+            if (page == null) {
+                iterator.remove();
+            } else {
+                weight += page.getContentWeight();
+            }
+        }
+
+        if (weight > budget) {
+            // Least recently shown first
+            pages.sort((r1, r2) -> Long.compare(r1.lastShown, r2.lastShown));
+
+            for (PageReference reference : pages) {
+                Evictable page = reference.get();
+
+                if ((page != null) && !page.isShowing()) {
+                    long pageWeight = page.getContentWeight();
+
+                    if (pageWeight > 0) {
+                        page.evictContent();
+                        weight -= pageWeight;
+
+                        if (weight <= budget) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A page able to release its content while it is hidden.
+     */
+    public interface Evictable {
+        /**
+         * @return the estimated size of the content in memory, in bytes, 0 if the content is released
+         */
+        long getContentWeight();
+
+        /**
+         * Release the content. The content is rebuilt when the page is shown again.
+         */
+        void evictContent();
+
+        boolean isShowing();
+    }
+
+    protected static class PageReference extends WeakReference<Evictable> {
+        protected long lastShown;
+
+        public PageReference(Evictable page) { super(page); }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.view.component;
+
+import org.jd.gui.api.API;
+import org.jd.gui.util.exception.ExceptionUtil;
+import org.jd.gui.util.io.PagedText;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Page displaying a {@link PagedText}: the text area only holds the lines visible in the viewport, a separate
+ * scroll bar moves in the whole text. The text is indexed in background, by chunks; in follow mode, a growing
+ * source is polled and the page shows its last lines.
+ */
+public abstract class PagedTextPage extends HyperlinkPage {
+    protected static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-text-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected static final int INDEX_CHUNK_SIZE = 8 * 1024 * 1024;
+    protected static final int FOLLOW_INTERVAL = 1000; // milliseconds
+    protected static final int WHEEL_LINES = 3;
+
+    protected PagedText pagedText;
+    protected JScrollBar lineScrollBar = new JScrollBar(JScrollBar.VERTICAL);
+    protected JCheckBox followCheckBox;
+    protected Timer followTimer;
+    protected int firstLineIndex;
+    protected int windowLineCount = 1;
+    protected int windowEndLineIndex;
+    protected AtomicBoolean indexing = new AtomicBoolean();
+    protected volatile boolean closed;
+
+    public PagedTextPage(PagedText pagedText) {
+        this.pagedText = pagedText;
+
+        textArea.setCodeFoldingEnabled(false);
+        scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER);
+
+        // Add the line scroll bar next to the mark strip
+        BorderLayout layout = (BorderLayout)getLayout();
+        Component strip = layout.getLayoutComponent(BorderLayout.LINE_END);
+        JPanel east = new JPanel(new BorderLayout());
+
+        if (strip != null) {
+            remove(strip);
+            east.add(strip, BorderLayout.CENTER);
+        }
+
+        east.add(lineScrollBar, BorderLayout.LINE_END);
+        add(east, BorderLayout.LINE_END);
+
+        if (pagedText.isGrowable()) {
+            followCheckBox = new JCheckBox("Follow");
+            followCheckBox.addActionListener(e -> setFollowing(followCheckBox.isSelected()));
+            followTimer = new Timer(FOLLOW_INTERVAL, e -> startIndexing());
+
+            JPanel south = new JPanel(new FlowLayout(FlowLayout.TRAILING, 2, 0));
+            south.add(followCheckBox);
+            add(south, BorderLayout.PAGE_END);
+        }
+
+        lineScrollBar.setUnitIncrement(1);
+        lineScrollBar.addAdjustmentListener(e -> {
+            if (lineScrollBar.getValue() != firstLineIndex) {
+                if (isFollowing() && (lineScrollBar.getValue() + lineScrollBar.getVisibleAmount() < lineScrollBar.getMaximum())) {
+                    // Scrolled by the user: stop following
+                    followCheckBox.setSelected(false);
+                    setFollowing(false);
+                }
+                showWindow();
+            }
+        });
+
+        scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) { showWindow(); }
+        });
+        textArea.addPropertyChangeListener("font", e -> SwingUtilities.invokeLater(this::showWindow));
+
+        // Replace the mouse wheel listeners: scroll the lines, zoom with the default listeners
+        final MouseWheelListener[] mouseWheelListeners = scrollPane.getMouseWheelListeners();
+
+        for (MouseWheelListener listener : mouseWheelListeners) {
+            scrollPane.removeMouseWheelListener(listener);
+        }
+
+        scrollPane.addMouseWheelListener(e -> {
+            if ((e.getModifiers() & (Event.META_MASK|Event.CTRL_MASK)) != 0) {
+                for (MouseWheelListener listener : mouseWheelListeners) {
+                    listener.mouseWheelMoved(e);
+                }
+            } else {
+                scrollLines(e.getWheelRotation() * WHEEL_LINES);
+            }
+        });
+
+        int menuShortcutKeyMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMask();
+
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_UP, 0), "pagedPageUp", () -> true, () -> scrollLines(-windowLineCount));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_DOWN, 0), "pagedPageDown", () -> true, () -> scrollLines(windowLineCount));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, menuShortcutKeyMask), "pagedHome", () -> true, () -> { lineScrollBar.setValue(0); textArea.setCaretPosition(0); });
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_END, menuShortcutKeyMask), "pagedEnd", () -> true, () -> { lineScrollBar.setValue(lineScrollBar.getMaximum()); setCaretLine(textArea.getLineCount() - 1); });
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "pagedLineUp", () -> textArea.getCaretLineNumber() == 0, () -> { scrollLines(-1); setCaretLine(0); });
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "pagedLineDown", () -> textArea.getCaretLineNumber() == textArea.getLineCount() - 1, () -> { scrollLines(1); setCaretLine(textArea.getLineCount() - 1); });
+
+        startIndexing();
+    }
+
+    /**
+     * Bind 'keyStroke' to 'action' when 'condition' is true, to the current action otherwise.
+     */
+    protected void bindKey(KeyStroke keyStroke, String name, BooleanSupplier condition, Runnable action) {
+        InputMap inputMap = textArea.getInputMap();
+        ActionMap actionMap = textArea.getActionMap();
+        Object key = inputMap.get(keyStroke);
+        Action defaultAction = (key == null) ? null : actionMap.get(key);
+
+        inputMap.put(keyStroke, name);
+        actionMap.put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (condition.getAsBoolean()) {
+                    action.run();
+                } else if (defaultAction != null) {
+                    defaultAction.actionPerformed(e);
+                }
+            }
+        });
+    }
+
+    protected void scrollLines(int lineCount) {
+        lineScrollBar.setValue(lineScrollBar.getValue() + lineCount);
+    }
+
+    protected void setCaretLine(int line) {
+        try {
+            textArea.setCaretPosition(textArea.getLineStartOffset(Math.max(0, Math.min(line, textArea.getLineCount() - 1))));
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    protected void setFollowing(boolean following) {
+        if (following) {
+            followTimer.start();
+            lineCountChanged();
+        } else {
+            followTimer.stop();
+        }
+    }
+
+    protected boolean isFollowing() {
+        return (followCheckBox != null) && followCheckBox.isSelected();
+    }
+
+    // --- Background indexing --- //
+    protected void startIndexing() {
+        if (!closed && indexing.compareAndSet(false, true)) {
+            INDEXER.execute(this::indexNextChunk);
+        }
+    }
+
+    /**
+     * Index a chunk then submit the next one: the indexer thread is shared by the pages in turn.
+     */
+    protected void indexNextChunk() {
+        if (closed) {
+            indexing.set(false);
+            return;
+        }
+
+        try {
+            boolean complete = pagedText.index(INDEX_CHUNK_SIZE);
+
+            SwingUtilities.invokeLater(this::lineCountChanged);
+
+            if (complete) {
+                indexing.set(false);
+            } else {
+                INDEXER.execute(this::indexNextChunk);
+            }
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+            indexing.set(false);
+        }
+    }
+
+    protected void lineCountChanged() {
+        int lineCount = pagedText.getLineCount();
+        int value = isFollowing() ? lineCount : lineScrollBar.getValue();
+
+        lineScrollBar.setValues(Math.min(value, Math.max(0, lineCount - windowLineCount)), windowLineCount, 0, lineCount);
+        lineScrollBar.setBlockIncrement(windowLineCount);
+
+        if (firstLineIndex + windowLineCount > windowEndLineIndex) {
+            // The window was not full: show the new lines
+            showWindow();
+        }
+    }
+
+    // --- Window --- //
+    protected void showWindow() {
+        int height = scrollPane.getViewport().getExtentSize().height;
+        int lineHeight = textArea.getLineHeight();
+
+        if ((height <= 0) || (lineHeight <= 0)) {
+            return;
+        }
+
+        int lineCount = pagedText.getLineCount();
+        int caretLineIndex = firstLineIndex + textArea.getCaretLineNumber();
+
+        windowLineCount = Math.max(1, height / lineHeight);
+
+        int maxFirstLineIndex = Math.max(0, lineCount - windowLineCount);
+
+        // Update 'firstLineIndex' first: the scroll bar listener ignores the value shown
+        firstLineIndex = isFollowing() ? maxFirstLineIndex : Math.min(lineScrollBar.getValue(), maxFirstLineIndex);
+        windowEndLineIndex = Math.min(lineCount, firstLineIndex + windowLineCount);
+        lineScrollBar.setValues(firstLineIndex, windowLineCount, 0, lineCount);
+        lineScrollBar.setBlockIncrement(windowLineCount);
+
+        try {
+            String text = pagedText.readLines(firstLineIndex, windowEndLineIndex - firstLineIndex);
+            int x = scrollPane.getViewport().getViewPosition().x;
+
+            clearHyperlinks();
+            textArea.setText(text);
+            scrollPane.getGutter().setLineNumberingStartIndex(firstLineIndex + 1);
+            setCaretLine(caretLineIndex - firstLineIndex);
+            scrollPane.getViewport().setViewPosition(new Point(x, 0));
+
+            windowChanged(firstLineIndex, text);
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    /**
+     * Called when the displayed lines change. The hyperlinks have been cleared.
+     *
+     * @param firstLineIndex index of the first line displayed, counted from 0
+     * @param text displayed lines
+     */
+    protected void windowChanged(int firstLineIndex, String text) {}
+
+    /**
+     * @return the number of the line, counted from 1, at 'offset' in the text area
+     */
+    protected int getLineNumber(int offset) {
+        try {
+            return firstLineIndex + textArea.getLineOfOffset(offset) + 1;
+        } catch (BadLocationException e) {
+            ExceptionUtil.printStackTrace(e);
+            return firstLineIndex + 1;
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+
+        closed = true;
+
+        if (followTimer != null) {
+            followTimer.stop();
+        }
+
+        try {
+            pagedText.close();
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    // --- LineNumberNavigable --- //
+    @Override
+    public int getMaximumLineNumber() { return pagedText.getLineCount(); }
+
+    @Override
+    public void goToLineNumber(int lineNumber) {
+        int lineIndex = lineNumber - 1;
+
+        lineScrollBar.setValue(lineIndex - windowLineCount / 2);
+        setCaretLine(lineIndex - firstLineIndex);
+    }
+
+    // --- ContentSavable --- //
+    @Override
+    public void save(API api, OutputStream os) {
+        try {
+            pagedText.writeTo(os);
+        } catch (IOException e) {
+            ExceptionUtil.printStackTrace(e);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.text.MessageFormat;
@@ -74,11 +75,11 @@ import java.util.List;
  * @version 0.5
  */
 /*
- * Possible improvements:
- *    1. Handle marked occurrence changes & "mark all" changes separately from
- *       parser changes. For each property change, call a method that removes
- *       the notices being reloaded from the Markers (removing any Markers that
- *       are now "empty").
+ * Changed for JD-GUI: the marks are aggregated by pixel row and painted from
+ * one cached image, instead of one "Marker" component per marked line. Each
+ * kind of marks (parser notices, marked occurrences, "mark all") is refreshed
+ * separately, and tool tips are computed from the marks of the row under the
+ * mouse.
  */
 public class RoundMarkErrorStrip extends JComponent {
 
@@ -144,11 +145,60 @@ public class RoundMarkErrorStrip extends JComponent {
      */
     private int lastLineY;
 
+    /**
+     * Added for JD-GUI.
+     *
+     * The marks, indexed by kind, from the lowest to the highest painting
+     * priority.
+     */
+    private Marks[] marks = { new Marks(), new Marks(), new Marks() };
+
+    /**
+     * Added for JD-GUI.
+     *
+     * The markers of all the marks, painted once for all the repaints.
+     * <code>null</code> when the marks or the geometry changed.
+     */
+    private BufferedImage markerImage;
+
+    /**
+     * Added for JD-GUI.
+     *
+     * The geometry used to compute the pixel rows of the marks: height of
+     * this component, height of the visible rect of the text area and line
+     * count.
+     */
+    private int rowsHeight = -1, rowsVisibleHeight = -1, rowsLineCount = -1;
+
     /**
      * The preferred width of this component.
      */
     private static final int PREFERRED_WIDTH = 14;
 
+    /**
+     * Added for JD-GUI.
+     *
+     * The size of a marker.
+     */
+    private static final int MARKER_WIDTH = PREFERRED_WIDTH - 4; // 2-pixel empty border
+    private static final int MARKER_HEIGHT = 5;
+
+    /**
+     * Added for JD-GUI.
+     *
+     * The kinds of marks.
+     */
+    private static final int MARK_ALL = 0;
+    private static final int MARKED_OCCURRENCES = 1;
+    private static final int PARSER_NOTICES = 2;
+
+    /**
+     * Added for JD-GUI.
+     *
+     * The maximum number of notices listed in a tool tip.
+     */
+    private static final int MAX_TOOL_TIP_NOTICES = 10;
+
     private static final String MSG = "org.fife.ui.rsyntaxtextarea.ErrorStrip";
     private static final ResourceBundle msg = ResourceBundle.getBundle(MSG);
 
@@ -161,8 +211,8 @@ public class RoundMarkErrorStrip extends JComponent {
         this.textArea = textArea;
         listener = new Listener();
         ToolTipManager.sharedInstance().registerComponent(this);
-        setLayout(null); // Manually layout Markers as they can overlap
         addMouseListener(listener);
+        addMouseMotionListener(listener);
         setShowMarkedOccurrences(true);
         setShowMarkAll(true);
         setLevelThreshold(ParserNotice.Level.WARNING);
@@ -192,14 +242,11 @@ public class RoundMarkErrorStrip extends JComponent {
 
 
     /**
-     * Manually manages layout since this component uses no layout manager.
+     * Recomputes the marker rows when the size changes.
      */
     @Override
     public void doLayout() {
-        for (int i=0; i<getComponentCount(); i++) {
-            Marker m = (Marker)getComponent(i);
-            m.updateLocation();
-        }
+        updateRows();
         listener.caretUpdate(null); // Force recalculation of caret line pos
     }
 
@@ -326,6 +373,10 @@ public class RoundMarkErrorStrip extends JComponent {
      */
     @Override
     public String getToolTipText(MouseEvent e) {
+        List<ParserNotice> notices = getNoticesAt(e.getY());
+        if (!notices.isEmpty()) {
+            return getToolTipText(notices);
+        }
         String text = null;
         int line = yToLine(e.getY());
         if (line>-1) {
@@ -336,6 +387,75 @@ public class RoundMarkErrorStrip extends JComponent {
     }
 
 
+    /**
+     * Added for JD-GUI.
+     *
+     * Returns the tool tip text of the notices of a row.
+     *
+     * @param notices The notices, at least one.
+     * @return The tool tip text.
+     */
+    private String getToolTipText(List<ParserNotice> notices) {
+
+        if (notices.size()==1) {
+            return notices.get(0).getMessage();
+        }
+
+        StringBuilder sb = new StringBuilder("<html>");
+        sb.append(msg.getString("MultipleMarkers"));
+        sb.append("<br>");
+        for (int i=0; i<notices.size(); i++) {
+            sb.append("&nbsp;&nbsp;&nbsp;- ");
+            if (i==MAX_TOOL_TIP_NOTICES) {
+                sb.append("...");
+                break;
+            }
+            sb.append(notices.get(i).getMessage());
+            sb.append("<br>");
+        }
+        return sb.toString();
+
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Returns the notices of the highest priority marker at a y-offset, and
+     * of the other markers painted at the same row.
+     *
+     * @param y The y-offset.
+     * @return The notices, highest priority first, at most
+     *         {@link #MAX_TOOL_TIP_NOTICES} + 1 of them.
+     */
+    private List<ParserNotice> getNoticesAt(int y) {
+
+        List<ParserNotice> notices = new ArrayList<ParserNotice>();
+        updateRows();
+
+        // Find the row of the highest marker under 'y'
+        int row = -1;
+        for (int kind=marks.length-1; kind>=0 && row==-1; kind--) {
+            int[] rows = marks[kind].rows;
+            for (int r=Math.max(0, y-MARKER_HEIGHT+1), max=Math.min(y, rows.length-1); r<=max; r++) {
+                if (rows[r]!=-1) {
+                    row = r;
+                    break;
+                }
+            }
+        }
+
+        if (row!=-1) {
+            for (int kind=marks.length-1; kind>=0; kind--) {
+                marks[kind].addNotices(row, notices);
+            }
+        }
+
+        return notices;
+
+    }
+
+
     /**
      * Returns the y-offset in this component corresponding to a line in the
      * text component.
@@ -359,6 +479,13 @@ public class RoundMarkErrorStrip extends JComponent {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        updateRows();
+        if (markerImage==null && getWidth()>0 && getHeight()>0) {
+            markerImage = createMarkerImage();
+        }
+        if (markerImage!=null) {
+            g.drawImage(markerImage, 0, 0, null);
+        }
         if (caretLineY>-1) {
             g.setColor(getCaretMarkerColor());
             g.fillRect(0, caretLineY, getWidth(), 2);
@@ -395,76 +522,212 @@ public class RoundMarkErrorStrip extends JComponent {
      * Refreshes the markers displayed in this error strip.
      */
     private void refreshMarkers() {
+        refreshParserNotices();
+        refreshMarkedOccurrences();
+        refreshMarkAll();
+    }
 
-        removeAll(); // listener is removed in Marker.removeNotify()
-        Map<Integer, Marker> markerMap = new HashMap<Integer, Marker>();
 
-        List<ParserNotice> notices = textArea.getParserNotices();
-        for (ParserNotice notice : notices) {
+    /**
+     * Added for JD-GUI.
+     *
+     * Refreshes the markers of the parser notices.
+     */
+    private void refreshParserNotices() {
+
+        // Group the notices by line
+        TreeMap<Integer, List<ParserNotice>> noticesByLine = new TreeMap<Integer, List<ParserNotice>>();
+
+        for (ParserNotice notice : textArea.getParserNotices()) {
             if (notice.getLevel().isEqualToOrWorseThan(levelThreshold) ||
                     (notice instanceof TaskNotice)) {
-                Integer key = Integer.valueOf(notice.getLine());
-                Marker m = markerMap.get(key);
-                if (m==null) {
-                    m = new Marker(notice);
-                    m.addMouseListener(listener);
-                    markerMap.put(key, m);
-                    add(m);
-                }
-                else {
-                    m.addNotice(notice);
+                List<ParserNotice> notices = noticesByLine.get(notice.getLine());
+                if (notices==null) {
+                    noticesByLine.put(notice.getLine(), notices = new ArrayList<ParserNotice>(1)); // Usually just 1
                 }
+                notices.add(notice);
             }
         }
 
-        if (getShowMarkedOccurrences() && textArea.getMarkOccurrences()) {
-            List<DocumentRange> occurrences = textArea.getMarkedOccurrences();
-            addMarkersForRanges(occurrences, markerMap, textArea.getMarkOccurrencesColor());
+        Marks m = marks[PARSER_NOTICES];
+        m.clear(noticesByLine.size(), null);
+        for (Map.Entry<Integer, List<ParserNotice>> entry : noticesByLine.entrySet()) {
+            m.add(entry.getKey(), entry.getValue());
         }
+        marksChanged(m);
 
-        if (getShowMarkAll() /*&& textArea.getMarkAll()*/) {
-            Color markAllColor = textArea.getMarkAllHighlightColor();
-            List<DocumentRange> ranges = textArea.getMarkAllHighlightRanges();
-            addMarkersForRanges(ranges, markerMap, markAllColor);
-        }
+    }
 
-        revalidate();
-        repaint();
 
+    /**
+     * Added for JD-GUI.
+     *
+     * Refreshes the markers of the marked occurrences.
+     */
+    private void refreshMarkedOccurrences() {
+        List<DocumentRange> ranges = (getShowMarkedOccurrences() && textArea.getMarkOccurrences()) ?
+                textArea.getMarkedOccurrences() : Collections.<DocumentRange>emptyList();
+        setRanges(marks[MARKED_OCCURRENCES], ranges, textArea.getMarkOccurrencesColor());
     }
 
 
     /**
-     * Adds markers for a list of ranges in the document.
+     * Added for JD-GUI.
      *
+     * Refreshes the markers of the "mark all" highlights.
+     */
+    private void refreshMarkAll() {
+        List<DocumentRange> ranges = getShowMarkAll() /*&& textArea.getMarkAll()*/ ?
+                textArea.getMarkAllHighlightRanges() : Collections.<DocumentRange>emptyList();
+        setRanges(marks[MARK_ALL], ranges, textArea.getMarkAllHighlightColor());
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Sets the marks of a list of ranges in the document: the first range of
+     * each line.
+     *
+     * @param m The marks.
      * @param ranges The list of ranges in the document.
-     * @param markerMap A mapping from line number to <code>Marker</code>.
      * @param color The color to use for the markers.
      */
-    private void addMarkersForRanges(List<DocumentRange> ranges,
-                                     Map<Integer, Marker> markerMap, Color color) {
-        for (DocumentRange range : ranges) {
-            int line = 0;
+    private void setRanges(Marks m, List<DocumentRange> ranges, Color color) {
+
+        // Sort by line then by index, packed in longs
+        int size = ranges.size();
+        long[] keys = new long[size];
+        int count = 0;
+
+        for (int i=0; i<size; i++) {
             try {
-                line = textArea.getLineOfOffset(range.getStartOffset());
+                long line = textArea.getLineOfOffset(ranges.get(i).getStartOffset()) + 1;
+                keys[count++] = (line << 32) | i;
             } catch (BadLocationException ble) { // Never happens
-                continue;
             }
-            ParserNotice notice = new MarkedOccurrenceNotice(range, color);
-            Integer key = Integer.valueOf(line);
-            Marker m = markerMap.get(key);
-            if (m==null) {
-                m = new Marker(notice);
-                m.addMouseListener(listener);
-                markerMap.put(key, m);
-                add(m);
+        }
+
+        Arrays.sort(keys, 0, count);
+
+        m.clear(count, color);
+        int lastLine = -1;
+        for (int i=0; i<count; i++) {
+            int line = (int)(keys[i] >>> 32);
+            if (line!=lastLine) {
+                m.add(line, ranges.get((int)keys[i]));
+                lastLine = line;
             }
-            else {
-                if (!m.containsMarkedOccurence()) {
-                    m.addNotice(notice);
+        }
+        marksChanged(m);
+
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Recomputes the rows of some marks and repaints.
+     *
+     * @param m The marks.
+     */
+    private void marksChanged(Marks m) {
+        if (rowsHeight!=-1) {
+            m.updateRows();
+        }
+        markerImage = null;
+        repaint();
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Recomputes the rows of all the marks if the geometry changed.
+     */
+    private void updateRows() {
+        int height = getHeight();
+        int visibleHeight = textArea.getVisibleRect().height;
+        int lineCount = textArea.getLineCount();
+
+        if (height!=rowsHeight || visibleHeight!=rowsVisibleHeight || lineCount!=rowsLineCount) {
+            rowsHeight = height;
+            rowsVisibleHeight = visibleHeight;
+            rowsLineCount = lineCount;
+            for (Marks m : marks) {
+                m.updateRows();
+            }
+            markerImage = null;
+        }
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Paints the markers of all the rows, from the lowest to the highest
+     * priority.
+     *
+     * @return The image.
+     */
+    private BufferedImage createMarkerImage() {
+
+        BufferedImage image = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics g = image.createGraphics();
+
+        for (Marks m : marks) {
+            int[] rows = m.rows;
+            for (int y=0; y<rows.length; y++) {
+                if (rows[y]!=-1) {
+                    paintMarker(g, y, m.getColor(rows[y]));
                 }
             }
         }
+
+        g.dispose();
+        return image;
+
+    }
+
+
+    /**
+     * Added for JD-GUI.
+     *
+     * Paints a round marker.
+     *
+     * @param g The graphics context.
+     * @param y The y-offset of the marker.
+     * @param color The color of the marker.
+     */
+    private void paintMarker(Graphics g, int y, Color color) {
+
+        if (color==null) {
+            color = Color.GRAY;
+        }
+
+        Color brighterColor = getBrighterColor(color);
+        Color darkerColor = getDarkerColor(color);
+
+        int x = 2;
+        int w = MARKER_WIDTH;
+        int h = MARKER_HEIGHT;
+
+        // Draw background
+        g.setColor(color);
+        g.fillRect(x,y, w,h);
+
+        // Draw border
+        w--;
+        h--;
+
+        g.setColor(darkerColor);
+        g.drawLine(x+w,y, x+w,y+h);
+        g.drawLine(x,y+h, x+w,y+h);
+
+        g.setColor(brighterColor);
+        g.drawLine(x,y, x+w,y);
+        g.drawLine(x,y, x,y+h);
+
     }
 
 
@@ -532,7 +795,7 @@ public class RoundMarkErrorStrip extends JComponent {
     public void setLevelThreshold(ParserNotice.Level level) {
         levelThreshold = level;
         if (isDisplayable()) {
-            refreshMarkers();
+            refreshParserNotices();
         }
     }
 
@@ -547,7 +810,7 @@ public class RoundMarkErrorStrip extends JComponent {
         if (show!=showMarkAll) {
             showMarkAll = show;
             if (isDisplayable()) { // Skip this when we're first created
-                refreshMarkers();
+                refreshMarkAll();
             }
         }
     }
@@ -563,7 +826,7 @@ public class RoundMarkErrorStrip extends JComponent {
         if (show!=showMarkedOccurrences) {
             showMarkedOccurrences = show;
             if (isDisplayable()) { // Skip this when we're first created
-                refreshMarkers();
+                refreshMarkedOccurrences();
             }
         }
     }
@@ -589,7 +852,7 @@ public class RoundMarkErrorStrip extends JComponent {
 
 
     /**
-     * Listens for events in the error strip and its markers.
+     * Listens for events in the error strip.
      */
     private class Listener extends MouseAdapter
             implements PropertyChangeListener, CaretListener {
@@ -613,9 +876,24 @@ public class RoundMarkErrorStrip extends JComponent {
         @Override
         public void mouseClicked(MouseEvent e) {
 
-            Component source = (Component)e.getSource();
-            if (source instanceof Marker) {
-                ((Marker)source).mouseClicked(e);
+            List<ParserNotice> notices = getNoticesAt(e.getY());
+            if (!notices.isEmpty()) {
+                ParserNotice pn = notices.get(0);
+                int offs = pn.getOffset();
+                int len = pn.getLength();
+                if (offs>-1 && len>-1) { // These values are optional
+                    textArea.setSelectionStart(offs);
+                    textArea.setSelectionEnd(offs+len);
+                }
+                else {
+                    int line = pn.getLine();
+                    try {
+                        offs = textArea.getLineStartOffset(line);
+                        textArea.setCaretPosition(offs);
+                    } catch (BadLocationException ble) { // Never happens
+                        UIManager.getLookAndFeel().provideErrorFeedback(textArea);
+                    }
+                }
                 return;
             }
 
@@ -631,6 +909,22 @@ public class RoundMarkErrorStrip extends JComponent {
 
         }
 
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            updateRows();
+            boolean overMarker = false;
+            for (Marks m : marks) {
+                int[] rows = m.rows;
+                for (int r=Math.max(0, e.getY()-MARKER_HEIGHT+1), max=Math.min(e.getY(), rows.length-1); r<=max; r++) {
+                    if (rows[r]!=-1) {
+                        overMarker = true;
+                        break;
+                    }
+                }
+            }
+            setCursor(overMarker ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : null);
+        }
+
         public void propertyChange(PropertyChangeEvent e) {
 
             String propName = e.getPropertyName();
@@ -638,31 +932,28 @@ public class RoundMarkErrorStrip extends JComponent {
             // If they change whether marked occurrences are visible in editor
             if (RSyntaxTextArea.MARK_OCCURRENCES_PROPERTY.equals(propName)) {
                 if (getShowMarkedOccurrences()) {
-                    refreshMarkers();
+                    refreshMarkedOccurrences();
                 }
             }
 
             // If parser notices changed.
-            // TODO: Don't update "mark all/occurrences" markers.
             else if (RSyntaxTextArea.PARSER_NOTICES_PROPERTY.equals(propName)) {
-                refreshMarkers();
+                refreshParserNotices();
             }
 
             // If marked occurrences changed.
-            // TODO: Only update "mark occurrences" markers, not all of them.
             else if (RSyntaxTextArea.MARKED_OCCURRENCES_CHANGED_PROPERTY.
                     equals(propName)) {
                 if (getShowMarkedOccurrences()) {
-                    refreshMarkers();
+                    refreshMarkedOccurrences();
                 }
             }
 
             // If "mark all" occurrences changed.
-            // TODO: Only update "mark all" markers, not all of them.
             else if (RTextArea.MARK_ALL_OCCURRENCES_CHANGED_PROPERTY.
                     equals(propName)) {
                 if (getShowMarkAll()) {
-                    refreshMarkers();
+                    refreshMarkAll();
                 }
             }
 
@@ -766,40 +1057,75 @@ public class RoundMarkErrorStrip extends JComponent {
 
 
     /**
-     * A "marker" in this error strip, representing one or more notices.
+     * Added for JD-GUI.
+     *
+     * The marks of one kind, sorted by line, and the pixel rows of their
+     * markers.
      */
-    private class Marker extends JComponent {
+    private class Marks {
+
+        private int[] lines = new int[0];
+
+        /**
+         * For each mark, the list of parser notices of its line, or its first
+         * range.
+         */
+        private Object[] items = new Object[0];
+        private int count;
 
-        private List<ParserNotice> notices;
+        /**
+         * The color of the ranges.
+         */
+        private Color color;
+
+        /**
+         * For each pixel row, the index of the first mark painted at this
+         * row, or -1.
+         */
+        private int[] rows = new int[0];
+
+        public void clear(int capacity, Color color) {
+            if (lines.length<capacity || lines.length>2*capacity+16) {
+                lines = new int[capacity];
+                items = new Object[capacity];
+            } else {
+                Arrays.fill(items, null);
+            }
+            count = 0;
+            this.color = color;
+        }
 
-        public Marker(ParserNotice notice) {
-            notices = new ArrayList<ParserNotice>(1); // Usually just 1
-            addNotice(notice);
-            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-            setSize(getPreferredSize());
-            ToolTipManager.sharedInstance().registerComponent(this);
+        public void add(int line, Object item) {
+            lines[count] = line;
+            items[count++] = item;
         }
 
-        public void addNotice(ParserNotice notice) {
-            notices.add(notice);
+        public int getRow(int index) {
+            return Math.max(0, lineToY(lines[index]));
         }
 
-        public boolean containsMarkedOccurence() {
-            boolean result = false;
-            for (int i=0; i<notices.size(); i++) {
-                if (notices.get(i) instanceof MarkedOccurrenceNotice) {
-                    result = true;
-                    break;
+        public void updateRows() {
+            if (rows.length!=rowsHeight) {
+                rows = new int[Math.max(0, rowsHeight)];
+            }
+            Arrays.fill(rows, -1);
+            for (int i=0; i<count; i++) {
+                int y = getRow(i);
+                if (y<rows.length && rows[y]==-1) {
+                    rows[y] = i;
                 }
             }
-            return result;
         }
 
-        public Color getColor() {
+        @SuppressWarnings("unchecked")
+        public Color getColor(int index) {
+            if (items[index] instanceof DocumentRange) {
+                return color;
+            }
             // Return the color for the highest-level parser.
             Color c = null;
             int lowestLevel = Integer.MAX_VALUE; // ERROR is 0
-            for (ParserNotice notice : notices) {
+            for (ParserNotice notice : (List<ParserNotice>)items[index]) {
                 if (notice.getLevel().getNumericValue()<lowestLevel) {
                     lowestLevel = notice.getLevel().getNumericValue();
                     c = notice.getColor();
@@ -808,104 +1134,29 @@ public class RoundMarkErrorStrip extends JComponent {
             return c;
         }
 
-        @Override
-        public Dimension getPreferredSize() {
-            int w = PREFERRED_WIDTH - 4; // 2-pixel empty border
-            return new Dimension(w, 5);
-        }
-
-        @Override
-        public String getToolTipText() {
-
-            String text = null;
-
-            if (notices.size()==1) {
-                text = notices.get(0).getMessage();
+        /**
+         * Adds the notices of the marks painted at a row, up to
+         * {@link #MAX_TOOL_TIP_NOTICES} + 1 notices.
+         */
+        @SuppressWarnings("unchecked")
+        public void addNotices(int row, List<ParserNotice> notices) {
+            if (row>=rows.length || rows[row]==-1) {
+                return;
             }
-            else { // > 1
-                StringBuilder sb = new StringBuilder("<html>");
-                sb.append(msg.getString("MultipleMarkers"));
-                sb.append("<br>");
-                for (int i=0; i<notices.size(); i++) {
-                    ParserNotice pn = notices.get(i);
-                    sb.append("&nbsp;&nbsp;&nbsp;- ");
-                    sb.append(pn.getMessage());
-                    sb.append("<br>");
+            // The marks are sorted by line: the marks of a row are consecutive
+            for (int i=rows[row]; i<count && getRow(i)==row; i++) {
+                if (notices.size()>MAX_TOOL_TIP_NOTICES) {
+                    return;
                 }
-                text = sb.toString();
-            }
-
-            return text;
-
-        }
-
-        protected void mouseClicked(MouseEvent e) {
-            ParserNotice pn = notices.get(0);
-            int offs = pn.getOffset();
-            int len = pn.getLength();
-            if (offs>-1 && len>-1) { // These values are optional
-                textArea.setSelectionStart(offs);
-                textArea.setSelectionEnd(offs+len);
-            }
-            else {
-                int line = pn.getLine();
-                try {
-                    offs = textArea.getLineStartOffset(line);
-                    textArea.setCaretPosition(offs);
-                } catch (BadLocationException ble) { // Never happens
-                    UIManager.getLookAndFeel().provideErrorFeedback(textArea);
+                if (items[i] instanceof DocumentRange) {
+                    notices.add(new MarkedOccurrenceNotice((DocumentRange)items[i], color));
+                } else {
+                    notices.addAll((List<ParserNotice>)items[i]);
                 }
             }
         }
 
-        @Override
-        protected void paintComponent(Graphics g) {
-
-            // TODO: Give "priorities" and always pick color of a notice with
-            // highest priority (e.g. parsing errors will usually be red).
-
-            Color color = getColor();
-            if (color==null) {
-                color = Color.GRAY;
-            }
-
-            Color brighterColor = getBrighterColor(color);
-            Color darkerColor = getDarkerColor(color);
-
-            int w = getWidth();
-            int h = getHeight();
-
-            // Draw background
-            g.setColor(color);
-            g.fillRect(0,0, w,h);
-
-            // Draw border
-            w--;
-            h--;
-
-            g.setColor(darkerColor);
-            g.drawLine(w,0, w,h);
-            g.drawRect(0,h, w,h);
-
-            g.setColor(brighterColor);
-            g.drawLine(0,0, w,0);
-            g.drawRect(0,0, 0,h);
-        }
-
-        @Override
-        public void removeNotify() {
-            super.removeNotify();
-            ToolTipManager.sharedInstance().unregisterComponent(this);
-            removeMouseListener(listener);
-        }
-
-        public void updateLocation() {
-            int line = notices.get(0).getLine();
-            int y = lineToY(line);
-            setLocation(2, y);
-        }
-
     }
 
 
-}
\ No newline at end of file
+}
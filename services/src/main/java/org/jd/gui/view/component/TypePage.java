@@ -15,35 +15,179 @@ import org.jd.gui.api.feature.UriGettable;
 import org.jd.gui.api.feature.UriOpenable;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
-import org.jd.gui.api.model.Type;
+import org.jd.gui.util.collection.SymbolKeyMap;
 import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
+import org.jd.gui.util.index.MemberResolutionCache;
 import org.jd.gui.util.matcher.DescriptorMatcher;
 
+import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.BiFunction;
+import java.util.function.IntUnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public abstract class TypePage extends CustomLineNumbersPage implements UriGettable, UriOpenable, IndexesChangeListener, FocusedTypeGettable {
+public abstract class TypePage extends CustomLineNumbersPage implements UriGettable, UriOpenable, IndexesChangeListener, FocusedTypeGettable, PageMemoryBudget.Evictable {
+    protected static final ExecutorService RESOLVER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jd-gui-hyperlink-resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Estimated memory used per character of text: document, token lists, views, hyperlinks and declarations
+     */
+    protected static final int CHARACTER_WEIGHT = 24;
+
     protected API api;
     protected Container.Entry entry;
     protected Collection<Future<Indexes>> collectionOfFutureIndexes = Collections.emptyList();
 
-    protected HashMap<String, DeclarationData> declarations = new HashMap<>();
+    protected SymbolKeyMap<DeclarationData> declarations = new SymbolKeyMap<>('-');
     protected TreeMap<Integer, DeclarationData> typeDeclarations = new TreeMap<>();
     protected ArrayList<ReferenceData> references = new ArrayList<>();
     protected ArrayList<StringData> strings = new ArrayList<>();
+    protected int resolutionVersion;
+
+    protected boolean contentEvicted;
+    protected int evictedCaretPosition;
+    protected Point evictedViewPosition;
 
     public TypePage(API api, Container.Entry entry) {
         // Init attributes
         this.api = api;
         this.entry = entry;
+
+        addHierarchyListener(e -> {
+            if (((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) && isShowing()) {
+                contentShown();
+            }
+        });
+    }
+
+    // --- Content eviction --- //
+    /**
+     * @return true if {@link #loadContent()} rebuilds the content of this page
+     */
+    protected boolean isContentReloadable() { return false; }
+
+    /**
+     * Rebuild the text, the declarations, the references, the hyperlinks and the strings after an eviction.
+     */
+    protected void loadContent() {}
+
+    protected void contentShown() {
+        if (isContentReloadable()) {
+            if (contentEvicted) {
+                restoreContent();
+            }
+            PageMemoryBudget.getInstance().pageShown(this);
+        }
+    }
+
+    @Override
+    protected void textLoaded() {
+        super.textLoaded();
+
+        if (isContentReloadable() && !contentEvicted) {
+            // The text is loaded after the page is shown: count its actual weight
+            PageMemoryBudget.getInstance().contentLoaded(this);
+        }
+    }
+
+    protected void restoreContent() {
+        contentEvicted = false;
+        loadContent();
+
+        int caretPosition = evictedCaretPosition;
+        Point viewPosition = evictedViewPosition;
+
+        runWhenTextLoaded(() -> {
+            textArea.setCaretPosition(Math.min(caretPosition, textArea.getDocument().getLength()));
+            SwingUtilities.invokeLater(() -> scrollPane.getViewport().setViewPosition(viewPosition));
+        });
+
+        if (!collectionOfFutureIndexes.isEmpty()) {
+            indexesChanged(collectionOfFutureIndexes);
+        }
+    }
+
+    @Override
+    public long getContentWeight() {
+        return contentEvicted ? 0 : (long)textArea.getDocument().getLength() * CHARACTER_WEIGHT;
+    }
+
+    /**
+     * Release the text and the position data, keep the entry, the caret and the scroll position.
+     */
+    @Override
+    public void evictContent() {
+        if (!contentEvicted) {
+            evictedCaretPosition = textArea.getCaretPosition();
+            evictedViewPosition = scrollPane.getViewport().getViewPosition();
+            contentEvicted = true;
+            // Ignore the pending resolutions
+            resolutionVersion++;
+
+            clearHyperlinks();
+            lineNumberMap = null;
+            maxLineNumber = 0;
+            declarations.clear();
+            typeDeclarations.clear();
+            references.clear();
+            strings.clear();
+            textArea.getHighlighter().removeAllHighlights();
+            Marker.clearMarkAllHighlights(textArea);
+            // Also cancel a text loading
+            textLoadedActions.clear();
+            setText("");
+            textArea.discardAllEdits();
+        }
+    }
+
+    /**
+     * Move hyperlinks, declarations and strings after a text edit.
+     *
+     * @param shift monotonic function mapping old offsets to new offsets
+     */
+    protected void shiftPositions(IntUnaryOperator shift) {
+        shiftHyperlinks(shift);
+
+        // Type declarations are also registered in 'declarations'
+        Set<DeclarationData> shifted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (DeclarationData data : declarations.values()) {
+            if (shifted.add(data)) {
+                data.startPosition = shift.applyAsInt(data.startPosition);
+                data.endPosition = shift.applyAsInt(data.endPosition);
+            }
+        }
+
+        TreeMap<Integer, DeclarationData> shiftedTypeDeclarations = new TreeMap<>();
+
+        for (DeclarationData data : typeDeclarations.values()) {
+            if (shifted.add(data)) {
+                data.startPosition = shift.applyAsInt(data.startPosition);
+                data.endPosition = shift.applyAsInt(data.endPosition);
+            }
+            shiftedTypeDeclarations.put(data.startPosition, data);
+        }
+
+        typeDeclarations.clear();
+        typeDeclarations.putAll(shiftedTypeDeclarations);
+
+        for (StringData data : strings) {
+            data.startPosition = shift.applyAsInt(data.startPosition);
+            data.endPosition = shift.applyAsInt(data.endPosition);
+        }
     }
 
     @Override
@@ -110,6 +254,13 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
      */
     @Override
     public boolean openUri(URI uri) {
+        if (contentEvicted) {
+            restoreContent();
+        }
+        if (deferUntilTextLoaded(() -> openUri(uri))) {
+            return true;
+        }
+
         ArrayList<DocumentRange> ranges = new ArrayList<>();
         String fragment = uri.getFragment();
         String query = uri.getQuery();
@@ -158,7 +309,7 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
         return true;
     }
 
-    public static void matchFragmentAndAddDocumentRange(String fragment, HashMap<String, DeclarationData> declarations, List<DocumentRange> ranges) {
+    public static void matchFragmentAndAddDocumentRange(String fragment, Map<String, DeclarationData> declarations, List<DocumentRange> ranges) {
         if ((fragment.indexOf('?') != -1) || (fragment.indexOf('*') != -1)) {
             // Unknown type and/or descriptor ==> Select all and scroll to the first one
             int lastDash = fragment.lastIndexOf('-');
@@ -227,7 +378,7 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
 
     public static void matchQueryAndAddDocumentRange(
             Map<String, String> parameters,
-            HashMap<String, DeclarationData> declarations, TreeMap<Integer, HyperlinkData> hyperlinks, ArrayList<StringData> strings,
+            Map<String, DeclarationData> declarations, Iterable<? extends HyperlinkData> hyperlinks, ArrayList<StringData> strings,
             List<DocumentRange> ranges) {
 
         String highlightFlags = parameters.get("highlightFlags");
@@ -261,9 +412,7 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
 
             if (highlightFlags.indexOf('d') != -1) {
                 // Highlight declarations
-                for (Map.Entry<String, DeclarationData> entry : declarations.entrySet()) {
-                    DeclarationData declaration = entry.getValue();
-
+                for (DeclarationData declaration : declarations.values()) {
                     if (matchScope(highlightScope, declaration.typeName)) {
                         if ((t && declaration.isAType()) || (c && declaration.isAConstructor())) {
                             matchAndAddDocumentRange(pattern, getMostInnerTypeName(declaration.typeName), declaration.startPosition, declaration.endPosition, ranges);
@@ -277,8 +426,7 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
 
             if (highlightFlags.indexOf('r') != -1) {
                 // Highlight references
-                for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-                    HyperlinkData hyperlink = entry.getValue();
+                for (HyperlinkData hyperlink : hyperlinks) {
                     ReferenceData reference = ((HyperlinkReferenceData)hyperlink).reference;
 
                     if (matchScope(highlightScope, reference.owner)) {
@@ -336,126 +484,79 @@ public abstract class TypePage extends CustomLineNumbersPage implements UriGetta
     public void indexesChanged(Collection<Future<Indexes>> collectionOfFutureIndexes) {
         // Update the list of containers
         this.collectionOfFutureIndexes = collectionOfFutureIndexes;
-        // Refresh links
-        boolean refresh = false;
+        // Refresh links in background: the resolutions are shared by all pages
+        int version = ++resolutionVersion;
+        ReferenceData[] references = this.references.toArray(new ReferenceData[0]);
+        String[] typeNames = new String[references.length];
 
-        for (ReferenceData reference : references) {
-            String typeName = reference.typeName;
-            boolean enabled;
+        for (int i=0; i<references.length; i++) {
+            typeNames[i] = references[i].typeName;
+        }
 
-            if (reference.name == null) {
-                enabled = false;
+        RESOLVER.execute(() -> {
+            String[] resolvedTypeNames = resolveReferences(collectionOfFutureIndexes, references, typeNames);
 
-                try {
-                    for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                        if (futureIndexes.isDone()) {
-                            Map<String, Collection> index = futureIndexes.get().getIndex("typeDeclarations");
-                            if ((index != null) && (index.get(typeName) != null)) {
-                                enabled = true;
-                                break;
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    ExceptionUtil.printStackTrace(e);
+            SwingUtilities.invokeLater(() -> {
+                if (version != resolutionVersion) {
+                    // Outdated
+                    return;
                 }
-            } else {
-                try {
-                    // Recursive search
-                    typeName = searchTypeHavingMember(typeName, reference.name, reference.descriptor, entry);
-                    if (typeName != null) {
-                        // Replace type with the real type having the referenced member
-                        reference.typeName = typeName;
-                        enabled = true;
-                    } else {
-                        enabled = false;
-                    }
-                } catch (Error e) {
-                    // Catch StackOverflowError or OutOfMemoryError
-                    ExceptionUtil.printStackTrace(e);
-                    enabled = false;
-                }
-            }
 
-            if (reference.enabled != enabled) {
-                reference.enabled = enabled;
-                refresh = true;
-            }
-        }
+                boolean refresh = false;
 
-        if (refresh) {
-            textArea.repaint();
-        }
-    }
+                for (int i=0; i<references.length; i++) {
+                    ReferenceData reference = references[i];
+                    boolean enabled = (resolvedTypeNames[i] != null);
 
-    @SuppressWarnings("unchecked")
-    protected String searchTypeHavingMember(String typeName, String name, String descriptor, Container.Entry entry) {
-        ArrayList<Container.Entry> entries = new ArrayList<>();
-
-        try {
-            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                if (futureIndexes.isDone()) {
-                    Map<String, Collection> index = futureIndexes.get().getIndex("typeDeclarations");
-                    if (index != null) {
-                        Collection<Container.Entry> collection = index.get(typeName);
-                        if (collection != null) {
-                            entries.addAll(collection);
-                        }
+                    if (enabled) {
+                        // Replace type with the real type having the referenced member
+                        reference.typeName = resolvedTypeNames[i];
+                    }
+
+                    if (reference.enabled != enabled) {
+                        reference.enabled = enabled;
+                        refresh = true;
                     }
                 }
-            }
-        } catch (Exception e) {
-            ExceptionUtil.printStackTrace(e);
-        }
 
+                if (refresh) {
+                    textArea.repaint();
+                }
+            });
+        });
+    }
+
+    /**
+     * Called by the resolver thread.
+     *
+     * @return for each reference, the name of the type declaring the referenced type or member, or null
+     */
+    protected String[] resolveReferences(Collection<Future<Indexes>> collectionOfFutureIndexes, ReferenceData[] references, String[] typeNames) {
+        MemberResolutionCache cache = MemberResolutionCache.getInstance();
         String rootUri = entry.getContainer().getRoot().getUri().toString();
-        ArrayList<Container.Entry> sameContainerEntries = new ArrayList<>();
+        String[] resolvedTypeNames = new String[references.length];
 
-        for (Container.Entry e : entries) {
-            if (e.getUri().toString().startsWith(rootUri)) {
-                sameContainerEntries.add(e);
-            }
-        }
+        cache.update(collectionOfFutureIndexes);
 
-        if (sameContainerEntries.size() > 0) {
-            return searchTypeHavingMember(typeName, name, descriptor, sameContainerEntries);
-        } else {
-            return searchTypeHavingMember(typeName, name, descriptor, entries);
-        }
-    }
+        for (int i=0; i<references.length; i++) {
+            ReferenceData reference = references[i];
 
-    protected String searchTypeHavingMember(String typeName, String name, String descriptor, List<Container.Entry> entries) {
-        for (Container.Entry entry : entries) {
-            Type type = api.getTypeFactory(entry).make(api, entry, typeName);
-
-            if (type != null) {
-                if (descriptor.indexOf('(') == -1) {
-                    // Search a field
-                    for (Type.Field field : type.getFields()) {
-                        if (field.getName().equals(name) && DescriptorMatcher.matchFieldDescriptors(field.getDescriptor(), descriptor)) {
-                            // Field found
-                            return typeName;
-                        }
-                    }
-                } else {
-                    // Search a method
-                    for (Type.Method method : type.getMethods()) {
-                        if (method.getName().equals(name) && DescriptorMatcher.matchMethodDescriptors(method.getDescriptor(), descriptor)) {
-                            // Method found
-                            return typeName;
-                        }
-                    }
+            if (reference.name == null) {
+                if (IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, typeNames[i])) {
+                    resolvedTypeNames[i] = typeNames[i];
                 }
-
-                // Not found -> Search in super type
-                String typeOwnerName = searchTypeHavingMember(type.getSuperName(), name, descriptor, entry);
-                if (typeOwnerName != null) {
-                    return typeOwnerName;
+            } else {
+                try {
+                    // Recursive search
+                    resolvedTypeNames[i] = cache.resolve(api, collectionOfFutureIndexes, rootUri, typeNames[i], reference.name, reference.descriptor);
+                } catch (Error e) {
+                    // Catch StackOverflowError or OutOfMemoryError
+                    ExceptionUtil.printStackTrace(e);
                 }
             }
         }
 
-        return null;
+        return resolvedTypeNames;
     }
 
     public static class StringData {
@@ -24,6 +24,10 @@ public abstract class TypeReferencePage extends HyperlinkPage {
 
     // --- UriOpenable --- //
     public boolean openUri(URI uri) {
+        if (deferUntilTextLoaded(() -> openUri(uri))) {
+            return true;
+        }
+
         ArrayList<DocumentRange> ranges = new ArrayList<>();
         String query = uri.getQuery();
 
@@ -73,8 +77,8 @@ public abstract class TypeReferencePage extends HyperlinkPage {
                         // Highlight type references
                         Pattern pattern = Pattern.compile(regexp + ".*");
 
-                        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-                            TypeHyperlinkData hyperlink = (TypeHyperlinkData)entry.getValue();
+                        for (HyperlinkData hyperlinkData : hyperlinks) {
+                            TypeHyperlinkData hyperlink = (TypeHyperlinkData)hyperlinkData;
                             String name = getMostInnerTypeName(hyperlink.internalTypeName);
 
                             if (pattern.matcher(name).matches()) {
@@ -17,6 +17,7 @@ import org.jd.gui.util.exception.ExceptionUtil;
 import org.jd.gui.util.index.IndexesUtil;
 import org.jd.gui.util.io.TextReader;
 import org.jd.gui.util.xml.AbstractXmlPathFinder;
+import org.jd.gui.util.xml.XmlPathMatcher;
 
 import java.awt.*;
 import java.net.URI;
@@ -135,8 +136,8 @@ public class WebXmlFilePage extends TypeReferencePage implements UriGettable, In
         // Refresh links
         boolean refresh = false;
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            TypeHyperlinkData data = (TypeHyperlinkData)entry.getValue();
+        for (HyperlinkData hyperlinkData : hyperlinks) {
+            TypeHyperlinkData data = (TypeHyperlinkData)hyperlinkData;
             boolean enabled;
 
             if (data instanceof PathHyperlinkData) {
@@ -189,9 +190,11 @@ public class WebXmlFilePage extends TypeReferencePage implements UriGettable, In
         hyperlinkPaths.addAll(pathHyperlinkPaths);
     }
 
+    protected static XmlPathMatcher hyperlinkPathMatcher = new XmlPathMatcher(hyperlinkPaths);
+
     public class PathFinder extends AbstractXmlPathFinder {
         public PathFinder() {
-            super(hyperlinkPaths);
+            super(hyperlinkPathMatcher);
         }
 
         public void handle(String path, String text, int position) {
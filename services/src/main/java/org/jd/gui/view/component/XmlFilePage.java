@@ -23,7 +23,6 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -113,8 +112,8 @@ public class XmlFilePage extends TypeReferencePage implements UriGettable, Index
         // Refresh links
         boolean refresh = false;
 
-        for (Map.Entry<Integer, HyperlinkData> entry : hyperlinks.entrySet()) {
-            TypeHyperlinkData data = (TypeHyperlinkData)entry.getValue();
+        for (HyperlinkData hyperlinkData : hyperlinks) {
+            TypeHyperlinkData data = (TypeHyperlinkData)hyperlinkData;
             String internalTypeName = data.internalTypeName;
             boolean enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, internalTypeName);
 
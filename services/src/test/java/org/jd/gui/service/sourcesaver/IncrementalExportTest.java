@@ -0,0 +1,238 @@
+package org.jd.gui.service.sourcesaver;
+
+import junit.framework.TestCase;
+import org.jd.gui.util.io.StreamingZipReader;
+import org.jd.gui.util.io.StreamingZipWriter;
+import org.junit.Assert;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class IncrementalExportTest extends TestCase {
+
+    public void testReuse() throws Exception {
+        Path dir = Files.createTempDirectory("jd-gui.");
+        Path path = dir.resolve("test.src.zip");
+        Map<String, String> preferences = new HashMap<>();
+        preferences.put("JdGuiPreferences.jdCoreVersion", "1.1.3");
+
+        // First export
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+            Assert.assertNull(export.getPreviousRecord("org/jd/Test.java"));
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                writer.put(StreamingZipWriter.deflate("org/jd/Test.java", "class Test {}".getBytes(StandardCharsets.UTF_8)));
+                export.put("org/jd/Test.java", new IncrementalExport.Record("0123", Arrays.asList("org/jd/Test", "org/jd/Test$Inner")));
+                export.finish();
+            }
+        }
+
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.journal")));
+
+        // Same settings
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+            Assert.assertFalse(Files.exists(path));
+
+            IncrementalExport.Record record = export.getPreviousRecord("org/jd/Test.java");
+            Assert.assertNotNull(record);
+            Assert.assertEquals("0123", record.getDigest());
+            Assert.assertEquals(Arrays.asList("org/jd/Test", "org/jd/Test$Inner"), record.getInternalNames());
+            Assert.assertTrue(record.isMetadata());
+            Assert.assertEquals("class Test {}", new String(export.readPrevious("org/jd/Test.java"), StandardCharsets.UTF_8));
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                export.put("org/jd/Test.java", new IncrementalExport.Record("4567", Collections.emptyList()));
+                export.finish();
+            }
+        }
+
+        // Other settings
+        preferences.put("ClassFileSaverPreferences.writeLineNumbers", "false");
+
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+            Assert.assertNull(export.getPreviousRecord("org/jd/Test.java"));
+        }
+
+        // Unfinished export: the previous archive is restored
+        Assert.assertTrue(Files.exists(path));
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.previous")));
+        Files.delete(path);
+        Files.delete(dir);
+    }
+
+    public void testResumeAfterCrash() throws Exception {
+        Path dir = Files.createTempDirectory("jd-gui.");
+        Path path = dir.resolve("test.src.zip");
+        Map<String, String> preferences = new HashMap<>();
+
+        // Complete export
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                writer.put(StreamingZipWriter.deflate("org/jd/A.java", "class A {}".getBytes(StandardCharsets.UTF_8)));
+                export.put("org/jd/A.java", new IncrementalExport.Record("0A", Collections.emptyList()));
+                writer.put(StreamingZipWriter.deflate("org/jd/C.java", "class C {}".getBytes(StandardCharsets.UTF_8)));
+                export.put("org/jd/C.java", new IncrementalExport.Record("0C", Collections.emptyList()));
+                export.finish();
+            }
+        }
+
+        // Crash: neither the central directory nor the manifest are written, the export is not closed
+        IncrementalExport crashed = new IncrementalExport(preferences);
+        crashed.open(path);
+
+        try (OutputStream os = Files.newOutputStream(path)) {
+            StreamingZipWriter writer = new StreamingZipWriter(os);
+
+            crashed.begin(writer);
+            writer.put(StreamingZipWriter.deflate("org/jd/A.java", "class A { int i; }".getBytes(StandardCharsets.UTF_8)));
+            crashed.put("org/jd/A.java", new IncrementalExport.Record("1A", Collections.emptyList()));
+            crashed.checkpoint();
+            writer.put(StreamingZipWriter.deflate("org/jd/B.java", "class B {}".getBytes(StandardCharsets.UTF_8)));
+            crashed.put("org/jd/B.java", new IncrementalExport.Record("1B", Collections.emptyList()));
+        }
+
+        Assert.assertTrue(Files.exists(dir.resolve("test.src.zip.journal")));
+        Assert.assertTrue(Files.exists(dir.resolve("test.src.zip.previous")));
+
+        // Resume: the interrupted export first, then the last complete archive
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            Assert.assertEquals("1A", export.getPreviousRecord("org/jd/A.java").getDigest());
+            Assert.assertEquals("class A { int i; }", new String(export.readPrevious("org/jd/A.java"), StandardCharsets.UTF_8));
+            Assert.assertNull(export.getPreviousRecord("org/jd/B.java"));
+            Assert.assertEquals("0C", export.getPreviousRecord("org/jd/C.java").getDigest());
+            Assert.assertEquals("class C {}", new String(export.readPrevious("org/jd/C.java"), StandardCharsets.UTF_8));
+        }
+
+        // Not started: the last complete archive is back, the interrupted one is kept aside with its journal
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.previous")));
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.journal")));
+
+        try (StreamingZipReader reader = new StreamingZipReader(path)) {
+            Assert.assertEquals("class A {}", new String(reader.read("org/jd/A.java"), StandardCharsets.UTF_8));
+        }
+
+        Files.delete(dir.resolve("test.src.zip.partial.journal"));
+        Files.delete(dir.resolve("test.src.zip.partial"));
+        Files.delete(path);
+        Files.delete(dir);
+    }
+
+    public void testRestoreAfterFailure() throws Exception {
+        Path dir = Files.createTempDirectory("jd-gui.");
+        Path path = dir.resolve("test.src.zip");
+        Map<String, String> preferences = new HashMap<>();
+
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                writer.put(StreamingZipWriter.deflate("org/jd/A.java", "class A {}".getBytes(StandardCharsets.UTF_8)));
+                export.put("org/jd/A.java", new IncrementalExport.Record("0A", Collections.emptyList()));
+                export.finish();
+            }
+        }
+
+        // Export failing before 'finish'
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                writer.put(StreamingZipWriter.deflate("org/jd/A.java", "class A { int i; }".getBytes(StandardCharsets.UTF_8)));
+                export.put("org/jd/A.java", new IncrementalExport.Record("1A", Collections.emptyList()));
+            }
+        }
+
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.previous")));
+        Assert.assertFalse(Files.exists(dir.resolve("test.src.zip.journal")));
+
+        // The last good export is back
+        try (StreamingZipReader reader = new StreamingZipReader(path)) {
+            Assert.assertEquals("class A {}", new String(reader.read("org/jd/A.java"), StandardCharsets.UTF_8));
+        }
+
+        // The next export reuses the failed one
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            Assert.assertEquals("1A", export.getPreviousRecord("org/jd/A.java").getDigest());
+            Assert.assertEquals("class A { int i; }", new String(export.readPrevious("org/jd/A.java"), StandardCharsets.UTF_8));
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                export.finish();
+            }
+        }
+
+        // Finished: no file is left aside
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            Assert.assertEquals(Collections.singletonList(path), toList(stream));
+        }
+
+        Files.delete(path);
+        Files.delete(dir);
+    }
+
+    protected static List<Path> toList(DirectoryStream<Path> stream) {
+        ArrayList<Path> list = new ArrayList<>();
+        stream.forEach(list::add);
+        return list;
+    }
+
+    public void testExtractPrevious() throws Exception {
+        Path dir = Files.createTempDirectory("jd-gui.");
+        Path path = dir.resolve("test.src.war");
+        Path nested = Files.createTempFile(dir, "nested.", ".zip");
+        Path extracted = dir.resolve("extracted.zip");
+        Map<String, String> preferences = new HashMap<>();
+
+        Files.write(nested, "nested archive".getBytes(StandardCharsets.UTF_8));
+
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            try (StreamingZipWriter writer = new StreamingZipWriter(Files.newOutputStream(path))) {
+                export.begin(writer);
+                writer.putStored("WEB-INF/lib/test.src.jar", nested);
+                export.finish();
+            }
+        }
+
+        try (IncrementalExport export = new IncrementalExport(preferences)) {
+            export.open(path);
+
+            Assert.assertTrue(export.extractPrevious("WEB-INF/lib/test.src.jar", extracted));
+            Assert.assertEquals("nested archive", new String(Files.readAllBytes(extracted), StandardCharsets.UTF_8));
+            Assert.assertFalse(export.extractPrevious("WEB-INF/lib/other.src.jar", extracted));
+        }
+
+        Files.delete(extracted);
+        Files.delete(nested);
+        Files.delete(path);
+        Files.delete(dir);
+    }
+
+    public void testRemoveMetadata() {
+        String separator = System.lineSeparator();
+        String source = "class Test {}" + separator;
+        String metadata = separator + separator + "/* Location:              /tmp/test.jar" + separator + " */";
+
+        Assert.assertEquals(source, new String(ClassFileSourceSaverProvider.removeMetadata((source + metadata).getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        Assert.assertEquals(source, new String(ClassFileSourceSaverProvider.removeMetadata(source.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package org.jd.gui.util.collection;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SymbolKeyMapTest extends TestCase {
+
+    public void testKeys() {
+        SymbolKeyMap<Integer> map = new SymbolKeyMap<>('-');
+
+        map.put("test/Test", 1);
+        map.put("test/Test-attributeInt-I", 2);
+        map.put("test/Test", "<init>", "()V", 3);
+        map.put("module-info", 4);
+        map.put("test/Test", "name-with-dash", "I", 5);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(Integer.valueOf(1), map.get("test/Test"));
+        Assert.assertEquals(Integer.valueOf(2), map.get("test/Test", "attributeInt", "I"));
+        Assert.assertEquals(Integer.valueOf(3), map.get("test/Test-<init>-()V"));
+        Assert.assertEquals(Integer.valueOf(4), map.get("module-info"));
+        Assert.assertEquals(Integer.valueOf(5), map.get("test/Test-name-with-dash-I"));
+        Assert.assertNull(map.get("test/Test-attributeInt-J"));
+        Assert.assertNull(map.get("test/Test", "unknown", "I"));
+
+        Assert.assertEquals(Integer.valueOf(1), map.put("test/Test", null, null, 6));
+        Assert.assertEquals(5, map.size());
+
+        Map<String, Integer> copy = new HashMap<>(map);
+
+        Assert.assertEquals(Integer.valueOf(6), copy.get("test/Test"));
+        Assert.assertEquals(Integer.valueOf(2), copy.get("test/Test-attributeInt-I"));
+        Assert.assertEquals(Integer.valueOf(3), copy.get("test/Test-<init>-()V"));
+        Assert.assertEquals(Integer.valueOf(4), copy.get("module-info"));
+        Assert.assertEquals(Integer.valueOf(5), copy.get("test/Test-name-with-dash-I"));
+    }
+
+    public void testGrowth() {
+        SymbolKeyMap<Integer> map = new SymbolKeyMap<>('#');
+
+        for (int i=0; i<10000; i++) {
+            map.put("Type" + (i % 100), "field" + i, "I", i);
+        }
+
+        Assert.assertEquals(10000, map.size());
+
+        for (int i=0; i<10000; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get("Type" + (i % 100) + "#field" + i + "#I"));
+        }
+    }
+}
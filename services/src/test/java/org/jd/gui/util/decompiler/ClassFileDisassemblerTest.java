@@ -0,0 +1,68 @@
+package org.jd.gui.util.decompiler;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+
+public class ClassFileDisassemblerTest extends TestCase {
+
+    protected static byte[] newClass(int methodCount) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "test/Many", null, "java/lang/Object", null);
+
+        for (int i=0; i<methodCount; i++) {
+            MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "m" + i, "()V", null, null);
+            mv.visitCode();
+            mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+            mv.visitLdcInsn("call " + i);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V", false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    public void testSkeletonThenCode() {
+        ClassFileDisassembler disassembler = new ClassFileDisassembler(newClass(5000));
+        ArrayList<String> placeholders = new ArrayList<>();
+        ArrayList<String> references = new ArrayList<>();
+
+        disassembler.printClass(new ClassFileDisassembler.Output() {
+            @Override
+            public void printCodePlaceholder(String name, String descriptor) {
+                placeholders.add(name + descriptor);
+                super.printCodePlaceholder(name, descriptor);
+            }
+        }, false);
+
+        // The code is not read
+        Assert.assertEquals(5000, placeholders.size());
+        Assert.assertEquals("m4999()V", placeholders.get(4999));
+
+        ClassFileDisassembler.Output output = new ClassFileDisassembler.Output() {
+            @Override
+            public void printReference(String internalTypeName, String name, String descriptor, String ownerInternalName, String text) {
+                references.add(internalTypeName + '-' + name + '-' + descriptor);
+                super.printReference(internalTypeName, name, descriptor, ownerInternalName, text);
+            }
+        };
+
+        disassembler.printCode(output, "m42", "()V");
+
+        String code = output.getStringBuilder().toString();
+        Assert.assertTrue(code.contains("GETSTATIC java/lang/System.out : Ljava/io/PrintStream;\n"));
+        Assert.assertTrue(code.contains("LDC \"call 42\"\n"));
+        Assert.assertTrue(code.contains("INVOKEVIRTUAL java/io/PrintStream.println (Ljava/lang/String;)V\n"));
+        Assert.assertFalse(code.contains("call 43"));
+        Assert.assertTrue(references.contains("java/io/PrintStream-println-(Ljava/lang/String;)V"));
+        Assert.assertTrue(references.contains("java/lang/System-null-null"));
+    }
+}
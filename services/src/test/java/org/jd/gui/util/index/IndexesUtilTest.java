@@ -0,0 +1,60 @@
+package org.jd.gui.util.index;
+
+import junit.framework.TestCase;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+import org.junit.Assert;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class IndexesUtilTest extends TestCase {
+
+    protected static Container.Entry newEntry(String path) {
+        return new Container.Entry() {
+            @Override public Container getContainer() { return null; }
+            @Override public Container.Entry getParent() { return null; }
+            @Override public URI getUri() { return URI.create("file:/test/" + path); }
+            @Override public String getPath() { return path; }
+            @Override public boolean isDirectory() { return false; }
+            @Override public long length() { return 0; }
+            @Override public InputStream getInputStream() { return null; }
+            @Override public Collection<Container.Entry> getChildren() { return Collections.emptyList(); }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static Future<Indexes> newIndexes(Container.Entry... entries) {
+        HashMap<String, Collection> typeDeclarations = new HashMap<>();
+
+        for (Container.Entry entry : entries) {
+            String path = entry.getPath();
+            typeDeclarations.computeIfAbsent(path.substring(0, path.length() - 6), k -> new ArrayList<>()).add(entry);
+        }
+
+        return CompletableFuture.completedFuture(name -> "typeDeclarations".equals(name) ? typeDeclarations : null);
+    }
+
+    public void testFindInternalTypeNames() {
+        Container.Entry a1 = newEntry("org/test/A.class");
+        Container.Entry a2 = newEntry("org/test/A.class");
+        Container.Entry b = newEntry("org/test/B.class");
+        List<Future<Indexes>> collectionOfFutureIndexes = Arrays.asList(newIndexes(a1, b), newIndexes(a2), new CompletableFuture<>());
+
+        Map<String, List<Container.Entry>> entries = IndexesUtil.findInternalTypeNames(
+                collectionOfFutureIndexes, Arrays.asList("org/test/A", "org/test/B", "org/test/C"));
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals(Arrays.asList(a1, a2), entries.get("org/test/A"));
+        Assert.assertEquals(Collections.singletonList(b), entries.get("org/test/B"));
+        Assert.assertFalse(entries.containsKey("org/test/C"));
+
+        // Same results as the unbatched search
+        for (String internalTypeName : entries.keySet()) {
+            Assert.assertEquals(IndexesUtil.findInternalTypeName(collectionOfFutureIndexes, internalTypeName), entries.get(internalTypeName));
+        }
+    }
+}
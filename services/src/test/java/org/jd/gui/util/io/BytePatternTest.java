@@ -0,0 +1,42 @@
+package org.jd.gui.util.io;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class BytePatternTest extends TestCase {
+
+    public void testParse() {
+        Assert.assertNull(BytePattern.parse("", true));
+        Assert.assertArrayEquals(new byte[] { (byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE }, BytePattern.parse("CA FE ba be", true).bytes);
+        Assert.assertArrayEquals(new byte[] { (byte)0xCA, (byte)0xFE }, BytePattern.parse("0xCAFE", true).bytes);
+        Assert.assertArrayEquals("cafe".getBytes(StandardCharsets.UTF_8), BytePattern.parse("cafe", true).bytes);
+        Assert.assertArrayEquals("main".getBytes(StandardCharsets.UTF_8), BytePattern.parse("MaIn", false).bytes);
+    }
+
+    public void testSearchAcrossChunks() throws Exception {
+        byte[] bytes = new byte[3 * BytePattern.CHUNK_SIZE];
+        int first = BytePattern.CHUNK_SIZE - 2;
+        int second = 2 * BytePattern.CHUNK_SIZE + 10;
+
+        System.arraycopy(new byte[] { (byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE }, 0, bytes, first, 4);
+        System.arraycopy("Hello".getBytes(StandardCharsets.UTF_8), 0, bytes, second, 5);
+
+        BytePattern magic = BytePattern.parse("CA FE BA BE", true);
+        BytePattern hello = BytePattern.parse("hello", false);
+
+        try (ByteSource source = new BlockDeflatedByteSource(new ByteArrayInputStream(bytes))) {
+            // The source is loaded by the search
+            Assert.assertEquals(first, magic.indexIn(source, 0, () -> false));
+            Assert.assertEquals(-1, magic.indexIn(source, first + 1, () -> false));
+            Assert.assertEquals(second, hello.indexIn(source, 0, () -> false));
+            Assert.assertEquals(-1, BytePattern.parse("hello", true).indexIn(source, 0, () -> false));
+
+            Assert.assertEquals(first, magic.lastIndexIn(source, bytes.length, () -> false));
+            Assert.assertEquals(-1, magic.lastIndexIn(source, first, () -> false));
+            Assert.assertEquals(second, hello.lastIndexIn(source, bytes.length, () -> false));
+        }
+    }
+}
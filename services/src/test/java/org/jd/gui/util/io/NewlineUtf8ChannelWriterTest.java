@@ -0,0 +1,40 @@
+package org.jd.gui.util.io;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+public class NewlineUtf8ChannelWriterTest extends TestCase {
+    protected String lineSeparator = System.getProperty("line.separator");
+
+    protected byte[] write(int capacity, String... strings) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        NewlineUtf8ChannelWriter writer = new NewlineUtf8ChannelWriter(capacity);
+
+        writer.setChannel(Channels.newChannel(os));
+        for (String s : strings) {
+            writer.write(s);
+        }
+        writer.flush();
+
+        return os.toByteArray();
+    }
+
+    public void testEncoding() throws Exception {
+        String text = "class A {\n  String s = \"é中😀\";\n}\n";
+
+        Assert.assertArrayEquals(text.replace("\n", lineSeparator).getBytes(StandardCharsets.UTF_8), write(64 * 1024, text));
+        // Small buffer: flushed many times
+        Assert.assertArrayEquals(text.replace("\n", lineSeparator).getBytes(StandardCharsets.UTF_8), write(8, text));
+        // Surrogate pair split between two writes
+        Assert.assertArrayEquals("😀".getBytes(StandardCharsets.UTF_8), write(16, "\ud83d", "\ude00"));
+    }
+
+    public void testUnpairedSurrogates() throws Exception {
+        Assert.assertArrayEquals("?a?".getBytes(StandardCharsets.UTF_8), write(16, "\ud83da\ude00"));
+        Assert.assertArrayEquals("a?".getBytes(StandardCharsets.UTF_8), write(16, "a\ud83d"));
+    }
+}
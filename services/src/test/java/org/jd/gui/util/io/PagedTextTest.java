@@ -0,0 +1,109 @@
+package org.jd.gui.util.io;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class PagedTextTest extends TestCase {
+
+    public void testReadLines() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i=0; i<1000; i++) {
+            sb.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        sb.append("last");
+
+        PagedText text = new PagedText(new ByteArrayByteSource(sb.toString().getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+
+        // Index by small chunks
+        while (!text.index(100));
+
+        Assert.assertEquals(1001, text.getLineCount());
+        Assert.assertEquals("line 0\nline 1", text.readLines(0, 2));
+        Assert.assertEquals("line 129\nline 130\nline 131", text.readLines(129, 3));
+        Assert.assertEquals("line 999\nlast", text.readLines(999, 5));
+    }
+
+    public void testGrowingFile() throws Exception {
+        File tmpFile = File.createTempFile("jd-gui.", ".log");
+        tmpFile.deleteOnExit();
+        Files.write(tmpFile.toPath(), "a\nb\n".getBytes(StandardCharsets.UTF_8));
+
+        try (PagedText text = new PagedText(new MappedFileByteSource(tmpFile.toPath()), StandardCharsets.UTF_8)) {
+            Assert.assertTrue(text.index(1024));
+            Assert.assertEquals(3, text.getLineCount());
+
+            try (FileOutputStream fos = new FileOutputStream(tmpFile, true)) {
+                fos.write("c\nd".getBytes(StandardCharsets.UTF_8));
+            }
+
+            Assert.assertTrue(text.index(1024));
+            Assert.assertEquals(4, text.getLineCount());
+            Assert.assertEquals("b\nc\nd", text.readLines(1, 3));
+
+            // Truncated file
+            Files.write(tmpFile.toPath(), "x".getBytes(StandardCharsets.UTF_8));
+            Assert.assertTrue(text.index(1024));
+            Assert.assertEquals(1, text.getLineCount());
+            Assert.assertEquals("x", text.readLines(0, 1));
+        }
+    }
+
+    public void testReadTruncatedMappedFile() throws Exception {
+        File tmpFile = File.createTempFile("jd-gui.", ".log");
+        tmpFile.deleteOnExit();
+        Files.write(tmpFile.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        try (MappedFileByteSource source = new MappedFileByteSource(tmpFile.toPath())) {
+            byte[] buffer = new byte[16];
+
+            Assert.assertEquals(10, source.read(0, buffer, 0, buffer.length));
+
+            // Truncated, without calling 'size': the segment mapped before must not be read
+            Files.write(tmpFile.toPath(), "ab".getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals(-1, source.read(5, buffer, 0, buffer.length));
+            Assert.assertEquals(2, source.read(0, buffer, 0, buffer.length));
+            Assert.assertEquals("ab", new String(buffer, 0, 2, StandardCharsets.UTF_8));
+        }
+    }
+
+    public void testBlockDeflatedText() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i=0; i<1000000; i++) {
+            sb.append("INSERT INTO t VALUES (").append(i).append(");\n");
+        }
+
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(bytes.length > 2 * BlockDeflatedByteSource.BLOCK_SIZE);
+
+        try (PagedText text = new PagedText(new BlockDeflatedByteSource(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8)) {
+            int chunks = 0;
+            while (!text.index(1024 * 1024)) {
+                chunks++;
+            }
+
+            Assert.assertTrue(chunks > 2);
+            Assert.assertEquals(1000001, text.getLineCount());
+            // Read the end, then the start, then a line crossing the first block boundary
+            Assert.assertEquals("INSERT INTO t VALUES (999999);\n", text.readLines(999999, 2));
+            Assert.assertEquals("INSERT INTO t VALUES (0);", text.readLines(0, 1));
+
+            int line = sb.lastIndexOf("\n", BlockDeflatedByteSource.BLOCK_SIZE);
+            int lineIndex = 0;
+            for (int i=0; i<line; i++) {
+                if (bytes[i] == '\n') lineIndex++;
+            }
+            Assert.assertEquals("INSERT INTO t VALUES (" + (lineIndex + 1) + ");", text.readLines(lineIndex + 1, 1));
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            text.writeTo(output);
+            Assert.assertArrayEquals(bytes, output.toByteArray());
+        }
+    }
+}
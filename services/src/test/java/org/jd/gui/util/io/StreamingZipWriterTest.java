@@ -0,0 +1,93 @@
+package org.jd.gui.util.io;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class StreamingZipWriterTest extends TestCase {
+
+    public void testEntries() throws Exception {
+        StringBuilder source = new StringBuilder();
+        for (int i=0; i<1000; i++) {
+            source.append("public class Test").append(i).append(" {}\n");
+        }
+
+        byte[] compressible = source.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] small = "é".getBytes(StandardCharsets.UTF_8);
+        File tmpFile = File.createTempFile("jd-gui.", ".test");
+        tmpFile.deleteOnExit();
+        Files.write(tmpFile.toPath(), small);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (StreamingZipWriter writer = new StreamingZipWriter(output)) {
+            writer.putDirectory("org");
+            Assert.assertTrue(writer.put(StreamingZipWriter.deflate("org/jd/Test.java", compressible)));
+            Assert.assertFalse(writer.put(StreamingZipWriter.deflate("org/jd/Test.java", small)));
+            Assert.assertTrue(writer.put(StreamingZipWriter.deflate("org/jd/Empty.java", new byte[0])));
+            Assert.assertTrue(writer.putStored("org/jd/Storedé.txt", tmpFile.toPath()));
+        }
+
+        byte[] archive = output.toByteArray();
+        Assert.assertTrue(archive.length < compressible.length);
+
+        // Read local headers
+        List<String> names = new ArrayList<>();
+
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry zipEntry;
+
+            while ((zipEntry = zis.getNextEntry()) != null) {
+                names.add(zipEntry.getName());
+
+                if (zipEntry.getName().equals("org/jd/Test.java")) {
+                    Assert.assertArrayEquals(compressible, readAll(zis));
+                }
+            }
+        }
+
+        Assert.assertEquals(5, names.size());
+        Assert.assertEquals("org/", names.get(0));
+        Assert.assertEquals("org/jd/", names.get(1));
+        Assert.assertEquals("org/jd/Test.java", names.get(2));
+
+        // Read central directory
+        File zipFile = File.createTempFile("jd-gui.", ".zip");
+        zipFile.deleteOnExit();
+        Files.write(zipFile.toPath(), archive);
+
+        try (ZipFile zf = new ZipFile(zipFile)) {
+            Assert.assertEquals(names, Collections.list(zf.entries()).stream().map(ZipEntry::getName).collect(Collectors.toList()));
+
+            try (InputStream is = zf.getInputStream(zf.getEntry("org/jd/Storedé.txt"))) {
+                Assert.assertArrayEquals(small, readAll(is));
+            }
+            Assert.assertEquals(0, zf.getEntry("org/jd/Empty.java").getSize());
+        }
+    }
+
+    protected static byte[] readAll(InputStream is) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int len;
+
+        while ((len = is.read(buffer)) != -1) {
+            os.write(buffer, 0, len);
+        }
+
+        return os.toByteArray();
+    }
+}
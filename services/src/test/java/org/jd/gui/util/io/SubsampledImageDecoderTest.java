@@ -0,0 +1,76 @@
+package org.jd.gui.util.io;
+
+import junit.framework.TestCase;
+import org.jd.gui.api.model.Container;
+import org.junit.Assert;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+
+public class SubsampledImageDecoderTest extends TestCase {
+
+    protected static Container.Entry newEntry(String name, int width, int height, int[] readCount) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", os);
+        byte[] bytes = os.toByteArray();
+
+        return new Container.Entry() {
+            @Override public Container getContainer() { return null; }
+            @Override public Container.Entry getParent() { return null; }
+            @Override public URI getUri() { return URI.create("file:/test/" + name); }
+            @Override public String getPath() { return name; }
+            @Override public boolean isDirectory() { return false; }
+            @Override public long length() { return bytes.length; }
+            @Override public InputStream getInputStream() { readCount[0]++; return new ByteArrayInputStream(bytes); }
+            @Override public Collection<Container.Entry> getChildren() { return Collections.emptyList(); }
+        };
+    }
+
+    public void testSubsampling() {
+        Assert.assertEquals(1, SubsampledImageDecoder.getSubsampling(1000, 500, 0, 0));
+        Assert.assertEquals(1, SubsampledImageDecoder.getSubsampling(100, 50, 800, 600));
+        Assert.assertEquals(5, SubsampledImageDecoder.getSubsampling(4000, 1000, 800, 600));
+        Assert.assertEquals(3, SubsampledImageDecoder.getSubsampling(1000, 2000, 800, 600));
+    }
+
+    public void testDecode() throws Exception {
+        int[] readCount = new int[1];
+        Container.Entry entry = newEntry("large.png", 2000, 1000, readCount);
+        SubsampledImageDecoder decoder = new SubsampledImageDecoder(64 * 1024 * 1024);
+
+        SubsampledImageDecoder.Image image = decoder.decode(entry, 500, 500);
+
+        Assert.assertEquals(2000, image.getWidth());
+        Assert.assertEquals(1000, image.getHeight());
+        Assert.assertEquals(4, image.getSubsampling());
+        Assert.assertEquals(500, image.getImage().getWidth());
+        Assert.assertEquals(250, image.getImage().getHeight());
+
+        // Cached
+        Assert.assertSame(image, decoder.decode(entry, 480, 400));
+        Assert.assertEquals(1, readCount[0]);
+
+        // Full resolution
+        Assert.assertEquals(2000, decoder.decode(entry, 0, 0).getImage().getWidth());
+        Assert.assertEquals(2, readCount[0]);
+    }
+
+    public void testEviction() throws Exception {
+        int[] readCount = new int[1];
+        SubsampledImageDecoder decoder = new SubsampledImageDecoder(3 * 100 * 100 * 4);
+
+        for (int i=0; i<5; i++) {
+            decoder.decode(newEntry(i + ".png", 100, 100, readCount), 0, 0);
+        }
+
+        Assert.assertTrue(decoder.getWeight() <= 3 * 100 * 100 * 4);
+        Assert.assertTrue(decoder.getWeight() > 0);
+    }
+}
@@ -0,0 +1,38 @@
+package org.jd.gui.util.matcher;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import javax.swing.text.Segment;
+
+public class TextMatcherTest extends TestCase {
+    public void testIndexOf() {
+        String text = "int count = Count.of(counter);";
+
+        Assert.assertEquals(4, new TextMatcher("count", true).indexOf(text, 0, text.length()));
+        Assert.assertEquals(21, new TextMatcher("count", true).indexOf(text, 5, text.length()));
+        Assert.assertEquals(-1, new TextMatcher("count", true).indexOf(text, 5, 21));
+        Assert.assertEquals(12, new TextMatcher("count", false).indexOf(text, 5, text.length()));
+        Assert.assertEquals(12, new TextMatcher("COUNT", false).indexOf(text, 5, text.length()));
+        Assert.assertEquals(-1, new TextMatcher("counters", false).indexOf(text, 0, text.length()));
+    }
+
+    public void testLastIndexOf() {
+        String text = "int count = Count.of(counter);";
+
+        Assert.assertEquals(21, new TextMatcher("count", true).lastIndexOf(text, 0, text.length()));
+        Assert.assertEquals(4, new TextMatcher("count", true).lastIndexOf(text, 0, 21));
+        Assert.assertEquals(12, new TextMatcher("count", false).lastIndexOf(text, 0, 21));
+        Assert.assertEquals(-1, new TextMatcher("count", false).lastIndexOf(text, 0, 4));
+    }
+
+    public void testSegment() {
+        char[] array = "xxAbcAbcxx".toCharArray();
+        Segment segment = new Segment(array, 2, 6);
+        TextMatcher matcher = new TextMatcher("abc", false);
+
+        Assert.assertEquals(0, matcher.indexOf(segment, 0, segment.length()));
+        Assert.assertEquals(3, matcher.indexOf(segment, 1, segment.length()));
+        Assert.assertEquals(-1, matcher.indexOf(segment, 4, segment.length()));
+    }
+}
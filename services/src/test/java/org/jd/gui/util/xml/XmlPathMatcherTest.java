@@ -0,0 +1,60 @@
+package org.jd.gui.util.xml;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class XmlPathMatcherTest extends TestCase {
+    protected static final String TEXT =
+        "<?xml version=\"1.0\"?>\n" +
+        "<!-- servlets -->\n" +
+        "<web-app version=\"3.0\">\n" +
+        "  <servlet>\n" +
+        "    <servlet-name>a</servlet-name>\n" +
+        "    <servlet-class >org.test.A</servlet-class>\n" +
+        "  </servlet>\n" +
+        "  <filter><servlet-class>org.test.NotMatched</servlet-class></filter>\n" +
+        "  <servlet><servlet-class>org.test.B</servlet-class></servlet>\n" +
+        "  <listener><listener-class/></listener>\n" +
+        "</web-app>\n";
+
+    protected static final XmlPathMatcher MATCHER = new XmlPathMatcher(Arrays.asList(
+        "web-app/servlet/servlet-class",
+        "web-app/listener/listener-class"));
+
+    public void testMatchText() {
+        ArrayList<String> matches = new ArrayList<>();
+
+        MATCHER.match(TEXT, (path, text, position) -> {
+            Assert.assertEquals("web-app/servlet/servlet-class", path);
+            // Exact offset of the text
+            Assert.assertEquals(text, TEXT.substring(position, position + text.length()));
+            matches.add(text);
+        });
+
+        Assert.assertEquals(Arrays.asList("org.test.A", "org.test.B"), matches);
+    }
+
+    public void testMatchInputStream() {
+        ArrayList<String> matches = new ArrayList<>();
+
+        MATCHER.match(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)), (path, text, position) -> matches.add(text));
+
+        Assert.assertEquals(Arrays.asList("org.test.A", "org.test.B"), matches);
+    }
+
+    public void testFinder() {
+        ArrayList<Integer> positions = new ArrayList<>();
+
+        new AbstractXmlPathFinder(MATCHER) {
+            @Override
+            public void handle(String path, String text, int position) { positions.add(position); }
+        }.find(TEXT);
+
+        Assert.assertEquals(Arrays.asList(TEXT.indexOf("org.test.A"), TEXT.indexOf("org.test.B")), positions);
+    }
+}
@@ -105,17 +105,17 @@ public class ClassFilePageTest extends TestCase {
 
         parameters.put("highlightScope", null);
         ranges.clear();
-        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks, strings, ranges);
+        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks.values(), strings, ranges);
         Assert.assertTrue(ranges.size() == 1);
 
         parameters.put("highlightScope", "");
         ranges.clear();
-        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks, strings, ranges);
+        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks.values(), strings, ranges);
         Assert.assertTrue(ranges.size() == 1);
 
         parameters.put("highlightScope", "Test");
         ranges.clear();
-        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks, strings, ranges);
+        ClassFilePage.matchQueryAndAddDocumentRange(parameters, declarations, hyperlinks.values(), strings, ranges);
         Assert.assertTrue(ranges.size() == 1);
     }
 
@@ -0,0 +1,85 @@
+package org.jd.gui.view.component;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class PageMemoryBudgetTest extends TestCase {
+
+    protected static class Page implements PageMemoryBudget.Evictable {
+        protected long weight;
+        protected boolean evicted;
+        protected boolean showing;
+
+        public Page(long weight) { this.weight = weight; }
+
+        @Override public long getContentWeight() { return evicted ? 0 : weight; }
+        @Override public void evictContent() { evicted = true; }
+        @Override public boolean isShowing() { return showing; }
+    }
+
+    protected static void show(PageMemoryBudget budget, Page[] pages, Page page) {
+        for (Page p : pages) {
+            p.showing = (p == page);
+        }
+        page.evicted = false;
+        budget.pageShown(page);
+    }
+
+    public void testLeastRecentlyShownFirst() {
+        PageMemoryBudget budget = new PageMemoryBudget(300);
+        Page[] pages = { new Page(100), new Page(100), new Page(100), new Page(100) };
+
+        show(budget, pages, pages[0]);
+        show(budget, pages, pages[1]);
+        show(budget, pages, pages[2]);
+        show(budget, pages, pages[0]);
+
+        Assert.assertFalse(pages[0].evicted);
+        Assert.assertFalse(pages[1].evicted);
+
+        // Over budget: the page shown least recently is evicted
+        show(budget, pages, pages[3]);
+
+        Assert.assertFalse(pages[0].evicted);
+        Assert.assertTrue(pages[1].evicted);
+        Assert.assertFalse(pages[2].evicted);
+        Assert.assertFalse(pages[3].evicted);
+
+        // Shown again: rebuilt, another page is evicted
+        show(budget, pages, pages[1]);
+
+        Assert.assertFalse(pages[1].evicted);
+        Assert.assertTrue(pages[2].evicted);
+    }
+
+    public void testShowingPageKept() {
+        PageMemoryBudget budget = new PageMemoryBudget(100);
+        Page[] pages = { new Page(500), new Page(50) };
+
+        show(budget, pages, pages[0]);
+        Assert.assertFalse(pages[0].evicted);
+
+        show(budget, pages, pages[1]);
+        Assert.assertTrue(pages[0].evicted);
+        Assert.assertFalse(pages[1].evicted);
+    }
+
+    public void testContentLoadedAfterShown() {
+        PageMemoryBudget budget = new PageMemoryBudget(300);
+        Page[] pages = { new Page(200), new Page(0) };
+
+        show(budget, pages, pages[0]);
+        // Shown empty, then loaded
+        show(budget, pages, pages[1]);
+        Assert.assertFalse(pages[0].evicted);
+
+        pages[1].weight = 200;
+        budget.contentLoaded(pages[1]);
+
+        Assert.assertTrue(pages[0].evicted);
+        Assert.assertFalse(pages[1].evicted);
+
+        // Unknown page: ignored
+        budget.contentLoaded(new Page(1000));
+    }
+}